@@ -15,6 +15,7 @@ import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.eclipse.che.api.builder.dto.BaseBuilderRequest;
 import org.eclipse.che.api.builder.dto.BuildOptions;
 import org.eclipse.che.api.builder.dto.BuildRequest;
+import org.eclipse.che.api.builder.dto.BuilderMetric;
 import org.eclipse.che.api.builder.dto.BuilderServerAccessCriteria;
 import org.eclipse.che.api.builder.dto.BuilderServerLocation;
 import org.eclipse.che.api.builder.dto.BuilderServerRegistration;
@@ -27,11 +28,13 @@ import org.eclipse.che.api.core.ForbiddenException;
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.UnauthorizedException;
+import org.eclipse.che.api.core.notification.AsyncDeliveryOptions;
 import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.core.notification.EventSubscriber;
 import org.eclipse.che.api.core.rest.HttpJsonHelper;
 import org.eclipse.che.api.core.rest.ServiceContext;
 import org.eclipse.che.api.core.rest.shared.dto.Link;
+import org.eclipse.che.api.core.util.FairShareBlockingQueue;
 import org.eclipse.che.api.project.server.ProjectService;
 import org.eclipse.che.api.project.shared.dto.BuilderConfiguration;
 import org.eclipse.che.api.project.shared.dto.BuildersDescriptor;
@@ -62,21 +65,24 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
-import java.util.LinkedHashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -97,13 +103,22 @@ public class BuildQueue {
     private static final Logger LOG = LoggerFactory.getLogger(BuildQueue.class);
 
     private static final long CHECK_AVAILABLE_BUILDER_DELAY = 2000;
+    /** Period (in seconds) of re-synchronization of capacity of slave-builders with their actual state. */
+    private static final long BUILDER_STATE_HEARTBEAT_PERIOD = 10;
+
+    private static final int DEFAULT_QUEUE_WORKERS_NUMBER          = 100;
+    private static final int DEFAULT_QUEUE_MAX_TASKS_PER_WORKSPACE = 10;
 
     private static final AtomicLong sequence = new AtomicLong(1);
 
     private final ConcurrentMap<String, RemoteBuilderServer> builderServices;
     private final BuilderSelectionStrategy                   builderSelector;
-    private final ConcurrentMap<Long, BuildQueueTask>        tasks;
+    // Switched to default for test.
+    // private
+    final         ConcurrentMap<Long, BuildQueueTask>        tasks;
     private final ConcurrentMap<BuilderListKey, BuilderList> builderListMapping;
+    /** Tasks which hold worker slot of slave-builder. Slot is released when slave-builder reports about end of the task. */
+    private final ConcurrentMap<Long, BuilderSlot>           dispatchedTasks;
     private final String                                     baseWorkspaceApiUrl;
     private final String                                     baseProjectApiUrl;
     private final int                                        maxExecutionTimeMillis;
@@ -114,7 +129,8 @@ public class BuildQueue {
     private final AtomicBoolean                              started;
     private final long                                       keepResultTimeMillis;
 
-    private ExecutorService          executor;
+    private ThreadPoolExecutor       executor;
+    private FairShareBlockingQueue   executorQueue;
     private ScheduledExecutorService scheduler;
 
     /** Optional pre-configured slave builders. */
@@ -122,6 +138,14 @@ public class BuildQueue {
     @Named(Constants.BUILDER_SLAVE_BUILDER_URLS)
     private String[] slaves = new String[0];
 
+    @com.google.inject.Inject(optional = true)
+    @Named(Constants.QUEUE_WORKERS_NUMBER)
+    private int queueWorkers = DEFAULT_QUEUE_WORKERS_NUMBER;
+
+    @com.google.inject.Inject(optional = true)
+    @Named(Constants.QUEUE_MAX_TASKS_PER_WORKSPACE)
+    private int maxTasksPerWorkspace = DEFAULT_QUEUE_MAX_TASKS_PER_WORKSPACE;
+
     /**
      * @param baseWorkspaceApiUrl
      *         workspace api url. Configuration parameter that points to the Workspace API location. If such parameter isn't specified than
@@ -159,6 +183,7 @@ public class BuildQueue {
 
         tasks = new ConcurrentHashMap<>();
         builderListMapping = new ConcurrentHashMap<>();
+        dispatchedTasks = new ConcurrentHashMap<>();
         successfulBuilds = new SynchronizedCache<>(new SLRUCache<BaseBuilderRequest, RemoteTask>(200, 400));
         builderServices = new ConcurrentHashMap<>();
         started = new AtomicBoolean(false);
@@ -190,6 +215,33 @@ public class BuildQueue {
         return count;
     }
 
+    /**
+     * Get stats of this queue.
+     *
+     * @return stats of this queue
+     */
+    public List<BuilderMetric> getStats() {
+        checkStarted();
+        final List<BuilderMetric> stats = new LinkedList<>();
+        final DtoFactory dtoFactory = DtoFactory.getInstance();
+        stats.add(dtoFactory.createDto(BuilderMetric.class).withName(BuilderMetric.NUMBER_OF_WORKERS)
+                            .withValue(Integer.toString(executor.getCorePoolSize()))
+                            .withDescription("Number of threads of queue"));
+        stats.add(dtoFactory.createDto(BuilderMetric.class).withName(BuilderMetric.NUMBER_OF_ACTIVE_WORKERS)
+                            .withValue(Integer.toString(executor.getActiveCount()))
+                            .withDescription("Number of busy threads of queue"));
+        stats.add(dtoFactory.createDto(BuilderMetric.class).withName(BuilderMetric.QUEUE_SIZE)
+                            .withValue(Integer.toString(executorQueue.size()))
+                            .withDescription("Number of tasks which are waiting for thread of queue"));
+        stats.add(dtoFactory.createDto(BuilderMetric.class).withName(BuilderMetric.NUMBER_OF_WAITING_TASKS)
+                            .withValue(Integer.toString(getWaitingNum()))
+                            .withDescription("Number of tasks which are not sent to slave-builders yet"));
+        stats.add(dtoFactory.createDto(BuilderMetric.class).withName(BuilderMetric.NUMBER_OF_TASKS)
+                            .withValue(Integer.toString(getTotalNum()))
+                            .withDescription("Total number of tasks"));
+        return stats;
+    }
+
     public List<RemoteBuilderServer> getRegisterBuilderServers() {
         return new ArrayList<>(builderServices.values());
     }
@@ -242,7 +294,10 @@ public class BuildQueue {
                 builderList = newBuilderList;
             }
         }
-        return builderList.addBuilders(builderServer.getRemoteBuilders());
+        final List<RemoteBuilder> remoteBuilders = builderServer.getRemoteBuilders();
+        final boolean modified = builderList.addBuilders(remoteBuilders);
+        builderList.updateCapacity(remoteBuilders);
+        return modified;
     }
 
     /**
@@ -331,10 +386,6 @@ public class BuildQueue {
                 callable = new Callable<RemoteTask>() {
                     @Override
                     public RemoteTask call() throws Exception {
-                        try {
-                            Thread.sleep(1000);
-                        } catch (InterruptedException ignored) {
-                        }
                         return successfulTask;
                     }
                 };
@@ -347,12 +398,20 @@ public class BuildQueue {
             callable = createTaskFor(request);
         }
         final Long id = sequence.getAndIncrement();
-        final InternalBuildTask future = new InternalBuildTask(ThreadLocalPropagateContext.wrap(callable), id, wsId, project, reuse);
+        final InternalBuildTask future = new InternalBuildTask(ThreadLocalPropagateContext.wrap(callable), id, workspace.getAccountId(),
+                                                               wsId, project);
         request.setId(id);
         final BuildQueueTask task = new BuildQueueTask(id, request, waitingTimeMillis, future, serviceContext.getServiceUriBuilder());
         tasks.put(id, task);
         eventService.publish(BuilderEvent.queueStartedEvent(id, wsId, project));
-        executor.execute(future);
+        if (reuse) {
+            // Result of previous build is reused, complete task right away instead of waiting for worker of queue. Emulate event from
+            // remote builder, in fact we didn't send request to remote builder.
+            future.run();
+            eventService.publish(BuilderEvent.doneEvent(id, wsId, project, true));
+        } else {
+            executor.execute(future);
+        }
         return task;
     }
 
@@ -360,7 +419,14 @@ public class BuildQueue {
         return new Callable<RemoteTask>() {
             @Override
             public RemoteTask call() throws BuilderException {
-                return getBuilder(request).perform(request);
+                final RemoteBuilder builder = getBuilder(request);
+                try {
+                    return builder.perform(request);
+                } catch (BuilderException | RuntimeException e) {
+                    // task isn't started on slave-builder, don't wait for event about its end
+                    releaseBuilder(request.getId());
+                    throw e;
+                }
             }
         };
     }
@@ -404,7 +470,8 @@ public class BuildQueue {
         request.setTimeout(getBuildTimeout(workspace));
         final Callable<RemoteTask> callable = createTaskFor(request);
         final Long id = sequence.getAndIncrement();
-        final InternalBuildTask future = new InternalBuildTask(ThreadLocalPropagateContext.wrap(callable), id, wsId, project, false);
+        final InternalBuildTask future = new InternalBuildTask(ThreadLocalPropagateContext.wrap(callable), id, workspace.getAccountId(),
+                                                               wsId, project, false);
         request.setId(id);
         final BuildQueueTask task = new BuildQueueTask(id, request, waitingTimeMillis, future, serviceContext.getServiceUriBuilder());
         tasks.put(id, task);
@@ -416,7 +483,14 @@ public class BuildQueue {
         return new Callable<RemoteTask>() {
             @Override
             public RemoteTask call() throws BuilderException {
-                return getBuilder(request).perform(request);
+                final RemoteBuilder builder = getBuilder(request);
+                try {
+                    return builder.perform(request);
+                } catch (BuilderException | RuntimeException e) {
+                    // task isn't started on slave-builder, don't wait for event about its end
+                    releaseBuilder(request.getId());
+                    throw e;
+                }
             }
         };
     }
@@ -535,10 +609,27 @@ public class BuildQueue {
         if (builder == null) {
             throw new BuilderException("There is no any builder available. ");
         }
+        dispatchedTasks.put(request.getId(), new BuilderSlot(builderList, builder));
         LOG.info("Use builder '{}' at '{}'", builder.getName(), builder.getBaseUrl());
         return builder;
     }
 
+    /**
+     * Releases worker slot of slave-builder that was reserved for task with specified id.
+     *
+     * @return {@code true} if slot was held by the task and {@code false} otherwise
+     */
+    // Switched to default for test.
+    // private
+    boolean releaseBuilder(Long taskId) {
+        final BuilderSlot slot = dispatchedTasks.remove(taskId);
+        if (slot == null) {
+            return false;
+        }
+        slot.builderList.release(slot.builder, taskId);
+        return true;
+    }
+
     private long getBuildTimeout(WorkspaceDescriptor workspace) throws BuilderException {
         final String timeoutAttr = workspace.getAttributes().get(Constants.BUILDER_EXECUTION_TIME);
         return timeoutAttr != null ? Integer.parseInt(timeoutAttr) : maxExecutionTimeMillis;
@@ -567,97 +658,124 @@ public class BuildQueue {
         return task;
     }
 
+    /** Removes tasks which are waiting for too long time, lost tasks and tasks which results are expired. */
+    // Switched to default for test.
+    // private
+    void removeExpiredTasks() {
+        int num = 0;
+        int waitingNum = 0;
+        for (Iterator<BuildQueueTask> i = tasks.values().iterator(); i.hasNext(); ) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            final BuildQueueTask task = i.next();
+            final boolean waiting = task.isWaiting();
+            final BaseBuilderRequest request = task.getRequest();
+            if (waiting) {
+                if ((task.getCreationTime() + waitingTimeMillis) < System.currentTimeMillis()) {
+                    try {
+                        task.cancel();
+                        eventService.publish(
+                                BuilderEvent.terminatedEvent(task.getId(), request.getWorkspace(), request.getProject()));
+                    } catch (Exception e) {
+                        LOG.warn(e.getMessage(), e);
+                    }
+                    i.remove();
+                    waitingNum++;
+                    num++;
+                }
+            } else {
+                RemoteTask remote = null;
+                try {
+                    remote = task.getRemoteTask();
+                } catch (Exception e) {
+                    LOG.warn(e.getMessage(), e);
+                }
+                if (remote == null) {
+                    i.remove();
+                    releaseBuilder(task.getId());
+                    successfulBuilds.remove(DtoFactory.getInstance().clone(request).withId(0L).withTimeout(0L));
+                    num++;
+                } else if ((remote.getCreationTime() + keepResultTimeMillis) < System.currentTimeMillis()) {
+                    try {
+                        remote.getBuildTaskDescriptor();
+                    } catch (NotFoundException e) {
+                        i.remove();
+                        releaseBuilder(task.getId());
+                        num++;
+                    } catch (Exception e) {
+                        LOG.warn(e.getMessage(), e);
+                        i.remove();
+                        releaseBuilder(task.getId());
+                        num++;
+                    }
+                }
+            }
+        }
+        if (num > 0) {
+            LOG.debug("Remove {} expired tasks, {} of them were waiting for processing", num, waitingNum);
+        }
+    }
+
+    /** Re-synchronizes capacity of all registered slave-builders with their actual state. */
+    // Switched to default for test.
+    // private
+    void updateCapacityOfBuilders() {
+        for (BuilderList builderList : builderListMapping.values()) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            builderList.updateCapacity(builderList.getBuilders());
+        }
+    }
+
     @PostConstruct
     public void start() {
         if (started.compareAndSet(false, true)) {
-            executor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(),
+            // Tasks don't get own thread but wait in queue for one of fixed number of threads. Queue shares threads between
+            // workspaces (and accounts) fairly and doesn't let single workspace take all of them.
+            executorQueue = new FairShareBlockingQueue(maxTasksPerWorkspace);
+            executor = new ThreadPoolExecutor(queueWorkers, queueWorkers, 60L, TimeUnit.SECONDS, executorQueue,
                                               new ThreadFactoryBuilder().setNameFormat("BuildQueue-").setDaemon(true).build()) {
                 @Override
                 protected void afterExecute(Runnable runnable, Throwable error) {
                     super.afterExecute(runnable, error);
-                    if (runnable instanceof InternalBuildTask) {
-                        final InternalBuildTask internalBuildTask = (InternalBuildTask)runnable;
-                        if (internalBuildTask.reused) {
-                            // Emulate event from remote builder. In fact we didn't send request to remote builder just reuse result from previous
-                            // build.
-                            eventService.publish(BuilderEvent.doneEvent(internalBuildTask.id,
-                                                                        internalBuildTask.workspace,
-                                                                        internalBuildTask.project,
-                                                                        true));
-                        }
-                    }
+                    executorQueue.release(runnable);
                 }
             };
+            // All tasks must go through the queue.
+            executor.prestartAllCoreThreads();
             scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("BuildQueueScheduler-")
                                                                                              .setDaemon(true).build());
             scheduler.scheduleAtFixedRate(new Runnable() {
                 @Override
                 public void run() {
-                    int num = 0;
-                    int waitingNum = 0;
-                    for (Iterator<BuildQueueTask> i = tasks.values().iterator(); i.hasNext(); ) {
-                        if (Thread.currentThread().isInterrupted()) {
-                            return;
-                        }
-                        final BuildQueueTask task = i.next();
-                        final boolean waiting = task.isWaiting();
-                        final BaseBuilderRequest request = task.getRequest();
-                        if (waiting) {
-                            if ((task.getCreationTime() + waitingTimeMillis) < System.currentTimeMillis()) {
-                                try {
-                                    task.cancel();
-                                    eventService.publish(
-                                            BuilderEvent.terminatedEvent(task.getId(), request.getWorkspace(), request.getProject()));
-                                } catch (Exception e) {
-                                    LOG.warn(e.getMessage(), e);
-                                }
-                                i.remove();
-                                waitingNum++;
-                                num++;
-                            }
-                        } else {
-                            RemoteTask remote = null;
-                            try {
-                                remote = task.getRemoteTask();
-                            } catch (Exception e) {
-                                LOG.warn(e.getMessage(), e);
-                            }
-                            if (remote == null) {
-                                i.remove();
-                                successfulBuilds.remove(DtoFactory.getInstance().clone(request).withId(0L).withTimeout(0L));
-                                num++;
-                            } else if ((remote.getCreationTime() + keepResultTimeMillis) < System.currentTimeMillis()) {
-                                try {
-                                    remote.getBuildTaskDescriptor();
-                                } catch (NotFoundException e) {
-                                    i.remove();
-                                    num++;
-                                } catch (Exception e) {
-                                    LOG.warn(e.getMessage(), e);
-                                    i.remove();
-                                    num++;
-                                }
-                            }
-                        }
-                    }
-                    if (num > 0) {
-                        LOG.debug("Remove {} expired tasks, {} of them were waiting for processing", num, waitingNum);
-                    }
+                    removeExpiredTasks();
                 }
             }, 1, 1, TimeUnit.MINUTES);
+            // Capacity of slave-builders is updated by events from slave-builders. Periodically re-synchronize it with actual state of
+            // slave-builders in case if some events are lost.
+            scheduler.scheduleAtFixedRate(new Runnable() {
+                @Override
+                public void run() {
+                    updateCapacityOfBuilders();
+                }
+            }, BUILDER_STATE_HEARTBEAT_PERIOD, BUILDER_STATE_HEARTBEAT_PERIOD, TimeUnit.SECONDS);
 
             eventService.subscribe(new EventSubscriber<BuilderEvent>() {
                 @Override
                 public void onEvent(BuilderEvent event) {
                     if (event.getType() == BuilderEvent.EventType.DONE && !event.isReused()) {
                         final long id = event.getTaskId();
+                        releaseBuilder(id);
                         try {
                             final BuildQueueTask task = getTask(id);
                             final BaseBuilderRequest request = task.getRequest();
                             if (task.getDescriptor().getStatus() == BuildStatus.SUCCESSFUL) {
-                                // Clone request and replace its id and timeout with 0.
-                                successfulBuilds
-                                        .put(DtoFactory.getInstance().clone(request).withId(0L).withTimeout(0L), task.getRemoteTask());
+                                // Clone request and replace its id and timeout with 0. Key of map must not be changed.
+                                final DtoFactory dtoFactory = DtoFactory.getInstance();
+                                successfulBuilds.put(dtoFactory.freeze(dtoFactory.clone(request).withId(0L).withTimeout(0L)),
+                                                     task.getRemoteTask());
                             }
                         } catch (NotFoundException ignored) {
                         } catch (Exception e) {
@@ -667,10 +785,11 @@ public class BuildQueue {
                 }
             });
 
-            eventService.subscribe(new BuildStatusMessenger());
+            // Sending of messages over websocket and logging for analytics must not slow down publishers of events, e.g. build logs.
+            eventService.subscribe(new BuildStatusMessenger(), newTaskEventsDeliveryOptions());
 
             //Log events for analytics
-            eventService.subscribe(new AnalyticsMessenger());
+            eventService.subscribe(new AnalyticsMessenger(), newTaskEventsDeliveryOptions());
 
             if (slaves.length > 0) {
                 executor.execute(new Runnable() {
@@ -758,6 +877,7 @@ public class BuildQueue {
                 executor.shutdownNow();
             }
             tasks.clear();
+            dispatchedTasks.clear();
             builderListMapping.clear();
             successfulBuilds.clear();
             if (interrupted) {
@@ -772,18 +892,28 @@ public class BuildQueue {
         return eventService;
     }
 
-    private static class InternalBuildTask extends FutureTask<RemoteTask> {
-        final Long    id;
-        final String  workspace;
-        final String  project;
-        final boolean reused;
+    private static class InternalBuildTask extends FutureTask<RemoteTask> implements FairShareBlockingQueue.Task {
+        final Long   id;
+        final String account;
+        final String workspace;
+        final String project;
 
-        InternalBuildTask(Callable<RemoteTask> callable, Long id, String workspace, String project, boolean reused) {
+        InternalBuildTask(Callable<RemoteTask> callable, Long id, String account, String workspace, String project) {
             super(callable);
             this.id = id;
+            this.account = account;
             this.workspace = workspace;
             this.project = project;
-            this.reused = reused;
+        }
+
+        @Override
+        public String getGroup() {
+            return account;
+        }
+
+        @Override
+        public String getKey() {
+            return workspace;
         }
     }
 
@@ -828,21 +958,56 @@ public class BuildQueue {
     }
 
 
+    /** Worker slot of slave-builder reserved for a task. */
+    private static class BuilderSlot {
+        final BuilderList   builderList;
+        final RemoteBuilder builder;
+
+        BuilderSlot(BuilderList builderList, RemoteBuilder builder) {
+            this.builderList = builderList;
+            this.builder = builder;
+        }
+    }
+
+    /**
+     * Capacity of single slave-builder as it is known to BuildQueue. Tasks which are sent to the slave-builder and aren't done yet are
+     * tracked by id, so report of slave-builder that doesn't see some of them yet or end of task that is already counted in report
+     * can't make number of free workers bigger than it is. Task that is missed in two reports of slave-builder in a row is considered
+     * as done, e.g. if event about end of task is lost.
+     */
+    private static class BuilderCapacity {
+        final Set<Long> inFlight        = new HashSet<>();
+        /** Tasks in flight which are missed in the last report of slave-builder. */
+        final Set<Long> unconfirmed     = new HashSet<>();
+        int             numberOfWorkers = Integer.MAX_VALUE;
+        /** Number of free workers from the last report of slave-builder adjusted by tasks which are sent or done after it. */
+        int             reportedFreeWorkers;
+
+        int freeWorkers() {
+            return Math.min(numberOfWorkers - inFlight.size(), reportedFreeWorkers);
+        }
+    }
+
+    /**
+     * Keeps capacity table of slave-builders. Task occupies worker of slave-builder from the moment it is sent to it until slave-builder
+     * reports about end of the task. Actual state of slave-builders is requested only when slave-builder is registered and periodically
+     * for re-synchronization, but never while task is waiting for free slave-builder.
+     */
     private static class BuilderList {
-        final Collection<RemoteBuilder> builders;
-        final BuilderSelectionStrategy  builderSelector;
+        final Map<RemoteBuilder, BuilderCapacity> builders;
+        final BuilderSelectionStrategy            builderSelector;
 
         BuilderList(BuilderSelectionStrategy builderSelector) {
             this.builderSelector = builderSelector;
-            builders = new LinkedHashSet<>();
+            builders = new LinkedHashMap<>();
         }
 
         synchronized List<RemoteBuilder> getBuilders() {
-            return new ArrayList<>(builders);
+            return new ArrayList<>(builders.keySet());
         }
 
         synchronized boolean hasBuilder(String name) {
-            for (RemoteBuilder builder : builders) {
+            for (RemoteBuilder builder : builders.keySet()) {
                 if (name.equals(builder.getName())) {
                     return true;
                 }
@@ -851,67 +1016,156 @@ public class BuildQueue {
         }
 
         synchronized boolean addBuilders(Collection<? extends RemoteBuilder> list) {
-            return builders.addAll(list);
+            boolean modified = false;
+            for (RemoteBuilder builder : list) {
+                if (!builders.containsKey(builder)) {
+                    // capacity is unknown until first update
+                    builders.put(builder, new BuilderCapacity());
+                    modified = true;
+                }
+            }
+            return modified;
         }
 
         synchronized boolean removeBuilders(Collection<? extends RemoteBuilder> list) {
-            return builders.removeAll(list);
+            return builders.keySet().removeAll(list);
         }
 
         synchronized boolean removeBuilder(RemoteBuilder builder) {
-            return builders.remove(builder);
+            return builders.remove(builder) != null;
         }
 
         synchronized int size() {
             return builders.size();
         }
 
-        synchronized RemoteBuilder getBuilder(BaseBuilderRequest request) {
-            final List<RemoteBuilder> matched = new ArrayList<>();
-            for (RemoteBuilder builder : builders) {
-                if (request.getBuilder().equals(builder.getName())) {
-                    matched.add(builder);
+        /**
+         * Requests actual state of specified slave-builders and updates their capacity. Requests are sent to all slave-builders at once,
+         * so one slow slave-builder doesn't delay update of others. Must not be called while holding lock.
+         */
+        void updateCapacity(Collection<? extends RemoteBuilder> list) {
+            final Map<RemoteBuilder, Future<BuilderState>> states = new LinkedHashMap<>();
+            for (RemoteBuilder builder : list) {
+                states.put(builder, builder.getBuilderStateAsync());
+            }
+            for (Map.Entry<RemoteBuilder, Future<BuilderState>> e : states.entrySet()) {
+                BuilderState builderState = null;
+                try {
+                    builderState = e.getValue().get(15, TimeUnit.SECONDS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException ee) {
+                    final Throwable cause = ee.getCause();
+                    LOG.error(cause.getMessage(), cause);
+                } catch (TimeoutException te) {
+                    e.getValue().cancel(true);
+                    LOG.error("Unable get state of builder {}, timeout reached", e.getKey().getName());
                 }
+                updateCapacity(e.getKey(), builderState);
+            }
+        }
+
+        private synchronized void updateCapacity(RemoteBuilder builder, BuilderState builderState) {
+            final BuilderCapacity capacity = builders.get(builder);
+            if (capacity == null) {
+                return;
             }
-            final int size = matched.size();
-            if (size == 0) {
-                return null;
+            if (builderState == null) {
+                // don't send anything to the slave-builder that doesn't respond
+                capacity.reportedFreeWorkers = 0;
+                return;
             }
-            final List<RemoteBuilder> available = new ArrayList<>(matched.size());
-            for (; ; ) {
-                for (RemoteBuilder builder : matched) {
-                    if (Thread.currentThread().isInterrupted()) {
-                        return null; // stop immediately
+            capacity.reportedFreeWorkers = builderState.getFreeWorkers();
+            final List<Long> activeTasks = builderState.getActiveTasks();
+            if (activeTasks != null) {
+                capacity.unconfirmed.retainAll(capacity.inFlight);
+                for (Iterator<Long> i = capacity.inFlight.iterator(); i.hasNext(); ) {
+                    final Long taskId = i.next();
+                    if (activeTasks.contains(taskId)) {
+                        capacity.unconfirmed.remove(taskId);
+                    } else if (!capacity.unconfirmed.add(taskId)) {
+                        // Slave-builder doesn't have this task, but BuildQueue didn't get event about end of it.
+                        LOG.warn("Task {} isn't found on builder {}, release its worker", taskId, builder.getName());
+                        i.remove();
+                        capacity.unconfirmed.remove(taskId);
                     }
-                    BuilderState builderState;
-                    try {
-                        builderState = builder.getBuilderState();
-                    } catch (Exception e) {
-                        LOG.error(e.getMessage(), e);
-                        continue;
+                }
+            }
+            final List<BuilderMetric> stats = builderState.getStats();
+            if (stats != null) {
+                for (BuilderMetric metric : stats) {
+                    if (BuilderMetric.NUMBER_OF_WORKERS.equals(metric.getName())) {
+                        try {
+                            capacity.numberOfWorkers = Integer.parseInt(metric.getValue());
+                        } catch (NumberFormatException ignored) {
+                        }
+                        break;
                     }
-                    if (builderState.getFreeWorkers() > 0) {
-                        available.add(builder);
+                }
+            }
+            if (capacity.freeWorkers() > 0) {
+                notifyAll();
+            }
+        }
+
+        synchronized void release(RemoteBuilder builder, Long taskId) {
+            final BuilderCapacity capacity = builders.get(builder);
+            if (capacity != null && capacity.inFlight.remove(taskId)) {
+                if (capacity.reportedFreeWorkers < capacity.numberOfWorkers) {
+                    capacity.reportedFreeWorkers++;
+                }
+                notifyAll();
+            }
+        }
+
+        /** Gets slave-builder that has free worker and reserves worker for the request. Waits until such slave-builder is available. */
+        synchronized RemoteBuilder getBuilder(BaseBuilderRequest request) {
+            for (; ; ) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return null; // stop immediately
+                }
+                final List<RemoteBuilder> available = new ArrayList<>();
+                boolean matched = false;
+                for (Map.Entry<RemoteBuilder, BuilderCapacity> entry : builders.entrySet()) {
+                    if (request.getBuilder().equals(entry.getKey().getName())) {
+                        matched = true;
+                        if (entry.getValue().freeWorkers() > 0) {
+                            available.add(entry.getKey());
+                        }
                     }
                 }
+                if (!matched) {
+                    return null;
+                }
 
                 if (available.isEmpty()) {
                     try {
-                        wait(CHECK_AVAILABLE_BUILDER_DELAY); // wait and try again
+                        wait(CHECK_AVAILABLE_BUILDER_DELAY); // wait for released slot and try again
                     } catch (InterruptedException e) {
                         Thread.currentThread().interrupt();
                         return null; // expected to get here if task is canceled
                     }
                 } else {
-                    if (available.size() > 1) {
-                        return builderSelector.select(available);
-                    }
-                    return available.get(0);
+                    final RemoteBuilder builder = available.size() > 1 ? builderSelector.select(available) : available.get(0);
+                    final BuilderCapacity capacity = builders.get(builder);
+                    capacity.inFlight.add(request.getId());
+                    capacity.reportedFreeWorkers--;
+                    return builder;
                 }
             }
         }
     }
 
+    /** Events that relate to the same task are delivered in order they were published. */
+    private static AsyncDeliveryOptions newTaskEventsDeliveryOptions() {
+        return AsyncDeliveryOptions.newOptions().withKeyResolver(new AsyncDeliveryOptions.KeyResolver() {
+            @Override
+            public Object getKey(Object event) {
+                return ((BuilderEvent)event).getTaskId();
+            }
+        });
+    }
+
     private class AnalyticsMessenger implements EventSubscriber<BuilderEvent> {
         @Override
         public void onEvent(BuilderEvent event) {
@@ -1039,8 +1293,9 @@ public class BuildQueue {
                         final BuilderEvent.LoggedMessage message = event.getMessage();
                         if (message != null) {
                             bm.setChannel(String.format("builder:output:%d", id));
-                            bm.setBody(String.format("{\"num\":%d, \"line\":%s}",
-                                                     message.getLineNum(), JsonUtils.getJsonString(message.getMessage())));
+                            bm.setBody(String.format("{\"num\":%d, \"count\":%d, \"line\":%s}",
+                                                     message.getLineNum(), message.getLineCount(),
+                                                     JsonUtils.getJsonString(message.getMessage())));
                         }
                         break;
                 }
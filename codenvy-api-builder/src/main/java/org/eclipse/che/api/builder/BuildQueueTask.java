@@ -59,7 +59,8 @@ public class BuildQueueTask implements Cancellable {
         this.uriBuilder = uriBuilder;
         this.waitingTimeout = waitingTimeout;
         this.future = future;
-        this.request = request;
+        // Request isn't changed after task is created, keep frozen copy of it, so it may be shared without cloning.
+        this.request = DtoFactory.getInstance().freeze(DtoFactory.getInstance().clone(request));
         created = System.currentTimeMillis();
     }
 
@@ -72,8 +73,9 @@ public class BuildQueueTask implements Cancellable {
         return id;
     }
 
+    /** Gets request of this task. Returned request is frozen, use {@link DtoFactory#clone(Object)} to get modifiable copy of it. */
     public BaseBuilderRequest getRequest() {
-        return DtoFactory.getInstance().clone(request);
+        return request;
     }
 
     /**
@@ -266,11 +268,15 @@ public class BuildQueueTask implements Cancellable {
     }
 
     public void readLogs(HttpOutputMessage output) throws BuilderException, IOException, NotFoundException {
+        readLogs(output, 0);
+    }
+
+    public void readLogs(HttpOutputMessage output, int offset) throws BuilderException, IOException, NotFoundException {
         if (isWaiting()) {
             // Logs aren't available until build starts
             throw new BuilderException("Logs are not available. Task is not started yet.");
         }
-        getRemoteTask().readLogs(output);
+        getRemoteTask().readLogs(output, offset);
     }
 
     public void readReport(HttpOutputMessage output) throws BuilderException, IOException, NotFoundException {
@@ -11,6 +11,7 @@
 package org.eclipse.che.api.builder;
 
 import org.eclipse.che.api.builder.dto.BuilderDescriptor;
+import org.eclipse.che.api.builder.dto.BuilderMetric;
 import org.eclipse.che.api.builder.dto.BuilderServer;
 import org.eclipse.che.api.builder.dto.BuilderServerLocation;
 import org.eclipse.che.api.builder.dto.BuilderServerRegistration;
@@ -150,4 +151,21 @@ public class BuilderAdminService extends Service {
 
         return result;
     }
+
+    @ApiOperation(value = "Get state of builder queue",
+                  notes = "Get state of builder queue: number of threads, number of waiting tasks, etc.",
+                  response = BuilderMetric.class,
+                  responseContainer = "List",
+                  position = 4)
+    @ApiResponses(value = {
+                  @ApiResponse(code = 200, message = "OK"),
+                  @ApiResponse(code = 403, message = "User not authorized to call this method"),
+                  @ApiResponse(code = 500, message = "Internal Server Error")})
+    @GenerateLink(rel = Constants.LINK_REL_QUEUE_STATE)
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    @Path("/queue")
+    public List<BuilderMetric> getQueueState() {
+        return buildQueue.getStats();
+    }
 }
@@ -213,9 +213,11 @@ public class BuilderService extends Service {
                         @PathParam("ws-id") String workspace,
                         @ApiParam(value = "Get build logs", required = true)
                         @PathParam("id") Long id,
+                        @ApiParam(value = "Number of lines to skip, e.g. lines that client already got over websocket")
+                        @DefaultValue("0") @QueryParam("offset") int offset,
                         @Context HttpServletResponse httpServletResponse) throws Exception {
         // Response write directly to the servlet request stream
-        buildQueue.getTask(id).readLogs(new HttpServletProxyResponse(httpServletResponse));
+        buildQueue.getTask(id).readLogs(new HttpServletProxyResponse(httpServletResponse), offset);
     }
 
 
@@ -27,6 +27,8 @@ import org.eclipse.che.api.core.rest.shared.Links;
 import org.eclipse.che.api.core.rest.shared.dto.Link;
 import org.eclipse.che.commons.lang.Pair;
 import org.eclipse.che.dto.server.DtoFactory;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -173,6 +175,21 @@ public class RemoteBuilder {
         }
     }
 
+    /**
+     * Get description of current state of {@link org.eclipse.che.api.builder.internal.Builder} asynchronously. Useful for checking state
+     * of many builders at once.
+     *
+     * @return future description of current state of {@link org.eclipse.che.api.builder.internal.Builder}
+     * @see #getBuilderState()
+     */
+    public ListenableFuture<BuilderState> getBuilderStateAsync() {
+        final Link link = Links.getLink(Constants.LINK_REL_BUILDER_STATE, links);
+        if (link == null) {
+            return Futures.immediateFailedFuture(new BuilderException("Unable get URL for getting state of a remote builder"));
+        }
+        return HttpJsonHelper.requestAsync(BuilderState.class, 10000, DtoFactory.getInstance().clone(link), Pair.of("builder", name));
+    }
+
     @Override
     public final boolean equals(Object o) {
         if (this == o) {
@@ -138,12 +138,30 @@ public class RemoteTask {
      *         if other error occurs
      */
     public void readLogs(HttpOutputMessage output) throws IOException, BuilderException, NotFoundException {
+        readLogs(output, 0);
+    }
+
+    /**
+     * Copy logs of build process to specified {@code output} skipping first {@code offset} lines. Typically it's used by clients that
+     * already got some lines of logs (e.g. over websocket) and need to get the rest of them.
+     *
+     * @param output
+     *         output for logs content
+     * @param offset
+     *         number of lines to skip
+     * @throws IOException
+     *         if an i/o error occurs
+     * @throws BuilderException
+     *         if other error occurs
+     */
+    public void readLogs(HttpOutputMessage output, int offset) throws IOException, BuilderException, NotFoundException {
         final BuildTaskDescriptor descriptor = getBuildTaskDescriptor();
         final Link link = descriptor.getLink(Constants.LINK_REL_VIEW_LOG);
         if (link == null) {
             throw new BuilderException("Logs are not available.");
         }
-        readFromUrl(link.getHref(), output);
+        final String href = link.getHref();
+        readFromUrl(offset > 0 ? href + (href.indexOf('?') < 0 ? '?' : '&') + "offset=" + offset : href, output);
     }
 
     /**
@@ -36,6 +36,16 @@ public interface BuilderMetric {
 
     String MAX_QUEUE_SIZE = "maxQueueSize";
 
+    String NUMBER_OF_TASKS = "numberOfTasks";
+
+    String NUMBER_OF_WAITING_TASKS = "numberOfWaitingTasks";
+
+    String DEPENDENCY_CACHE_SIZE = "dependencyCacheSize";
+
+    String DEPENDENCY_CACHE_HITS = "dependencyCacheHits";
+
+    String DEPENDENCY_CACHE_MISSES = "dependencyCacheMisses";
+
 
     String getName();
 
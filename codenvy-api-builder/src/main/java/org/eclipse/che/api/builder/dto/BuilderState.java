@@ -39,6 +39,13 @@ public interface BuilderState {
 
     void setFreeWorkers(int freeWorkers);
 
+    /** Ids of build requests which are accepted by builder and aren't done yet. */
+    List<Long> getActiveTasks();
+
+    BuilderState withActiveTasks(List<Long> activeTasks);
+
+    void setActiveTasks(List<Long> activeTasks);
+
     ServerState getServerState();
 
     BuilderState withServerState(ServerState serverState);
@@ -11,37 +11,41 @@
 package org.eclipse.che.api.builder.internal;
 
 import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.util.LineChunkBuffer;
 
 import java.io.IOException;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * Publishes builder's outputs to the EventService.
+ * Publishes builder's outputs to the EventService. Lines are coalesced in chunks, each chunk is published as single event.
  *
  * @author andrew00x
  */
 class BuildLogsPublisher extends DelegateBuildLogger {
-    private final AtomicInteger lineCounter;
-    private final EventService eventService;
-    private final long         taskId;
-    private final String       workspace;
-    private final String       project;
+    private final LineChunkBuffer buffer;
 
-    BuildLogsPublisher(BuildLogger delegate, EventService eventService, long taskId, String workspace, String project) {
+    BuildLogsPublisher(BuildLogger delegate, final EventService eventService, final long taskId, final String workspace,
+                       final String project) {
         super(delegate);
-        this.eventService = eventService;
-        this.taskId = taskId;
-        this.workspace = workspace;
-        this.project = project;
-        lineCounter = new AtomicInteger(1);
+        buffer = new LineChunkBuffer() {
+            @Override
+            protected void flushChunk(String lines, int firstLineNum, int lineCount) {
+                eventService.publish(BuilderEvent.messageLoggedEvent(taskId, workspace, project,
+                                                                     new BuilderEvent.LoggedMessage(lines, firstLineNum, lineCount)));
+            }
+        };
     }
 
     @Override
     public void writeLine(String line) throws IOException {
         if (line != null) {
-            eventService.publish(BuilderEvent.messageLoggedEvent(taskId, workspace, project,
-                                                                 new BuilderEvent.LoggedMessage(line, lineCounter.getAndIncrement())));
+            buffer.writeLine(line);
         }
         super.writeLine(line);
     }
+
+    @Override
+    public void close() throws IOException {
+        buffer.close();
+        super.close();
+    }
 }
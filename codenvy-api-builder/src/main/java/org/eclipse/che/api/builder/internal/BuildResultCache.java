@@ -0,0 +1,251 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.builder.internal;
+
+import org.eclipse.che.commons.lang.IoUtil;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache of successful build results on the local file system. Entry of cache is addressed by key that is calculated from content of
+ * sources and build options, see {@link Builder#getBuildCacheKey(BuilderConfiguration)}, so builds of the same sources with the same
+ * options get the same result, even if they are requested from different workspaces. Cache directory may be shared by few builders and
+ * is re-used after restart.
+ * <p/>
+ * Entry contains artifacts and build report of build with paths relative to the work directory or to the build directory. When entry is
+ * restored, files are copied to the same paths under the work and build directory of new build. Total size of entries is limited, least
+ * recently used entries are removed first. Time of last usage of entry is stored as modification date of its directory.
+ *
+ * @author andrew00x
+ */
+public class BuildResultCache {
+    private static final Logger LOG = LoggerFactory.getLogger(BuildResultCache.class);
+
+    private static final String WORK_DIR  = "work";
+    private static final String BUILD_DIR = "build";
+    /**
+     * Age in milliseconds after which entry that isn't completed is considered as left after crash. Younger entries may be added at the
+     * moment by other builder that shares the cache directory.
+     */
+    private static final long INCOMPLETE_ENTRY_MAX_AGE = TimeUnit.HOURS.toMillis(24);
+
+    private final java.io.File directory;
+    private final long         maxSize;
+    /** Size of entries in the order of access. */
+    private final Map<String, Long> entries;
+
+    private long size;
+
+    /**
+     * @param directory
+     *         directory of cache
+     * @param maxSize
+     *         max total size of entries in bytes
+     */
+    public BuildResultCache(java.io.File directory, long maxSize) throws IOException {
+        this.directory = directory;
+        this.maxSize = maxSize;
+        entries = new LinkedHashMap<>(16, 0.75f, true);
+        Files.createDirectories(directory.toPath());
+        load();
+    }
+
+    public java.io.File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Restores result of build with specified key.
+     *
+     * @return {@code true} if entry found and its files are copied to the {@code workDir} and {@code buildDir} and {@code false}
+     * otherwise
+     */
+    public boolean restore(String key, java.io.File workDir, java.io.File buildDir) {
+        final java.io.File entry = new java.io.File(directory, key);
+        if (!entry.isDirectory()) {
+            return false;
+        }
+        try {
+            copyTree(new java.io.File(entry, WORK_DIR).toPath(), workDir.toPath());
+            copyTree(new java.io.File(entry, BUILD_DIR).toPath(), buildDir.toPath());
+        } catch (IOException e) {
+            // Entry may be removed by other builder that shares the cache directory.
+            LOG.warn("Unable restore build result {}: {}", key, e.getMessage());
+            return false;
+        }
+        if (!entry.setLastModified(System.currentTimeMillis())) {
+            LOG.warn("Unable update modification date of {} ", entry);
+        }
+        synchronized (entries) {
+            if (entries.get(key) == null) {
+                // Added by other builder that shares the cache directory.
+                final long entrySize = sizeOf(entry);
+                entries.put(key, entrySize);
+                size += entrySize;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds result of build to the cache. Only artifacts and build report which are located in the {@code workDir} or in the {@code
+     * buildDir} are added, if some of them are located in other place result is not cached.
+     */
+    public void put(String key, BuildResult result, java.io.File workDir, java.io.File buildDir) throws IOException {
+        final List<java.io.File> files = new ArrayList<>(result.getResults());
+        if (result.hasBuildReport() && result.getBuildReport() != null) {
+            files.add(result.getBuildReport());
+        }
+        if (files.isEmpty() || new java.io.File(directory, key).exists()) {
+            return;
+        }
+        final Path work = workDir.toPath().toAbsolutePath().normalize();
+        final Path build = buildDir.toPath().toAbsolutePath().normalize();
+        final java.io.File tmp = new java.io.File(directory, '.' + UUID.randomUUID().toString());
+        try {
+            for (java.io.File file : files) {
+                final Path path = file.toPath().toAbsolutePath().normalize();
+                final Path target;
+                // Work directory is usually located inside of build directory, check it first.
+                if (path.startsWith(work)) {
+                    target = tmp.toPath().resolve(WORK_DIR).resolve(work.relativize(path));
+                } else if (path.startsWith(build)) {
+                    target = tmp.toPath().resolve(BUILD_DIR).resolve(build.relativize(path));
+                } else {
+                    LOG.debug("Don't cache result of build, file {} is located out of work and build directories", file);
+                    return;
+                }
+                if (file.isDirectory()) {
+                    copyTree(path, target);
+                } else {
+                    Files.createDirectories(target.getParent());
+                    Files.copy(path, target, StandardCopyOption.COPY_ATTRIBUTES);
+                }
+            }
+            final long entrySize = sizeOf(tmp);
+            try {
+                Files.move(tmp.toPath(), new java.io.File(directory, key).toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // Added at the same time by other build.
+                return;
+            }
+            synchronized (entries) {
+                entries.put(key, entrySize);
+                size += entrySize;
+                evict();
+            }
+        } finally {
+            if (tmp.exists() && !IoUtil.deleteRecursive(tmp)) {
+                LOG.warn("Unable delete directory {}", tmp);
+            }
+        }
+    }
+
+    /** Removes least recently used entries until total size of cache is greater than max size. */
+    private void evict() {
+        for (Iterator<Map.Entry<String, Long>> i = entries.entrySet().iterator(); i.hasNext() && size > maxSize; ) {
+            final Map.Entry<String, Long> e = i.next();
+            final java.io.File entry = new java.io.File(directory, e.getKey());
+            if (entry.exists() && !IoUtil.deleteRecursive(entry)) {
+                LOG.warn("Unable delete directory {}", entry);
+                continue;
+            }
+            i.remove();
+            size -= e.getValue();
+            LOG.debug("Remove build result {} from cache", e.getKey());
+        }
+    }
+
+    /** Reads entries that are left from previous run. Entries are sorted by time of last usage. */
+    private void load() {
+        final java.io.File[] list = directory.listFiles();
+        if (list == null) {
+            return;
+        }
+        Arrays.sort(list, new Comparator<java.io.File>() {
+            @Override
+            public int compare(java.io.File a, java.io.File b) {
+                return Long.compare(a.lastModified(), b.lastModified());
+            }
+        });
+        final long expired = System.currentTimeMillis() - INCOMPLETE_ENTRY_MAX_AGE;
+        synchronized (entries) {
+            for (java.io.File f : list) {
+                if (f.getName().startsWith(".")) {
+                    // Entry that isn't completed, e.g. after crash.
+                    if (f.lastModified() < expired && !IoUtil.deleteRecursive(f)) {
+                        LOG.warn("Unable delete directory {}", f);
+                    }
+                } else if (f.isDirectory()) {
+                    final long entrySize = sizeOf(f);
+                    entries.put(f.getName(), entrySize);
+                    size += entrySize;
+                }
+            }
+            evict();
+        }
+        LOG.debug("Found {} build results in cache {}, total size: {} bytes", entries.size(), directory, size);
+    }
+
+    private static void copyTree(Path source, Path target) throws IOException {
+        if (!Files.exists(source)) {
+            return;
+        }
+        final LinkedList<Path> q = new LinkedList<>();
+        q.add(source);
+        while (!q.isEmpty()) {
+            final Path current = q.pop();
+            final Path currentTarget = target.resolve(source.relativize(current));
+            if (Files.isDirectory(current)) {
+                Files.createDirectories(currentTarget);
+                final java.io.File[] list = current.toFile().listFiles();
+                if (list != null) {
+                    for (java.io.File f : list) {
+                        q.push(f.toPath());
+                    }
+                }
+            } else {
+                Files.copy(current, currentTarget, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+            }
+        }
+    }
+
+    private static long sizeOf(java.io.File file) {
+        if (!file.isDirectory()) {
+            return file.length();
+        }
+        long result = 0;
+        final java.io.File[] list = file.listFiles();
+        if (list != null) {
+            for (java.io.File f : list) {
+                result += sizeOf(f);
+            }
+        }
+        return result;
+    }
+}
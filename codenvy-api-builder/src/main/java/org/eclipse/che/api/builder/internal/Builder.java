@@ -27,8 +27,11 @@ import org.eclipse.che.api.core.util.CommandLine;
 import org.eclipse.che.api.core.util.ProcessUtil;
 import org.eclipse.che.api.core.util.StreamPump;
 import org.eclipse.che.api.core.util.Watchdog;
+import org.eclipse.che.api.project.shared.dto.ProjectDescriptor;
 import org.eclipse.che.commons.lang.IoUtil;
 import org.eclipse.che.dto.server.DtoFactory;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import org.slf4j.Logger;
@@ -36,7 +39,10 @@ import org.slf4j.LoggerFactory;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
+import javax.inject.Named;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
@@ -44,6 +50,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentHashMap;
@@ -70,6 +77,9 @@ public abstract class Builder {
 
     private static final AtomicLong buildIdSequence = new AtomicLong(1);
 
+    private static final long DEFAULT_BUILD_CACHE_MAX_SIZE      = 1024;
+    private static final long DEFAULT_DEPENDENCY_CACHE_QUOTA    = 4096;
+
     private final ConcurrentMap<Long, FutureBuildTask> tasks;
     private final java.io.File                         rootDirectory;
     private final Set<BuildListener>                   buildListeners;
@@ -78,12 +88,36 @@ public abstract class Builder {
     private final int                                  queueSize;
     private final int                                  numberOfWorkers;
     private final AtomicBoolean                        started;
+    /** Keys of build cache for builds which may be cached when they are successfully completed. */
+    private final ConcurrentMap<BuilderConfiguration, String> buildCacheKeys;
+    /** Write layers of dependency cache of build tasks. */
+    private final ConcurrentMap<BuilderConfiguration, DependencyCache.Layer> dependencyLayers;
 
     private ThreadPoolExecutor       executor;
     private ScheduledExecutorService scheduler;
     private java.io.File             repository;
     private java.io.File             builds;
     private SourcesManagerImpl       sourcesManager;
+    private BuildResultCache         buildCache;
+    private DependencyCache          dependencyCache;
+
+    /** Optional directory of cache of build results. */
+    @com.google.inject.Inject(optional = true)
+    @Named(Constants.BUILD_CACHE_DIRECTORY)
+    private String buildCacheDirectory;
+
+    @com.google.inject.Inject(optional = true)
+    @Named(Constants.BUILD_CACHE_MAX_SIZE)
+    private long buildCacheMaxSize = DEFAULT_BUILD_CACHE_MAX_SIZE;
+
+    /** Optional directory of local repository of dependencies that is shared by build tasks. */
+    @com.google.inject.Inject(optional = true)
+    @Named(Constants.DEPENDENCY_CACHE_DIRECTORY)
+    private String dependencyCacheDirectory;
+
+    @com.google.inject.Inject(optional = true)
+    @Named(Constants.DEPENDENCY_CACHE_QUOTA)
+    private long dependencyCacheQuota = DEFAULT_DEPENDENCY_CACHE_QUOTA;
 
     public Builder(java.io.File rootDirectory, int numberOfWorkers, int queueSize, int keepResultTime, EventService eventService) {
         this.rootDirectory = rootDirectory;
@@ -95,6 +129,8 @@ public abstract class Builder {
         buildListeners = new CopyOnWriteArraySet<>();
         tasks = new ConcurrentHashMap<>();
         started = new AtomicBoolean(false);
+        buildCacheKeys = new ConcurrentHashMap<>();
+        dependencyLayers = new ConcurrentHashMap<>();
     }
 
     /**
@@ -140,6 +176,89 @@ public abstract class Builder {
 
     protected abstract CommandLine createCommandLine(BuilderConfiguration config) throws BuilderException;
 
+    /**
+     * Gets strategy of provisioning sources into work directory of build. By default sources are copied in work directory. Builder which
+     * build tool never modifies source files in place may override this method and return {@link WorkDirStrategy#HARD_LINK}, so files in
+     * work directory are hard links to the locally stored sources and aren't copied for each build.
+     */
+    protected WorkDirStrategy getWorkDirStrategy() {
+        return WorkDirStrategy.COPY;
+    }
+
+    /**
+     * Gets layer of shared local repository of dependencies for build task. Implementation of builder passes directories of layer to the
+     * build tool, usually in method {@link #createCommandLine(BuilderConfiguration)}. Layer is committed when build task is successfully
+     * completed and released otherwise.
+     *
+     * @param configuration
+     *         configuration of build task
+     * @return layer or {@code null} if shared repository of dependencies isn't configured
+     * @throws BuilderException
+     *         if layer can't be created
+     * @see Constants#DEPENDENCY_CACHE_DIRECTORY
+     */
+    protected DependencyCache.Layer getDependencyLayer(BuilderConfiguration configuration) throws BuilderException {
+        if (dependencyCache == null) {
+            return null;
+        }
+        DependencyCache.Layer layer = dependencyLayers.get(configuration);
+        if (layer == null) {
+            final DependencyCache.Layer newLayer;
+            try {
+                newLayer = dependencyCache.openLayer();
+            } catch (IOException e) {
+                throw new BuilderException(e);
+            }
+            layer = dependencyLayers.putIfAbsent(configuration, newLayer);
+            if (layer == null) {
+                layer = newLayer;
+            } else {
+                dependencyCache.release(newLayer);
+            }
+        }
+        return layer;
+    }
+
+    /**
+     * Gets key of build in cache of build results. Key is calculated from digest of sources and from options of build which may affect
+     * its result. By default result of build of default task type is cached if cache is configured. Sub-classes may override this method
+     * to add own parameters to the key or to return {@code null} if result of build must not be cached.
+     *
+     * @param configuration
+     *         configuration of build, sources must be already provisioned into its work directory
+     * @return key or {@code null} if result of build may not be cached
+     * @see Constants#BUILD_CACHE_DIRECTORY
+     */
+    protected String getBuildCacheKey(BuilderConfiguration configuration) {
+        if (buildCache == null || configuration.getTaskType() != BuilderTaskType.DEFAULT
+            || !(getSourcesManager() instanceof SourcesManagerImpl)) {
+            return null;
+        }
+        final String sourcesDigest = ((SourcesManagerImpl)getSourcesManager()).getSourcesDigest(configuration.getWorkDir());
+        if (sourcesDigest == null) {
+            return null;
+        }
+        final BaseBuilderRequest request = configuration.getRequest();
+        final Hasher hasher = Hashing.sha1().newHasher()
+                                     .putString(getName(), StandardCharsets.UTF_8)
+                                     .putString(sourcesDigest, StandardCharsets.UTF_8)
+                                     .putString(String.valueOf(request.getTargets()), StandardCharsets.UTF_8)
+                                     .putString(String.valueOf(new TreeMap<>(request.getOptions())), StandardCharsets.UTF_8)
+                                     .putBoolean(request.isIncludeDependencies());
+        if (request instanceof BuildRequest) {
+            hasher.putBoolean(((BuildRequest)request).isSkipTest());
+        }
+        if (request.getProjectDescriptor() != null) {
+            final ProjectDescriptor project = request.getProjectDescriptor();
+            hasher.putString(String.valueOf(project.getName()), StandardCharsets.UTF_8)
+                  .putString(String.valueOf(project.getType()), StandardCharsets.UTF_8);
+            if (project.getBuilders() != null) {
+                hasher.putString(DtoFactory.getInstance().toJson(project.getBuilders()), StandardCharsets.UTF_8);
+            }
+        }
+        return hasher.hash().toString();
+    }
+
     /** Initialize Builder. Sub-classes should invoke {@code super.start} at the begin of this method. */
     @PostConstruct
     public void start() {
@@ -157,8 +276,25 @@ public abstract class Builder {
                 throw new IllegalStateException(String.format("Unable create directory %s", builds.getAbsolutePath()));
             }
             // TODO: use single instance of SourceManager
-            sourcesManager = new SourcesManagerImpl(sources);
+            sourcesManager = new SourcesManagerImpl(sources, getWorkDirStrategy());
             sourcesManager.start(); // TODO: guice must do this
+            if (buildCacheDirectory != null && !buildCacheDirectory.isEmpty()) {
+                try {
+                    buildCache = new BuildResultCache(new java.io.File(buildCacheDirectory, getName()), buildCacheMaxSize * 1024 * 1024);
+                } catch (IOException e) {
+                    throw new IllegalStateException(String.format("Unable initialize cache of build results in %s", buildCacheDirectory),
+                                                    e);
+                }
+            }
+            if (dependencyCacheDirectory != null && !dependencyCacheDirectory.isEmpty()) {
+                try {
+                    dependencyCache = new DependencyCache(new java.io.File(dependencyCacheDirectory, getName()),
+                                                          dependencyCacheQuota * 1024 * 1024);
+                } catch (IOException e) {
+                    throw new IllegalStateException(
+                            String.format("Unable initialize cache of dependencies in %s", dependencyCacheDirectory), e);
+                }
+            }
             executor = new MyThreadPoolExecutor(numberOfWorkers <= 0 ? Runtime.getRuntime().availableProcessors() : numberOfWorkers,
                                                 queueSize);
             scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat(
@@ -242,6 +378,11 @@ public abstract class Builder {
             }
             tasks.clear();
             buildListeners.clear();
+            buildCacheKeys.clear();
+            for (DependencyCache.Layer layer : dependencyLayers.values()) {
+                dependencyCache.release(layer);
+            }
+            dependencyLayers.clear();
             sourcesManager.stop(); // TODO: guice must do this
             if (interrupted) {
                 Thread.currentThread().interrupt();
@@ -281,6 +422,18 @@ public abstract class Builder {
         return executor.getActiveCount();
     }
 
+    /** Gets ids of build requests which are accepted by this builder and aren't done yet. */
+    public List<Long> getActiveTasks() {
+        checkStarted();
+        final List<Long> result = new ArrayList<>();
+        for (FutureBuildTask task : tasks.values()) {
+            if (!task.isDone()) {
+                result.add(task.getConfiguration().getRequest().getId());
+            }
+        }
+        return result;
+    }
+
     public int getInternalQueueSize() {
         checkStarted();
         return executor.getQueue().size();
@@ -308,6 +461,9 @@ public abstract class Builder {
                              .withValue(Integer.toString(getInternalQueueSize())));
         global.add(dtoFactory.createDto(BuilderMetric.class).withName(BuilderMetric.MAX_QUEUE_SIZE)
                              .withValue(Integer.toString(getMaxInternalQueueSize())));
+        if (dependencyCache != null) {
+            global.addAll(dependencyCache.getStats());
+        }
         return global;
     }
 
@@ -383,7 +539,13 @@ public abstract class Builder {
     }
 
     protected BuildTask execute(BuilderConfiguration configuration, BuildLogger logger) throws BuilderException {
-        final CommandLine commandLine = createCommandLine(configuration);
+        final CommandLine commandLine;
+        try {
+            commandLine = createCommandLine(configuration);
+        } catch (BuilderException | RuntimeException e) {
+            releaseDependencyLayer(configuration);
+            throw e;
+        }
         final BaseBuilderRequest request = configuration.getRequest();
         final BuildLogger myLogger =
                 new BuildLogsPublisher(logger, eventService, request.getId(), request.getWorkspace(), request.getProject());
@@ -396,21 +558,70 @@ public abstract class Builder {
             @Override
             public void done(BuildTask task) {
                 final BaseBuilderRequest buildRequest = task.getConfiguration().getRequest();
-                eventService.publish(BuilderEvent.doneEvent(buildRequest.getId(), buildRequest.getWorkspace(), buildRequest.getProject()));
+                // Close logger first, it publishes the rest of output that is buffered, so clients get whole output before end of build.
                 try {
                     myLogger.close();
                     LOG.debug("Close build logger {}", myLogger);
                 } catch (IOException e) {
                     LOG.error(e.getMessage(), e);
                 }
+                eventService.publish(BuilderEvent.doneEvent(buildRequest.getId(), buildRequest.getWorkspace(), buildRequest.getProject()));
+                updateCaches(task);
             }
         };
         final FutureBuildTask task = new FutureBuildTask(callable, internalId, commandLine, getName(), configuration, myLogger, callback);
         tasks.put(internalId, task);
-        executor.execute(task);
+        try {
+            executor.execute(task);
+        } catch (RuntimeException e) {
+            tasks.remove(internalId);
+            releaseDependencyLayer(configuration);
+            throw e;
+        }
         return task;
     }
 
+    /** Adds result and dependencies of successful build to the caches. */
+    private void updateCaches(BuildTask task) {
+        final BaseBuilderRequest buildRequest = task.getConfiguration().getRequest();
+        final String cacheKey = buildCacheKeys.remove(task.getConfiguration());
+        final DependencyCache.Layer layer = dependencyLayers.remove(task.getConfiguration());
+        BuildResult result = null;
+        if (cacheKey != null || layer != null) {
+            try {
+                result = task.getResult();
+            } catch (BuilderException e) {
+                LOG.warn("Unable get result of build {}: {}", buildRequest.getId(), e.getMessage());
+            }
+        }
+        final boolean successful = result != null && result.isSuccessful();
+        if (cacheKey != null && successful) {
+            try {
+                buildCache.put(cacheKey, result, task.getConfiguration().getWorkDir(), task.getConfiguration().getBuildDir());
+            } catch (IOException e) {
+                LOG.warn("Unable add result of build {} to cache: {}", buildRequest.getId(), e.getMessage());
+            }
+        }
+        if (layer != null) {
+            if (successful) {
+                try {
+                    dependencyCache.commit(layer);
+                } catch (IOException e) {
+                    LOG.warn("Unable add dependencies of build {} to cache: {}", buildRequest.getId(), e.getMessage());
+                }
+            } else {
+                dependencyCache.release(layer);
+            }
+        }
+    }
+
+    private void releaseDependencyLayer(BuilderConfiguration configuration) {
+        final DependencyCache.Layer layer = dependencyLayers.remove(configuration);
+        if (layer != null) {
+            dependencyCache.release(layer);
+        }
+    }
+
     protected BuildLogger createBuildLogger(BuilderConfiguration buildConfiguration, java.io.File logFile) throws BuilderException {
         try {
             return new DefaultBuildLogger(logFile, "text/plain");
@@ -429,10 +640,19 @@ public abstract class Builder {
                 BaseBuilderRequest request = configuration.getRequest();
                 getSourcesManager()
                         .getSources(logger, request.getWorkspace(), request.getProject(), request.getSourcesUrl(), configuration.getWorkDir());
+                final String cacheKey = getBuildCacheKey(configuration);
                 // build effectively starts right after sources downloading is done
                 eventService.publish(BuilderEvent.buildTimeStartedEvent(request.getId(), request.getWorkspace(), request.getProject(),
                                                                         System.currentTimeMillis()));
                 eventService.publish(BuilderEvent.beginEvent(request.getId(), request.getWorkspace(), request.getProject()));
+                if (cacheKey != null) {
+                    if (buildCache.restore(cacheKey, configuration.getWorkDir(), configuration.getBuildDir())) {
+                        logger.writeLine("[INFO] Sources and build options are the same as in one of previous builds, reuse its result");
+                        LOG.debug("Reuse cached result {} for {}", cacheKey, commandLine);
+                        return true;
+                    }
+                    buildCacheKeys.put(configuration, cacheKey);
+                }
                 StreamPump output = null;
                 Watchdog watcher = null;
                 int result = -1;
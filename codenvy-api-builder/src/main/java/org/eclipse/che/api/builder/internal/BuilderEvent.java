@@ -10,13 +10,14 @@
  *******************************************************************************/
 package org.eclipse.che.api.builder.internal;
 
+import org.eclipse.che.api.core.notification.AsyncDeliveryOptions;
 import org.eclipse.che.api.core.notification.EventOrigin;
 
 /**
  * @author andrew00x
  */
 @EventOrigin("builder")
-public class BuilderEvent {
+public class BuilderEvent implements AsyncDeliveryOptions.KeyedEvent {
     public enum EventType {
         /** Build time is started. */
         BUILD_TIME_STARTED("build_time_begin"),
@@ -58,12 +59,29 @@ public class BuilderEvent {
     public static class LoggedMessage {
         private String message;
         private int    lineNum;
+        private int    lineCount = 1;
 
         public LoggedMessage(String message, int lineNum) {
             this.message = message;
             this.lineNum = lineNum;
         }
 
+        /**
+         * Creates message that contains chunk of lines.
+         *
+         * @param message
+         *         lines separated with '\n'
+         * @param lineNum
+         *         number of the first line in chunk
+         * @param lineCount
+         *         number of lines in chunk
+         */
+        public LoggedMessage(String message, int lineNum, int lineCount) {
+            this.message = message;
+            this.lineNum = lineNum;
+            this.lineCount = lineCount;
+        }
+
         public LoggedMessage() {
         }
 
@@ -83,11 +101,21 @@ public class BuilderEvent {
             this.lineNum = lineNum;
         }
 
+        /** Gets number of lines in this message. Lines are numbered from {@link #getLineNum()} and separated with '\n'. */
+        public int getLineCount() {
+            return lineCount;
+        }
+
+        public void setLineCount(int lineCount) {
+            this.lineCount = lineCount;
+        }
+
         @Override
         public String toString() {
             return "LoggedMessage{" +
                    "message='" + message + '\'' +
                    ", lineNum=" + lineNum +
+                   ", lineCount=" + lineCount +
                    '}';
         }
     }
@@ -171,6 +199,12 @@ public class BuilderEvent {
         return taskId;
     }
 
+    /** Events of the same task are delivered in order they were published. Not a getter, so it isn't serialized. */
+    @Override
+    public Object deliveryKey() {
+        return taskId;
+    }
+
     public void setTaskId(long taskId) {
         this.taskId = taskId;
     }
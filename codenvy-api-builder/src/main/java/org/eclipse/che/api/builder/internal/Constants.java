@@ -64,6 +64,30 @@ public class Constants {
      * this time build may be terminated.
      */
     public static final String MAX_EXECUTION_TIME         = "builder.max_execution_time";
+    /**
+     * Name of configuration parameter that sets the number of threads of BuildQueue that send build requests to the slave-builders. Tasks
+     * that don't get thread stay in the queue.
+     */
+    public static final String QUEUE_WORKERS_NUMBER       = "builder.queue.workers_number";
+    /**
+     * Name of configuration parameter that sets the max number of tasks of one workspace that BuildQueue may process at the same time.
+     * Others tasks of the workspace stay in the queue and don't prevent processing of tasks of other workspaces.
+     */
+    public static final String QUEUE_MAX_TASKS_PER_WORKSPACE = "builder.queue.max_tasks_per_workspace";
+    /**
+     * Name of configuration parameter that points to the directory of cache of build results, see {@link BuildResultCache}. Directory may
+     * be shared by few slave-builders. If this parameter isn't set results of builds are not cached.
+     */
+    public static final String BUILD_CACHE_DIRECTORY         = "builder.cache.directory";
+    /** Name of configuration parameter that sets max size (in megabytes) of cache of build results. */
+    public static final String BUILD_CACHE_MAX_SIZE          = "builder.cache.max_size";
+    /**
+     * Name of configuration parameter that points to the directory of local repository of dependencies that is shared by build tasks,
+     * see {@link DependencyCache}. If this parameter isn't set builder doesn't share dependencies between build tasks.
+     */
+    public static final String DEPENDENCY_CACHE_DIRECTORY    = "builder.dependency_cache.directory";
+    /** Name of configuration parameter that sets max size (in megabytes) of shared local repository of dependencies. */
+    public static final String DEPENDENCY_CACHE_QUOTA        = "builder.dependency_cache.quota";
 
     /* ================================================= */
 
@@ -0,0 +1,383 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.builder.internal;
+
+import org.eclipse.che.api.builder.dto.BuilderMetric;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.eclipse.che.dto.server.DtoFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local repository of dependencies that is shared by all build tasks of builder. Repository consists of two layers. Shared layer is
+ * read-only for build tasks, each task gets own write layer where build tool stores dependencies which it doesn't find in the shared
+ * layer. When build is successfully completed, new files of its write layer are moved to the shared layer. So each dependency is
+ * downloaded once per slave-builder and builds don't wait for each other to use single local repository.
+ * <p/>
+ * How layers are passed to the build tool depends on implementation of builder, e.g. maven may use write layer as local repository and
+ * shared layer as its read-only tail. Path of file relative to the layer identifies artifact, files of the same directory belong to the
+ * same artifact. Artifacts are moved to the shared layer and removed from it under lock of artifact. File that already exists in the
+ * shared layer is replaced only if it is older than new one, e.g. metadata of snapshots.
+ * <p/>
+ * Total size of shared layer is limited with quota. If quota is exceeded, least recently used artifacts are removed. Time of usage of
+ * artifact is the last access or modification time of its files, whichever is later, it defines order of removing only since access
+ * time isn't updated on file systems which are mounted with noatime. Build tasks read the shared layer while their layers are open and
+ * cache doesn't know which artifacts they use, so artifacts are removed only when there is no open layer. New layers aren't opened
+ * while artifacts are removed.
+ *
+ * @author andrew00x
+ */
+public class DependencyCache {
+    private static final Logger LOG = LoggerFactory.getLogger(DependencyCache.class);
+
+    private static final int NUMBER_OF_LOCKS = 64;
+
+    private final java.io.File      directory;
+    private final java.io.File      shared;
+    private final java.io.File      layers;
+    private final long              quota;
+    private final Object[]          locks;
+    /** Size of artifacts in shared layer. Guarded by itself. */
+    private final Map<String, Long> artifacts;
+    /** Layers that are not committed or released yet. Guarded by {@link #artifacts}. */
+    private final Set<Layer>        openLayers;
+    private final AtomicLong        hits;
+    private final AtomicLong        misses;
+
+    private long    size;
+    /** {@code true} while artifacts are removed from the shared layer. Guarded by {@link #artifacts}. */
+    private boolean evicting;
+
+    /**
+     * @param directory
+     *         directory of cache
+     * @param quota
+     *         max size of shared layer in bytes
+     */
+    public DependencyCache(java.io.File directory, long quota) throws IOException {
+        this.directory = directory;
+        this.quota = quota;
+        shared = new java.io.File(directory, "shared");
+        layers = new java.io.File(directory, "layers");
+        locks = new Object[NUMBER_OF_LOCKS];
+        for (int i = 0; i < NUMBER_OF_LOCKS; i++) {
+            locks[i] = new Object();
+        }
+        artifacts = new HashMap<>();
+        openLayers = new HashSet<>();
+        hits = new AtomicLong();
+        misses = new AtomicLong();
+        // Write layers are left after crash, dependencies from them are downloaded again if need.
+        if (layers.exists() && !IoUtil.deleteRecursive(layers)) {
+            LOG.warn("Unable delete directory {}", layers);
+        }
+        Files.createDirectories(shared.toPath());
+        Files.createDirectories(layers.toPath());
+        load();
+    }
+
+    public java.io.File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Creates new write layer for build task. Layer must be committed or released at the end of task. Waits if artifacts are being
+     * removed from the shared layer at the moment.
+     */
+    public Layer openLayer() throws IOException {
+        final java.io.File dir = new java.io.File(layers, UUID.randomUUID().toString());
+        final Layer layer = new Layer(dir);
+        synchronized (artifacts) {
+            while (evicting) {
+                try {
+                    artifacts.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for removing of artifacts from dependency cache");
+                }
+            }
+            openLayers.add(layer);
+        }
+        try {
+            Files.createDirectories(dir.toPath());
+        } catch (IOException e) {
+            release(layer);
+            throw e;
+        }
+        return layer;
+    }
+
+    /** Moves new files of write layer to the shared layer and removes write layer. */
+    public void commit(Layer layer) throws IOException {
+        final Path source = layer.getDirectory().toPath();
+        final Map<String, List<Path>> newArtifacts = new HashMap<>();
+        final LinkedList<Path> q = new LinkedList<>();
+        q.add(source);
+        while (!q.isEmpty()) {
+            final java.io.File[] list = q.pop().toFile().listFiles();
+            if (list != null) {
+                for (java.io.File f : list) {
+                    final Path path = f.toPath();
+                    if (f.isDirectory()) {
+                        q.push(path);
+                    } else {
+                        final String artifact = artifactOf(source.relativize(path));
+                        List<Path> files = newArtifacts.get(artifact);
+                        if (files == null) {
+                            newArtifacts.put(artifact, files = new ArrayList<>());
+                        }
+                        files.add(path);
+                    }
+                }
+            }
+        }
+        try {
+            int added = 0;
+            for (Map.Entry<String, List<Path>> e : newArtifacts.entrySet()) {
+                if (promote(e.getKey(), source, e.getValue())) {
+                    added++;
+                }
+            }
+            if (added == 0) {
+                hits.incrementAndGet();
+            } else {
+                misses.incrementAndGet();
+                LOG.debug("Add {} artifacts to dependency cache {}", added, directory);
+            }
+        } finally {
+            release(layer);
+        }
+    }
+
+    /** Removes write layer, e.g. if build failed. */
+    public void release(Layer layer) {
+        if (layer.getDirectory().exists() && !IoUtil.deleteRecursive(layer.getDirectory())) {
+            LOG.warn("Unable delete directory {}", layer.getDirectory());
+        }
+        synchronized (artifacts) {
+            if (!openLayers.remove(layer)) {
+                return;
+            }
+        }
+        evict();
+    }
+
+    public List<BuilderMetric> getStats() {
+        final DtoFactory dtoFactory = DtoFactory.getInstance();
+        final List<BuilderMetric> stats = new ArrayList<>(3);
+        final long currentSize;
+        synchronized (artifacts) {
+            currentSize = size;
+        }
+        stats.add(dtoFactory.createDto(BuilderMetric.class).withName(BuilderMetric.DEPENDENCY_CACHE_SIZE)
+                            .withValue(Long.toString(currentSize))
+                            .withDescription("Size of shared dependencies in bytes"));
+        stats.add(dtoFactory.createDto(BuilderMetric.class).withName(BuilderMetric.DEPENDENCY_CACHE_HITS)
+                            .withValue(Long.toString(hits.get()))
+                            .withDescription("Number of builds which found all dependencies in cache"));
+        stats.add(dtoFactory.createDto(BuilderMetric.class).withName(BuilderMetric.DEPENDENCY_CACHE_MISSES)
+                            .withValue(Long.toString(misses.get()))
+                            .withDescription("Number of builds which downloaded some dependencies"));
+        return stats;
+    }
+
+    /**
+     * Moves files of artifact to the shared layer.
+     *
+     * @return {@code true} if artifact is added to the shared layer or updated
+     */
+    private boolean promote(String artifact, Path source, List<Path> files) throws IOException {
+        boolean changed = false;
+        synchronized (lockOf(artifact)) {
+            for (Path file : files) {
+                final Path target = shared.toPath().resolve(source.relativize(file));
+                if (!Files.exists(target) || Files.getLastModifiedTime(target).compareTo(Files.getLastModifiedTime(file)) < 0) {
+                    Files.createDirectories(target.getParent());
+                    Files.move(file, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    changed = true;
+                }
+            }
+            if (changed) {
+                final long artifactSize = sizeOf(new java.io.File(shared, artifact));
+                synchronized (artifacts) {
+                    final Long previous = artifacts.put(artifact, artifactSize);
+                    size += artifactSize - (previous == null ? 0 : previous);
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Removes least recently used artifacts while size of shared layer is greater than quota. Does nothing if there are open layers, their
+     * build tasks may use any artifact of the shared layer.
+     */
+    private void evict() {
+        final List<Map.Entry<String, Long>> candidates;
+        synchronized (artifacts) {
+            if (size <= quota || evicting || !openLayers.isEmpty()) {
+                return;
+            }
+            evicting = true;
+            candidates = new ArrayList<>(artifacts.entrySet());
+        }
+        int removed = 0;
+        try {
+            final Map<String, Long> usage = new HashMap<>(candidates.size());
+            for (Map.Entry<String, Long> e : candidates) {
+                usage.put(e.getKey(), lastUsed(new java.io.File(shared, e.getKey())));
+            }
+            Collections.sort(candidates, new Comparator<Map.Entry<String, Long>>() {
+                @Override
+                public int compare(Map.Entry<String, Long> a, Map.Entry<String, Long> b) {
+                    return Long.compare(usage.get(a.getKey()), usage.get(b.getKey()));
+                }
+            });
+            for (Map.Entry<String, Long> e : candidates) {
+                synchronized (artifacts) {
+                    if (size <= quota) {
+                        break;
+                    }
+                }
+                final String artifact = e.getKey();
+                synchronized (lockOf(artifact)) {
+                    final java.io.File[] files = new java.io.File(shared, artifact).listFiles();
+                    if (files != null) {
+                        for (java.io.File f : files) {
+                            if (f.isFile() && !f.delete()) {
+                                LOG.warn("Unable delete file {}", f);
+                            }
+                        }
+                    }
+                    synchronized (artifacts) {
+                        final Long artifactSize = artifacts.remove(artifact);
+                        if (artifactSize != null) {
+                            size -= artifactSize;
+                        }
+                    }
+                }
+                removed++;
+            }
+        } finally {
+            synchronized (artifacts) {
+                evicting = false;
+                artifacts.notifyAll();
+            }
+        }
+        LOG.debug("Remove {} artifacts from dependency cache {}", removed, directory);
+    }
+
+    /** Reads artifacts of shared layer that are left from previous run. */
+    private void load() {
+        final Path root = shared.toPath();
+        final LinkedList<java.io.File> q = new LinkedList<>();
+        q.add(shared);
+        synchronized (artifacts) {
+            while (!q.isEmpty()) {
+                final java.io.File[] list = q.pop().listFiles();
+                if (list != null) {
+                    for (java.io.File f : list) {
+                        if (f.isDirectory()) {
+                            q.push(f);
+                        } else {
+                            final String artifact = artifactOf(root.relativize(f.toPath()));
+                            final Long artifactSize = artifacts.get(artifact);
+                            artifacts.put(artifact, (artifactSize == null ? 0 : artifactSize) + f.length());
+                            size += f.length();
+                        }
+                    }
+                }
+            }
+        }
+        LOG.debug("Found {} artifacts in dependency cache {}, total size: {} bytes", artifacts.size(), directory, size);
+        evict();
+    }
+
+    private Object lockOf(String artifact) {
+        return locks[(artifact.hashCode() & 0x7fffffff) % NUMBER_OF_LOCKS];
+    }
+
+    /** Artifact is identified by directory of file. Replacing of "\" is need for windows support. */
+    private static String artifactOf(Path relativePath) {
+        final Path parent = relativePath.getParent();
+        return parent == null ? "" : parent.toString().replace("\\", "/");
+    }
+
+    private static long lastUsed(java.io.File dir) {
+        long result = 0;
+        final java.io.File[] files = dir.listFiles();
+        if (files != null) {
+            for (java.io.File f : files) {
+                if (f.isFile()) {
+                    try {
+                        final BasicFileAttributes attributes = Files.readAttributes(f.toPath(), BasicFileAttributes.class);
+                        result = Math.max(result,
+                                          Math.max(attributes.lastAccessTime().toMillis(), attributes.lastModifiedTime().toMillis()));
+                    } catch (IOException e) {
+                        // File is removed, ignore it.
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private static long sizeOf(java.io.File dir) {
+        long result = 0;
+        final java.io.File[] files = dir.listFiles();
+        if (files != null) {
+            for (java.io.File f : files) {
+                if (f.isFile()) {
+                    result += f.length();
+                }
+            }
+        }
+        return result;
+    }
+
+    /** Pair of shared, read-only, and own, writable, directories of build task. */
+    public class Layer {
+        private final java.io.File dir;
+
+        private Layer(java.io.File dir) {
+            this.dir = dir;
+        }
+
+        /** Gets directory of shared layer. Build task must not modify it. */
+        public java.io.File getSharedDirectory() {
+            return shared;
+        }
+
+        /** Gets directory where build task stores dependencies that are not found in shared layer. */
+        public java.io.File getDirectory() {
+            return dir;
+        }
+    }
+}
@@ -48,6 +48,7 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriBuilder;
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
@@ -99,6 +100,7 @@ public final class SlaveBuilderService extends Service {
                          .withName(myBuilder.getName())
                          .withStats(myBuilder.getStats())
                          .withFreeWorkers(myBuilder.getNumberOfWorkers() - myBuilder.getNumberOfActiveWorkers())
+                         .withActiveTasks(myBuilder.getActiveTasks())
                          .withServerState(getServerState());
     }
 
@@ -147,8 +149,17 @@ public final class SlaveBuilderService extends Service {
 
     @GET
     @Path("logs/{builder}/{id}")
-    public Response getLogs(@PathParam("builder") String builder, @PathParam("id") Long id) throws Exception {
+    public Response getLogs(@PathParam("builder") String builder,
+                            @PathParam("id") Long id,
+                            @DefaultValue("0") @QueryParam("offset") int offset) throws Exception {
         final BuildLogger logger = getBuilder(builder).getBuildTask(id).getBuildLogger();
+        if (offset > 0) {
+            // Client already has first lines, e.g. got them over websocket, skip them.
+            final BufferedReader reader = new BufferedReader(logger.getReader());
+            for (int i = 0; i < offset && reader.readLine() != null; i++) {
+            }
+            return Response.ok(reader, logger.getContentType()).build();
+        }
         return Response.ok(logger.getReader(), logger.getContentType()).build();
     }
 
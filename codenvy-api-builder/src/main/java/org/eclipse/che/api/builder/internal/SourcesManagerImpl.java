@@ -11,12 +11,11 @@
 package org.eclipse.che.api.builder.internal;
 
 import org.eclipse.che.api.builder.dto.BaseBuilderRequest;
-import org.eclipse.che.api.core.util.ValueHolder;
 import org.eclipse.che.commons.json.JsonHelper;
 import org.eclipse.che.commons.json.JsonParseException;
 import org.eclipse.che.commons.lang.IoUtil;
 import org.eclipse.che.commons.lang.Pair;
-import org.eclipse.che.commons.lang.ZipUtils;
+import com.google.common.hash.Hasher;
 import com.google.common.hash.Hashing;
 import com.google.common.io.CharStreams;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
@@ -26,36 +25,52 @@ import org.everrest.core.impl.header.HeaderParameterParser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.StringReader;
 import java.io.Writer;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 /**
- * Implementation of SourcesManager that stores sources locally and gets only updated files over virtual file system RESt API.
+ * Implementation of SourcesManager that stores sources locally and gets only updated files over virtual file system RESt API. Sources
+ * are provisioned into work directory of build with {@link WorkDirStrategy}. Locally stored files are never modified in place, updated
+ * files are written to the new files which replace old ones, so hard links to the stored files are safe.
  *
  * @author andrew00x
  * @author Eugene Voevodin
@@ -65,21 +80,33 @@ public class SourcesManagerImpl implements SourcesManager {
     private static final Logger LOG = LoggerFactory.getLogger(SourcesManagerImpl.class);
 
     private final java.io.File                        directory;
-    private final ConcurrentMap<String, Future<Void>> tasks;
+    private final ConcurrentMap<String, Future<String>> tasks;
+    /** Digests of sources which are provisioned to work directories, see {@link #getSourcesDigest(java.io.File)}. */
+    private final ConcurrentMap<java.io.File, String> digests;
     private final AtomicReference<String>             projectKeyHolder;
     private final Set<SourceManagerListener>          listeners;
     private final ScheduledExecutorService            executor;
+    private final ExecutorService                     hashExecutor;
+    private final WorkDirStrategy                     workDirStrategy;
 
     private static final long KEEP_PROJECT_TIME = TimeUnit.MINUTES.toMillis(30);
     private static final int  CONNECT_TIMEOUT   = (int)TimeUnit.MINUTES.toMillis(3);
     private static final int  READ_TIMEOUT      = (int)TimeUnit.MINUTES.toMillis(3);
 
     public SourcesManagerImpl(java.io.File directory) {
+        this(directory, WorkDirStrategy.COPY);
+    }
+
+    public SourcesManagerImpl(java.io.File directory, WorkDirStrategy workDirStrategy) {
         this.directory = directory;
+        this.workDirStrategy = workDirStrategy;
         tasks = new ConcurrentHashMap<>();
+        digests = new ConcurrentHashMap<>();
         projectKeyHolder = new AtomicReference<>();
         executor = Executors.newSingleThreadScheduledExecutor(
                 new ThreadFactoryBuilder().setNameFormat(getClass().getSimpleName() + "_FileCleaner").setDaemon(true).build());
+        hashExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new ThreadFactoryBuilder()
+                .setNameFormat(getClass().getSimpleName() + "_Hasher-%d").setDaemon(true).build());
         listeners = new CopyOnWriteArraySet<>();
     }
 
@@ -90,6 +117,7 @@ public class SourcesManagerImpl implements SourcesManager {
     public void stop() { // TODO: guice must do this
         listeners.clear();
         executor.shutdown();
+        hashExecutor.shutdownNow();
     }
 
     public void getSources(BuildLogger logger, BuilderConfiguration configuration) throws IOException {
@@ -116,20 +144,21 @@ public class SourcesManagerImpl implements SourcesManager {
             Thread.currentThread().interrupt();
         }
         // Avoid multiple threads download source of the same project.
-        Future<Void> future = tasks.get(key);
-        final ValueHolder<IOException> errorHolder = new ValueHolder<>();
+        Future<String> future = tasks.get(key);
         if (future == null) {
-            final FutureTask<Void> newFuture = new FutureTask<>(new Runnable() {
+            final FutureTask<String> newFuture = new FutureTask<>(new Callable<String>() {
                 @Override
-                public void run() {
+                public String call() throws IOException {
                     try {
                         download(sourcesUrl, srcDir);
+                        // Manifest is updated after download, so next download doesn't need to hash the same files again.
+                        return digest(countMd5Sums(srcDir));
                     } catch (IOException e) {
                         LOG.error(e.getMessage(), e);
-                        errorHolder.set(e);
+                        throw e;
                     }
                 }
-            }, null);
+            });
             future = tasks.putIfAbsent(key, newFuture);
             if (future == null) {
                 future = newFuture;
@@ -147,12 +176,9 @@ public class SourcesManagerImpl implements SourcesManager {
             }
         }
         try {
-            future.get(); // Block thread until download is completed.
-            final IOException ioError = errorHolder.get();
-            if (ioError != null) {
-                throw ioError;
-            }
-            IoUtil.copy(srcDir, workDir, IoUtil.ANY_FILTER);
+            final String digest = future.get(); // Block thread until download is completed.
+            workDirStrategy.provision(srcDir, workDir);
+            digests.put(workDir, digest);
             for (SourceManagerListener listener : listeners) {
                 listener.afterDownload(new SourceManagerEvent(workspace, project, sourcesUrl, workDir));
             }
@@ -162,10 +188,11 @@ public class SourcesManagerImpl implements SourcesManager {
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
         } catch (ExecutionException e) {
-            // Runnable does not throw checked exceptions.
             final Throwable cause = e.getCause();
             if (cause instanceof Error) {
                 throw (Error)cause;
+            } else if (cause instanceof IOException) {
+                throw (IOException)cause;
             } else {
                 throw (RuntimeException)cause;
             }
@@ -174,6 +201,34 @@ public class SourcesManagerImpl implements SourcesManager {
         }
     }
 
+    /**
+     * Gets digest of sources that are provisioned to the specified work directory by last call of method {@link #getSources}. Digest is
+     * calculated from md5sums and paths of all files, so it is the same for the same sources of different projects. Digest may be got only
+     * once, next call returns {@code null}.
+     *
+     * @param workDir
+     *         work directory of build
+     * @return digest of sources or {@code null}
+     */
+    public String getSourcesDigest(java.io.File workDir) {
+        return digests.remove(workDir);
+    }
+
+    private String digest(List<ManifestEntry> md5sums) {
+        final List<ManifestEntry> sorted = new ArrayList<>(md5sums);
+        Collections.sort(sorted, new Comparator<ManifestEntry>() {
+            @Override
+            public int compare(ManifestEntry a, ManifestEntry b) {
+                return a.path.compareTo(b.path);
+            }
+        });
+        final Hasher hasher = Hashing.sha1().newHasher();
+        for (ManifestEntry entry : sorted) {
+            hasher.putString(entry.md5, StandardCharsets.UTF_8).putChar(' ').putString(entry.path, StandardCharsets.UTF_8).putChar('\n');
+        }
+        return hasher.hash().toString();
+    }
+
     static final OutputStream DEV_NULL = new OutputStream() {
         public void write(byte[] b, int off, int len) {
         }
@@ -188,29 +243,7 @@ public class SourcesManagerImpl implements SourcesManager {
     private void download(String downloadUrl, java.io.File downloadTo) throws IOException {
         HttpURLConnection conn = null;
         try {
-            final LinkedList<java.io.File> q = new LinkedList<>();
-            q.add(downloadTo);
-            final long start = System.currentTimeMillis();
-            final List<Pair<String, String>> md5sums = new LinkedList<>();
-            while (!q.isEmpty()) {
-                java.io.File current = q.pop();
-                java.io.File[] list = current.listFiles();
-                if (list != null) {
-                    for (java.io.File f : list) {
-                        if (f.isDirectory()) {
-                            q.push(f);
-                        } else {
-                            md5sums.add(Pair.of(com.google.common.io.Files.hash(f, Hashing.md5()).toString(),
-                                                downloadTo.toPath().relativize(f.toPath()).toString()
-                                                          .replace("\\", "/"))); //Replacing of "\" is need for windows support
-                        }
-                    }
-                }
-            }
-            final long end = System.currentTimeMillis();
-            if (md5sums.size() > 0) {
-                LOG.debug("count md5sums of {} files, time: {}ms", md5sums.size(), (end - start));
-            }
+            final List<ManifestEntry> md5sums = countMd5Sums(downloadTo);
             conn = (HttpURLConnection)new URL(downloadUrl).openConnection();
             conn.setConnectTimeout(CONNECT_TIMEOUT);
             conn.setReadTimeout(READ_TIMEOUT);
@@ -221,10 +254,10 @@ public class SourcesManagerImpl implements SourcesManager {
                 conn.setDoOutput(true);
                 try (OutputStream output = conn.getOutputStream();
                      Writer writer = new OutputStreamWriter(output)) {
-                    for (Pair<String, String> pair : md5sums) {
-                        writer.write(pair.first);
+                    for (ManifestEntry entry : md5sums) {
+                        writer.write(entry.md5);
                         writer.write(' ');
-                        writer.write(pair.second);
+                        writer.write(entry.path);
                         writer.write('\n');
                     }
                 }
@@ -255,7 +288,9 @@ public class SourcesManagerImpl implements SourcesManager {
                                         try (FileOutputStream fOut = new FileOutputStream(tmp)) {
                                             multipart.readBodyData(fOut);
                                         }
-                                        ZipUtils.unzip(tmp, downloadTo);
+                                        try (InputStream zip = new FileInputStream(tmp)) {
+                                            unzip(zip, downloadTo);
+                                        }
                                     } finally {
                                         if (tmp.exists()) {
                                             tmp.delete();
@@ -264,7 +299,7 @@ public class SourcesManagerImpl implements SourcesManager {
                                 } else {
                                     final ByteArrayOutputStream bOut = new ByteArrayOutputStream(length);
                                     multipart.readBodyData(bOut);
-                                    ZipUtils.unzip(new ByteArrayInputStream(bOut.toByteArray()), downloadTo);
+                                    unzip(new ByteArrayInputStream(bOut.toByteArray()), downloadTo);
                                 }
                             } else if ("removed-paths".equals(name)) {
                                 final ByteArrayOutputStream bOut = new ByteArrayOutputStream();
@@ -286,7 +321,7 @@ public class SourcesManagerImpl implements SourcesManager {
                     }
                 } else {
                     try (InputStream in = conn.getInputStream()) {
-                        ZipUtils.unzip(in, downloadTo);
+                        unzip(in, downloadTo);
                     }
                 }
             } else if (responseCode != HttpURLConnection.HTTP_NO_CONTENT) {
@@ -301,6 +336,166 @@ public class SourcesManagerImpl implements SourcesManager {
         }
     }
 
+    /**
+     * Unpacks zip archive. Each file is written to the temporary file which then replaces existed file, so hard links to the existed file
+     * keep old content.
+     */
+    private void unzip(InputStream in, java.io.File downloadTo) throws IOException {
+        final Path root = downloadTo.toPath().toAbsolutePath().normalize();
+        final ZipInputStream zipIn = new ZipInputStream(in);
+        ZipEntry zipEntry;
+        while ((zipEntry = zipIn.getNextEntry()) != null) {
+            final Path path = root.resolve(zipEntry.getName()).normalize();
+            if (!path.startsWith(root)) {
+                throw new IOException(String.format("Invalid zip entry %s", zipEntry.getName()));
+            }
+            if (zipEntry.isDirectory()) {
+                Files.createDirectories(path);
+            } else {
+                Files.createDirectories(path.getParent());
+                final Path tmp = Files.createTempFile(path.getParent(), ".unzip", ".tmp");
+                try {
+                    Files.copy(zipIn, tmp, StandardCopyOption.REPLACE_EXISTING);
+                    Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } finally {
+                    Files.deleteIfExists(tmp);
+                }
+            }
+            zipIn.closeEntry();
+        }
+    }
+
+    /**
+     * Counts md5sums of all files in specified directory. Md5sums are kept in manifest file next to the directory together with size and
+     * modification date of each file. Only files which size or modification date is changed since last call of this method are hashed,
+     * hashing is performed in parallel.
+     */
+    private List<ManifestEntry> countMd5Sums(java.io.File srcDir) throws IOException {
+        final long start = System.currentTimeMillis();
+        final java.io.File manifestFile = new java.io.File(srcDir.getParentFile(), '.' + srcDir.getName() + ".manifest");
+        final Map<String, ManifestEntry> manifest = readManifest(manifestFile);
+        final List<ManifestEntry> md5sums = new ArrayList<>();
+        final List<Pair<ManifestEntry, Future<String>>> hashes = new ArrayList<>();
+        final LinkedList<java.io.File> q = new LinkedList<>();
+        q.add(srcDir);
+        while (!q.isEmpty()) {
+            java.io.File current = q.pop();
+            java.io.File[] list = current.listFiles();
+            if (list != null) {
+                for (final java.io.File f : list) {
+                    if (f.isDirectory()) {
+                        q.push(f);
+                    } else {
+                        //Replacing of "\" is need for windows support
+                        final String path = srcDir.toPath().relativize(f.toPath()).toString().replace("\\", "/");
+                        final long size = f.length();
+                        final long lastModified = f.lastModified();
+                        final ManifestEntry cached = manifest.get(path);
+                        if (cached != null && cached.size == size && cached.lastModified == lastModified) {
+                            md5sums.add(cached);
+                        } else {
+                            final Future<String> hash = hashExecutor.submit(new Callable<String>() {
+                                @Override
+                                public String call() throws IOException {
+                                    return com.google.common.io.Files.hash(f, Hashing.md5()).toString();
+                                }
+                            });
+                            hashes.add(Pair.of(new ManifestEntry(path, size, lastModified, null), hash));
+                        }
+                    }
+                }
+            }
+        }
+        try {
+            for (Pair<ManifestEntry, Future<String>> hash : hashes) {
+                final ManifestEntry entry = hash.first;
+                md5sums.add(new ManifestEntry(entry.path, entry.size, entry.lastModified, hash.second.get()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(e.getMessage());
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException)cause;
+            }
+            throw new IOException(cause.getMessage(), cause);
+        } finally {
+            for (Pair<ManifestEntry, Future<String>> hash : hashes) {
+                hash.second.cancel(true);
+            }
+        }
+        if (!(manifest.isEmpty() && md5sums.isEmpty())) {
+            writeManifest(manifestFile, md5sums);
+        }
+        final long end = System.currentTimeMillis();
+        if (md5sums.size() > 0) {
+            LOG.debug("count md5sums of {} files, {} files hashed, time: {}ms", md5sums.size(), hashes.size(), (end - start));
+        }
+        return md5sums;
+    }
+
+    private Map<String, ManifestEntry> readManifest(java.io.File manifestFile) {
+        final Map<String, ManifestEntry> manifest = new HashMap<>();
+        if (!manifestFile.exists()) {
+            return manifest;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(manifestFile.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                // <md5> <size> <modification date> <path>
+                final String[] parts = line.split(" ", 4);
+                if (parts.length == 4) {
+                    manifest.put(parts[3], new ManifestEntry(parts[3], Long.parseLong(parts[1]), Long.parseLong(parts[2]), parts[0]));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // Not critical, all files are hashed again.
+            LOG.warn("Unable read manifest {}: {}", manifestFile, e.getMessage());
+            manifest.clear();
+        }
+        return manifest;
+    }
+
+    private void writeManifest(java.io.File manifestFile, List<ManifestEntry> md5sums) {
+        final java.io.File tmp = new java.io.File(manifestFile.getParentFile(), manifestFile.getName() + ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(tmp.toPath(), StandardCharsets.UTF_8)) {
+                for (ManifestEntry entry : md5sums) {
+                    writer.write(entry.md5);
+                    writer.write(' ');
+                    writer.write(Long.toString(entry.size));
+                    writer.write(' ');
+                    writer.write(Long.toString(entry.lastModified));
+                    writer.write(' ');
+                    writer.write(entry.path);
+                    writer.write('\n');
+                }
+            }
+            Files.move(tmp.toPath(), manifestFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // Not critical, all files are hashed next time.
+            LOG.warn("Unable save manifest {}: {}", manifestFile, e.getMessage());
+            if (tmp.exists() && !tmp.delete()) {
+                LOG.warn("Unable delete file {}", tmp);
+            }
+        }
+    }
+
+    private static class ManifestEntry {
+        final String path;
+        final long   size;
+        final long   lastModified;
+        final String md5;
+
+        ManifestEntry(String path, long size, long lastModified, String md5) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.md5 = md5;
+        }
+    }
+
     private Map<String, List<String>> parseChunkHeader(List<String> rawHeaders) throws IOException {
         final Map<String, List<String>> headers = new HashMap<>();
         for (String field : rawHeaders) {
@@ -0,0 +1,178 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.builder.internal;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Describes how cached sources of project are provisioned into work directory of build.
+ * <p/>
+ * {@link #HARD_LINK} creates tree of directories and hard links to the cached files, content of files is not copied at all. Cached files
+ * are never modified in place, {@link SourcesManagerImpl} replaces them with new files when sources are updated, so work directories of
+ * builds which are running keep the previous version. Builder that modifies sources in place must call {@link #detach(java.io.File)}
+ * before or use {@link #COPY}. If hard links are not supported, e.g. sources and work directory are on different file systems, files are
+ * copied.
+ * <p/>
+ * {@link #COPY} copies files in parallel. It is used by default, builder uses {@link #HARD_LINK} only if it overrides
+ * {@link Builder#getWorkDirStrategy()}.
+ *
+ * @author andrew00x
+ */
+public enum WorkDirStrategy {
+    COPY {
+        @Override
+        public void provision(java.io.File srcDir, java.io.File workDir) throws IOException {
+            copyTree(srcDir.toPath(), workDir.toPath(), false);
+        }
+    },
+    HARD_LINK {
+        @Override
+        public void provision(java.io.File srcDir, java.io.File workDir) throws IOException {
+            copyTree(srcDir.toPath(), workDir.toPath(), true);
+        }
+    };
+
+    private static final Logger LOG = LoggerFactory.getLogger(WorkDirStrategy.class);
+
+    /** Number of files that are copied by one task. */
+    private static final int COPY_BATCH_SIZE = 64;
+
+    /**
+     * Provisions content of {@code srcDir} into {@code workDir}.
+     *
+     * @param srcDir
+     *         directory with cached sources
+     * @param workDir
+     *         work directory of build
+     */
+    public abstract void provision(java.io.File srcDir, java.io.File workDir) throws IOException;
+
+    /**
+     * Replaces hard link with private copy of file. Modification of file after this call doesn't affect cached sources and work
+     * directories of other builds. Does nothing if file has no other links or if file system doesn't report number of links.
+     */
+    public static void detach(java.io.File file) throws IOException {
+        final Path path = file.toPath();
+        final Object links;
+        try {
+            links = Files.getAttribute(path, "unix:nlink");
+        } catch (UnsupportedOperationException | IllegalArgumentException e) {
+            return;
+        }
+        if (links instanceof Integer && (Integer)links > 1) {
+            final Path tmp = Files.createTempFile(path.getParent(), '.' + file.getName(), ".tmp");
+            try {
+                Files.copy(path, tmp, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+                Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        }
+    }
+
+    private static void copyTree(Path srcDir, Path workDir, boolean link) throws IOException {
+        final long start = System.currentTimeMillis();
+        Files.createDirectories(workDir);
+        final List<Path> files = new ArrayList<>();
+        final LinkedList<Path> q = new LinkedList<>();
+        q.add(srcDir);
+        while (!q.isEmpty()) {
+            final Path current = q.pop();
+            final java.io.File[] list = current.toFile().listFiles();
+            if (list != null) {
+                for (java.io.File f : list) {
+                    final Path path = f.toPath();
+                    if (f.isDirectory()) {
+                        Files.createDirectories(workDir.resolve(srcDir.relativize(path)));
+                        q.push(path);
+                    } else {
+                        files.add(path);
+                    }
+                }
+            }
+        }
+        int linked = 0;
+        if (link) {
+            try {
+                for (Path file : files) {
+                    Files.createLink(workDir.resolve(srcDir.relativize(file)), file);
+                    linked++;
+                }
+            } catch (UnsupportedOperationException | FileSystemException e) {
+                LOG.debug("Unable create hard link in {}, copy files: {}", workDir, e.getMessage());
+            }
+        }
+        if (linked < files.size()) {
+            copyFiles(srcDir, workDir, files.subList(linked, files.size()));
+        }
+        final long end = System.currentTimeMillis();
+        LOG.debug("Provision {} files in {}, {} linked, time: {} ms", files.size(), workDir, linked, (end - start));
+    }
+
+    private static void copyFiles(final Path srcDir, final Path workDir, List<Path> files) throws IOException {
+        final List<Future<Void>> results = new ArrayList<>();
+        try {
+            for (int i = 0, size = files.size(); i < size; i += COPY_BATCH_SIZE) {
+                final List<Path> batch = files.subList(i, Math.min(size, i + COPY_BATCH_SIZE));
+                results.add(ExecutorHolder.COPIERS.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws IOException {
+                        for (Path file : batch) {
+                            Files.copy(file, workDir.resolve(srcDir.relativize(file)), StandardCopyOption.REPLACE_EXISTING,
+                                       StandardCopyOption.COPY_ATTRIBUTES);
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> result : results) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(e.getMessage());
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException)cause;
+            }
+            throw new IOException(cause.getMessage(), cause);
+        } finally {
+            for (Future<Void> result : results) {
+                result.cancel(true);
+            }
+        }
+    }
+
+    private static class ExecutorHolder {
+        static final ExecutorService COPIERS = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+                                                                            new ThreadFactoryBuilder().setNameFormat("WorkDirCopier-%d")
+                                                                                                      .setDaemon(true).build());
+    }
+}
@@ -10,8 +10,125 @@
  *******************************************************************************/
 package org.eclipse.che.api.builder;
 
+import org.eclipse.che.api.builder.dto.BuildRequest;
+import org.eclipse.che.api.builder.dto.BuilderDescriptor;
+import org.eclipse.che.api.builder.dto.BuilderMetric;
+import org.eclipse.che.api.builder.dto.BuilderState;
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.rest.shared.dto.Link;
+import org.eclipse.che.dto.server.DtoFactory;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
 /**
  * @author andrew00x
  */
 public class BuildQueueTest {
+    private BuildQueue      queue;
+    private TestBuilder     builder;
+    private ExecutorService executor;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        queue = new BuildQueue(null, null, 10, 10, 10, new LastInUseBuilderSelectionStrategy(), new EventService());
+        builder = new TestBuilder();
+        // Slave-builder has single worker.
+        builder.state = newBuilderState(1, Collections.<Long>emptyList());
+        queue.doRegisterBuilderServer(new RemoteBuilderServer("http://localhost/builder") {
+            @Override
+            public List<RemoteBuilder> getRemoteBuilders() {
+                return Collections.<RemoteBuilder>singletonList(builder);
+            }
+        });
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testReleaseWorkerOfLostTask() throws Exception {
+        final BuildRequest request = newBuildRequest(1L);
+        Assert.assertSame(queue.getBuilder(request), builder);
+        // Task is done but result of it is lost.
+        final FutureTask<RemoteTask> future = new FutureTask<>(new Callable<RemoteTask>() {
+            @Override
+            public RemoteTask call() throws Exception {
+                return null;
+            }
+        });
+        future.run();
+        queue.tasks.put(1L, new BuildQueueTask(1L, request, 10000, future, null));
+
+        queue.removeExpiredTasks();
+        Assert.assertTrue(queue.tasks.isEmpty());
+        Assert.assertSame(getBuilder(newBuildRequest(2L)), builder);
+    }
+
+    @Test
+    public void testReleaseWorkerOfTaskThatIsNotReportedBySlaveBuilder() throws Exception {
+        Assert.assertSame(queue.getBuilder(newBuildRequest(1L)), builder);
+        // Slave-builder doesn't report task and has free worker, e.g. event about end of task is lost.
+        builder.state = newBuilderState(1, Collections.<Long>emptyList());
+
+        queue.updateCapacityOfBuilders();
+        queue.updateCapacityOfBuilders();
+        Assert.assertSame(getBuilder(newBuildRequest(2L)), builder);
+    }
+
+    /** Gets builder for request in separate thread since BuildQueue waits for free worker infinitely. */
+    private RemoteBuilder getBuilder(final BuildRequest request) throws Exception {
+        return executor.submit(new Callable<RemoteBuilder>() {
+            @Override
+            public RemoteBuilder call() throws Exception {
+                return queue.getBuilder(request);
+            }
+        }).get(5, TimeUnit.SECONDS);
+    }
+
+    private BuildRequest newBuildRequest(long id) {
+        return (BuildRequest)DtoFactory.getInstance().createDto(BuildRequest.class).withId(id).withBuilder("test")
+                                       .withWorkspace("my-ws").withProject("my-project");
+    }
+
+    private BuilderState newBuilderState(int freeWorkers, List<Long> activeTasks) {
+        final DtoFactory dtoFactory = DtoFactory.getInstance();
+        return dtoFactory.createDto(BuilderState.class)
+                         .withName("test")
+                         .withFreeWorkers(freeWorkers)
+                         .withActiveTasks(activeTasks)
+                         .withStats(Collections.singletonList(dtoFactory.createDto(BuilderMetric.class)
+                                                                        .withName(BuilderMetric.NUMBER_OF_WORKERS)
+                                                                        .withValue("1")));
+    }
+
+    private static class TestBuilder extends RemoteBuilder {
+        volatile BuilderState state;
+
+        TestBuilder() {
+            super("http://localhost/builder", DtoFactory.getInstance().createDto(BuilderDescriptor.class).withName("test"),
+                  Collections.<Link>emptyList());
+        }
+
+        @Override
+        public ListenableFuture<BuilderState> getBuilderStateAsync() {
+            return Futures.immediateFuture(state);
+        }
+    }
 }
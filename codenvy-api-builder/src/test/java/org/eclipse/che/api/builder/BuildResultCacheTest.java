@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.builder;
+
+import org.eclipse.che.api.builder.internal.BuildResult;
+import org.eclipse.che.api.builder.internal.BuildResultCache;
+import org.eclipse.che.commons.lang.IoUtil;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/** @author andrew00x */
+public class BuildResultCacheTest {
+    private File root;
+    private File cacheDir;
+    private File buildDir;
+    private File workDir;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        root = Files.createTempDirectory("build-cache").toFile();
+        cacheDir = new File(root, "cache");
+        buildDir = new File(root, "build1");
+        workDir = new File(buildDir, "project");
+        Files.createDirectories(new File(workDir, "target").toPath());
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        IoUtil.deleteRecursive(root);
+    }
+
+    @Test
+    public void testRestoreAfterRestart() throws Exception {
+        final File artifact = createArtifact("app.war", 100);
+        new BuildResultCache(cacheDir, 1000).put("key", new BuildResult(true, Arrays.asList(artifact)), workDir, buildDir);
+
+        final BuildResultCache cache = new BuildResultCache(cacheDir, 1000);
+        final File newBuildDir = new File(root, "build2");
+        final File newWorkDir = new File(newBuildDir, "project");
+        Assert.assertTrue(cache.restore("key", newWorkDir, newBuildDir));
+        Assert.assertEquals(new File(newWorkDir, "target/app.war").length(), 100);
+        Assert.assertFalse(cache.restore("unknown", newWorkDir, newBuildDir));
+    }
+
+    @Test
+    public void testEvictLeastRecentlyUsed() throws Exception {
+        final BuildResultCache cache = new BuildResultCache(cacheDir, 250);
+        cache.put("key1", new BuildResult(true, Arrays.asList(createArtifact("app1.war", 100))), workDir, buildDir);
+        cache.put("key2", new BuildResult(true, Arrays.asList(createArtifact("app2.war", 100))), workDir, buildDir);
+        final File newBuildDir = new File(root, "build2");
+        Assert.assertTrue(cache.restore("key1", new File(newBuildDir, "project"), newBuildDir));
+        cache.put("key3", new BuildResult(true, Arrays.asList(createArtifact("app3.war", 100))), workDir, buildDir);
+        Assert.assertTrue(new File(cacheDir, "key1").exists());
+        Assert.assertFalse(new File(cacheDir, "key2").exists());
+        Assert.assertTrue(new File(cacheDir, "key3").exists());
+    }
+
+    @Test
+    public void testRemoveOnlyExpiredIncompleteEntriesAtStart() throws Exception {
+        final File incomplete = new File(cacheDir, ".incomplete");
+        final File expired = new File(cacheDir, ".expired");
+        Files.createDirectories(incomplete.toPath());
+        Files.createDirectories(expired.toPath());
+        Assert.assertTrue(expired.setLastModified(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(2)));
+
+        new BuildResultCache(cacheDir, 1000);
+        Assert.assertTrue(incomplete.exists());
+        Assert.assertFalse(expired.exists());
+    }
+
+    private File createArtifact(String name, int size) throws Exception {
+        final File artifact = new File(workDir, "target/" + name);
+        Files.write(artifact.toPath(), new byte[size]);
+        return artifact;
+    }
+}
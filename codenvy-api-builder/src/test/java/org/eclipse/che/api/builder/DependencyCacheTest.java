@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.builder;
+
+import org.eclipse.che.api.builder.dto.BuilderMetric;
+import org.eclipse.che.api.builder.internal.DependencyCache;
+import org.eclipse.che.commons.lang.IoUtil;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/** @author andrew00x */
+public class DependencyCacheTest {
+    private File root;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        root = Files.createTempDirectory("dependency-cache").toFile();
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        IoUtil.deleteRecursive(root);
+    }
+
+    @Test
+    public void testCommitLayer() throws Exception {
+        final DependencyCache cache = new DependencyCache(root, 1000);
+        DependencyCache.Layer layer = cache.openLayer();
+        createFile(new File(layer.getDirectory(), "org/test/a/1.0/a-1.0.jar"), 100);
+        cache.commit(layer);
+        Assert.assertTrue(new File(layer.getSharedDirectory(), "org/test/a/1.0/a-1.0.jar").exists());
+        Assert.assertFalse(layer.getDirectory().exists());
+
+        layer = cache.openLayer();
+        cache.commit(layer);
+
+        final Map<String, String> stats = new HashMap<>();
+        for (BuilderMetric metric : cache.getStats()) {
+            stats.put(metric.getName(), metric.getValue());
+        }
+        Assert.assertEquals(stats.get(BuilderMetric.DEPENDENCY_CACHE_SIZE), "100");
+        Assert.assertEquals(stats.get(BuilderMetric.DEPENDENCY_CACHE_HITS), "1");
+        Assert.assertEquals(stats.get(BuilderMetric.DEPENDENCY_CACHE_MISSES), "1");
+    }
+
+    @Test
+    public void testEvictLeastRecentlyUsed() throws Exception {
+        final DependencyCache cache = new DependencyCache(root, 250);
+        final long now = System.currentTimeMillis();
+        DependencyCache.Layer layer = cache.openLayer();
+        createFile(new File(layer.getDirectory(), "org/test/a/1.0/a-1.0.jar"), 100);
+        createFile(new File(layer.getDirectory(), "org/test/b/1.0/b-1.0.jar"), 100);
+        cache.commit(layer);
+        final File shared = layer.getSharedDirectory();
+        setUsageTime(new File(shared, "org/test/a/1.0/a-1.0.jar"), now);
+        setUsageTime(new File(shared, "org/test/b/1.0/b-1.0.jar"), now - 60000);
+
+        layer = cache.openLayer();
+        createFile(new File(layer.getDirectory(), "org/test/c/1.0/c-1.0.jar"), 100);
+        cache.commit(layer);
+        Assert.assertTrue(new File(shared, "org/test/a/1.0/a-1.0.jar").exists());
+        Assert.assertFalse(new File(shared, "org/test/b/1.0/b-1.0.jar").exists());
+        Assert.assertTrue(new File(shared, "org/test/c/1.0/c-1.0.jar").exists());
+    }
+
+    @Test
+    public void testDoNotEvictWhileLayerIsOpen() throws Exception {
+        final DependencyCache cache = new DependencyCache(root, 250);
+        final long past = System.currentTimeMillis() - 60000;
+        DependencyCache.Layer layer = cache.openLayer();
+        createFile(new File(layer.getDirectory(), "org/test/a/1.0/a-1.0.jar"), 100);
+        createFile(new File(layer.getDirectory(), "org/test/b/1.0/b-1.0.jar"), 100);
+        cache.commit(layer);
+        final File shared = layer.getSharedDirectory();
+        // Access time isn't updated when build task reads artifacts, e.g. file system is mounted with noatime.
+        setUsageTime(new File(shared, "org/test/a/1.0/a-1.0.jar"), past);
+        setUsageTime(new File(shared, "org/test/b/1.0/b-1.0.jar"), past - 1000);
+
+        final DependencyCache.Layer running = cache.openLayer();
+        layer = cache.openLayer();
+        createFile(new File(layer.getDirectory(), "org/test/c/1.0/c-1.0.jar"), 100);
+        cache.commit(layer);
+        Assert.assertTrue(new File(shared, "org/test/a/1.0/a-1.0.jar").exists());
+        Assert.assertTrue(new File(shared, "org/test/b/1.0/b-1.0.jar").exists());
+        Assert.assertTrue(new File(shared, "org/test/c/1.0/c-1.0.jar").exists());
+
+        cache.release(running);
+        Assert.assertTrue(new File(shared, "org/test/a/1.0/a-1.0.jar").exists());
+        Assert.assertFalse(new File(shared, "org/test/b/1.0/b-1.0.jar").exists());
+        Assert.assertTrue(new File(shared, "org/test/c/1.0/c-1.0.jar").exists());
+    }
+
+    private void createFile(File file, int size) throws Exception {
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.write(file.toPath(), new byte[size]);
+    }
+
+    private void setUsageTime(File file, long time) throws Exception {
+        Files.setLastModifiedTime(file.toPath(), FileTime.fromMillis(time));
+        Files.setAttribute(file.toPath(), "lastAccessTime", FileTime.fromMillis(time));
+    }
+}
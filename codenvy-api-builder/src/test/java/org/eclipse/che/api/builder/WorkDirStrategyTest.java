@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.builder;
+
+import org.eclipse.che.api.builder.internal.WorkDirStrategy;
+import org.eclipse.che.commons.lang.IoUtil;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/** @author andrew00x */
+public class WorkDirStrategyTest {
+    private File root;
+    private File srcDir;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        root = Files.createTempDirectory("work-dir-strategy").toFile();
+        srcDir = new File(root, "src");
+        Files.createDirectories(new File(srcDir, "a/b").toPath());
+        write(new File(srcDir, "file1"), "file1");
+        write(new File(srcDir, "a/file2"), "file2");
+        write(new File(srcDir, "a/b/file3"), "file3");
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        IoUtil.deleteRecursive(root);
+    }
+
+    @Test
+    public void testCopy() throws Exception {
+        final File workDir = new File(root, "copy");
+        WorkDirStrategy.COPY.provision(srcDir, workDir);
+        assertContent(workDir);
+        write(new File(workDir, "a/file2"), "modified");
+        Assert.assertEquals(read(new File(srcDir, "a/file2")), "file2");
+    }
+
+    @Test
+    public void testHardLink() throws Exception {
+        final File workDir = new File(root, "link");
+        WorkDirStrategy.HARD_LINK.provision(srcDir, workDir);
+        assertContent(workDir);
+        final File file = new File(workDir, "a/file2");
+        WorkDirStrategy.detach(file);
+        write(file, "modified");
+        Assert.assertEquals(read(new File(srcDir, "a/file2")), "file2");
+        Assert.assertEquals(read(file), "modified");
+    }
+
+    private void assertContent(File workDir) throws Exception {
+        Assert.assertEquals(read(new File(workDir, "file1")), "file1");
+        Assert.assertEquals(read(new File(workDir, "a/file2")), "file2");
+        Assert.assertEquals(read(new File(workDir, "a/b/file3")), "file3");
+    }
+
+    private void write(File file, String content) throws Exception {
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String read(File file) throws Exception {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+}
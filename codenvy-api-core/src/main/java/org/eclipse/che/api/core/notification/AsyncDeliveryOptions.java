@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.notification;
+
+/**
+ * Describes how events are delivered to subscriber that is registered with {@link EventService#subscribe(EventSubscriber,
+ * AsyncDeliveryOptions)}. Events are put in one of {@link #getPartitions() partitions} of subscriber and delivered to subscriber in
+ * separate thread. Partition is selected by key of event, see {@link KeyResolver}. Events with the same key are always delivered in order
+ * they were published.
+ *
+ * @author andrew00x
+ */
+public class AsyncDeliveryOptions {
+    /** Defines what happens when partition of subscriber is full. */
+    public enum OverflowPolicy {
+        /** Event is dropped and counted in {@link EventService.DeliveryStats#getDropped()}. Used by default. */
+        DROP,
+        /**
+         * Publisher is blocked until there is free space in partition. Events are delivered by shared pool with fixed number of threads,
+         * so every publisher waits for the slowest subscriber with this policy and subscriber that publishes events to its own full queue,
+         * or to full queue of other such subscriber, may block all threads of pool forever. Use it only for subscribers which never
+         * publish events and never block.
+         */
+        BLOCK
+    }
+
+    /** Resolves key of event. Events with the same key are delivered to subscriber in order they were published. */
+    public interface KeyResolver {
+        /** Gets key of event. May return {@code null}, all such events share the same partition. */
+        Object getKey(Object event);
+    }
+
+    /**
+     * Event that provides its own key, e.g. id of task it relates to. Used by subscribers which get events of different types and can't
+     * have specific {@link KeyResolver}.
+     */
+    public interface KeyedEvent {
+        /** Gets key of event. Events with the same key and of the same type are delivered in order they were published. */
+        Object deliveryKey();
+    }
+
+    public static final int DEFAULT_PARTITIONS = 4;
+    public static final int DEFAULT_QUEUE_SIZE = 1024;
+
+    public static AsyncDeliveryOptions newOptions() {
+        return new AsyncDeliveryOptions();
+    }
+
+    private int            partitions     = DEFAULT_PARTITIONS;
+    private int            queueSize      = DEFAULT_QUEUE_SIZE;
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
+    private KeyResolver    keyResolver;
+
+    /** Gets number of partitions of subscriber. */
+    public int getPartitions() {
+        return partitions;
+    }
+
+    public AsyncDeliveryOptions withPartitions(int partitions) {
+        if (partitions <= 0) {
+            throw new IllegalArgumentException("Number of partitions must be greater than 0");
+        }
+        this.partitions = partitions;
+        return this;
+    }
+
+    /** Gets max number of not delivered events in each partition. */
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    public AsyncDeliveryOptions withQueueSize(int queueSize) {
+        if (queueSize <= 0) {
+            throw new IllegalArgumentException("Size of queue must be greater than 0");
+        }
+        this.queueSize = queueSize;
+        return this;
+    }
+
+    /** Gets policy that is applied when partition of subscriber is full, {@link OverflowPolicy#DROP} by default. */
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public AsyncDeliveryOptions withOverflowPolicy(OverflowPolicy overflowPolicy) {
+        if (overflowPolicy == null) {
+            throw new IllegalArgumentException("Null overflow policy");
+        }
+        this.overflowPolicy = overflowPolicy;
+        return this;
+    }
+
+    /** Gets resolver of keys of events. If it is {@code null} all events are delivered through single partition. */
+    public KeyResolver getKeyResolver() {
+        return keyResolver;
+    }
+
+    public AsyncDeliveryOptions withKeyResolver(KeyResolver keyResolver) {
+        this.keyResolver = keyResolver;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "AsyncDeliveryOptions{" +
+               "partitions=" + partitions +
+               ", queueSize=" + queueSize +
+               ", overflowPolicy=" + overflowPolicy +
+               ", keyResolver=" + keyResolver +
+               '}';
+    }
+}
@@ -0,0 +1,153 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.notification;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Wraps subscriber and delivers events to it asynchronously. Each partition has own bounded queue of events that is drained by one thread
+ * at a time, so events from the same partition are delivered in order they were published.
+ *
+ * @author andrew00x
+ */
+class AsyncEventSubscriber implements EventSubscriber<Object> {
+    private static final Logger LOG = LoggerFactory.getLogger(AsyncEventSubscriber.class);
+
+    /** Max number of events that are delivered in one run. After that thread is given back to executor and may serve other partitions. */
+    private static final int MAX_EVENTS_PER_RUN = 64;
+
+    private final EventSubscriber<Object>             delegate;
+    private final AsyncDeliveryOptions.KeyResolver    keyResolver;
+    private final AsyncDeliveryOptions.OverflowPolicy overflowPolicy;
+    private final Executor                            executor;
+    private final Partition[]                         partitions;
+    private final AtomicLong                          delivered;
+    private final AtomicLong                          dropped;
+
+    private volatile long lag;
+
+    @SuppressWarnings("unchecked")
+    AsyncEventSubscriber(EventSubscriber<?> delegate, AsyncDeliveryOptions options, Executor executor) {
+        this.delegate = (EventSubscriber<Object>)delegate;
+        this.executor = executor;
+        keyResolver = options.getKeyResolver();
+        overflowPolicy = options.getOverflowPolicy();
+        partitions = new Partition[keyResolver == null ? 1 : options.getPartitions()];
+        for (int i = 0; i < partitions.length; i++) {
+            partitions[i] = new Partition(options.getQueueSize());
+        }
+        delivered = new AtomicLong();
+        dropped = new AtomicLong();
+    }
+
+    @Override
+    public void onEvent(Object event) {
+        final Object key = keyResolver == null ? null : keyResolver.getKey(event);
+        final int index = key == null ? 0 : (key.hashCode() & Integer.MAX_VALUE) % partitions.length;
+        partitions[index].offer(new Envelope(event));
+    }
+
+    EventSubscriber<Object> getDelegate() {
+        return delegate;
+    }
+
+    EventService.DeliveryStats getStats() {
+        long pending = 0;
+        for (Partition partition : partitions) {
+            pending += partition.queue.size();
+        }
+        return new EventService.DeliveryStats(pending, delivered.get(), dropped.get(), lag);
+    }
+
+    private static class Envelope {
+        final Object event;
+        final long   time;
+
+        Envelope(Object event) {
+            this.event = event;
+            this.time = System.currentTimeMillis();
+        }
+    }
+
+    private class Partition implements Runnable {
+        final ArrayBlockingQueue<Envelope> queue;
+        final AtomicBoolean                scheduled;
+
+        Partition(int queueSize) {
+            queue = new ArrayBlockingQueue<>(queueSize);
+            scheduled = new AtomicBoolean();
+        }
+
+        void offer(Envelope envelope) {
+            if (overflowPolicy == AsyncDeliveryOptions.OverflowPolicy.BLOCK) {
+                if (!queue.offer(envelope)) {
+                    // Let subscriber drain queue before block publisher.
+                    schedule();
+                    try {
+                        queue.put(envelope);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        dropped.incrementAndGet();
+                        return;
+                    }
+                }
+            } else if (!queue.offer(envelope)) {
+                dropped.incrementAndGet();
+                return;
+            }
+            schedule();
+        }
+
+        void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    // EventService is stopped.
+                    scheduled.set(false);
+                    dropped.addAndGet(queue.size());
+                    queue.clear();
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                Envelope envelope;
+                int num = 0;
+                while (num < MAX_EVENTS_PER_RUN && (envelope = queue.poll()) != null) {
+                    lag = System.currentTimeMillis() - envelope.time;
+                    try {
+                        delegate.onEvent(envelope.event);
+                    } catch (RuntimeException e) {
+                        LOG.error(e.getMessage(), e);
+                    }
+                    delivered.incrementAndGet();
+                    num++;
+                }
+            } finally {
+                scheduled.set(false);
+                // Events might be added after we got last event from the queue but before reset the flag.
+                if (!queue.isEmpty()) {
+                    schedule();
+                }
+            }
+        }
+    }
+}
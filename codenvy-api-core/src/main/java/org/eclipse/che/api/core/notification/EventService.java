@@ -14,9 +14,12 @@ import org.eclipse.che.commons.lang.cache.Cache;
 import org.eclipse.che.commons.lang.cache.LoadingValueSLRUCache;
 import org.eclipse.che.commons.lang.cache.SynchronizedCache;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Singleton;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
@@ -27,6 +30,9 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Dispatchers events to listeners. Usage example:
@@ -40,6 +46,22 @@ import java.util.concurrent.CopyOnWriteArraySet;
  *     });
  *     bus.publish(new MyEvent());
  * </pre>
+ * By default events are delivered to subscribers synchronously in thread that publishes event. Subscriber that is slow or may block (e.g.
+ * sends events over network) should be registered with {@link #subscribe(EventSubscriber, AsyncDeliveryOptions)}, then events are
+ * delivered to it in separate thread and publisher isn't affected by it:
+ * <pre>
+ *     bus.subscribe(new EventSubscriber&lt;MyEvent&gt;() {
+ *         &#64;Override
+ *         public void onEvent(MyEvent event) {
+ *             // send event to remote client
+ *         }
+ *     }, AsyncDeliveryOptions.newOptions().withKeyResolver(new AsyncDeliveryOptions.KeyResolver() {
+ *         &#64;Override
+ *         public Object getKey(Object event) {
+ *             return ((MyEvent)event).getTaskId();
+ *         }
+ *     }));
+ * </pre>
  *
  * @author andrew00x
  */
@@ -51,12 +73,25 @@ public class EventService {
     private static final int CACHE_MASK = CACHE_NUM - 1;
     private static final int SEG_SIZE   = 32;
 
-    private final Cache<Class<?>, Set<Class<?>>>[]              typeCache;
-    private final ConcurrentMap<Class<?>, Set<EventSubscriber>> subscribersByEventType;
+    private final Cache<Class<?>, Set<Class<?>>>[]                        typeCache;
+    private final ConcurrentMap<Class<?>, Set<EventSubscriber>>           subscribersByEventType;
+    private final ConcurrentMap<EventSubscriber<?>, AsyncEventSubscriber> asyncSubscribers;
+
+    /** Runs tasks with current executor of asynchronous subscribers, so subscribers get new one if service is stopped and used again. */
+    private final Executor                                                asyncDelivery;
+
+    private ExecutorService asyncExecutor;
 
     @SuppressWarnings("unchecked")
     public EventService() {
         subscribersByEventType = new ConcurrentHashMap<>();
+        asyncSubscribers = new ConcurrentHashMap<>();
+        asyncDelivery = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                getAsyncExecutor().execute(command);
+            }
+        };
         typeCache = new Cache[CACHE_NUM];
         for (int i = 0; i < CACHE_NUM; i++) {
             typeCache[i] = new SynchronizedCache<>(new LoadingValueSLRUCache<Class<?>, Set<Class<?>>>(SEG_SIZE, SEG_SIZE) {
@@ -116,7 +151,44 @@ public class EventService {
      *         event subscriber
      */
     public void subscribe(EventSubscriber<?> subscriber) {
+        doSubscribe(getEventType(subscriber), subscriber);
+    }
+
+    /**
+     * Subscribe event listener that gets events asynchronously. Events are put in bounded queue of subscriber and delivered to subscriber
+     * in separate thread. Events with the same key (see {@link AsyncDeliveryOptions.KeyResolver}) are delivered in order they were
+     * published. When queue of subscriber is full event is dropped, or publisher is blocked if subscriber explicitly uses {@link
+     * AsyncDeliveryOptions.OverflowPolicy#BLOCK BLOCK} policy, see {@link AsyncDeliveryOptions#getOverflowPolicy()}. Subscriber must not
+     * publish events that it receives itself if it uses {@link AsyncDeliveryOptions.OverflowPolicy#BLOCK BLOCK} policy, otherwise it may
+     * block forever. Such subscriber is removed with {@link #unsubscribe(EventSubscriber)} as usual.
+     *
+     * @param subscriber
+     *         event subscriber
+     * @param options
+     *         options of delivery
+     */
+    public void subscribe(EventSubscriber<?> subscriber, AsyncDeliveryOptions options) {
         final Class<?> eventType = getEventType(subscriber);
+        final AsyncEventSubscriber asyncSubscriber = new AsyncEventSubscriber(subscriber, options, asyncDelivery);
+        if (asyncSubscribers.putIfAbsent(subscriber, asyncSubscriber) == null) {
+            doSubscribe(eventType, asyncSubscriber);
+        }
+    }
+
+    /**
+     * Gets statistic of delivery of events to subscriber that was registered with {@link #subscribe(EventSubscriber,
+     * AsyncDeliveryOptions)}.
+     *
+     * @param subscriber
+     *         event subscriber
+     * @return statistic of delivery or {@code null} if subscriber isn't registered or gets events synchronously
+     */
+    public DeliveryStats getDeliveryStats(EventSubscriber<?> subscriber) {
+        final AsyncEventSubscriber asyncSubscriber = asyncSubscribers.get(subscriber);
+        return asyncSubscriber == null ? null : asyncSubscriber.getStats();
+    }
+
+    private void doSubscribe(Class<?> eventType, EventSubscriber<?> subscriber) {
         Set<EventSubscriber> entries = subscribersByEventType.get(eventType);
         if (entries == null) {
             Set<EventSubscriber> newEntries = new CopyOnWriteArraySet<>();
@@ -138,7 +210,8 @@ public class EventService {
         final Class<?> eventType = getEventType(subscriber);
         final Set<EventSubscriber> entries = subscribersByEventType.get(eventType);
         if (entries != null && !entries.isEmpty()) {
-            boolean changed = entries.remove(subscriber);
+            final AsyncEventSubscriber asyncSubscriber = asyncSubscribers.remove(subscriber);
+            boolean changed = entries.remove(asyncSubscriber == null ? subscriber : asyncSubscriber);
             if (changed) {
                 if (entries.isEmpty()) {
                     subscribersByEventType.remove(eventType);
@@ -147,6 +220,31 @@ public class EventService {
         }
     }
 
+    /**
+     * Stops threads that deliver events to asynchronous subscribers. Events that aren't delivered yet are lost. New threads are started if
+     * events are published to asynchronous subscribers after this call.
+     */
+    @PreDestroy
+    public void stop() {
+        synchronized (asyncSubscribers) {
+            if (asyncExecutor != null) {
+                asyncExecutor.shutdownNow();
+                asyncExecutor = null;
+            }
+        }
+    }
+
+    private ExecutorService getAsyncExecutor() {
+        synchronized (asyncSubscribers) {
+            if (asyncExecutor == null) {
+                asyncExecutor = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()),
+                                                             new ThreadFactoryBuilder().setNameFormat("EventService-%d")
+                                                                                       .setDaemon(true).build());
+            }
+            return asyncExecutor;
+        }
+    }
+
     private Class<?> getEventType(EventSubscriber<?> subscriber) {
         Class<?> eventType = null;
         Class<?> clazz = subscriber.getClass();
@@ -172,4 +270,49 @@ public class EventService {
         }
         return eventType;
     }
+
+    /** Statistic of delivery of events to asynchronous subscriber. */
+    public static class DeliveryStats {
+        private final long pending;
+        private final long delivered;
+        private final long dropped;
+        private final long lag;
+
+        DeliveryStats(long pending, long delivered, long dropped, long lag) {
+            this.pending = pending;
+            this.delivered = delivered;
+            this.dropped = dropped;
+            this.lag = lag;
+        }
+
+        /** Gets number of events that are waiting for delivery. */
+        public long getPending() {
+            return pending;
+        }
+
+        /** Gets number of events that are delivered to subscriber. */
+        public long getDelivered() {
+            return delivered;
+        }
+
+        /** Gets number of events that are dropped because queue of subscriber was full. */
+        public long getDropped() {
+            return dropped;
+        }
+
+        /** Gets time in milliseconds between publication and delivery of last delivered event. */
+        public long getLag() {
+            return lag;
+        }
+
+        @Override
+        public String toString() {
+            return "DeliveryStats{" +
+                   "pending=" + pending +
+                   ", delivered=" + delivered +
+                   ", dropped=" + dropped +
+                   ", lag=" + lag +
+                   '}';
+        }
+    }
 }
@@ -22,6 +22,7 @@ import javax.ws.rs.Consumes;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.core.MediaType;
+import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -61,12 +62,22 @@ public final class WSocketEventBusServer {
     void start() {
         if (start.compareAndSet(false, true)) {
             if (policy != null) {
+                // Sending over websocket may be slow, don't block publishers of events. Keep order of events of the same type that
+                // relate to the same task, so busy task doesn't delay events of others.
                 eventService.subscribe(new EventSubscriber<Object>() {
                     @Override
                     public void onEvent(Object event) {
                         propagate(event);
                     }
-                });
+                }, AsyncDeliveryOptions.newOptions().withKeyResolver(new AsyncDeliveryOptions.KeyResolver() {
+                    @Override
+                    public Object getKey(Object event) {
+                        if (event instanceof AsyncDeliveryOptions.KeyedEvent) {
+                            return Arrays.asList(event.getClass(), ((AsyncDeliveryOptions.KeyedEvent)event).deliveryKey());
+                        }
+                        return event.getClass();
+                    }
+                }));
             }
         }
     }
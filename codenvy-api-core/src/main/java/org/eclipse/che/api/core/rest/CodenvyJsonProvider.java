@@ -80,7 +80,7 @@ public class CodenvyJsonProvider<T> implements MessageBodyReader<T>, MessageBody
         if (type.isAnnotationPresent(DTO.class)) {
             Writer w = new OutputStreamWriter(entityStream, Charset.forName("UTF-8"));
             try {
-                w.write(DtoFactory.getInstance().toJson(t));
+                DtoFactory.getInstance().toJson(t, w);
             } finally {
                 w.flush();
             }
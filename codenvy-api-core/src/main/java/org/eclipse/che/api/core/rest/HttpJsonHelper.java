@@ -19,23 +19,40 @@ import org.eclipse.che.api.core.rest.shared.dto.Link;
 import org.eclipse.che.api.core.rest.shared.dto.ServiceError;
 import org.eclipse.che.commons.env.EnvironmentContext;
 import org.eclipse.che.commons.lang.Pair;
+import org.eclipse.che.commons.lang.concurrent.ThreadLocalPropagateContext;
 import org.eclipse.che.commons.user.User;
 import org.eclipse.che.dto.server.DtoFactory;
 import com.google.common.io.CharStreams;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriBuilder;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Provides helper method to send HTTP requests with JSON content.
+ * <p/>
+ * Connections are not closed explicitly after successful request, response is read until the end and JDK keeps underlying socket in its
+ * keep-alive cache for reusing with next request to the same host. Number of idle connections per host is controlled with standard
+ * system property {@code http.maxConnections}. Methods {@code requestAsync} and {@code requestArrayAsync} send requests in separate
+ * thread, they are useful for polling many remote services at once.
  *
  * @author andrew00x
  */
@@ -187,6 +204,69 @@ public class HttpJsonHelper {
         return httpJsonHelperImpl.requestArray(dtoInterface, timeout, url, method, body, parameters);
     }
 
+    /**
+     * Sends HTTP request to specified {@code url} asynchronously. Request is sent in the same environment context as the calling thread.
+     *
+     * @see #request(Class, int, String, String, Object, Pair[])
+     */
+    public static <DTO> ListenableFuture<DTO> requestAsync(Class<DTO> dtoInterface,
+                                                           int timeout,
+                                                           String url,
+                                                           String method,
+                                                           Object body,
+                                                           Pair<String, ?>... parameters) {
+        return httpJsonHelperImpl.requestAsync(dtoInterface, timeout, url, method, body, parameters);
+    }
+
+    public static <DTO> ListenableFuture<DTO> requestAsync(Class<DTO> dtoInterface,
+                                                           String url,
+                                                           String method,
+                                                           Object body,
+                                                           Pair<String, ?>... parameters) {
+        return requestAsync(dtoInterface, -1, url, method, body, parameters);
+    }
+
+    public static <DTO> ListenableFuture<DTO> requestAsync(Class<DTO> dtoInterface, int timeout, Link link, Object body,
+                                                           Pair<String, ?>... parameters) {
+        return requestAsync(dtoInterface, timeout, link.getHref(), link.getMethod(), body, parameters);
+    }
+
+    public static <DTO> ListenableFuture<DTO> requestAsync(Class<DTO> dtoInterface, Link link, Object body, Pair<String, ?>... parameters) {
+        return requestAsync(dtoInterface, -1, link, body, parameters);
+    }
+
+    public static <DTO> ListenableFuture<DTO> requestAsync(Class<DTO> dtoInterface, int timeout, Link link, Pair<String, ?>... parameters) {
+        return requestAsync(dtoInterface, timeout, link, null, parameters);
+    }
+
+    public static <DTO> ListenableFuture<DTO> requestAsync(Class<DTO> dtoInterface, Link link, Pair<String, ?>... parameters) {
+        return requestAsync(dtoInterface, -1, link, null, parameters);
+    }
+
+    /**
+     * Sends HTTP request to specified {@code url} asynchronously. Request is sent in the same environment context as the calling thread.
+     *
+     * @see #requestArray(Class, int, String, String, Object, Pair[])
+     */
+    public static <DTO> ListenableFuture<List<DTO>> requestArrayAsync(Class<DTO> dtoInterface,
+                                                                      int timeout,
+                                                                      String url,
+                                                                      String method,
+                                                                      Object body,
+                                                                      Pair<String, ?>... parameters) {
+        return httpJsonHelperImpl.requestArrayAsync(dtoInterface, timeout, url, method, body, parameters);
+    }
+
+    public static <DTO> ListenableFuture<List<DTO>> requestArrayAsync(Class<DTO> dtoInterface, int timeout, Link link, Object body,
+                                                                      Pair<String, ?>... parameters) {
+        return requestArrayAsync(dtoInterface, timeout, link.getHref(), link.getMethod(), body, parameters);
+    }
+
+    public static <DTO> ListenableFuture<List<DTO>> requestArrayAsync(Class<DTO> dtoInterface, int timeout, Link link,
+                                                                      Pair<String, ?>... parameters) {
+        return requestArrayAsync(dtoInterface, timeout, link, null, parameters);
+    }
+
     /**
      * Sends GET request to specified {@code url}.
      *
@@ -329,8 +409,23 @@ public class HttpJsonHelper {
     private HttpJsonHelper() {
     }
 
+    /** Executor for asynchronous requests. Created on first asynchronous request. */
+    private static class AsyncExecutorHolder {
+        static final ListeningExecutorService INSTANCE;
+
+        static {
+            final int threads = Math.max(8, Runtime.getRuntime().availableProcessors() * 4);
+            final ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                                                                       new LinkedBlockingQueue<Runnable>(),
+                                                                       new ThreadFactoryBuilder().setNameFormat("HttpJsonHelper-%d")
+                                                                                                 .setDaemon(true).build());
+            executor.allowCoreThreadTimeOut(true);
+            INSTANCE = MoreExecutors.listeningDecorator(executor);
+        }
+    }
+
     /**
-     * Execute all request from HttpJsonHelper throw single method  requestString.
+     * Execute all request from HttpJsonHelper throw single method doRequest.
      */
     public static class HttpJsonHelperImpl {
 
@@ -343,18 +438,22 @@ public class HttpJsonHelper {
             return request(dtoInterface, -1, url, method, body, parameters);
         }
 
-        public <DTO> DTO request(Class<DTO> dtoInterface,
+        public <DTO> DTO request(final Class<DTO> dtoInterface,
                                  int timeout,
                                  String url,
                                  String method,
                                  Object body,
                                  Pair<String, ?>... parameters)
                 throws IOException, ServerException, UnauthorizedException, ForbiddenException, NotFoundException, ConflictException {
-            final String str = requestString(timeout, url, method, body, parameters);
-            if (dtoInterface != null) {
-                return DtoFactory.getInstance().createDtoFromJson(str, dtoInterface);
-            }
-            return null;
+            return doRequest(timeout, url, method, body, parameters, new ResponseReader<DTO>() {
+                @Override
+                public DTO read(Reader reader) throws IOException {
+                    if (dtoInterface != null) {
+                        return DtoFactory.getInstance().createDtoFromJson(reader, dtoInterface);
+                    }
+                    return null;
+                }
+            });
         }
 
         public <DTO> List<DTO> requestArray(Class<DTO> dtoInterface,
@@ -366,18 +465,50 @@ public class HttpJsonHelper {
             return requestArray(dtoInterface, -1, url, method, body, parameters);
         }
 
-        public <DTO> List<DTO> requestArray(Class<DTO> dtoInterface,
+        public <DTO> List<DTO> requestArray(final Class<DTO> dtoInterface,
                                             int timeout,
                                             String url,
                                             String method,
                                             Object body,
                                             Pair<String, ?>... parameters)
                 throws IOException, ServerException, UnauthorizedException, ForbiddenException, NotFoundException, ConflictException {
-            final String str = requestString(timeout, url, method, body, parameters);
-            if (dtoInterface != null) {
-                return DtoFactory.getInstance().createListDtoFromJson(str, dtoInterface);
-            }
-            return null;
+            return doRequest(timeout, url, method, body, parameters, new ResponseReader<List<DTO>>() {
+                @Override
+                public List<DTO> read(Reader reader) throws IOException {
+                    if (dtoInterface != null) {
+                        return DtoFactory.getInstance().createListDtoFromJson(reader, dtoInterface);
+                    }
+                    return null;
+                }
+            });
+        }
+
+        public <DTO> ListenableFuture<DTO> requestAsync(final Class<DTO> dtoInterface,
+                                                        final int timeout,
+                                                        final String url,
+                                                        final String method,
+                                                        final Object body,
+                                                        final Pair<String, ?>... parameters) {
+            return AsyncExecutorHolder.INSTANCE.submit(ThreadLocalPropagateContext.wrap(new Callable<DTO>() {
+                @Override
+                public DTO call() throws Exception {
+                    return request(dtoInterface, timeout, url, method, body, parameters);
+                }
+            }));
+        }
+
+        public <DTO> ListenableFuture<List<DTO>> requestArrayAsync(final Class<DTO> dtoInterface,
+                                                                   final int timeout,
+                                                                   final String url,
+                                                                   final String method,
+                                                                   final Object body,
+                                                                   final Pair<String, ?>... parameters) {
+            return AsyncExecutorHolder.INSTANCE.submit(ThreadLocalPropagateContext.wrap(new Callable<List<DTO>>() {
+                @Override
+                public List<DTO> call() throws Exception {
+                    return requestArray(dtoInterface, timeout, url, method, body, parameters);
+                }
+            }));
         }
 
         private String getAuthenticationToken() {
@@ -402,6 +533,21 @@ public class HttpJsonHelper {
                                     Object body,
                                     Pair<String, ?>... parameters)
                 throws IOException, ServerException, ForbiddenException, NotFoundException, UnauthorizedException, ConflictException {
+            return doRequest(timeout, url, method, body, parameters, new ResponseReader<String>() {
+                @Override
+                public String read(Reader reader) throws IOException {
+                    return CharStreams.toString(reader);
+                }
+            });
+        }
+
+        private <T> T doRequest(int timeout,
+                                String url,
+                                String method,
+                                Object body,
+                                Pair<String, ?>[] parameters,
+                                ResponseReader<T> responseReader)
+                throws IOException, ServerException, ForbiddenException, NotFoundException, UnauthorizedException, ConflictException {
             final String authToken = getAuthenticationToken();
             if ((parameters != null && parameters.length > 0) || authToken != null) {
                 final UriBuilder ub = UriBuilder.fromUri(url);
@@ -421,6 +567,8 @@ public class HttpJsonHelper {
             final HttpURLConnection conn = (HttpURLConnection)new URL(url).openConnection();
             conn.setConnectTimeout(timeout > 0 ? timeout : 60000);
             conn.setReadTimeout(timeout > 0 ? timeout : 60000);
+            // Connection is returned to the keep-alive cache if response is read until the end, otherwise close it.
+            boolean reusable = false;
             try {
                 conn.setRequestMethod(method);
                 if (body != null) {
@@ -432,8 +580,8 @@ public class HttpJsonHelper {
                         conn.setRequestProperty("X-HTTP-Method-Override", "DELETE");
                     }
 
-                    try (OutputStream output = conn.getOutputStream()) {
-                        output.write(DtoFactory.getInstance().toJson(body).getBytes());
+                    try (Writer output = new OutputStreamWriter(conn.getOutputStream(), StandardCharsets.UTF_8)) {
+                        DtoFactory.getInstance().toJson(body, output);
                     }
                 }
 
@@ -443,8 +591,11 @@ public class HttpJsonHelper {
                     if (in == null) {
                         in = conn.getInputStream();
                     }
-                    final InputStream fIn = in;
-                    final String str = CharStreams.toString(new InputStreamReader(fIn));
+                    final String str;
+                    try (InputStream fIn = in) {
+                        str = CharStreams.toString(new InputStreamReader(fIn, StandardCharsets.UTF_8));
+                    }
+                    reusable = true;
                     final String contentType = conn.getContentType();
                     if (contentType != null && contentType.startsWith("application/json")) {
                         final ServiceError serviceError = DtoFactory.getInstance().createDtoFromJson(str, ServiceError.class);
@@ -473,10 +624,25 @@ public class HttpJsonHelper {
                                           " Retry the request. If this issue continues, contact. support.");
                 }
 
-                return CharStreams.toString(new InputStreamReader(conn.getInputStream()));
+                try (InputStream in = conn.getInputStream()) {
+                    final T result = responseReader.read(new InputStreamReader(in, StandardCharsets.UTF_8));
+                    // Skip the rest of response, e.g. trailing whitespaces, otherwise connection isn't reused.
+                    final byte[] buf = new byte[1024];
+                    while (in.read(buf) != -1) {
+                    }
+                    reusable = true;
+                    return result;
+                }
             } finally {
-                conn.disconnect();
+                if (!reusable) {
+                    conn.disconnect();
+                }
             }
         }
     }
+
+    /** Reads content of successful response. */
+    private interface ResponseReader<T> {
+        T read(Reader reader) throws IOException;
+    }
 }
@@ -0,0 +1,427 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.util;
+
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Work queue for {@link java.util.concurrent.ThreadPoolExecutor} that shares threads of the pool fairly between owners of tasks. Tasks
+ * that implement {@link Task} are grouped by {@link Task#getGroup() group} (e.g. account) and {@link Task#getKey() key} (e.g.
+ * workspace). Queue hands out tasks in round-robin order: first between groups, then between keys inside the group. Besides, not more
+ * than {@code maxTasksPerKey} tasks with the same key may be taken from the queue at the same time. Tasks that don't implement {@link
+ * Task} share the same anonymous key and aren't limited by quota.
+ * <p/>
+ * Executor must call {@link #release(Runnable)} after execution of each task, typically from {@code ThreadPoolExecutor.afterExecute}.
+ * Executor should start all core threads, see {@code ThreadPoolExecutor.prestartAllCoreThreads}, otherwise new tasks may be passed to the
+ * new threads directly, bypassing this queue.
+ *
+ * @author andrew00x
+ */
+public class FairShareBlockingQueue extends AbstractQueue<Runnable> implements BlockingQueue<Runnable> {
+    /** Task that is aware about its owner. */
+    public interface Task extends Runnable {
+        /** Gets name of group of task, e.g. id of account. May be {@code null}. */
+        String getGroup();
+
+        /** Gets key of task, e.g. id of workspace. May be {@code null}. */
+        String getKey();
+    }
+
+    private static final String ANONYMOUS = "";
+
+    private final int                                                                capacity;
+    private final int                                                                maxTasksPerKey;
+    private final ReentrantLock                                                      lock;
+    private final Condition                                                          notEmpty;
+    private final LinkedHashMap<String, LinkedHashMap<String, ArrayDeque<Runnable>>> groups;
+    private final Map<String, Integer>                                               takenPerKey;
+
+    private int count;
+    private int taken;
+
+    /**
+     * @param capacity
+     *         max number of tasks in queue
+     * @param maxTasksPerKey
+     *         max number of tasks with the same key that may be taken from the queue (i.e. processed by executor) at the same time
+     */
+    public FairShareBlockingQueue(int capacity, int maxTasksPerKey) {
+        if (capacity <= 0 || maxTasksPerKey <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.capacity = capacity;
+        this.maxTasksPerKey = maxTasksPerKey;
+        lock = new ReentrantLock();
+        notEmpty = lock.newCondition();
+        groups = new LinkedHashMap<>();
+        takenPerKey = new HashMap<>();
+    }
+
+    public FairShareBlockingQueue(int maxTasksPerKey) {
+        this(Integer.MAX_VALUE, maxTasksPerKey);
+    }
+
+    /**
+     * Notifies this queue that execution of the task is done. Executor must call this method for each task that it took from this queue.
+     *
+     * @param task
+     *         task
+     */
+    public void release(Runnable task) {
+        final String key = getKey(task);
+        lock.lock();
+        try {
+            final Integer num = takenPerKey.get(key);
+            if (num != null) {
+                if (num > 1) {
+                    takenPerKey.put(key, num - 1);
+                } else {
+                    takenPerKey.remove(key);
+                }
+                taken--;
+                // Some tasks might wait because of quota.
+                notEmpty.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Gets number of tasks that are taken from the queue but are not released yet. */
+    public int getTakenNum() {
+        lock.lock();
+        try {
+            return taken;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Gets number of keys (e.g. workspaces) that have tasks in this queue. */
+    public int getKeysNum() {
+        lock.lock();
+        try {
+            int num = 0;
+            for (LinkedHashMap<String, ArrayDeque<Runnable>> keys : groups.values()) {
+                num += keys.size();
+            }
+            return num;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getMaxTasksPerKey() {
+        return maxTasksPerKey;
+    }
+
+    @Override
+    public boolean offer(Runnable task) {
+        if (task == null) {
+            throw new NullPointerException();
+        }
+        lock.lock();
+        try {
+            if (count == capacity) {
+                return false;
+            }
+            final String group = getGroup(task);
+            LinkedHashMap<String, ArrayDeque<Runnable>> keys = groups.get(group);
+            if (keys == null) {
+                groups.put(group, keys = new LinkedHashMap<>());
+            }
+            final String key = getKey(task);
+            ArrayDeque<Runnable> tasks = keys.get(key);
+            if (tasks == null) {
+                keys.put(key, tasks = new ArrayDeque<>());
+            }
+            tasks.add(task);
+            count++;
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void put(Runnable task) throws InterruptedException {
+        if (!offer(task)) {
+            throw new IllegalStateException("Queue is full");
+        }
+    }
+
+    @Override
+    public boolean offer(Runnable task, long timeout, TimeUnit unit) throws InterruptedException {
+        return offer(task);
+    }
+
+    @Override
+    public Runnable take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            Runnable task;
+            while ((task = dequeue()) == null) {
+                notEmpty.await();
+            }
+            return task;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            Runnable task;
+            while ((task = dequeue()) == null) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return task;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable poll() {
+        lock.lock();
+        try {
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable peek() {
+        lock.lock();
+        try {
+            for (LinkedHashMap<String, ArrayDeque<Runnable>> keys : groups.values()) {
+                for (Map.Entry<String, ArrayDeque<Runnable>> entry : keys.entrySet()) {
+                    if (isUnderQuota(entry.getKey())) {
+                        return entry.getValue().peek();
+                    }
+                }
+            }
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!(o instanceof Runnable)) {
+            return false;
+        }
+        final Runnable task = (Runnable)o;
+        lock.lock();
+        try {
+            final String group = getGroup(task);
+            final LinkedHashMap<String, ArrayDeque<Runnable>> keys = groups.get(group);
+            if (keys == null) {
+                return false;
+            }
+            final String key = getKey(task);
+            final ArrayDeque<Runnable> tasks = keys.get(key);
+            if (tasks == null || !tasks.remove(task)) {
+                return false;
+            }
+            count--;
+            if (tasks.isEmpty()) {
+                keys.remove(key);
+                if (keys.isEmpty()) {
+                    groups.remove(group);
+                }
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int remainingCapacity() {
+        lock.lock();
+        try {
+            return capacity - count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int drainTo(Collection<? super Runnable> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super Runnable> c, int maxElements) {
+        if (c == this) {
+            throw new IllegalArgumentException();
+        }
+        lock.lock();
+        try {
+            // Don't care about fair order or quotas here, typically this method is used by executor when it is shutting down.
+            int num = 0;
+            for (Iterator<LinkedHashMap<String, ArrayDeque<Runnable>>> i = groups.values().iterator(); i.hasNext() && num < maxElements; ) {
+                final LinkedHashMap<String, ArrayDeque<Runnable>> keys = i.next();
+                for (Iterator<ArrayDeque<Runnable>> j = keys.values().iterator(); j.hasNext() && num < maxElements; ) {
+                    final ArrayDeque<Runnable> tasks = j.next();
+                    while (!tasks.isEmpty() && num < maxElements) {
+                        c.add(tasks.poll());
+                        num++;
+                    }
+                    if (tasks.isEmpty()) {
+                        j.remove();
+                    }
+                }
+                if (keys.isEmpty()) {
+                    i.remove();
+                }
+            }
+            count -= num;
+            return num;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Returns iterator over snapshot of content of this queue. */
+    @Override
+    public Iterator<Runnable> iterator() {
+        lock.lock();
+        try {
+            final List<Runnable> snapshot = new ArrayList<>(count);
+            for (LinkedHashMap<String, ArrayDeque<Runnable>> keys : groups.values()) {
+                for (ArrayDeque<Runnable> tasks : keys.values()) {
+                    snapshot.addAll(tasks);
+                }
+            }
+            final Iterator<Runnable> delegate = snapshot.iterator();
+            return new Iterator<Runnable>() {
+                Runnable current;
+
+                @Override
+                public boolean hasNext() {
+                    return delegate.hasNext();
+                }
+
+                @Override
+                public Runnable next() {
+                    return current = delegate.next();
+                }
+
+                @Override
+                public void remove() {
+                    if (current == null) {
+                        throw new IllegalStateException();
+                    }
+                    FairShareBlockingQueue.this.remove(current);
+                    current = null;
+                }
+            };
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /* Must be called while holding lock. Returns null if there is no task that may be taken at the moment. */
+    private Runnable dequeue() {
+        if (count == 0) {
+            return null;
+        }
+        for (Map.Entry<String, LinkedHashMap<String, ArrayDeque<Runnable>>> groupEntry : groups.entrySet()) {
+            final LinkedHashMap<String, ArrayDeque<Runnable>> keys = groupEntry.getValue();
+            for (Map.Entry<String, ArrayDeque<Runnable>> keyEntry : keys.entrySet()) {
+                final String key = keyEntry.getKey();
+                if (isUnderQuota(key)) {
+                    final ArrayDeque<Runnable> tasks = keyEntry.getValue();
+                    final Runnable task = tasks.poll();
+                    count--;
+                    if (task instanceof Task) {
+                        final Integer num = takenPerKey.get(key);
+                        takenPerKey.put(key, num == null ? 1 : num + 1);
+                        taken++;
+                    }
+                    // Move key and group at the end of queue, so others get their chance next time.
+                    final String group = groupEntry.getKey();
+                    keys.remove(key);
+                    if (!tasks.isEmpty()) {
+                        keys.put(key, tasks);
+                    }
+                    groups.remove(group);
+                    if (!keys.isEmpty()) {
+                        groups.put(group, keys);
+                    }
+                    if (count > 0) {
+                        // Let other waiting threads check whether they may take tasks with other keys.
+                        notEmpty.signal();
+                    }
+                    return task;
+                }
+            }
+        }
+        return null;
+    }
+
+    private boolean isUnderQuota(String key) {
+        if (ANONYMOUS.equals(key)) {
+            return true;
+        }
+        final Integer num = takenPerKey.get(key);
+        return num == null || num < maxTasksPerKey;
+    }
+
+    private static String getGroup(Runnable task) {
+        if (task instanceof Task) {
+            final String group = ((Task)task).getGroup();
+            return group == null ? ANONYMOUS : group;
+        }
+        return ANONYMOUS;
+    }
+
+    private static String getKey(Runnable task) {
+        if (task instanceof Task) {
+            final String key = ((Task)task).getKey();
+            return key == null ? ANONYMOUS : key;
+        }
+        return ANONYMOUS;
+    }
+}
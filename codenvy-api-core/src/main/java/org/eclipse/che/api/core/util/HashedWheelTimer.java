@@ -0,0 +1,211 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.util;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timer that is optimized for big number of timeouts which are usually cancelled before they expire, e.g. timeouts of builds or
+ * applications. All timeouts are served by one background thread. Timeouts are put in the buckets of the wheel, the wheel moves one
+ * bucket per tick and expires timeouts from the current bucket. Precision of timer is one tick. Expired tasks are executed in separate
+ * threads, so long running task doesn't delay other timeouts.
+ *
+ * @author andrew00x
+ */
+public final class HashedWheelTimer {
+    private static final Logger LOG = LoggerFactory.getLogger(HashedWheelTimer.class);
+
+    private final long                   tickMillis;
+    private final Queue<HashedTimeout>[] wheel;
+    private final int                    mask;
+    private final Queue<HashedTimeout>   newTimeouts;
+    private final ExecutorService        executor;
+    private final Thread                 worker;
+    private final long                   startTime;
+
+    private boolean started;
+    private long    tick;
+
+    /**
+     * @param name
+     *         name of background thread
+     * @param tick
+     *         duration of one tick
+     * @param unit
+     *         unit of tick duration
+     * @param wheelSize
+     *         number of buckets in the wheel, rounded up to the nearest power of two
+     */
+    @SuppressWarnings("unchecked")
+    public HashedWheelTimer(String name, long tick, TimeUnit unit, int wheelSize) {
+        if (tick < 1 || wheelSize < 1) {
+            throw new IllegalArgumentException();
+        }
+        tickMillis = Math.max(1, unit.toMillis(tick));
+        int size = 1;
+        while (size < wheelSize) {
+            size <<= 1;
+        }
+        wheel = new Queue[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new ArrayDeque<>();
+        }
+        mask = size - 1;
+        newTimeouts = new ConcurrentLinkedQueue<>();
+        executor = Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat(name + "-%d").setDaemon(true).build());
+        worker = new Thread(new Worker(), name);
+        worker.setDaemon(true);
+        startTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Schedules execution of {@code task} after specified delay.
+     *
+     * @return timeout which may be used for cancellation of task
+     */
+    public Timeout newTimeout(Runnable task, long delay, TimeUnit unit) {
+        if (task == null) {
+            throw new IllegalArgumentException("Task may not be null. ");
+        }
+        synchronized (this) {
+            if (!started) {
+                worker.start();
+                started = true;
+            }
+        }
+        final HashedTimeout timeout = new HashedTimeout(task, System.currentTimeMillis() + unit.toMillis(delay));
+        newTimeouts.add(timeout);
+        return timeout;
+    }
+
+    /** Schedules new timeouts that were added since last tick. Called from worker thread only. */
+    private void transferNewTimeouts() {
+        HashedTimeout timeout;
+        while ((timeout = newTimeouts.poll()) != null) {
+            if (timeout.isCancelled()) {
+                continue;
+            }
+            final long expireTick = (timeout.deadline - startTime) / tickMillis;
+            timeout.remainingRounds = (expireTick - tick) / wheel.length;
+            wheel[(int)(Math.max(expireTick, tick) & mask)].add(timeout);
+        }
+    }
+
+    /** Expires timeouts of the current bucket. Called from worker thread only. */
+    private void expireTimeouts() {
+        final Queue<HashedTimeout> bucket = wheel[(int)(tick & mask)];
+        for (Iterator<HashedTimeout> i = bucket.iterator(); i.hasNext(); ) {
+            final HashedTimeout timeout = i.next();
+            if (timeout.isCancelled()) {
+                i.remove();
+            } else if (timeout.remainingRounds <= 0) {
+                i.remove();
+                if (timeout.expire()) {
+                    try {
+                        executor.execute(timeout.task);
+                    } catch (RuntimeException e) {
+                        LOG.error(e.getMessage(), e);
+                    }
+                }
+            } else {
+                timeout.remainingRounds--;
+            }
+        }
+    }
+
+    private class Worker implements Runnable {
+        @Override
+        public void run() {
+            for (; ; ) {
+                final long deadline = startTime + (tick + 1) * tickMillis;
+                long sleep;
+                while ((sleep = deadline - System.currentTimeMillis()) > 0) {
+                    try {
+                        Thread.sleep(sleep);
+                    } catch (InterruptedException ignored) {
+                        // Not expected to be thrown
+                    }
+                }
+                transferNewTimeouts();
+                expireTimeouts();
+                tick++;
+            }
+        }
+    }
+
+    /** Handle of task scheduled with {@link HashedWheelTimer}. */
+    public interface Timeout {
+        /**
+         * Cancels execution of task.
+         *
+         * @return {@code true} if task is cancelled and {@code false} if task is already started or cancelled
+         */
+        boolean cancel();
+
+        boolean isCancelled();
+
+        boolean isExpired();
+    }
+
+    private static class HashedTimeout implements Timeout {
+        private static final int INIT      = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED   = 2;
+
+        final Runnable task;
+        final long     deadline;
+        long remainingRounds;
+
+        private int state;
+
+        HashedTimeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public synchronized boolean cancel() {
+            if (state != INIT) {
+                return false;
+            }
+            state = CANCELLED;
+            return true;
+        }
+
+        @Override
+        public synchronized boolean isCancelled() {
+            return state == CANCELLED;
+        }
+
+        @Override
+        public synchronized boolean isExpired() {
+            return state == EXPIRED;
+        }
+
+        synchronized boolean expire() {
+            if (state != INIT) {
+                return false;
+            }
+            state = EXPIRED;
+            return true;
+        }
+    }
+}
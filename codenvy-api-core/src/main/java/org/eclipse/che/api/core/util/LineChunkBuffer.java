@@ -0,0 +1,253 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.util;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Coalesces lines of output in chunks. Chunk is flushed when it gets {@code maxLines} lines or {@code maxChars} characters or when {@code
+ * flushDelay} milliseconds elapsed since the first line was added in chunk. Lines are numbered from 1, each chunk knows number of its
+ * first line and number of lines in it. Lines in chunk are separated with '\n'.
+ * <p/>
+ * Typically it's used for sending output of long running processes (e.g. build) to clients, it is much cheaper to send one message with
+ * hundreds of lines than hundreds of messages with one line each.
+ *
+ * @author andrew00x
+ */
+public abstract class LineChunkBuffer implements Closeable {
+    private static final Logger LOG = LoggerFactory.getLogger(LineChunkBuffer.class);
+
+    public static final int  DEFAULT_MAX_LINES   = 200;
+    public static final int  DEFAULT_MAX_CHARS   = 32 * 1024;
+    public static final long DEFAULT_FLUSH_DELAY = 50;
+
+    /** Timer for flushing chunks by delay. It only takes chunks, they are delivered by {@link #DELIVERER}. */
+    private static final ScheduledExecutorService FLUSHER   = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("LineChunkBuffer-Flusher").setDaemon(true).build());
+    /** Delivers chunks that are flushed by timer, so slow delivery of one buffer doesn't delay chunks of other buffers. */
+    private static final ExecutorService          DELIVERER = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setNameFormat("LineChunkBuffer-Deliverer-%d").setDaemon(true).build());
+
+    private final int           maxLines;
+    private final int           maxChars;
+    private final long          flushDelay;
+    private final StringBuilder chunk;
+    private final Runnable      flushTask;
+    private final Runnable      deliveryTask;
+    private final Queue<Chunk>  ready;
+    private final Lock          deliveryLock;
+
+    private int                nextLineNum;
+    private int                firstLineNum;
+    private int                lineCount;
+    private ScheduledFuture<?> scheduledFlush;
+    /** {@code true} if {@link #deliveryTask} is submitted to {@link #DELIVERER} and isn't finished yet. */
+    private boolean            delivering;
+    private boolean            closed;
+
+    /**
+     * @param maxLines
+     *         max number of lines in chunk
+     * @param maxChars
+     *         max number of characters in chunk, chunk may be bigger if it contains single line that is longer than this limit
+     * @param flushDelay
+     *         max time in milliseconds that line may stay in buffer
+     */
+    protected LineChunkBuffer(int maxLines, int maxChars, long flushDelay) {
+        if (maxLines <= 0 || maxChars <= 0 || flushDelay < 0) {
+            throw new IllegalArgumentException();
+        }
+        this.maxLines = maxLines;
+        this.maxChars = maxChars;
+        this.flushDelay = flushDelay;
+        chunk = new StringBuilder();
+        ready = new ArrayDeque<>();
+        deliveryLock = new ReentrantLock();
+        nextLineNum = 1;
+        flushTask = new Runnable() {
+            @Override
+            public void run() {
+                synchronized (LineChunkBuffer.this) {
+                    takeChunk();
+                    if (ready.isEmpty() || delivering) {
+                        return;
+                    }
+                    delivering = true;
+                }
+                DELIVERER.execute(deliveryTask);
+            }
+        };
+        deliveryTask = new Runnable() {
+            @Override
+            public void run() {
+                for (; ; ) {
+                    try {
+                        deliver();
+                    } catch (RuntimeException e) {
+                        LOG.error(e.getMessage(), e);
+                    }
+                    synchronized (LineChunkBuffer.this) {
+                        // Chunk may be taken by timer while this task delivers previous one.
+                        if (ready.isEmpty()) {
+                            delivering = false;
+                            return;
+                        }
+                    }
+                }
+            }
+        };
+    }
+
+    protected LineChunkBuffer() {
+        this(DEFAULT_MAX_LINES, DEFAULT_MAX_CHARS, DEFAULT_FLUSH_DELAY);
+    }
+
+    /**
+     * Adds line in the current chunk. If this buffer is closed line is flushed immediately.
+     *
+     * @param line
+     *         line
+     * @return number of line
+     */
+    public int writeLine(String line) {
+        final int lineNum;
+        final boolean hasReady;
+        synchronized (this) {
+            if (closed) {
+                lineNum = nextLineNum++;
+                ready.add(new Chunk(line, lineNum, 1));
+            } else {
+                if (lineCount > 0 && chunk.length() + line.length() + 1 > maxChars) {
+                    takeChunk();
+                }
+                if (lineCount == 0) {
+                    firstLineNum = nextLineNum;
+                } else {
+                    chunk.append('\n');
+                }
+                chunk.append(line);
+                lineCount++;
+                lineNum = nextLineNum++;
+                if (lineCount >= maxLines || chunk.length() >= maxChars || flushDelay == 0) {
+                    takeChunk();
+                } else if (scheduledFlush == null) {
+                    scheduledFlush = FLUSHER.schedule(flushTask, flushDelay, TimeUnit.MILLISECONDS);
+                }
+            }
+            hasReady = !ready.isEmpty();
+        }
+        if (hasReady) {
+            deliver();
+        }
+        return lineNum;
+    }
+
+    /** Flushes current chunk if it isn't empty. */
+    public void flush() {
+        synchronized (this) {
+            takeChunk();
+        }
+        deliver();
+    }
+
+    /** Flushes current chunk and closes this buffer. Lines that are added after closing aren't buffered. */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            takeChunk();
+            closed = true;
+        }
+        deliver();
+    }
+
+    /** Gets number of next line. */
+    public synchronized int getNextLineNum() {
+        return nextLineNum;
+    }
+
+    /**
+     * Called when chunk of lines is ready. Chunks are passed to this method one at a time and in order of lines, but not while holding lock
+     * of this buffer, so slow implementation delays other chunks only and doesn't block threads that add lines. Chunks that are flushed by
+     * delay are passed from shared pool of threads, never from timer thread, so slow implementation doesn't delay other buffers.
+     *
+     * @param lines
+     *         lines separated with '\n'
+     * @param firstLineNum
+     *         number of the first line in chunk
+     * @param lineCount
+     *         number of lines in chunk
+     */
+    protected abstract void flushChunk(String lines, int firstLineNum, int lineCount);
+
+    /** Moves current chunk, if it isn't empty, in queue of chunks that are ready for delivery. Must be called while holding lock. */
+    private void takeChunk() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        if (lineCount > 0) {
+            ready.add(new Chunk(chunk.toString(), firstLineNum, lineCount));
+            chunk.setLength(0);
+            lineCount = 0;
+        }
+    }
+
+    /**
+     * Delivers ready chunks. Chunks are taken from queue while holding {@code deliveryLock}, so they are delivered in order even if few
+     * threads flush this buffer concurrently. All chunks that were queued before call of this method are delivered when it returns.
+     */
+    private void deliver() {
+        deliveryLock.lock();
+        try {
+            for (; ; ) {
+                final Chunk next;
+                synchronized (this) {
+                    next = ready.poll();
+                }
+                if (next == null) {
+                    return;
+                }
+                flushChunk(next.lines, next.firstLineNum, next.lineCount);
+            }
+        } finally {
+            deliveryLock.unlock();
+        }
+    }
+
+    private static class Chunk {
+        final String lines;
+        final int    firstLineNum;
+        final int    lineCount;
+
+        Chunk(String lines, int firstLineNum, int lineCount) {
+            this.lines = lines;
+            this.firstLineNum = firstLineNum;
+            this.lineCount = lineCount;
+        }
+    }
+}
@@ -10,31 +10,116 @@
  *******************************************************************************/
 package org.eclipse.che.api.core.util;
 
-import java.io.BufferedReader;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reads output of process and sends it line by line to {@code LineConsumer}.
+ * <p/>
+ * Pumps don't have own threads. All pumps are served by few shared threads that read output of processes without blocking, only data
+ * that is already available is read. Lines are passed to {@code LineConsumer} in other threads, one at a time and in order they were read,
+ * so slow consumer doesn't delay output of other processes. Pump doesn't read output of process while it has too many lines that aren't
+ * passed to consumer yet. Pump is done when process is terminated and all its output is read and passed to consumer or when pump is
+ * stopped.
+ *
+ * @author andrew00x
+ */
+public final class StreamPump {
+    private static final Logger LOG = LoggerFactory.getLogger(StreamPump.class);
+
+    private static final int  BUFFER_SIZE             = 8192;
+    /** Max number of bytes read from one process in one turn, prevents one process from starving others. */
+    private static final int  MAX_READ                = 8 * BUFFER_SIZE;
+    /** Pump doesn't read output of process while it has more lines that aren't passed to consumer yet. */
+    private static final int  MAX_PENDING_LINES       = 1000;
+    /** Min delay in milliseconds between checks whether process is terminated. */
+    private static final long TERMINATION_CHECK_DELAY = 100;
+
+    /** Pollers are created on first use. */
+    private static class PollersHolder {
+        static final Poller[]      POLLERS;
+        static final AtomicInteger NEXT = new AtomicInteger();
+
+        static {
+            POLLERS = new Poller[Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2))];
+            for (int i = 0; i < POLLERS.length; i++) {
+                POLLERS[i] = new Poller("StreamPump-" + i);
+            }
+        }
+
+        static Poller next() {
+            return POLLERS[(NEXT.getAndIncrement() & Integer.MAX_VALUE) % POLLERS.length];
+        }
+    }
 
-/** @author andrew00x */
-public final class StreamPump implements Runnable {
+    /** Threads that pass lines to consumers. Lines of one pump are passed by one thread at a time. */
+    private static class ConsumersHolder {
+        static final Executor CONSUMERS = Executors.newCachedThreadPool(
+                new ThreadFactoryBuilder().setNameFormat("StreamPump-Consumer-%d").setDaemon(true).build());
+    }
 
-    private BufferedReader bufferedReader;
+    private Process        process;
+    private InputStream    input;
     private LineConsumer   lineConsumer;
+    private CharsetDecoder decoder;
+    private ByteBuffer     bytes;
+    private CharBuffer     chars;
+    private StringBuilder  line;
+    private boolean        stopped;
+    private boolean        terminated;
+    private long           lastTerminationCheck;
+
+    private final Queue<String> pending  = new ArrayDeque<>();
+    private final Runnable      delivery = new Runnable() {
+        @Override
+        public void run() {
+            deliver();
+        }
+    };
+
+    private boolean delivering;
+    private boolean endOfOutput;
 
-    private Exception exception;
-    private boolean   done;
+    private volatile Exception exception;
+    private          boolean   done;
 
     public synchronized void start(Process process, LineConsumer lineConsumer) {
+        this.process = process;
         this.lineConsumer = lineConsumer;
-        bufferedReader = new BufferedReader(new InputStreamReader(process.getInputStream()));
-        final Thread t = new Thread(this, "StreamPump");
-        t.setDaemon(true);
-        t.start();
+        input = process.getInputStream();
+        decoder = Charset.defaultCharset().newDecoder()
+                         .onMalformedInput(CodingErrorAction.REPLACE)
+                         .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        bytes = ByteBuffer.allocate(BUFFER_SIZE);
+        chars = CharBuffer.allocate(BUFFER_SIZE);
+        line = new StringBuilder();
+        PollersHolder.next().add(this);
     }
 
     public synchronized void stop() {
-        // Not clear do we need close original stream, but since it was wrapped by BufferedReader close it anyway.
+        // Not clear do we need close original stream, but close it anyway.
+        stopped = true;
         try {
-            bufferedReader.close();
+            input.close();
         } catch (IOException ignored) {
         }
     }
@@ -57,19 +142,220 @@ public final class StreamPump implements Runnable {
         return exception;
     }
 
-    @Override
-    public void run() {
-        String line;
+    /**
+     * Reads available output of process. Called from poller thread only.
+     *
+     * @return {@code true} if some data is read and {@code false} otherwise
+     */
+    private boolean poll() {
+        final List<String> lines = new ArrayList<>();
+        boolean read = false;
+        boolean eof = false;
         try {
-            while ((line = bufferedReader.readLine()) != null) {
-                lineConsumer.writeLine(line);
+            synchronized (this) {
+                if (endOfOutput || pending.size() > MAX_PENDING_LINES) {
+                    return false;
+                }
+                if (stopped) {
+                    throw new IOException("Stream closed");
+                }
+            }
+            int total = readAvailable(lines);
+            if (total < 0) {
+                eof = true;
+            } else if (total == 0 && isTerminated()) {
+                // All output of process is available for reading after process is terminated, read what is written since last read.
+                total = readAvailable(lines);
+                eof = total <= 0;
+            }
+            read = total > 0;
+            if (eof) {
+                decode(lines, true);
+                if (line.length() > 0) {
+                    lines.add(line.toString());
+                    line.setLength(0);
+                }
             }
         } catch (IOException e) {
             exception = e;
-        } finally {
+            eof = true;
+        } catch (RuntimeException e) {
+            LOG.error(e.getMessage(), e);
+            exception = e;
+            eof = true;
+        }
+        boolean startDelivery = false;
+        synchronized (this) {
+            pending.addAll(lines);
+            if (eof) {
+                endOfOutput = true;
+            }
+            if (!delivering && (eof || !pending.isEmpty())) {
+                delivering = true;
+                startDelivery = true;
+            }
+        }
+        if (startDelivery) {
+            ConsumersHolder.CONSUMERS.execute(delivery);
+        }
+        return read;
+    }
+
+    /**
+     * Reads data that is available without blocking and decodes complete lines.
+     *
+     * @return number of read bytes or {@code -1} if end of stream is reached
+     */
+    private int readAvailable(List<String> lines) throws IOException {
+        int total = 0;
+        int available;
+        while (total < MAX_READ && (available = input.available()) > 0) {
+            final int n = input.read(bytes.array(), bytes.position(), Math.min(available, bytes.remaining()));
+            if (n < 0) {
+                return total > 0 ? total : -1;
+            }
+            bytes.position(bytes.position() + n);
+            total += n;
+            decode(lines, false);
+        }
+        return total;
+    }
+
+    /** Passes pending lines to consumer. Runs in one of consumers threads, at most one thread delivers lines of this pump at a time. */
+    private void deliver() {
+        for (; ; ) {
+            final List<String> lines;
             synchronized (this) {
-                done = true;
-                notifyAll();
+                if (pending.isEmpty()) {
+                    delivering = false;
+                    if (endOfOutput) {
+                        done = true;
+                        notifyAll();
+                    }
+                    return;
+                }
+                lines = new ArrayList<>(pending);
+                pending.clear();
+            }
+            try {
+                for (String l : lines) {
+                    lineConsumer.writeLine(l);
+                }
+            } catch (IOException e) {
+                exception = e;
+                stopDelivery();
+            } catch (RuntimeException e) {
+                LOG.error(e.getMessage(), e);
+                exception = e;
+                stopDelivery();
+            }
+        }
+    }
+
+    /** Called when consumer fails, rest of output of process is dropped. */
+    private synchronized void stopDelivery() {
+        pending.clear();
+        endOfOutput = true;
+    }
+
+    private synchronized boolean isEndOfOutput() {
+        return endOfOutput;
+    }
+
+    private void decode(List<String> lines, boolean endOfInput) {
+        bytes.flip();
+        CoderResult result;
+        do {
+            result = decoder.decode(bytes, chars, endOfInput);
+            splitLines(lines);
+        } while (result.isOverflow());
+        if (endOfInput) {
+            decoder.flush(chars);
+            splitLines(lines);
+        }
+        bytes.compact();
+    }
+
+    private void splitLines(List<String> lines) {
+        chars.flip();
+        while (chars.hasRemaining()) {
+            final char c = chars.get();
+            if (c == '\n') {
+                final int length = line.length();
+                if (length > 0 && line.charAt(length - 1) == '\r') {
+                    line.setLength(length - 1);
+                }
+                lines.add(line.toString());
+                line.setLength(0);
+            } else {
+                line.append(c);
+            }
+        }
+        chars.clear();
+    }
+
+    /**
+     * Checks whether process is terminated. Process is checked not often than once per {@link #TERMINATION_CHECK_DELAY} ms, and isn't
+     * checked any more once it is terminated, {@link Process#exitValue()} throws exception while process is running.
+     */
+    private boolean isTerminated() {
+        if (terminated) {
+            return true;
+        }
+        final long now = System.currentTimeMillis();
+        if (now - lastTerminationCheck < TERMINATION_CHECK_DELAY) {
+            return false;
+        }
+        lastTerminationCheck = now;
+        try {
+            process.exitValue();
+            terminated = true;
+        } catch (IllegalThreadStateException ignored) {
+        }
+        return terminated;
+    }
+
+    /** Reads output of all pumps assigned to it in one thread. Sleeps when there is no output. */
+    private static class Poller implements Runnable {
+        private static final long IDLE_DELAY = 20;
+
+        private final List<StreamPump> pumps;
+
+        Poller(String name) {
+            pumps = new CopyOnWriteArrayList<>();
+            final Thread t = new Thread(this, name);
+            t.setDaemon(true);
+            t.start();
+        }
+
+        void add(StreamPump pump) {
+            pumps.add(pump);
+            synchronized (this) {
+                notify();
+            }
+        }
+
+        @Override
+        public void run() {
+            for (; ; ) {
+                boolean read = false;
+                for (StreamPump pump : pumps) {
+                    if (pump.poll()) {
+                        read = true;
+                    }
+                    if (pump.isEndOfOutput()) {
+                        pumps.remove(pump);
+                    }
+                }
+                if (!read) {
+                    synchronized (this) {
+                        try {
+                            wait(pumps.isEmpty() ? 0 : IDLE_DELAY);
+                        } catch (InterruptedException ignored) {
+                            // Not expected to be thrown
+                        }
+                    }
+                }
             }
         }
     }
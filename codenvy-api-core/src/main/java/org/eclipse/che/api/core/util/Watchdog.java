@@ -17,23 +17,30 @@ import java.util.concurrent.TimeUnit;
 
 /**
  * It controls the time of {@code Cancellable} invocation and if time if greater than timeout it terminates such {@code Cancellable}.
+ * All watchdogs share one {@link HashedWheelTimer}, so watchdog doesn't need a thread while it waits for timeout.
  *
  * @author <a href="mailto:andrew00x@gmail.com">Andrey Parfonov</a>
  */
 public final class Watchdog implements Runnable {
     private static final Logger LOG = LoggerFactory.getLogger(Watchdog.class);
 
+    /** Timer is created on first use. Tick of 100 milliseconds is enough precision for timeouts of builds and applications. */
+    private static class TimerHolder {
+        static final HashedWheelTimer TIMER = new HashedWheelTimer("Watchdog", 100, TimeUnit.MILLISECONDS, 512);
+    }
+
     private final String name;
     private final long   timeout;
 
-    private boolean     watch;
-    private Cancellable cancellable;
+    private boolean                  watch;
+    private Cancellable              cancellable;
+    private HashedWheelTimer.Timeout timerTimeout;
 
     /**
      * Create new {@code Watchdog}.
      *
      * @param name
-     *         name for background {@code Thread}. It helps to identify out threads. This parameter is optional and may be {@code null}.
+     *         name of this watchdog. It helps to identify watchdog in logs. This parameter is optional and may be {@code null}.
      * @param timeout
      *         timeout
      * @param unit
@@ -60,35 +67,34 @@ public final class Watchdog implements Runnable {
     public synchronized void start(Cancellable cancellable) {
         this.cancellable = cancellable;
         this.watch = true;
-        final Thread t = name == null ? new Thread(this) : new Thread(this, name);
-        t.setDaemon(true);
-        t.start();
+        timerTimeout = TimerHolder.TIMER.newTimeout(this, timeout, TimeUnit.MILLISECONDS);
     }
 
     /** Stop watching. */
     public synchronized void stop() {
         watch = false;
-        notify();
+        if (timerTimeout != null) {
+            timerTimeout.cancel();
+            timerTimeout = null;
+        }
     }
 
     /** NOTE: Not expected to call directly by regular users of this class. */
-    public synchronized void run() {
-        final long end = System.currentTimeMillis() + timeout;
-        long now;
-        while (watch && (end > (now = System.currentTimeMillis()))) {
-            try {
-                wait(end - now);
-            } catch (InterruptedException ignored) {
-                // Not expected to be thrown
-            }
-        }
-        if (watch) {
-            try {
-                cancellable.cancel();
-            } catch (Exception e) {
-                LOG.error(e.getMessage(), e);
+    public void run() {
+        final Cancellable toCancel;
+        synchronized (this) {
+            if (!watch) {
+                return;
             }
             watch = false;
+            timerTimeout = null;
+            toCancel = cancellable;
+        }
+        LOG.debug("Timeout {} ms of watchdog {} reached", timeout, name);
+        try {
+            toCancel.cancel();
+        } catch (Exception e) {
+            LOG.error(e.getMessage(), e);
         }
     }
 }
@@ -11,12 +11,16 @@
 package org.eclipse.che.api.core.notification;
 
 import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author andrew00x
@@ -29,6 +33,11 @@ public class EventServiceTest {
         bus = new EventService();
     }
 
+    @AfterMethod
+    public void tearDown() {
+        bus.stop();
+    }
+
     @Test
     public void testSimpleEvent() {
         final List<Object> events = new ArrayList<>();
@@ -157,4 +166,107 @@ public class EventServiceTest {
         bus.publish(new Event());
         Assert.assertEquals(events.size(), 0);
     }
+
+    @Test
+    public void testAsyncEventsKeepOrderPerKey() throws Exception {
+        final List<String> events = Collections.synchronizedList(new ArrayList<String>());
+        final CountDownLatch latch = new CountDownLatch(200);
+        EventSubscriber<Event> l = new EventSubscriber<Event>() {
+            @Override
+            public void onEvent(Event event) {
+                events.add(event.data);
+                latch.countDown();
+            }
+        };
+        bus.subscribe(l, AsyncDeliveryOptions.newOptions().withPartitions(4).withKeyResolver(new AsyncDeliveryOptions.KeyResolver() {
+            @Override
+            public Object getKey(Object event) {
+                return ((Event)event).data.substring(0, 1);
+            }
+        }));
+        for (int i = 0; i < 100; i++) {
+            bus.publish(new Event("a" + i));
+            bus.publish(new Event("b" + i));
+        }
+        Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+        List<String> a = new ArrayList<>();
+        List<String> b = new ArrayList<>();
+        for (String event : events) {
+            (event.startsWith("a") ? a : b).add(event);
+        }
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(a.get(i), "a" + i);
+            Assert.assertEquals(b.get(i), "b" + i);
+        }
+        EventService.DeliveryStats stats = bus.getDeliveryStats(l);
+        Assert.assertEquals(stats.getPending(), 0);
+        Assert.assertEquals(stats.getDropped(), 0);
+    }
+
+    @Test
+    public void testAsyncEventsDroppedWhenQueueIsFull() throws Exception {
+        final CountDownLatch received = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        EventSubscriber<Event> l = new EventSubscriber<Event>() {
+            @Override
+            public void onEvent(Event event) {
+                received.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        bus.subscribe(l, AsyncDeliveryOptions.newOptions().withQueueSize(1)
+                                             .withOverflowPolicy(AsyncDeliveryOptions.OverflowPolicy.DROP));
+        bus.publish(new Event());
+        // Wait until subscriber takes the first event, so the second one stays in queue.
+        Assert.assertTrue(received.await(5, TimeUnit.SECONDS));
+        bus.publish(new Event());
+        bus.publish(new Event());
+        EventService.DeliveryStats stats = bus.getDeliveryStats(l);
+        Assert.assertEquals(stats.getPending(), 1);
+        Assert.assertEquals(stats.getDropped(), 1);
+        release.countDown();
+    }
+
+    @Test
+    public void testAsyncDeliveryAfterStop() throws Exception {
+        final CountDownLatch received = new CountDownLatch(2);
+        EventSubscriber<Event> l1 = new EventSubscriber<Event>() {
+            @Override
+            public void onEvent(Event event) {
+                received.countDown();
+            }
+        };
+        EventSubscriber<Event> l2 = new EventSubscriber<Event>() {
+            @Override
+            public void onEvent(Event event) {
+                received.countDown();
+            }
+        };
+        bus.subscribe(l1, AsyncDeliveryOptions.newOptions());
+        bus.stop();
+        bus.subscribe(l2, AsyncDeliveryOptions.newOptions());
+        bus.publish(new Event());
+        Assert.assertTrue(received.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testUnsubscribeAsync() throws Exception {
+        final List<String> events = new ArrayList<>();
+        EventSubscriber<Event> l = new EventSubscriber<Event>() {
+            @Override
+            public void onEvent(Event event) {
+                events.add(event.data);
+            }
+        };
+        bus.subscribe(l, AsyncDeliveryOptions.newOptions());
+        Assert.assertNotNull(bus.getDeliveryStats(l));
+        bus.unsubscribe(l);
+        Assert.assertNull(bus.getDeliveryStats(l));
+        bus.publish(new Event());
+        Assert.assertEquals(events.size(), 0);
+    }
 }
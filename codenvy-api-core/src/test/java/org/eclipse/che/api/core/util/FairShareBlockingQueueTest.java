@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.util;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author andrew00x
+ */
+public class FairShareBlockingQueueTest {
+    @Test
+    public void testRoundRobinBetweenKeys() throws Exception {
+        FairShareBlockingQueue queue = new FairShareBlockingQueue(10);
+        MyTask a1 = new MyTask("account", "ws-a");
+        MyTask a2 = new MyTask("account", "ws-a");
+        MyTask b1 = new MyTask("account", "ws-b");
+        queue.offer(a1);
+        queue.offer(a2);
+        queue.offer(b1);
+        Assert.assertSame(queue.poll(), a1);
+        Assert.assertSame(queue.poll(), b1);
+        Assert.assertSame(queue.poll(), a2);
+        Assert.assertNull(queue.poll());
+    }
+
+    @Test
+    public void testRoundRobinBetweenGroups() throws Exception {
+        FairShareBlockingQueue queue = new FairShareBlockingQueue(10);
+        MyTask a1 = new MyTask("account-a", "ws-a1");
+        MyTask a2 = new MyTask("account-a", "ws-a2");
+        MyTask b1 = new MyTask("account-b", "ws-b1");
+        queue.offer(a1);
+        queue.offer(a2);
+        queue.offer(b1);
+        Assert.assertSame(queue.poll(), a1);
+        Assert.assertSame(queue.poll(), b1);
+        Assert.assertSame(queue.poll(), a2);
+    }
+
+    @Test
+    public void testQuotaPerKey() throws Exception {
+        FairShareBlockingQueue queue = new FairShareBlockingQueue(1);
+        MyTask a1 = new MyTask("account", "ws-a");
+        MyTask a2 = new MyTask("account", "ws-a");
+        queue.offer(a1);
+        queue.offer(a2);
+        Assert.assertSame(queue.poll(), a1);
+        // quota is exceeded
+        Assert.assertNull(queue.poll(100, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(queue.size(), 1);
+        Assert.assertEquals(queue.getTakenNum(), 1);
+        queue.release(a1);
+        Assert.assertSame(queue.poll(100, TimeUnit.MILLISECONDS), a2);
+    }
+
+    @Test
+    public void testNoQuotaForAnonymousTasks() throws Exception {
+        FairShareBlockingQueue queue = new FairShareBlockingQueue(1);
+        Runnable r1 = new MyTask(null, null);
+        Runnable r2 = new MyTask(null, null);
+        queue.offer(r1);
+        queue.offer(r2);
+        Assert.assertSame(queue.poll(), r1);
+        Assert.assertSame(queue.poll(), r2);
+    }
+
+    @Test
+    public void testCapacity() throws Exception {
+        FairShareBlockingQueue queue = new FairShareBlockingQueue(1, 1);
+        Assert.assertTrue(queue.offer(new MyTask("account", "ws")));
+        Assert.assertFalse(queue.offer(new MyTask("account", "ws")));
+        Assert.assertEquals(queue.remainingCapacity(), 0);
+    }
+
+    private static class MyTask implements FairShareBlockingQueue.Task {
+        final String group;
+        final String key;
+
+        MyTask(String group, String key) {
+            this.group = group;
+            this.key = key;
+        }
+
+        @Override
+        public String getGroup() {
+            return group;
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public void run() {
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.util;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author andrew00x
+ */
+public class LineChunkBufferTest {
+    @Test
+    public void testFlushByNumberOfLines() {
+        MyBuffer buffer = new MyBuffer(3, 1024, 60000);
+        for (int i = 1; i <= 7; i++) {
+            buffer.writeLine("line" + i);
+        }
+        Assert.assertEquals(buffer.chunks.size(), 2);
+        Assert.assertEquals(buffer.chunks.get(0), "1:3:line1\nline2\nline3");
+        Assert.assertEquals(buffer.chunks.get(1), "4:3:line4\nline5\nline6");
+        buffer.close();
+        Assert.assertEquals(buffer.chunks.size(), 3);
+        Assert.assertEquals(buffer.chunks.get(2), "7:1:line7");
+    }
+
+    @Test
+    public void testFlushByNumberOfChars() {
+        MyBuffer buffer = new MyBuffer(100, 10, 60000);
+        buffer.writeLine("12345");
+        buffer.writeLine("67890");
+        Assert.assertEquals(buffer.chunks.size(), 1);
+        Assert.assertEquals(buffer.chunks.get(0), "1:1:12345");
+        buffer.writeLine("1234567890");
+        Assert.assertEquals(buffer.chunks.size(), 3);
+        Assert.assertEquals(buffer.chunks.get(1), "2:1:67890");
+        Assert.assertEquals(buffer.chunks.get(2), "3:1:1234567890");
+    }
+
+    @Test
+    public void testFlushByTime() throws Exception {
+        final CountDownLatch flushed = new CountDownLatch(1);
+        MyBuffer buffer = new MyBuffer(100, 1024, 10) {
+            @Override
+            protected void flushChunk(String lines, int firstLineNum, int lineCount) {
+                super.flushChunk(lines, firstLineNum, lineCount);
+                flushed.countDown();
+            }
+        };
+        buffer.writeLine("line1");
+        buffer.writeLine("line2");
+        Assert.assertTrue(flushed.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(buffer.chunks.get(0), "1:2:line1\nline2");
+    }
+
+    @Test
+    public void testWriteAfterClose() {
+        MyBuffer buffer = new MyBuffer(100, 1024, 60000);
+        buffer.writeLine("line1");
+        buffer.close();
+        Assert.assertEquals(buffer.writeLine("line2"), 2);
+        Assert.assertEquals(buffer.chunks.size(), 2);
+        Assert.assertEquals(buffer.chunks.get(1), "2:1:line2");
+    }
+
+    @Test
+    public void testWriteLineWhileChunkIsDelivered() throws Exception {
+        final CountDownLatch delivering = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final MyBuffer buffer = new MyBuffer(1, 1024, 60000) {
+            @Override
+            protected void flushChunk(String lines, int firstLineNum, int lineCount) {
+                delivering.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.flushChunk(lines, firstLineNum, lineCount);
+            }
+        };
+        Thread writer = new Thread() {
+            @Override
+            public void run() {
+                buffer.writeLine("line1");
+            }
+        };
+        writer.start();
+        Assert.assertTrue(delivering.await(5, TimeUnit.SECONDS));
+        // Delivery of the first chunk is in progress but lock of buffer isn't held.
+        Assert.assertEquals(buffer.getNextLineNum(), 2);
+        release.countDown();
+        buffer.writeLine("line2");
+        writer.join(5000);
+        Assert.assertEquals(buffer.chunks.size(), 2);
+        Assert.assertEquals(buffer.chunks.get(0), "1:1:line1");
+        Assert.assertEquals(buffer.chunks.get(1), "2:1:line2");
+    }
+
+    @Test
+    public void testSlowDeliveryDoesNotDelayOtherBuffers() throws Exception {
+        final CountDownLatch delivering = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final MyBuffer slow = new MyBuffer(100, 1024, 10) {
+            @Override
+            protected void flushChunk(String lines, int firstLineNum, int lineCount) {
+                delivering.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.flushChunk(lines, firstLineNum, lineCount);
+            }
+        };
+        final CountDownLatch flushed = new CountDownLatch(1);
+        final MyBuffer fast = new MyBuffer(100, 1024, 10) {
+            @Override
+            protected void flushChunk(String lines, int firstLineNum, int lineCount) {
+                super.flushChunk(lines, firstLineNum, lineCount);
+                flushed.countDown();
+            }
+        };
+        try {
+            slow.writeLine("line1");
+            Assert.assertTrue(delivering.await(5, TimeUnit.SECONDS));
+            fast.writeLine("line1");
+            Assert.assertTrue(flushed.await(1, TimeUnit.SECONDS));
+            Assert.assertEquals(fast.chunks.get(0), "1:1:line1");
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private static class MyBuffer extends LineChunkBuffer {
+        final List<String> chunks = new ArrayList<>();
+
+        MyBuffer(int maxLines, int maxChars, long flushDelay) {
+            super(maxLines, maxChars, flushDelay);
+        }
+
+        @Override
+        protected void flushChunk(String lines, int firstLineNum, int lineCount) {
+            chunks.add(firstLineNum + ":" + lineCount + ":" + lines);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.util;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/** @author andrew00x */
+public class StreamPumpTest {
+    @Test
+    public void testPumpProcessOutput() throws Exception {
+        final Process p = Runtime.getRuntime()
+                                 .exec(new String[]{"/bin/bash", "-c", "for i in $(seq 1 10000); do echo line$i; done; printf last"});
+        final ListLineConsumer output = new ListLineConsumer();
+        final StreamPump pump = new StreamPump();
+        pump.start(p, output);
+        p.waitFor();
+        pump.await();
+        Assert.assertTrue(pump.isDone());
+        Assert.assertFalse(pump.hasError());
+        final List<String> expected = new ArrayList<>();
+        for (int i = 1; i <= 10000; i++) {
+            expected.add("line" + i);
+        }
+        expected.add("last");
+        Assert.assertEquals(output.getLines(), expected);
+    }
+
+    @Test
+    public void testManyProcesses() throws Exception {
+        final List<Process> processes = new ArrayList<>();
+        final List<ListLineConsumer> outputs = new ArrayList<>();
+        final List<StreamPump> pumps = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            final Process p = Runtime.getRuntime().exec(new String[]{"/bin/bash", "-c", "sleep 0.1; echo process" + i});
+            final ListLineConsumer output = new ListLineConsumer();
+            final StreamPump pump = new StreamPump();
+            pump.start(p, output);
+            processes.add(p);
+            outputs.add(output);
+            pumps.add(pump);
+        }
+        for (int i = 0; i < 20; i++) {
+            processes.get(i).waitFor();
+            pumps.get(i).await();
+            Assert.assertEquals(outputs.get(i).getText(), "process" + i);
+        }
+    }
+
+    @Test
+    public void testSlowConsumerDoesNotDelayOtherPumps() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final Process slow = Runtime.getRuntime().exec(new String[]{"/bin/bash", "-c", "echo slow"});
+        final StreamPump slowPump = new StreamPump();
+        slowPump.start(slow, new ListLineConsumer() {
+            @Override
+            public void writeLine(String line) {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.writeLine(line);
+            }
+        });
+        final List<Process> processes = new ArrayList<>();
+        final List<ListLineConsumer> outputs = new ArrayList<>();
+        final List<StreamPump> pumps = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            final Process p = Runtime.getRuntime().exec(new String[]{"/bin/bash", "-c", "echo process" + i});
+            final ListLineConsumer output = new ListLineConsumer();
+            final StreamPump pump = new StreamPump();
+            pump.start(p, output);
+            processes.add(p);
+            outputs.add(output);
+            pumps.add(pump);
+        }
+        for (int i = 0; i < 10; i++) {
+            processes.get(i).waitFor();
+            pumps.get(i).await();
+            Assert.assertEquals(outputs.get(i).getText(), "process" + i);
+        }
+        Assert.assertFalse(slowPump.isDone());
+        release.countDown();
+        slowPump.await();
+        Assert.assertFalse(slowPump.hasError());
+    }
+}
@@ -0,0 +1,29 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.server;
+
+import java.util.Set;
+
+/**
+ * Factory for {@link ValueProvider} which values depend only on content of some files or folders of project, e.g. pom.xml. Values of
+ * such providers are cached together with configuration of project and calculated again only when one of these items is changed.
+ * Values of providers created with regular {@link ValueProviderFactory} are calculated each time when configuration of project is
+ * requested.
+ *
+ * @author andrew00x
+ */
+public interface CacheableValueProviderFactory extends ValueProviderFactory {
+    /**
+     * Gets paths of files or folders, relative to the project folder, which values of {@link ValueProvider} depend on. Value is
+     * recalculated if any of these items or any item inside of folder is created, updated, moved or removed.
+     */
+    Set<String> getDependencies();
+}
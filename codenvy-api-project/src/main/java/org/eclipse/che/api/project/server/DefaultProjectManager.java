@@ -29,6 +29,8 @@ import org.eclipse.che.api.project.shared.dto.SourceEstimation;
 
 import org.eclipse.che.api.vfs.server.Path;
 import org.eclipse.che.api.vfs.server.VirtualFileSystemRegistry;
+import org.eclipse.che.api.vfs.server.observation.MoveEvent;
+import org.eclipse.che.api.vfs.server.observation.RenameEvent;
 import org.eclipse.che.api.vfs.server.observation.VirtualFileEvent;
 import org.eclipse.che.commons.lang.Pair;
 import org.eclipse.che.commons.lang.cache.Cache;
@@ -47,9 +49,12 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -64,8 +69,12 @@ public final class DefaultProjectManager implements ProjectManager {
     private static final int CACHE_MASK = CACHE_NUM - 1;
     private static final int SEG_SIZE   = 32;
 
-    private final Lock[]                                     miscLocks;
-    private final Cache<Pair<String, String>, ProjectMisc>[] miscCaches;
+    private final Lock[]                                      miscLocks;
+    private final Cache<Pair<String, String>, ProjectMisc>[]  miscCaches;
+    private final Lock[]                                      configLocks;
+    private final Cache<Pair<String, String>, CachedConfig>[] configCaches;
+    /** Incremented before invalidation of cached configurations. Helps to avoid caching of configuration that is loaded concurrently. */
+    private final AtomicLong                                  configInvalidations;
 
     private final VirtualFileSystemRegistry         fileSystemRegistry;
     private final EventService                      eventService;
@@ -73,6 +82,7 @@ public final class DefaultProjectManager implements ProjectManager {
     private final ProjectTypeRegistry               projectTypeRegistry;
     private final ProjectHandlerRegistry            handlers;
 
+    private volatile boolean started;
 
     @Inject
     @SuppressWarnings("unchecked")
@@ -111,6 +121,14 @@ public final class DefaultProjectManager implements ProjectManager {
             };
         }
 
+        this.configCaches = new Cache[CACHE_NUM];
+        this.configLocks = new Lock[CACHE_NUM];
+        for (int i = 0; i < CACHE_NUM; i++) {
+            configLocks[i] = new ReentrantLock();
+            configCaches[i] = new SLRUCache<Pair<String, String>, CachedConfig>(SEG_SIZE, SEG_SIZE);
+        }
+        configInvalidations = new AtomicLong();
+
         vfsSubscriber = new EventSubscriber<VirtualFileEvent>() {
             @Override
             public void onEvent(VirtualFileEvent event) {
@@ -125,6 +143,12 @@ public final class DefaultProjectManager implements ProjectManager {
                     case DELETED:
                     case MOVED:
                     case RENAMED: {
+                        invalidateProjectConfigs(workspace, path);
+                        if (event instanceof MoveEvent) {
+                            invalidateProjectConfigs(workspace, ((MoveEvent)event).getOldPath());
+                        } else if (event instanceof RenameEvent) {
+                            invalidateProjectConfigs(workspace, ((RenameEvent)event).getOldPath());
+                        }
                         final int length = path.length();
                         for (int i = 1; i < length && (i = path.indexOf('/', i)) > 0; i++) {
                             final String projectPath = path.substring(0, i);
@@ -453,14 +477,112 @@ public final class DefaultProjectManager implements ProjectManager {
     }
 
 
+    /**
+     * Gets configuration of project. Configuration is cached if all value providers of project declare items they depend on, see
+     * {@link CacheableValueProviderFactory}. Cached configuration is invalidated when file .codenvy/project.json or any item that value
+     * providers depend on is changed.
+     */
+    @Override
+    public ProjectConfig getProjectConfig(Project project) throws ServerException, ValueStorageException, ProjectTypeConstraintException,
+                                                                  InvalidValueException {
+        if (!started) {
+            // Not subscribed to events of virtual filesystem and not able to invalidate cached configuration.
+            return project.loadConfig().first;
+        }
+        final Pair<String, String> key = Pair.of(project.getWorkspace(), project.getPath());
+        final int index = key.hashCode() & CACHE_MASK;
+        CachedConfig cached;
+        configLocks[index].lock();
+        try {
+            cached = configCaches[index].get(key);
+        } finally {
+            configLocks[index].unlock();
+        }
+        if (cached == null) {
+            final long invalidations = configInvalidations.get();
+            // Don't keep lock while configuration is loading, value providers may be slow.
+            final Pair<ProjectConfig, Set<String>> loaded = project.loadConfig();
+            if (loaded.second == null) {
+                return loaded.first;
+            }
+            cached = new CachedConfig(loaded.first, loaded.second);
+            configLocks[index].lock();
+            try {
+                // Project may be changed while configuration is loading.
+                if (invalidations == configInvalidations.get()) {
+                    configCaches[index].put(key, cached);
+                }
+            } finally {
+                configLocks[index].unlock();
+            }
+        }
+        return new ProjectConfig(cached.config);
+    }
+
+    /** Removes cached configurations which depend on item with specified path. Checks all projects that may contain this item. */
+    private void invalidateProjectConfigs(String workspace, String path) {
+        configInvalidations.incrementAndGet();
+        for (int i = path.length(); i > 0; i = path.lastIndexOf('/', i - 1)) {
+            final Pair<String, String> key = Pair.of(workspace, path.substring(0, i));
+            final String relPath = i < path.length() ? path.substring(i + 1) : "";
+            final int index = key.hashCode() & CACHE_MASK;
+            configLocks[index].lock();
+            try {
+                final CachedConfig cached = configCaches[index].get(key);
+                if (cached != null && cached.dependsOn(relPath)) {
+                    configCaches[index].remove(key);
+                }
+            } finally {
+                configLocks[index].unlock();
+            }
+        }
+    }
+
+    private static class CachedConfig {
+        final ProjectConfig config;
+        final Set<String>   dependencies;
+
+        CachedConfig(ProjectConfig config, Set<String> dependencies) {
+            this.config = config;
+            this.dependencies = new HashSet<>(dependencies.size());
+            for (String dependency : dependencies) {
+                this.dependencies.add(dependency.startsWith("/") ? dependency.substring(1) : dependency);
+            }
+        }
+
+        /** Checks whether configuration depends on item with specified path relative to the project folder. */
+        boolean dependsOn(String relPath) {
+            if (relPath.isEmpty()) {
+                // project folder itself
+                return true;
+            }
+            for (String dependency : dependencies) {
+                if (dependency.equals(relPath) || dependency.startsWith(relPath + '/') || relPath.startsWith(dependency + '/')) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
     @PostConstruct
     void start() {
         eventService.subscribe(vfsSubscriber);
+        started = true;
     }
 
     @PreDestroy
     void stop() {
+        started = false;
         eventService.unsubscribe(vfsSubscriber);
+        for (int i = 0, length = configLocks.length; i < length; i++) {
+            configLocks[i].lock();
+            try {
+                configCaches[i].clear();
+            } finally {
+                configLocks[i].unlock();
+            }
+        }
         for (int i = 0, length = miscLocks.length; i < length; i++) {
             miscLocks[i].lock();
             try {
@@ -27,6 +27,7 @@ import org.eclipse.che.api.vfs.server.VirtualFile;
 import org.eclipse.che.api.vfs.shared.dto.AccessControlEntry;
 import org.eclipse.che.api.vfs.shared.dto.Principal;
 import org.eclipse.che.api.vfs.shared.dto.VirtualFileSystemInfo.BasicPermissions;
+import org.eclipse.che.commons.lang.Pair;
 import org.eclipse.che.dto.server.DtoFactory;
 
 import java.io.BufferedReader;
@@ -103,8 +104,22 @@ public class Project {
 
     public ProjectConfig getConfig() throws ServerException, ValueStorageException, ProjectTypeConstraintException,
                                             InvalidValueException {
+        return manager.getProjectConfig(this);
+    }
+
+    /**
+     * Loads configuration of project from file .codenvy/project.json and value providers.
+     *
+     * @return configuration of project and paths, relative to the project folder, of items which configuration depends on. Set of paths is
+     * {@code null} if configuration may not be cached because some value provider doesn't declare its dependencies
+     * @see CacheableValueProviderFactory
+     */
+    Pair<ProjectConfig, Set<String>> loadConfig() throws ServerException, ValueStorageException, ProjectTypeConstraintException,
+                                                         InvalidValueException {
 
         final ProjectJson projectJson = ProjectJson.load(this);
+        Set<String> dependencies = new HashSet<>();
+        dependencies.add(Constants.CODENVY_PROJECT_FILE_RELATIVE_PATH);
 
         ProjectTypes types = new ProjectTypes(projectJson.getType(), projectJson.getMixinTypes());
         types.addTransient();
@@ -121,6 +136,13 @@ public class Project {
 
                     List<String> val;
                     if (factory != null) {
+                        if (dependencies != null) {
+                            if (factory instanceof CacheableValueProviderFactory) {
+                                dependencies.addAll(((CacheableValueProviderFactory)factory).getDependencies());
+                            } else {
+                                dependencies = null;
+                            }
+                        }
 
                         val = factory.newInstance(baseFolder).getValues(var.getName());
 
@@ -157,8 +179,8 @@ public class Project {
 //        return new ProjectConfig(projectJson.getDescription(), projectJson.getType(),
 //                attributes, runners, builders, projectJson.getMixinTypes());
 
-        return new ProjectConfig(projectJson.getDescription(), types.primary.getId(),
-                                 attributes, runners, builders, types.mixinIds());
+        return Pair.of(new ProjectConfig(projectJson.getDescription(), types.primary.getId(),
+                                         attributes, runners, builders, types.mixinIds()), dependencies);
     }
 
 
@@ -12,122 +12,261 @@ package org.eclipse.che.api.project.server;
 
 import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.core.notification.EventSubscriber;
+import org.eclipse.che.api.core.util.HashedWheelTimer;
 import org.eclipse.che.api.vfs.server.observation.MoveEvent;
 import org.eclipse.che.api.vfs.server.observation.RenameEvent;
 import org.eclipse.che.api.vfs.server.observation.VirtualFileEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Singleton;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.TimeUnit;
 
 /**
+ * Delivers events of virtual filesystem to the listeners of projects. Listeners are indexed by workspace and path of project, so each
+ * event is checked against listeners of projects that may contain changed item only.
+ * <p/>
+ * Events may be coalesced per listener if coalescing window is set. In this case events are delivered in separate thread not often than
+ * once per window and events of the same item are merged, e.g. few updates of file are delivered as single update, creation and
+ * removal of the same file are not delivered at all.
+ *
  * @author andrew00x
  */
 @Singleton
 @Deprecated
 public final class ProjectEventService {
-    private final EventService                    eventService;
-    private final Set<VirtualFileEventSubscriber> subscribers;
+    private static final Logger LOG = LoggerFactory.getLogger(ProjectEventService.class);
+
+    /** Timer for delivering of coalesced events, created on first use. */
+    private static class TimerHolder {
+        static final HashedWheelTimer TIMER = new HashedWheelTimer("ProjectEventService", 20, TimeUnit.MILLISECONDS, 512);
+    }
+
+    private final EventService                                                    eventService;
+    /** Listeners by workspace and path of project. Path of project always starts and ends with '/'. */
+    private final ConcurrentMap<String, ConcurrentMap<String, Set<ProjectListener>>> listeners;
+    private final EventSubscriber<VirtualFileEvent>                               dispatcher;
+
+    private boolean subscribed;
+
+    private volatile long coalesceWindow;
 
     @Inject
     public ProjectEventService(EventService eventService) {
         this.eventService = eventService;
-        subscribers = new CopyOnWriteArraySet<>();
+        listeners = new ConcurrentHashMap<>();
+        dispatcher = new EventSubscriber<VirtualFileEvent>() {
+            @Override
+            public void onEvent(VirtualFileEvent event) {
+                dispatch(event);
+            }
+        };
+    }
+
+    /**
+     * Sets window for coalescing of events.
+     *
+     * @param coalesceWindow
+     *         window in milliseconds for coalescing of events, events are not coalesced if this parameter isn't positive
+     */
+    @com.google.inject.Inject(optional = true)
+    public void setCoalesceWindow(@Named("project.events.coalesce_window_ms") long coalesceWindow) {
+        this.coalesceWindow = coalesceWindow;
     }
 
-    public boolean addListener(String workspace, String project, ProjectEventListener listener) {
-        final VirtualFileEventSubscriber subscriber = new VirtualFileEventSubscriber(workspace, project, listener);
-        if (subscribers.add(subscriber)) {
-            eventService.subscribe(subscriber);
-            return true;
+    public synchronized boolean addListener(String workspace, String project, ProjectEventListener listener) {
+        final ProjectListener projectListener = new ProjectListener(workspace, project, listener);
+        ConcurrentMap<String, Set<ProjectListener>> projects = listeners.get(workspace);
+        if (projects == null) {
+            listeners.put(workspace, projects = new ConcurrentHashMap<>());
+        }
+        Set<ProjectListener> projectListeners = projects.get(projectListener.projectPath);
+        if (projectListeners == null) {
+            projects.put(projectListener.projectPath, projectListeners = new CopyOnWriteArraySet<>());
+        }
+        if (!projectListeners.add(projectListener)) {
+            return false;
+        }
+        if (!subscribed) {
+            eventService.subscribe(dispatcher);
+            subscribed = true;
         }
-        return false;
+        return true;
     }
 
-    public boolean removeListener(String workspace, String project, ProjectEventListener listener) {
-        VirtualFileEventSubscriber mySubscriber = null;
-        for (VirtualFileEventSubscriber subscriber : subscribers) {
-            if (workspace.equals(subscriber.workspace) && project.equals(subscriber.project) && listener.equals(subscriber.listener)) {
-                mySubscriber = subscriber;
-                break;
+    public synchronized boolean removeListener(String workspace, String project, ProjectEventListener listener) {
+        final ProjectListener projectListener = new ProjectListener(workspace, project, listener);
+        final ConcurrentMap<String, Set<ProjectListener>> projects = listeners.get(workspace);
+        if (projects == null) {
+            return false;
+        }
+        final Set<ProjectListener> projectListeners = projects.get(projectListener.projectPath);
+        if (projectListeners == null) {
+            return false;
+        }
+        ProjectListener myListener = null;
+        for (Iterator<ProjectListener> i = projectListeners.iterator(); myListener == null && i.hasNext(); ) {
+            final ProjectListener next = i.next();
+            if (next.equals(projectListener)) {
+                myListener = next;
+            }
+        }
+        if (myListener == null) {
+            return false;
+        }
+        projectListeners.remove(myListener);
+        myListener.cancel();
+        if (projectListeners.isEmpty()) {
+            projects.remove(projectListener.projectPath);
+            if (projects.isEmpty()) {
+                listeners.remove(workspace);
             }
         }
-        if (mySubscriber != null) {
-            subscribers.remove(mySubscriber);
-            eventService.unsubscribe(mySubscriber);
-            return true;
+        if (listeners.isEmpty() && subscribed) {
+            eventService.unsubscribe(dispatcher);
+            subscribed = false;
+        }
+        return true;
+    }
+
+    private void dispatch(VirtualFileEvent event) {
+        final ConcurrentMap<String, Set<ProjectListener>> projects = listeners.get(event.getWorkspaceId());
+        if (projects == null) {
+            return;
+        }
+        final VirtualFileEvent.ChangeType eventType = event.getType();
+        if (eventType == VirtualFileEvent.ChangeType.CONTENT_UPDATED) {
+            dispatch(projects, event.getPath(), ProjectEvent.EventType.UPDATED, event.isFolder());
+        } else if (eventType == VirtualFileEvent.ChangeType.CREATED) {
+            dispatch(projects, event.getPath(), ProjectEvent.EventType.CREATED, event.isFolder());
+        } else if (eventType == VirtualFileEvent.ChangeType.DELETED) {
+            dispatch(projects, event.getPath(), ProjectEvent.EventType.DELETED, event.isFolder());
+        } else if (eventType == VirtualFileEvent.ChangeType.MOVED) {
+            // rename and move are treated as create and delete
+            dispatch(projects, event.getPath(), ProjectEvent.EventType.CREATED, event.isFolder());
+            dispatch(projects, ((MoveEvent)event).getOldPath(), ProjectEvent.EventType.DELETED, event.isFolder());
+        } else if (eventType == VirtualFileEvent.ChangeType.RENAMED) {
+            dispatch(projects, event.getPath(), ProjectEvent.EventType.CREATED, event.isFolder());
+            dispatch(projects, ((RenameEvent)event).getOldPath(), ProjectEvent.EventType.DELETED, event.isFolder());
+        }
+    }
+
+    /** Delivers event to the listeners of all projects which paths are parents of specified path. */
+    private void dispatch(Map<String, Set<ProjectListener>> projects, String path, ProjectEvent.EventType type, boolean folder) {
+        if (path == null) {
+            return;
+        }
+        for (int i = path.indexOf('/'); i >= 0; i = path.indexOf('/', i + 1)) {
+            final String projectPath = path.substring(0, i + 1);
+            final Set<ProjectListener> projectListeners = projects.get(projectPath);
+            if (projectListeners != null) {
+                final String relPath = path.substring(projectPath.length());
+                for (ProjectListener projectListener : projectListeners) {
+                    projectListener.onEvent(type, relPath, folder);
+                }
+            }
         }
-        return false;
     }
 
-    private static class VirtualFileEventSubscriber implements EventSubscriber<VirtualFileEvent> {
+    private class ProjectListener implements Runnable {
         final String               workspace;
         final String               project;
         final ProjectEventListener listener;
+        final String               projectPath;
 
-        String projectPath;
+        /** Held while coalesced events are delivered, so events of the next window aren't delivered before events of previous one. */
+        private final Object deliveryLock = new Object();
 
-        VirtualFileEventSubscriber(String workspace, String project, ProjectEventListener listener) {
+        /** Events that are waiting for delivery, used only if events are coalesced. */
+        private Map<String, ProjectEvent> pending;
+        private HashedWheelTimer.Timeout  timeout;
+
+        ProjectListener(String workspace, String project, ProjectEventListener listener) {
             this.workspace = workspace;
             this.project = project;
             this.listener = listener;
-            projectPath = project;
+            String projectPath = project;
             if (!projectPath.startsWith("/")) {
                 projectPath = '/' + projectPath;
             }
             if (!projectPath.endsWith("/")) {
                 projectPath = projectPath + '/';
             }
+            this.projectPath = projectPath;
         }
 
-        @Override
-        public void onEvent(VirtualFileEvent event) {
-            final VirtualFileEvent.ChangeType eventType = event.getType();
-            final String eventWorkspace = event.getWorkspaceId();
-            if (workspace.equals(eventWorkspace)) {
-                final String eventPath = event.getPath();
-                if (eventPath.startsWith(projectPath)) {
-                    if (eventType == VirtualFileEvent.ChangeType.CONTENT_UPDATED) {
-                        listener.onEvent(new ProjectEvent(ProjectEvent.EventType.UPDATED, workspace, project,
-                                                          eventPath.substring(projectPath.length()), event.isFolder()));
-                    } else if (eventType == VirtualFileEvent.ChangeType.CREATED) {
-                        listener.onEvent(new ProjectEvent(ProjectEvent.EventType.CREATED, workspace, project,
-                                                          eventPath.substring(projectPath.length()), event.isFolder()));
-                    } else if (eventType == VirtualFileEvent.ChangeType.DELETED) {
-                        listener.onEvent(new ProjectEvent(ProjectEvent.EventType.DELETED, workspace, project,
-                                                          eventPath.substring(projectPath.length()), event.isFolder()));
-                    } else if (eventType == VirtualFileEvent.ChangeType.MOVED) {
-                        listener.onEvent(new ProjectEvent(ProjectEvent.EventType.CREATED, workspace, project,
-                                                          eventPath.substring(projectPath.length()), event.isFolder()));
-                    } else if (eventType == VirtualFileEvent.ChangeType.RENAMED) {
-                        listener.onEvent(new ProjectEvent(ProjectEvent.EventType.CREATED, workspace, project,
-                                                          eventPath.substring(projectPath.length()), event.isFolder()));
-                    }
+        void onEvent(ProjectEvent.EventType type, String relPath, boolean folder) {
+            if (coalesceWindow <= 0) {
+                deliver(new ProjectEvent(type, workspace, project, relPath, folder));
+                return;
+            }
+            synchronized (this) {
+                if (pending == null) {
+                    pending = new LinkedHashMap<>();
+                }
+                final ProjectEvent previous = pending.remove(relPath);
+                final ProjectEvent.EventType merged = previous == null ? type : merge(previous.getType(), type);
+                if (merged != null) {
+                    pending.put(relPath, new ProjectEvent(merged, workspace, project, relPath, folder));
+                }
+                if (timeout == null && !pending.isEmpty()) {
+                    timeout = TimerHolder.TIMER.newTimeout(this, coalesceWindow, TimeUnit.MILLISECONDS);
                 }
-                String eventOldPath = null;
-                // rename and move are treated as create and delete
-                if (eventType == VirtualFileEvent.ChangeType.MOVED) {
-                    eventOldPath = ((MoveEvent)event).getOldPath();
-                } else if (eventType == VirtualFileEvent.ChangeType.RENAMED) {
-                    eventOldPath = ((RenameEvent)event).getOldPath();
+            }
+        }
+
+        /** Delivers coalesced events. */
+        @Override
+        public void run() {
+            synchronized (deliveryLock) {
+                final Map<String, ProjectEvent> events;
+                synchronized (this) {
+                    events = pending;
+                    pending = null;
+                    timeout = null;
                 }
-                if (eventOldPath != null && eventOldPath.startsWith(projectPath)) {
-                    listener.onEvent(new ProjectEvent(ProjectEvent.EventType.DELETED, workspace, project,
-                                                      eventOldPath.substring(projectPath.length()), event.isFolder()));
+                if (events != null) {
+                    for (ProjectEvent event : events.values()) {
+                        deliver(event);
+                    }
                 }
             }
         }
 
+        synchronized void cancel() {
+            if (timeout != null) {
+                timeout.cancel();
+                timeout = null;
+            }
+            pending = null;
+        }
+
+        private void deliver(ProjectEvent event) {
+            try {
+                listener.onEvent(event);
+            } catch (RuntimeException e) {
+                LOG.error(e.getMessage(), e);
+            }
+        }
+
         @Override
         public boolean equals(Object o) {
             if (this == o) {
                 return true;
             }
-            if (!(o instanceof VirtualFileEventSubscriber)) {
+            if (!(o instanceof ProjectListener)) {
                 return false;
             }
-            final VirtualFileEventSubscriber other = (VirtualFileEventSubscriber)o;
+            final ProjectListener other = (ProjectListener)o;
             return listener.equals(other.listener) && project.equals(other.project) && workspace.equals(other.workspace);
         }
 
@@ -140,4 +279,19 @@ public final class ProjectEventService {
             return hashCode;
         }
     }
+
+    /**
+     * Merges two events of the same item.
+     *
+     * @return merged type of event or {@code null} if events cancel each other
+     */
+    private static ProjectEvent.EventType merge(ProjectEvent.EventType previous, ProjectEvent.EventType next) {
+        if (previous == ProjectEvent.EventType.CREATED) {
+            return next == ProjectEvent.EventType.DELETED ? null : ProjectEvent.EventType.CREATED;
+        }
+        if (previous == ProjectEvent.EventType.DELETED && next == ProjectEvent.EventType.CREATED) {
+            return ProjectEvent.EventType.UPDATED;
+        }
+        return next;
+    }
 }
@@ -116,6 +116,20 @@ public interface ProjectManager {
      */
     void saveProjectMisc(Project project, ProjectMisc misc) throws ServerException;
 
+    /**
+     * Gets configuration of project.
+     *
+     * @param project
+     *         project
+     * @return configuration of project, modifications of returned object don't affect the project until it is saved with
+     * {@link Project#updateConfig(ProjectConfig)}
+     * @throws ServerException
+     *         if an error occurs
+     * @see Project#getConfig()
+     */
+    ProjectConfig getProjectConfig(Project project) throws ServerException, ValueStorageException, ProjectTypeConstraintException,
+                                                           InvalidValueException;
+
 
     /**
      *
@@ -44,6 +44,8 @@ import org.eclipse.che.api.project.shared.dto.RunnerEnvironment;
 import org.eclipse.che.api.project.shared.dto.RunnerEnvironmentLeaf;
 import org.eclipse.che.api.project.shared.dto.RunnerEnvironmentTree;
 import org.eclipse.che.api.project.shared.dto.RunnerSource;
+import org.eclipse.che.api.project.shared.dto.SearchResultItem;
+import org.eclipse.che.api.project.shared.dto.SearchResultPage;
 import org.eclipse.che.api.project.shared.dto.Source;
 import org.eclipse.che.api.project.shared.dto.SourceEstimation;
 import org.eclipse.che.api.project.shared.dto.TreeElement;
@@ -52,6 +54,8 @@ import org.eclipse.che.api.vfs.server.ContentStream;
 import org.eclipse.che.api.vfs.server.VirtualFile;
 import org.eclipse.che.api.vfs.server.VirtualFileSystemImpl;
 import org.eclipse.che.api.vfs.server.search.QueryExpression;
+import org.eclipse.che.api.vfs.server.search.SearchResult;
+import org.eclipse.che.api.vfs.server.search.SearchResultEntry;
 import org.eclipse.che.api.vfs.server.search.SearcherProvider;
 import org.eclipse.che.api.vfs.shared.dto.AccessControlEntry;
 import org.eclipse.che.api.vfs.shared.dto.Principal;
@@ -1305,29 +1309,30 @@ public class ProjectService extends Service {
                     .setPath(path.startsWith("/") ? path : ('/' + path))
                     .setName(name)
                     .setMediaType(mediatype)
-                    .setText(text);
+                    .setText(text)
+                    .setSkipCount(skipCount)
+                    .setMaxItems(maxItems);
 
-            final String[] result = searcherProvider.getSearcher(folder.getVirtualFile().getMountPoint(), true).search(expr);
+            final SearchResult result = searcherProvider.getSearcher(folder.getVirtualFile().getMountPoint(), true).searchPage(expr);
             if (skipCount > 0) {
-                if (skipCount > result.length) {
+                if (skipCount > result.getTotalHits()) {
                     throw new ConflictException(
                             String.format("'skipCount' parameter: %d is greater then total number of items in result: %d.",
-                                          skipCount, result.length));
+                                          skipCount, result.getTotalHits()));
                 }
             }
-            final int length = maxItems > 0 ? Math.min(result.length, maxItems) : result.length;
-            final List<ItemReference> items = new ArrayList<>(length);
+            if (result.getNextPageToken() != null && (maxItems <= 0 || result.getEntries().size() < maxItems)) {
+                // Searcher limits size of result, don't return part of requested items silently.
+                throw new ServerException(String.format("Too many (%d) matched results found. Use 'search_page' to get result by pages.",
+                                                        result.getTotalHits()));
+            }
+            final List<ItemReference> items = new ArrayList<>(result.getEntries().size());
             final FolderEntry root = projectManager.getProjectsRoot(workspace);
             final UriBuilder uriBuilder = getServiceContext().getServiceUriBuilder();
-            for (int i = skipCount; i < length; i++) {
-                VirtualFileEntry child = null;
-                try {
-                    child = root.getChild(result[i]);
-                } catch (ForbiddenException ignored) {
-                    // Ignore item that user can't access
-                }
-                if (child != null && child.isFile()) {
-                    items.add(DtoConverter.toItemReferenceDto((FileEntry)child, uriBuilder.clone()));
+            for (SearchResultEntry entry : result.getEntries()) {
+                final FileEntry file = getSearchResultFile(root, entry);
+                if (file != null) {
+                    items.add(DtoConverter.toItemReferenceDto(file, uriBuilder.clone()));
                 }
             }
             return items;
@@ -1335,6 +1340,77 @@ public class ProjectService extends Service {
         return Collections.emptyList();
     }
 
+    @ApiOperation(value = "Search for resources and get page of result",
+                  notes = "Search for resources applying a number of search filters as query parameters. Result is sorted by relevance " +
+                          "and contains matched lines of files. Use 'nextPageToken' of result to get next page.",
+                  response = SearchResultPage.class,
+                  position = 23)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "OK"),
+            @ApiResponse(code = 403, message = "User not authorized to call this operation"),
+            @ApiResponse(code = 404, message = "Not found"),
+            @ApiResponse(code = 409, message = "Conflict error"),
+            @ApiResponse(code = 500, message = "Internal Server Error")})
+    @GET
+    @Path("/search_page/{path:.*}")
+    @Produces(MediaType.APPLICATION_JSON)
+    public SearchResultPage searchPage(@ApiParam(value = "Workspace ID", required = true)
+                                       @PathParam("ws-id") String workspace,
+                                       @ApiParam(value = "Path to resource, i.e. where to search?", required = true)
+                                       @PathParam("path") String path,
+                                       @ApiParam(value = "Resource name")
+                                       @QueryParam("name") String name,
+                                       @ApiParam(value = "Media type")
+                                       @QueryParam("mediatype") String mediatype,
+                                       @ApiParam(value = "Search keywords")
+                                       @QueryParam("text") String text,
+                                       @ApiParam(value = "Maximum items in page. If this parameter is dropped, default limit is used")
+                                       @QueryParam("maxItems") @DefaultValue("-1") int maxItems,
+                                       @ApiParam(value = "Token of page, it is returned as 'nextPageToken' with previous page")
+                                       @QueryParam("pageToken") String pageToken)
+            throws NotFoundException, ForbiddenException, ConflictException, ServerException {
+        final FolderEntry folder = path.isEmpty() ? projectManager.getProjectsRoot(workspace) : asFolder(workspace, path);
+        final DtoFactory dtoFactory = DtoFactory.getInstance();
+        if (searcherProvider != null) {
+            final QueryExpression expr = new QueryExpression()
+                    .setPath(path.startsWith("/") ? path : ('/' + path))
+                    .setName(name)
+                    .setMediaType(mediatype)
+                    .setText(text)
+                    .setMaxItems(maxItems)
+                    .setPageToken(pageToken);
+
+            final SearchResult result = searcherProvider.getSearcher(folder.getVirtualFile().getMountPoint(), true).searchPage(expr);
+            final List<SearchResultItem> items = new ArrayList<>(result.getEntries().size());
+            final FolderEntry root = projectManager.getProjectsRoot(workspace);
+            final UriBuilder uriBuilder = getServiceContext().getServiceUriBuilder();
+            for (SearchResultEntry entry : result.getEntries()) {
+                final FileEntry file = getSearchResultFile(root, entry);
+                if (file != null) {
+                    items.add(dtoFactory.createDto(SearchResultItem.class)
+                                        .withItem(DtoConverter.toItemReferenceDto(file, uriBuilder.clone()))
+                                        .withScore(entry.getScore())
+                                        .withSnippets(entry.getSnippets()));
+                }
+            }
+            return dtoFactory.createDto(SearchResultPage.class)
+                             .withItems(items)
+                             .withTotalHits(result.getTotalHits())
+                             .withNextPageToken(result.getNextPageToken());
+        }
+        return dtoFactory.createDto(SearchResultPage.class);
+    }
+
+    private FileEntry getSearchResultFile(FolderEntry root, SearchResultEntry entry) throws ServerException {
+        VirtualFileEntry child = null;
+        try {
+            child = root.getChild(entry.getPath());
+        } catch (ForbiddenException ignored) {
+            // Ignore item that user can't access
+        }
+        return child != null && child.isFile() ? (FileEntry)child : null;
+    }
+
     @ApiOperation(value = "Get user permissions in a project",
                   notes = "Get permissions for a user in a specified project, such as read, write, build, " +
                           "run etc. ID of a user is set in a query parameter of a request URL.",
@@ -42,6 +42,12 @@ public class Builders {
     /** Copy constructor. */
     public Builders(Builders other) {
         this._default = other._default;
+        if (other.configs != null) {
+            final Map<String, Config> myConfigs = getConfigs();
+            for (Map.Entry<String, Config> e : other.configs.entrySet()) {
+                myConfigs.put(e.getKey(), e.getValue() == null ? null : new Config(e.getValue()));
+            }
+        }
     }
 
     /** Gets default builder identifier, e.g. "maven". */
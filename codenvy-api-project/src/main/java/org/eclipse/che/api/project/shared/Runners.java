@@ -39,6 +39,12 @@ public class Runners {
     /** Copy constructor. */
     public Runners(Runners other) {
         this._default = other._default;
+        if (other.configs != null) {
+            final Map<String, Config> myConfigs = getConfigs();
+            for (Map.Entry<String, Config> e : other.configs.entrySet()) {
+                myConfigs.put(e.getKey(), e.getValue() == null ? null : new Config(e.getValue()));
+            }
+        }
     }
 
     /** Gets default runner identifier. */
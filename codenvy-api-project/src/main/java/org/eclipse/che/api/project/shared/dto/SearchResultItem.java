@@ -0,0 +1,43 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.shared.dto;
+
+import org.eclipse.che.dto.shared.DTO;
+
+import java.util.List;
+
+/**
+ * Matched item of search result.
+ *
+ * @author andrew00x
+ */
+@DTO
+public interface SearchResultItem {
+    ItemReference getItem();
+
+    void setItem(ItemReference item);
+
+    SearchResultItem withItem(ItemReference item);
+
+    /** Relevance of item, items with higher score are more relevant. */
+    float getScore();
+
+    void setScore(float score);
+
+    SearchResultItem withScore(float score);
+
+    /** Lines of file which contain searched text. */
+    List<String> getSnippets();
+
+    void setSnippets(List<String> snippets);
+
+    SearchResultItem withSnippets(List<String> snippets);
+}
@@ -0,0 +1,44 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.shared.dto;
+
+import org.eclipse.che.dto.shared.DTO;
+
+import java.util.List;
+
+/**
+ * One page of search result.
+ *
+ * @author andrew00x
+ */
+@DTO
+public interface SearchResultPage {
+    /** Matched items sorted by relevance. */
+    List<SearchResultItem> getItems();
+
+    void setItems(List<SearchResultItem> items);
+
+    SearchResultPage withItems(List<SearchResultItem> items);
+
+    /** Total number of matched items. */
+    int getTotalHits();
+
+    void setTotalHits(int totalHits);
+
+    SearchResultPage withTotalHits(int totalHits);
+
+    /** Token for getting next page or {@code null} if there is no more items. */
+    String getNextPageToken();
+
+    void setNextPageToken(String nextPageToken);
+
+    SearchResultPage withNextPageToken(String nextPageToken);
+}
@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.server;
+
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.vfs.server.observation.CreateEvent;
+import org.eclipse.che.api.vfs.server.observation.DeleteEvent;
+import org.eclipse.che.api.vfs.server.observation.MoveEvent;
+import org.eclipse.che.api.vfs.server.observation.UpdateContentEvent;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** @author andrew00x */
+public class ProjectEventServiceTest {
+    private EventService       eventService;
+    private List<ProjectEvent> events;
+    private ProjectEventListener listener;
+
+    @BeforeMethod
+    public void setUp() {
+        eventService = new EventService();
+        events = new CopyOnWriteArrayList<>();
+        listener = new ProjectEventListener() {
+            @Override
+            public void onEvent(ProjectEvent event) {
+                events.add(event);
+            }
+        };
+    }
+
+    @Test
+    public void testAddRemoveListener() {
+        ProjectEventService projectEventService = new ProjectEventService(eventService);
+        Assert.assertTrue(projectEventService.addListener("my_ws", "my_project", listener));
+        Assert.assertFalse(projectEventService.addListener("my_ws", "my_project", listener));
+        Assert.assertTrue(projectEventService.removeListener("my_ws", "my_project", listener));
+        Assert.assertFalse(projectEventService.removeListener("my_ws", "my_project", listener));
+        eventService.publish(new CreateEvent("my_ws", "/my_project/file.txt", false));
+        Assert.assertTrue(events.isEmpty());
+    }
+
+    @Test
+    public void testDispatchEvents() {
+        ProjectEventService projectEventService = new ProjectEventService(eventService);
+        projectEventService.addListener("my_ws", "my_project", listener);
+        eventService.publish(new CreateEvent("my_ws", "/my_project/a/file.txt", false));
+        eventService.publish(new CreateEvent("other_ws", "/my_project/a/file.txt", false));
+        eventService.publish(new CreateEvent("my_ws", "/my_project_2/a/file.txt", false));
+        eventService.publish(new UpdateContentEvent("my_ws", "/my_project/a/file.txt"));
+        eventService.publish(new MoveEvent("my_ws", "/other_project/file.txt", "/my_project/a/file.txt", false));
+
+        Assert.assertEquals(events.size(), 3);
+        assertEvent(events.get(0), ProjectEvent.EventType.CREATED, "a/file.txt");
+        assertEvent(events.get(1), ProjectEvent.EventType.UPDATED, "a/file.txt");
+        assertEvent(events.get(2), ProjectEvent.EventType.DELETED, "a/file.txt");
+    }
+
+    @Test
+    public void testDispatchEventsToModule() {
+        ProjectEventService projectEventService = new ProjectEventService(eventService);
+        projectEventService.addListener("my_ws", "my_project", listener);
+        projectEventService.addListener("my_ws", "/my_project/module", listener);
+        eventService.publish(new CreateEvent("my_ws", "/my_project/module/file.txt", false));
+
+        Assert.assertEquals(events.size(), 2);
+    }
+
+    @Test
+    public void testCoalesceEvents() throws Exception {
+        ProjectEventService projectEventService = new ProjectEventService(eventService);
+        projectEventService.setCoalesceWindow(200);
+        projectEventService.addListener("my_ws", "my_project", listener);
+        eventService.publish(new CreateEvent("my_ws", "/my_project/file1.txt", false));
+        eventService.publish(new UpdateContentEvent("my_ws", "/my_project/file1.txt"));
+        eventService.publish(new UpdateContentEvent("my_ws", "/my_project/file1.txt"));
+        eventService.publish(new CreateEvent("my_ws", "/my_project/file2.txt", false));
+        eventService.publish(new DeleteEvent("my_ws", "/my_project/file2.txt", false));
+        eventService.publish(new UpdateContentEvent("my_ws", "/my_project/file3.txt"));
+        eventService.publish(new UpdateContentEvent("my_ws", "/my_project/file3.txt"));
+        Assert.assertTrue(events.isEmpty());
+
+        long stop = System.currentTimeMillis() + 2000;
+        while (events.size() < 2 && System.currentTimeMillis() < stop) {
+            Thread.sleep(50);
+        }
+        Thread.sleep(100);
+        Assert.assertEquals(events.size(), 2);
+        assertEvent(events.get(0), ProjectEvent.EventType.CREATED, "file1.txt");
+        assertEvent(events.get(1), ProjectEvent.EventType.UPDATED, "file3.txt");
+    }
+
+    @Test
+    public void testCoalescedEventsOfListenerAreNotDeliveredConcurrently() throws Exception {
+        final AtomicInteger delivering = new AtomicInteger();
+        final AtomicBoolean overlapped = new AtomicBoolean();
+        ProjectEventService projectEventService = new ProjectEventService(eventService);
+        projectEventService.setCoalesceWindow(20);
+        projectEventService.addListener("my_ws", "my_project", new ProjectEventListener() {
+            @Override
+            public void onEvent(ProjectEvent event) {
+                if (delivering.incrementAndGet() > 1) {
+                    overlapped.set(true);
+                }
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                events.add(event);
+                delivering.decrementAndGet();
+            }
+        });
+        eventService.publish(new UpdateContentEvent("my_ws", "/my_project/file1.txt"));
+        Thread.sleep(100);
+        eventService.publish(new UpdateContentEvent("my_ws", "/my_project/file2.txt"));
+
+        long stop = System.currentTimeMillis() + 2000;
+        while (events.size() < 2 && System.currentTimeMillis() < stop) {
+            Thread.sleep(50);
+        }
+        Assert.assertFalse(overlapped.get());
+        Assert.assertEquals(events.size(), 2);
+        assertEvent(events.get(0), ProjectEvent.EventType.UPDATED, "file1.txt");
+        assertEvent(events.get(1), ProjectEvent.EventType.UPDATED, "file2.txt");
+    }
+
+    private void assertEvent(ProjectEvent event, ProjectEvent.EventType type, String path) {
+        Assert.assertEquals(event.getType(), type);
+        Assert.assertEquals(event.getWorkspace(), "my_ws");
+        Assert.assertEquals(event.getPath(), path);
+    }
+}
@@ -42,6 +42,8 @@ import org.eclipse.che.api.project.shared.dto.ProjectReference;
 import org.eclipse.che.api.project.shared.dto.ProjectUpdate;
 import org.eclipse.che.api.project.shared.dto.RunnerEnvironmentLeaf;
 import org.eclipse.che.api.project.shared.dto.RunnerEnvironmentTree;
+import org.eclipse.che.api.project.shared.dto.SearchResultItem;
+import org.eclipse.che.api.project.shared.dto.SearchResultPage;
 import org.eclipse.che.api.project.shared.dto.Source;
 import org.eclipse.che.api.project.shared.dto.TreeElement;
 
@@ -2149,6 +2151,95 @@ public class ProjectServiceTest {
         Assert.assertTrue(result.get(0).getPath().equals("/my_project/c/test"));
     }
 
+    @Test
+    public void testSearchPage() throws Exception {
+        Project myProject = pm.getProject(workspace, "my_project");
+        myProject.getBaseFolder().createFolder("a/b").createFile("test.txt", "first line\nline with searchhit\nlast line".getBytes(),
+                                                                 "text/plain");
+        myProject.getBaseFolder().createFolder("x/y").createFile("searchhit.txt", "searchhit".getBytes(), "text/plain");
+        myProject.getBaseFolder().createFolder("c").createFile("_test", "searchhit".getBytes(), "text/plain");
+
+        ContainerResponse response = launcher.service("GET",
+                                                      String.format(
+                                                              "http://localhost:8080/api/project/%s/search_page/my_project?text=searchhit&maxItems=2",
+                                                              workspace),
+                                                      "http://localhost:8080/api", null, null, null);
+        assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+        SearchResultPage page = (SearchResultPage)response.getEntity();
+        assertEquals(page.getTotalHits(), 3);
+        assertEquals(page.getItems().size(), 2);
+        // match in name is ranked higher
+        assertEquals(page.getItems().get(0).getItem().getPath(), "/my_project/x/y/searchhit.txt");
+        Assert.assertNotNull(page.getNextPageToken());
+        Set<String> paths = new LinkedHashSet<>(3);
+        List<String> snippets = new ArrayList<>();
+        for (SearchResultItem item : page.getItems()) {
+            paths.add(item.getItem().getPath());
+            snippets.addAll(item.getSnippets());
+        }
+
+        response = launcher.service("GET",
+                                    String.format(
+                                            "http://localhost:8080/api/project/%s/search_page/my_project?text=searchhit&maxItems=2&pageToken=%s",
+                                            workspace, page.getNextPageToken()),
+                                    "http://localhost:8080/api", null, null, null);
+        assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+        page = (SearchResultPage)response.getEntity();
+        assertEquals(page.getItems().size(), 1);
+        Assert.assertNull(page.getNextPageToken());
+        for (SearchResultItem item : page.getItems()) {
+            paths.add(item.getItem().getPath());
+            snippets.addAll(item.getSnippets());
+        }
+        assertEquals(paths, new LinkedHashSet<>(Arrays.asList("/my_project/x/y/searchhit.txt",
+                                                              "/my_project/a/b/test.txt",
+                                                              "/my_project/c/_test")));
+        Assert.assertTrue(snippets.contains("line with searchhit"));
+        Assert.assertFalse(snippets.contains("first line"));
+    }
+
+    @Test
+    public void testSearchPageNoNextPageTokenWhenAllHitsFitInPage() throws Exception {
+        Project myProject = pm.getProject(workspace, "my_project");
+        myProject.getBaseFolder().createFolder("a").createFile("one.txt", "searchhit".getBytes(), "text/plain");
+        myProject.getBaseFolder().createFolder("b").createFile("two.txt", "searchhit".getBytes(), "text/plain");
+
+        ContainerResponse response = launcher.service("GET",
+                                                      String.format(
+                                                              "http://localhost:8080/api/project/%s/search_page/my_project?text=searchhit&maxItems=2",
+                                                              workspace),
+                                                      "http://localhost:8080/api", null, null, null);
+        assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+        SearchResultPage page = (SearchResultPage)response.getEntity();
+        assertEquals(page.getTotalHits(), 2);
+        assertEquals(page.getItems().size(), 2);
+        Assert.assertNull(page.getNextPageToken());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testSearchFailsWhenResultIsTooBig() throws Exception {
+        Project myProject = pm.getProject(workspace, "my_project");
+        FolderEntry folder = myProject.getBaseFolder().createFolder("a");
+        for (int i = 0; i <= 1000; i++) {
+            folder.createFile("test" + i + ".txt", "searchhit".getBytes(), "text/plain");
+        }
+
+        ContainerResponse response = launcher.service("GET",
+                                                      String.format("http://localhost:8080/api/project/%s/search/my_project?text=searchhit",
+                                                                    workspace),
+                                                      "http://localhost:8080/api", null, null, null);
+        // All results or error, but never part of result.
+        assertEquals(response.getStatus(), 500);
+
+        response = launcher.service("GET",
+                                    String.format("http://localhost:8080/api/project/%s/search/my_project?text=searchhit&maxItems=10",
+                                                  workspace),
+                                    "http://localhost:8080/api", null, null, null);
+        assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+        assertEquals(((List<ItemReference>)response.getEntity()).size(), 10);
+    }
+
     @Test
     public void testSetBasicPermissions() throws Exception {
         Project myProject = pm.getProject(workspace, "my_project");
@@ -35,6 +35,7 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author andrew00x
@@ -222,6 +223,68 @@ public class ProjectTest {
         Assert.assertEquals(myProject.getConfig().getBuilders().getDefault(), "builder1");
     }
 
+    @Test
+    public void testCachedConfig() throws Exception {
+        final AtomicInteger counter = new AtomicInteger();
+        final CacheableValueProviderFactory vpf = new CacheableValueProviderFactory() {
+            @Override
+            public Set<String> getDependencies() {
+                return Collections.singleton("pom.xml");
+            }
+
+            @Override
+            public ValueProvider newInstance(final FolderEntry projectFolder) {
+                return new ValueProvider() {
+                    @Override
+                    public List<String> getValues(String attributeName) throws ValueStorageException {
+                        counter.incrementAndGet();
+                        try {
+                            return Collections.singletonList(projectFolder.getChild("pom.xml") == null ? "no pom" : "pom");
+                        } catch (ForbiddenException | ServerException e) {
+                            throw new ValueStorageException(e.getMessage());
+                        }
+                    }
+
+                    @Override
+                    public void setValues(String attributeName, List<String> value) {
+                    }
+                };
+            }
+        };
+        ProjectType pt = new ProjectType("cached_project_type", "cached project type", true, false) {
+            {
+                addVariableDefinition("cached_attribute", "attr description", true, vpf);
+            }
+        };
+        pm.getProjectTypeRegistry().registerProjectType(pt);
+
+        Project myProject = pm.getProject("my_ws", "my_project");
+        new ProjectJson().withType("cached_project_type").save(myProject);
+
+        Assert.assertEquals(myProject.getConfig().getAttributes().get("cached_attribute").getString(), "no pom");
+        Assert.assertEquals(myProject.getConfig().getAttributes().get("cached_attribute").getString(), "no pom");
+        Assert.assertEquals(counter.get(), 1);
+
+        // not a dependency of value provider
+        myProject.getBaseFolder().createFile("test.txt", "test".getBytes(), "text/plain");
+        Assert.assertEquals(myProject.getConfig().getAttributes().get("cached_attribute").getString(), "no pom");
+        Assert.assertEquals(counter.get(), 1);
+
+        myProject.getBaseFolder().createFile("pom.xml", "<project/>".getBytes(), "text/xml");
+        Assert.assertEquals(myProject.getConfig().getAttributes().get("cached_attribute").getString(), "pom");
+        Assert.assertEquals(counter.get(), 2);
+
+        // modifications of returned configuration don't affect cached one
+        myProject.getConfig().getAttributes().clear();
+        Assert.assertEquals(myProject.getConfig().getAttributes().get("cached_attribute").getString(), "pom");
+        Assert.assertEquals(counter.get(), 2);
+
+        // update of project.json
+        new ProjectJson().withType("cached_project_type").save(myProject);
+        Assert.assertEquals(myProject.getConfig().getAttributes().get("cached_attribute").getString(), "pom");
+        Assert.assertEquals(counter.get(), 3);
+    }
+
     @Test
     public void testEstimateProject() throws Exception {
 
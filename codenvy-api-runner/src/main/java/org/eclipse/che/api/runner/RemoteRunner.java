@@ -138,6 +138,21 @@ public class RemoteRunner {
         return new RemoteRunnerProcess(baseUrl, name, process.getProcessId());
     }
 
+    /**
+     * Asks remote runner to download artifact of build in background, so it is ready when application is started with the same request.
+     * Request is sent asynchronously and its result is ignored, prefetch is only a hint for remote runner. Does nothing if remote runner
+     * doesn't support prefetch.
+     *
+     * @param request
+     *         run request that contains build task
+     */
+    public void prefetch(RunRequest request) {
+        final Link link = getLink(Constants.LINK_REL_PREFETCH);
+        if (link != null) {
+            HttpJsonHelper.requestAsync(null, 10000, link, request);
+        }
+    }
+
     /**
      * Get current state of remote runner.
      *
@@ -16,17 +16,20 @@ import org.eclipse.che.api.builder.BuildStatus;
 import org.eclipse.che.api.builder.BuilderService;
 import org.eclipse.che.api.builder.dto.BuildOptions;
 import org.eclipse.che.api.builder.dto.BuildTaskDescriptor;
+import org.eclipse.che.api.builder.internal.BuilderEvent;
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.ForbiddenException;
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.UnauthorizedException;
+import org.eclipse.che.api.core.notification.AsyncDeliveryOptions;
 import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.core.notification.EventSubscriber;
 import org.eclipse.che.api.core.rest.HttpJsonHelper;
 import org.eclipse.che.api.core.rest.RemoteServiceDescriptor;
 import org.eclipse.che.api.core.rest.ServiceContext;
 import org.eclipse.che.api.core.rest.shared.dto.Link;
+import org.eclipse.che.api.core.util.FairShareBlockingQueue;
 import org.eclipse.che.api.core.util.ValueHolder;
 import org.eclipse.che.api.project.server.ProjectService;
 import org.eclipse.che.api.project.shared.EnvironmentId;
@@ -72,6 +75,7 @@ import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -84,11 +88,9 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.FutureTask;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -106,6 +108,11 @@ public class RunQueue {
 
     /** Pause in milliseconds for checking the result of build process. */
     private static final long CHECK_BUILD_RESULT_PERIOD     = 2000;
+    /**
+     * Pause in milliseconds for checking the result of build process if RunQueue gets events from builder. In this case checking is
+     * needed only if event about end of build is lost.
+     */
+    private static final long CHECK_BUILD_RESULT_MAX_PERIOD = 60000;
     private static final long CHECK_AVAILABLE_RUNNER_PERIOD = 2000;
 
     private static final long PROCESS_CLEANER_PERIOD = TimeUnit.MINUTES.toMillis(1);
@@ -114,27 +121,39 @@ public class RunQueue {
 
     private static final int APPLICATION_CHECK_URL_TIMEOUT = 2000;
     private static final int APPLICATION_CHECK_URL_COUNT   = 30;
+    /** Min pause in milliseconds between checks of application URL if checks are triggered by output of application. */
+    private static final long APPLICATION_CHECK_URL_MIN_INTERVAL = 300;
+
+    private static final int DEFAULT_QUEUE_WORKERS_NUMBER          = 100;
+    private static final int DEFAULT_QUEUE_MAX_TASKS_PER_WORKSPACE = 10;
 
     private static final AtomicLong sequence = new AtomicLong(1);
 
-    private final ConcurrentMap<String, RemoteRunnerServer>       runnerServers;
-    private final RunnerSelectionStrategy                         runnerSelector;
-    private final ConcurrentMap<RunnerListKey, Set<RemoteRunner>> runnerListMapping;
-    private final ConcurrentMap<Long, RunQueueTask>               tasks;
-    private final int                                             defMemSize;
-    private final EventService                                    eventService;
-    private final String                                          baseWorkspaceApiUrl;
-    private final String                                          baseProjectApiUrl;
-    private final String                                          baseBuilderApiUrl;
-    private final int                                             defLifetime;
-    private final long                                            maxWaitingTimeMillis;
-    private final AtomicBoolean                                   started;
-    private final long                                            appCleanupTime;
+    private final ConcurrentMap<String, RemoteRunnerServer>        runnerServers;
+    private final RunnerSelectionStrategy                          runnerSelector;
+    private final ConcurrentMap<RunnerListKey, Set<RemoteRunner>>  runnerListMapping;
+    private final ConcurrentMap<Long, RunQueueTask>                tasks;
+    /** Tasks which are waiting for end of build, mapped by id of build task. */
+    private final ConcurrentMap<Long, RemoteRunnerProcessCallable> waitingForBuild;
+    /** Tasks which are waiting for runner with enough resources. */
+    private final Set<RemoteRunnerProcessCallable>                 waitingForRunner;
+    /** Checkers of URLs of started applications, mapped by id of task. */
+    private final ConcurrentMap<Long, ApplicationUrlChecker>       checkingApplicationUrl;
+    private final int                                              defMemSize;
+    private final EventService                                     eventService;
+    private final String                                           baseWorkspaceApiUrl;
+    private final String                                           baseProjectApiUrl;
+    private final String                                           baseBuilderApiUrl;
+    private final int                                              defLifetime;
+    private final long                                             maxWaitingTimeMillis;
+    private final AtomicBoolean                                    started;
+    private final long                                             appCleanupTime;
     // Helps to reduce lock contentions when check available resources.
-    private final Lock[]                                          resourceCheckerLocks;
-    private final int                                             resourceCheckerMask;
+    private final Lock[]                                           resourceCheckerLocks;
+    private final int                                              resourceCheckerMask;
 
-    private ExecutorService          executor;
+    private ThreadPoolExecutor       executor;
+    private FairShareBlockingQueue   executorQueue;
     private ScheduledExecutorService cleanScheduler;
 
     /** Optional pre-configured slave runners. */
@@ -156,6 +175,14 @@ public class RunQueue {
     @Named(Constants.RUNNER_WS_MAX_MEMORY_SIZE)
     private int defMaxMemorySize = DEFAULT_MAX_MEMORY_SIZE;
 
+    @com.google.inject.Inject(optional = true)
+    @Named(Constants.QUEUE_WORKERS_NUMBER)
+    private int queueWorkers = DEFAULT_QUEUE_WORKERS_NUMBER;
+
+    @com.google.inject.Inject(optional = true)
+    @Named(Constants.QUEUE_MAX_TASKS_PER_WORKSPACE)
+    private int maxTasksPerWorkspace = DEFAULT_QUEUE_MAX_TASKS_PER_WORKSPACE;
+
     // Switched to default for test.
     // private
     long cleanerPeriod              = PROCESS_CLEANER_PERIOD;
@@ -165,6 +192,9 @@ public class RunQueue {
     // Switched to default for test.
     // private
     long checkBuildResultPeriod     = CHECK_BUILD_RESULT_PERIOD;
+    // Switched to default for test.
+    // private
+    long checkBuildResultMaxPeriod  = CHECK_BUILD_RESULT_MAX_PERIOD;
 
     /**
      * @param baseWorkspaceApiUrl
@@ -214,6 +244,9 @@ public class RunQueue {
 
         runnerServers = new ConcurrentHashMap<>();
         tasks = new ConcurrentHashMap<>();
+        waitingForBuild = new ConcurrentHashMap<>();
+        waitingForRunner = Collections.newSetFromMap(new ConcurrentHashMap<RemoteRunnerProcessCallable, Boolean>());
+        checkingApplicationUrl = new ConcurrentHashMap<>();
         runnerListMapping = new ConcurrentHashMap<>();
         started = new AtomicBoolean(false);
         final int partitions = 1 << 4;
@@ -237,14 +270,51 @@ public class RunQueue {
         return new ArrayList<>(tasks.values());
     }
 
+    /**
+     * Get stats of this queue.
+     *
+     * @return stats of this queue
+     */
+    public List<RunnerMetric> getStats() {
+        checkStarted();
+        int waitingNum = 0;
+        for (RunQueueTask task : tasks.values()) {
+            if (task.isWaiting()) {
+                waitingNum++;
+            }
+        }
+        final List<RunnerMetric> stats = new LinkedList<>();
+        final DtoFactory dtoFactory = DtoFactory.getInstance();
+        stats.add(dtoFactory.createDto(RunnerMetric.class).withName(RunnerMetric.NUMBER_OF_WORKERS)
+                            .withValue(Integer.toString(executor.getCorePoolSize()))
+                            .withDescription("Number of threads of queue"));
+        stats.add(dtoFactory.createDto(RunnerMetric.class).withName(RunnerMetric.NUMBER_OF_ACTIVE_WORKERS)
+                            .withValue(Integer.toString(executor.getActiveCount()))
+                            .withDescription("Number of busy threads of queue"));
+        stats.add(dtoFactory.createDto(RunnerMetric.class).withName(RunnerMetric.QUEUE_SIZE)
+                            .withValue(Integer.toString(executorQueue.size()))
+                            .withDescription("Number of tasks which are waiting for thread of queue"));
+        stats.add(dtoFactory.createDto(RunnerMetric.class).withName(RunnerMetric.NUMBER_OF_WAITING_TASKS)
+                            .withValue(Integer.toString(waitingNum))
+                            .withDescription("Number of tasks which are not sent to slave-runners yet"));
+        stats.add(dtoFactory.createDto(RunnerMetric.class).withName(RunnerMetric.NUMBER_OF_TASKS)
+                            .withValue(Integer.toString(tasks.size()))
+                            .withDescription("Total number of tasks"));
+        return stats;
+    }
+
     @PostConstruct
     public void start() {
         if (started.compareAndSet(false, true)) {
-            executor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(),
+            // Tasks don't get own thread but wait in queue for one of fixed number of threads. Queue shares threads between
+            // workspaces (and accounts) fairly and doesn't let single workspace take all of them.
+            executorQueue = new FairShareBlockingQueue(maxTasksPerWorkspace);
+            executor = new ThreadPoolExecutor(queueWorkers, queueWorkers, 60L, TimeUnit.SECONDS, executorQueue,
                                               new ThreadFactoryBuilder().setNameFormat("RunQueue-").setDaemon(true).build()) {
                 @Override
                 protected void afterExecute(Runnable runnable, Throwable error) {
                     super.afterExecute(runnable, error);
+                    executorQueue.release(runnable);
                     if (runnable instanceof InternalRunTask) {
                         final InternalRunTask internalRunTask = (InternalRunTask)runnable;
                         if (error == null) {
@@ -281,6 +351,8 @@ public class RunQueue {
                     }
                 }
             };
+            // All tasks must go through the queue.
+            executor.prestartAllCoreThreads();
             cleanScheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("RunQueueScheduler-")
                                                                                                   .setDaemon(true).build());
             cleanScheduler.scheduleAtFixedRate(new Runnable() {
@@ -346,9 +418,15 @@ public class RunQueue {
             // sending message by websocket connection for notice about used memory size changing
             eventService.subscribe(new ResourcesChangesMessenger());
             eventService.subscribe(new ProcessStartedMessenger());
-            eventService.subscribe(new RunStatusMessenger());
+            // Sending of messages over websocket and logging for analytics must not slow down publishers of events.
+            eventService.subscribe(new RunStatusMessenger(), newProcessEventsDeliveryOptions());
             //Log events for analytics
-            eventService.subscribe(new AnalyticsMessenger());
+            eventService.subscribe(new AnalyticsMessenger(), newProcessEventsDeliveryOptions());
+            // Don't poll builder and runners while get events from them.
+            eventService.subscribe(new BuildEventsListener());
+            eventService.subscribe(new ReleasedResourcesListener());
+            // Check URL of application as soon as it writes something to output instead of waiting for the next attempt.
+            eventService.subscribe(new ApplicationEventsListener());
 
             if (slaves.length > 0) {
                 executor.execute(new RegisterSlaveRunnerTask(slaves, null));
@@ -395,6 +473,8 @@ public class RunQueue {
                 executor.shutdownNow();
             }
             tasks.clear();
+            waitingForBuild.clear();
+            waitingForRunner.clear();
             runnerListMapping.clear();
             if (interrupted) {
                 Thread.currentThread().interrupt();
@@ -541,7 +621,8 @@ public class RunQueue {
         }
         final Callable<RemoteRunnerProcess> callable = createTaskFor(matchedRunners, request, buildTaskHolder);
         final Long id = sequence.getAndIncrement();
-        final InternalRunTask future = new InternalRunTask(ThreadLocalPropagateContext.wrap(callable), id, workspace, project);
+        final InternalRunTask future = new InternalRunTask(ThreadLocalPropagateContext.wrap(callable), id,
+                                                           workspaceDescriptor.getAccountId(), workspace, project);
         request.setId(id); // for getting callback events from remote runner
         final RunQueueTask task = new RunQueueTask(id, request, maxWaitingTimeMillis, future, buildTaskHolder,
                                                    serviceContext.getServiceUriBuilder());
@@ -987,6 +1068,11 @@ public class RunQueue {
         private final Set<Pair<String, String>>        lowDiskSpaceRunners;
         private final Set<Pair<String, String>>        criticalDiskSpaceRunners;
 
+        // guarded by this
+        private boolean buildDone;
+        private boolean buildEventsReceived;
+        private boolean resourcesReleased;
+
         public RemoteRunnerProcessCallable(ValueHolder<BuildTaskDescriptor> buildTaskHolder, RunRequest request,
                                            List<RemoteRunner> matchedRunners) {
             this.buildTaskHolder = buildTaskHolder;
@@ -1004,82 +1090,135 @@ public class RunQueue {
                 if (buildStatusLink == null) {
                     throw new RunnerException("Invalid response from builder service. Unable get URL for checking build status");
                 }
-                for (; ; ) {
-                    if (Thread.currentThread().isInterrupted()) {
-                        // Expected to get here if task is canceled. Try to cancel related runner process.
-                        tryCancelBuild(buildDescriptor);
-                        return null;
-                    }
-                    synchronized (this) {
-                        try {
-                            wait(checkBuildResultPeriod);
-                        } catch (InterruptedException e) {
-                            // Expected to get here if task is canceled. Try to cancel related build process.
+                final Long buildId = buildDescriptor.getTaskId();
+                waitingForBuild.put(buildId, this);
+                try {
+                    for (; ; ) {
+                        if (Thread.currentThread().isInterrupted()) {
+                            // Expected to get here if task is canceled. Try to cancel related runner process.
                             tryCancelBuild(buildDescriptor);
                             return null;
                         }
-                    }
-                    buildDescriptor = HttpJsonHelper.request(BuildTaskDescriptor.class, DtoFactory.getInstance().clone(buildStatusLink));
-                    // to be able show current state of build process with RunQueueTask.
-                    buildTaskHolder.set(buildDescriptor);
-                    final BuildStatus buildStatus = buildDescriptor.getStatus();
-                    if (buildStatus == BuildStatus.SUCCESSFUL) {
-                        request.withBuildTaskDescriptor(buildDescriptor);
-                        break; // get out from loop
-                    } else if (buildStatus == BuildStatus.CANCELLED || buildStatus == BuildStatus.FAILED) {
-                        String msg = "Unable start application. Build of application is failed or cancelled.";
-                        final Link logLink = buildDescriptor.getLink(org.eclipse.che.api.builder.internal.Constants.LINK_REL_VIEW_LOG);
-                        if (logLink != null) {
-                            msg += (" Build logs: " + logLink.getHref());
+                        synchronized (this) {
+                            try {
+                                if (buildDone) {
+                                    // Don't wait, check result of build right now. If event comes before builder updates status of
+                                    // the task then continue with regular polling.
+                                    buildDone = false;
+                                    buildEventsReceived = false;
+                                } else {
+                                    // If get events from builder then polling is needed only in case if event about end of build is
+                                    // lost, e.g. because of network problems.
+                                    wait(buildEventsReceived ? checkBuildResultMaxPeriod : checkBuildResultPeriod);
+                                }
+                            } catch (InterruptedException e) {
+                                // Expected to get here if task is canceled. Try to cancel related build process.
+                                tryCancelBuild(buildDescriptor);
+                                return null;
+                            }
+                        }
+                        buildDescriptor = HttpJsonHelper.request(BuildTaskDescriptor.class, buildStatusLink);
+                        // to be able show current state of build process with RunQueueTask.
+                        buildTaskHolder.set(buildDescriptor);
+                        final BuildStatus buildStatus = buildDescriptor.getStatus();
+                        if (buildStatus == BuildStatus.SUCCESSFUL) {
+                            request.withBuildTaskDescriptor(buildDescriptor);
+                            break; // get out from loop
+                        } else if (buildStatus == BuildStatus.CANCELLED || buildStatus == BuildStatus.FAILED) {
+                            String msg = "Unable start application. Build of application is failed or cancelled.";
+                            final Link logLink =
+                                    buildDescriptor.getLink(org.eclipse.che.api.builder.internal.Constants.LINK_REL_VIEW_LOG);
+                            if (logLink != null) {
+                                msg += (" Build logs: " + logLink.getHref());
+                            }
+                            throw new RunnerException(msg);
+                        } else if (buildStatus == BuildStatus.IN_PROGRESS || buildStatus == BuildStatus.IN_QUEUE) {
+                            // wait
+                            LOG.debug("Build in of project '{}' from workspace '{}' is progress", request.getProject(),
+                                      request.getWorkspace());
                         }
-                        throw new RunnerException(msg);
-                    } else if (buildStatus == BuildStatus.IN_PROGRESS || buildStatus == BuildStatus.IN_QUEUE) {
-                        // wait
-                        LOG.debug("Build in of project '{}' from workspace '{}' is progress", request.getProject(), request.getWorkspace());
                     }
+                } finally {
+                    waitingForBuild.remove(buildId);
                 }
             }
 
             // List of runners that have enough resources for launch application.
             final List<RemoteRunner> available = new LinkedList<>();
-            for (; ; ) {
-                for (RemoteRunner runner : matchedRunners) {
-                    if (Thread.currentThread().isInterrupted()) {
-                        // Expected to get here if task is canceled. Stop immediately.
-                        return null;
-                    }
-                    RunnerState runnerState;
-                    try {
-                        runnerState = runner.getRemoteRunnerState();
-                    } catch (Exception e) {
-                        LOG.error(e.getMessage(), e);
-                        continue;
-                    }
-                    if (runnerState.getServerState().getFreeMemory() >= request.getMemorySize()
-                        && hasEnoughSpaceOnDisk(runner.getName(), runner.getBaseUrl(), runnerState)) {
+            // Runner that downloads artifact of build in background while task waits for resources.
+            RemoteRunner prefetching = null;
+            waitingForRunner.add(this);
+            try {
+                for (; ; ) {
+                    for (RemoteRunner runner : matchedRunners) {
+                        if (Thread.currentThread().isInterrupted()) {
+                            // Expected to get here if task is canceled. Stop immediately.
+                            return null;
+                        }
+                        RunnerState runnerState;
+                        try {
+                            runnerState = runner.getRemoteRunnerState();
+                        } catch (Exception e) {
+                            LOG.error(e.getMessage(), e);
+                            continue;
+                        }
+                        if (runnerState.getServerState().getFreeMemory() >= request.getMemorySize()
+                            && hasEnoughSpaceOnDisk(runner.getName(), runner.getBaseUrl(), runnerState)) {
 
-                        available.add(runner);
+                            available.add(runner);
+                        }
                     }
-                }
-                if (available.isEmpty()) {
-                    synchronized (this) {
-                        try {
-                            // Wait and try again.
-                            wait(checkAvailableRunnerPeriod);
-                        } catch (InterruptedException e) {
-                            // Expected to get here if task is canceled.
-                            Thread.currentThread().interrupt();
-                            return null;
+                    if (available.isEmpty()) {
+                        if (prefetching == null && request.getBuildTaskDescriptor() != null && !matchedRunners.isEmpty()) {
+                            prefetching = matchedRunners.size() > 1 ? runnerSelector.select(matchedRunners) : matchedRunners.get(0);
+                            prefetching.prefetch(request);
+                        }
+                        synchronized (this) {
+                            try {
+                                // Wait and try again. Wait may be interrupted earlier if some application is stopped.
+                                if (!resourcesReleased) {
+                                    wait(checkAvailableRunnerPeriod);
+                                }
+                                resourcesReleased = false;
+                            } catch (InterruptedException e) {
+                                // Expected to get here if task is canceled.
+                                Thread.currentThread().interrupt();
+                                return null;
+                            }
                         }
+                    } else {
+                        final RemoteRunner runner;
+                        if (prefetching != null && available.contains(prefetching)) {
+                            // Prefer runner that already has artifact of build.
+                            runner = prefetching;
+                        } else {
+                            runner = available.size() > 1 ? runnerSelector.select(available) : available.get(0);
+                        }
+                        LOG.info("Use runner '{}' at '{}'", runner.getName(), runner.getBaseUrl());
+                        return runner.run(request);
                     }
-                } else {
-                    final RemoteRunner runner = available.size() > 1 ? runnerSelector.select(available) : available.get(0);
-                    LOG.info("Use runner '{}' at '{}'", runner.getName(), runner.getBaseUrl());
-                    return runner.run(request);
                 }
+            } finally {
+                waitingForRunner.remove(this);
             }
         }
 
+        /** Notifies this task about event related to the build it waits for. */
+        synchronized void onBuildEvent(BuilderEvent event) {
+            buildEventsReceived = true;
+            final BuilderEvent.EventType type = event.getType();
+            if (type == BuilderEvent.EventType.DONE || type == BuilderEvent.EventType.BUILD_TASK_QUEUE_TIME_EXCEEDED) {
+                buildDone = true;
+                notify();
+            }
+        }
+
+        /** Notifies this task that some resources are released and it may try to find runner once again. */
+        synchronized void onResourcesReleased() {
+            resourcesReleased = true;
+            notify();
+        }
+
         private boolean hasEnoughSpaceOnDisk(String name, String baseUrl, RunnerState runnerState) {
             final long diskSpace = getTotalDiskSpace(runnerState);
             if (diskSpace > 0) {
@@ -1128,17 +1267,29 @@ public class RunQueue {
     }
 
     // for store workspace, project and id of process with FutureTask
-    private static class InternalRunTask extends FutureTask<RemoteRunnerProcess> {
+    private static class InternalRunTask extends FutureTask<RemoteRunnerProcess> implements FairShareBlockingQueue.Task {
         final Long   id;
+        final String account;
         final String workspace;
         final String project;
 
-        InternalRunTask(Callable<RemoteRunnerProcess> callable, Long id, String workspace, String project) {
+        InternalRunTask(Callable<RemoteRunnerProcess> callable, Long id, String account, String workspace, String project) {
             super(callable);
             this.id = id;
+            this.account = account;
             this.workspace = workspace;
             this.project = project;
         }
+
+        @Override
+        public String getGroup() {
+            return account;
+        }
+
+        @Override
+        public String getKey() {
+            return workspace;
+        }
     }
 
     // >>>>>>>>>>>>>>>>>>>>> Groups runners by infra + workspace + project.
@@ -1192,12 +1343,22 @@ public class RunQueue {
 
     // >>>>>>>>>>>>>>>>>>>>>>>>>>>>> application start checker
 
-    private static class ApplicationUrlChecker implements Runnable {
+    /**
+     * Checks URL of started application and notifies client when application answers. First check is done immediately, next one after
+     * {@code healthCheckerTimeout} ms or earlier if application writes something to its output, e.g. message about end of startup, but
+     * not earlier than {@link #APPLICATION_CHECK_URL_MIN_INTERVAL} ms after previous check. Check is stopped when application is stopped
+     * or after {@code healthCheckAttempts * healthCheckerTimeout} ms.
+     */
+    private class ApplicationUrlChecker implements Runnable {
         final long taskId;
         final URL  url;
         final int  healthCheckerTimeout;
         final int  healthCheckAttempts;
 
+        // guarded by this
+        private boolean outputReceived;
+        private boolean stopped;
+
         ApplicationUrlChecker(long taskId, URL url, int healthCheckerTimeout, int healthCheckAttempts) {
             this.taskId = taskId;
             this.url = url;
@@ -1207,62 +1368,108 @@ public class RunQueue {
 
         @Override
         public void run() {
-            boolean ok = false;
-            String requestMethod = "HEAD";
-            for (int i = 0; !ok && i < healthCheckAttempts; i++) {
-                if (Thread.currentThread().isInterrupted()) {
-                    return;
-                }
-                try {
-                    Thread.sleep(healthCheckerTimeout);
-                } catch (InterruptedException e) {
-                    return;
-                }
-                HttpURLConnection conn = null;
-                try {
-                    conn = (HttpURLConnection)url.openConnection();
-                    conn.setRequestMethod(requestMethod);
-                    conn.setConnectTimeout(1000);
-                    conn.setReadTimeout(1000);
-
-                    LOG.debug(String.format("Response code: %d.", conn.getResponseCode()));
-                    if (405 == conn.getResponseCode()) {
-                        // In case of Method not allowed, we use get instead of HEAD. X-HTTP-Method-Override would be nice but support is
-                        // to weak and will trigger much more GET than with this fallback.
-                        // Note: Response.Status in JAX-WS in JEE6 hasn't any status matching 405, so here we use int code comparison. Fixed
-                        // in JEE7.
-                        requestMethod = "GET";
+            if (checkingApplicationUrl.putIfAbsent(taskId, this) != null) {
+                return;
+            }
+            try {
+                final long deadline = System.currentTimeMillis() + (long)healthCheckerTimeout * healthCheckAttempts;
+                String requestMethod = "HEAD";
+                long lastCheck;
+                for (; ; ) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        return;
                     }
-                    Response.Status status = Response.Status.fromStatusCode(conn.getResponseCode());
-                    if (status == null) {
-                        continue;
+                    lastCheck = System.currentTimeMillis();
+                    HttpURLConnection conn = null;
+                    try {
+                        conn = (HttpURLConnection)url.openConnection();
+                        conn.setRequestMethod(requestMethod);
+                        conn.setConnectTimeout(1000);
+                        conn.setReadTimeout(1000);
+
+                        LOG.debug(String.format("Response code: %d.", conn.getResponseCode()));
+                        if (405 == conn.getResponseCode()) {
+                            // In case of Method not allowed, we use get instead of HEAD. X-HTTP-Method-Override would be nice but support
+                            // is to weak and will trigger much more GET than with this fallback.
+                            // Note: Response.Status in JAX-WS in JEE6 hasn't any status matching 405, so here we use int code comparison.
+                            // Fixed in JEE7.
+                            requestMethod = "GET";
+                        }
+                        Response.Status status = Response.Status.fromStatusCode(conn.getResponseCode());
+                        if (status != null && (Response.Status.Family.SUCCESSFUL == status.getFamily()
+                                               || Response.Status.Family.REDIRECTION == status.getFamily()
+                                               || Response.Status.Family.INFORMATIONAL == status.getFamily())) {
+                            LOG.debug("Application URL '{}' - OK", url);
+                            final ChannelBroadcastMessage bm = new ChannelBroadcastMessage();
+                            bm.setChannel(String.format("runner:app_health:%d", taskId));
+                            bm.setBody(String.format("{\"url\":%s,\"status\":\"%s\"}", JsonUtils.getJsonString(url.toString()), "OK"));
+                            try {
+                                WSConnectionContext.sendMessage(bm);
+                            } catch (Exception e) {
+                                LOG.error(e.getMessage(), e);
+                            }
+                            return;
+                        }
+                    } catch (IOException ignored) {
+                    } finally {
+                        if (conn != null) {
+                            conn.disconnect();
+                        }
                     }
-                    if (Response.Status.Family.SUCCESSFUL == status.getFamily()
-                        || Response.Status.Family.REDIRECTION == status.getFamily()
-                        || Response.Status.Family.INFORMATIONAL == status.getFamily()) {
-                        ok = true;
-                        LOG.debug("Application URL '{}' - OK", url);
-                        final ChannelBroadcastMessage bm = new ChannelBroadcastMessage();
-                        bm.setChannel(String.format("runner:app_health:%d", taskId));
-                        bm.setBody(String.format("{\"url\":%s,\"status\":\"%s\"}", JsonUtils.getJsonString(url.toString()), "OK"));
+                    synchronized (this) {
+                        final long timeout = Math.min(healthCheckerTimeout, deadline - System.currentTimeMillis());
+                        if (stopped || timeout <= 0) {
+                            return;
+                        }
                         try {
-                            WSConnectionContext.sendMessage(bm);
-                        } catch (Exception e) {
-                            LOG.error(e.getMessage(), e);
+                            if (!outputReceived) {
+                                wait(timeout);
+                            }
+                            // Application writes output line by line, don't check URL on each line.
+                            long pause;
+                            while (outputReceived && !stopped
+                                   && (pause = lastCheck + APPLICATION_CHECK_URL_MIN_INTERVAL - System.currentTimeMillis()) > 0) {
+                                wait(pause);
+                            }
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                        outputReceived = false;
+                        if (stopped) {
+                            return;
                         }
-                    }
-                } catch (IOException ignored) {
-                } finally {
-                    if (conn != null) {
-                        conn.disconnect();
                     }
                 }
+            } finally {
+                checkingApplicationUrl.remove(taskId, this);
             }
         }
+
+        /** Notifies this checker that application writes to its output and URL may be checked right now. */
+        synchronized void onApplicationOutput() {
+            outputReceived = true;
+            notify();
+        }
+
+        /** Notifies this checker that application is stopped. */
+        synchronized void onApplicationStopped() {
+            stopped = true;
+            notify();
+        }
     }
 
     // >>>>>>>>>>>>>>>>>>>>>>>> Events
 
+    /** Events that relate to the same process are delivered in order they were published. */
+    private static AsyncDeliveryOptions newProcessEventsDeliveryOptions() {
+        return AsyncDeliveryOptions.newOptions().withKeyResolver(new AsyncDeliveryOptions.KeyResolver() {
+            @Override
+            public Object getKey(Object event) {
+                return ((RunnerEvent)event).getProcessId();
+            }
+        });
+    }
+
     private class ResourcesChangesMessenger implements EventSubscriber<RunnerEvent> {
         @Override
         public void onEvent(RunnerEvent event) {
@@ -1288,6 +1495,45 @@ public class RunQueue {
         }
     }
 
+    private class BuildEventsListener implements EventSubscriber<BuilderEvent> {
+        @Override
+        public void onEvent(BuilderEvent event) {
+            final RemoteRunnerProcessCallable waiting = waitingForBuild.get(event.getTaskId());
+            if (waiting != null) {
+                waiting.onBuildEvent(event);
+            }
+        }
+    }
+
+    private class ReleasedResourcesListener implements EventSubscriber<RunnerEvent> {
+        @Override
+        public void onEvent(RunnerEvent event) {
+            if (event.getType() == RunnerEvent.EventType.STOPPED) {
+                for (RemoteRunnerProcessCallable waiting : waitingForRunner) {
+                    waiting.onResourcesReleased();
+                }
+            }
+        }
+    }
+
+    private class ApplicationEventsListener implements EventSubscriber<RunnerEvent> {
+        @Override
+        public void onEvent(RunnerEvent event) {
+            final ApplicationUrlChecker checker = checkingApplicationUrl.get(event.getProcessId());
+            if (checker != null) {
+                switch (event.getType()) {
+                    case MESSAGE_LOGGED:
+                        checker.onApplicationOutput();
+                        break;
+                    case STOPPED:
+                    case ERROR:
+                        checker.onApplicationStopped();
+                        break;
+                }
+            }
+        }
+    }
+
     private class ProcessStartedMessenger implements EventSubscriber<RunnerEvent> {
         @Override
         public void onEvent(RunnerEvent event) {
@@ -1351,8 +1597,9 @@ public class RunQueue {
                         final RunnerEvent.LoggedMessage message = event.getMessage();
                         if (message != null) {
                             bm.setChannel(String.format("runner:output:%d", id));
-                            bm.setBody(String.format("{\"num\":%d, \"line\":%s}",
-                                                     message.getLineNum(), JsonUtils.getJsonString(message.getMessage())));
+                            bm.setBody(String.format("{\"num\":%d, \"count\":%d, \"line\":%s}",
+                                                     message.getLineNum(), message.getLineCount(),
+                                                     JsonUtils.getJsonString(message.getMessage())));
                         }
                         break;
                 }
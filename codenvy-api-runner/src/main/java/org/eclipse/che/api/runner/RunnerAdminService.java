@@ -17,6 +17,7 @@ import org.eclipse.che.api.core.rest.annotations.GenerateLink;
 import org.eclipse.che.api.core.rest.shared.dto.Link;
 import org.eclipse.che.api.runner.dto.ApplicationProcessDescriptor;
 import org.eclipse.che.api.runner.dto.RunnerDescriptor;
+import org.eclipse.che.api.runner.dto.RunnerMetric;
 import org.eclipse.che.api.runner.dto.RunnerServer;
 import org.eclipse.che.api.runner.dto.RunnerServerLocation;
 import org.eclipse.che.api.runner.dto.RunnerServerRegistration;
@@ -180,4 +181,21 @@ public class RunnerAdminService extends Service {
         }
         return result;
     }
+
+    @ApiOperation(value = "Get state of runner queue",
+                  notes = "Get state of runner queue: number of threads, number of waiting tasks, etc.",
+                  response = RunnerMetric.class,
+                  responseContainer = "List",
+                  position = 5)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "OK"),
+            @ApiResponse(code = 403, message = "User not authorized to call this method"),
+            @ApiResponse(code = 500, message = "Internal Server Error")})
+    @GenerateLink(rel = Constants.LINK_REL_QUEUE_STATE)
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    @Path("/queue/state")
+    public List<RunnerMetric> getQueueState() {
+        return runner.getStats();
+    }
 }
@@ -46,6 +46,18 @@ public interface RunnerMetric {
 
     String DISK_SPACE_USED = "diskSpaceUsed";
 
+    String NUMBER_OF_WORKERS = "numberOfWorkers";
+
+    String NUMBER_OF_ACTIVE_WORKERS = "numberOfActiveWorkers";
+
+    String QUEUE_SIZE = "queueSize";
+
+    String NUMBER_OF_TASKS = "numberOfTasks";
+
+    String NUMBER_OF_WAITING_TASKS = "numberOfWaitingTasks";
+
+    String WARM_CONTAINERS = "warmContainers";
+
     String getName();
 
     RunnerMetric withName(String name);
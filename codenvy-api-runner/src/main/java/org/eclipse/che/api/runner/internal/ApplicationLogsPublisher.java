@@ -11,21 +11,18 @@
 package org.eclipse.che.api.runner.internal;
 
 import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.util.LineChunkBuffer;
 import org.eclipse.che.api.core.util.RateExceedDetector;
 
 import java.io.IOException;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * Publishes application's outputs to the EventService.
+ * Publishes application's outputs to the EventService. Lines are coalesced in chunks, each chunk is published as single event.
  *
  * @author andrew00x
  */
 public class ApplicationLogsPublisher extends DelegateApplicationLogger {
-    private final AtomicInteger      lineCounter;
-    private final EventService       eventService;
-    private final long               processId;
-    private final String             workspace;
+    private final LineChunkBuffer    buffer;
     private final String             project;
     private final RateExceedDetector maxEventRateChecker;
 
@@ -34,16 +31,19 @@ public class ApplicationLogsPublisher extends DelegateApplicationLogger {
     int maxLogsRate = 60;
 
     public ApplicationLogsPublisher(ApplicationLogger delegate,
-                                    EventService eventService,
-                                    long processId,
-                                    String workspace,
-                                    String project) {
+                                    final EventService eventService,
+                                    final long processId,
+                                    final String workspace,
+                                    final String project) {
         super(delegate);
-        this.eventService = eventService;
-        this.processId = processId;
-        this.workspace = workspace;
         this.project = project;
-        lineCounter = new AtomicInteger(1);
+        buffer = new LineChunkBuffer() {
+            @Override
+            protected void flushChunk(String lines, int firstLineNum, int lineCount) {
+                eventService.publish(RunnerEvent.messageLoggedEvent(processId, workspace, project,
+                                                                    new RunnerEvent.LoggedMessage(lines, firstLineNum, lineCount)));
+            }
+        };
         maxEventRateChecker = new RateExceedDetector(maxLogsRate);
     }
 
@@ -56,15 +56,20 @@ public class ApplicationLogsPublisher extends DelegateApplicationLogger {
                 final String message = String.format(
                         "[WARNING] Application '%s' has exceeded output rate of %.2f messages / second. Application output has been disabled.",
                         project.startsWith("/") ? project.substring(1) : project, rate);
-                eventService.publish(RunnerEvent.messageLoggedEvent(processId, workspace, project,
-                                                                    new RunnerEvent.LoggedMessage(message, lineCounter.getAndIncrement())));
+                buffer.writeLine(message);
+                buffer.flush();
                 return;
             }
             if (line != null) {
-                eventService.publish(RunnerEvent.messageLoggedEvent(processId, workspace, project,
-                                                                    new RunnerEvent.LoggedMessage(line, lineCounter.getAndIncrement())));
+                buffer.writeLine(line);
             }
         }
         super.writeLine(line);
     }
+
+    @Override
+    public void close() throws IOException {
+        buffer.close();
+        super.close();
+    }
 }
@@ -0,0 +1,429 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.runner.internal;
+
+import org.eclipse.che.api.builder.internal.WorkDirStrategy;
+import org.eclipse.che.api.core.util.DownloadPlugin;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.eclipse.che.commons.lang.TarUtils;
+
+import com.google.common.hash.Hashing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Cache of artifacts which are downloaded from builder on the local file system. Entry of cache is addressed by key that identifies
+ * result of build, see {@link Runner#getArtifactCacheKey(org.eclipse.che.api.builder.dto.BuildTaskDescriptor,
+ * org.eclipse.che.api.core.rest.shared.dto.Link)}, so restart of application or few runs of the same build get artifact without
+ * downloading it again. Concurrent requests of the same artifact share one download. Tarball is unpacked once when it is added to the
+ * cache.
+ * <p/>
+ * Md5 checksum of artifact is stored together with it. If size or modification date of cached artifact is changed, checksum is verified
+ * and entry is downloaded again if it doesn't match. Deployment gets hard link to the artifact file, which is never modified by the
+ * runner, and own copy of unpacked tarball, since applications may write into their directory tree. Total size of entries is limited,
+ * least recently used entries are removed first. Time of last usage of entry is stored as modification date of its directory. Cache
+ * directory is re-used after restart.
+ *
+ * @author andrew00x
+ */
+public class ArtifactCache {
+    private static final Logger LOG = LoggerFactory.getLogger(ArtifactCache.class);
+
+    private static final String METADATA_FILE = ".artifact";
+    private static final String UNTAR_SUFFIX  = "_untar";
+
+    private final java.io.File   directory;
+    private final long           maxSize;
+    private final DownloadPlugin downloadPlugin;
+    /** Size of entries in the order of access. */
+    private final Map<String, Long>                                entries;
+    private final ConcurrentMap<String, FutureTask<java.io.File>> downloads;
+    /** Number of users of entries which must not be evicted at the moment. */
+    private final Map<String, Integer>                             pinned;
+
+    private long size;
+
+    /**
+     * @param directory
+     *         directory of cache
+     * @param maxSize
+     *         max total size of entries in bytes
+     * @param downloadPlugin
+     *         download plugin that is used for getting artifacts
+     */
+    public ArtifactCache(java.io.File directory, long maxSize, DownloadPlugin downloadPlugin) throws IOException {
+        this.directory = directory;
+        this.maxSize = maxSize;
+        this.downloadPlugin = downloadPlugin;
+        entries = new LinkedHashMap<>(16, 0.75f, true);
+        downloads = new ConcurrentHashMap<>();
+        pinned = new HashMap<>();
+        Files.createDirectories(directory.toPath());
+        load();
+    }
+
+    public java.io.File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Gets artifact with specified key from the cache. If artifact isn't cached yet, it is downloaded from {@code url}. If the same
+     * artifact is downloading at the moment by other thread, this method waits until that download is completed.
+     *
+     * @param key
+     *         key of artifact
+     * @param url
+     *         url for download artifact
+     * @param tarball
+     *         if {@code true} artifact is tarball that is unpacked
+     * @return artifact file or directory of unpacked tarball inside of cache directory
+     */
+    public java.io.File get(final String key, final String url, final boolean tarball) throws IOException {
+        pin(key);
+        try {
+            return doGet(key, url, tarball);
+        } finally {
+            unpin(key);
+        }
+    }
+
+    private java.io.File doGet(final String key, final String url, final boolean tarball) throws IOException {
+        final java.io.File cached = lookup(key, tarball);
+        if (cached != null) {
+            return cached;
+        }
+        FutureTask<java.io.File> download = downloads.get(key);
+        if (download == null) {
+            final FutureTask<java.io.File> newDownload = new FutureTask<>(new Callable<java.io.File>() {
+                @Override
+                public java.io.File call() throws IOException {
+                    return download(key, url, tarball);
+                }
+            });
+            download = downloads.putIfAbsent(key, newDownload);
+            if (download == null) {
+                download = newDownload;
+                try {
+                    newDownload.run();
+                } finally {
+                    downloads.remove(key, newDownload);
+                }
+            }
+        }
+        try {
+            return download.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(String.format("Interrupted while waiting for download of %s", url));
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException)cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            }
+            throw new IOException(cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Gets artifact with specified key, see {@link #get(String, String, boolean)}, and provisions it into {@code dir}. Artifact file
+     * is hard linked, or copied if file system doesn't support hard links. Unpacked tarball is always copied since application may
+     * modify files of its tree in place. Entry isn't evicted from the cache while it is provisioned.
+     *
+     * @return artifact file or directory of unpacked tarball inside of {@code dir}
+     */
+    public java.io.File copyTo(String key, String url, boolean tarball, java.io.File dir) throws IOException {
+        pin(key);
+        try {
+            final java.io.File cached = get(key, url, tarball);
+            final java.io.File target = new java.io.File(dir, cached.getName());
+            if (cached.isDirectory()) {
+                WorkDirStrategy.COPY.provision(cached, target);
+            } else {
+                link(cached, target);
+            }
+            return target;
+        } finally {
+            unpin(key);
+        }
+    }
+
+    private void pin(String key) {
+        synchronized (entries) {
+            final Integer count = pinned.get(key);
+            pinned.put(key, count == null ? 1 : count + 1);
+        }
+    }
+
+    private void unpin(String key) {
+        synchronized (entries) {
+            final Integer count = pinned.get(key);
+            if (count == null || count <= 1) {
+                pinned.remove(key);
+            } else {
+                pinned.put(key, count - 1);
+            }
+        }
+    }
+
+    private static void link(java.io.File file, java.io.File target) throws IOException {
+        try {
+            Files.createLink(target.toPath(), file.toPath());
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            Files.copy(file.toPath(), target.toPath(), StandardCopyOption.COPY_ATTRIBUTES);
+        }
+    }
+
+    /** Gets artifact from the cache or returns {@code null} if there is no such entry or entry is broken. */
+    private java.io.File lookup(String key, boolean tarball) {
+        final java.io.File entry = new java.io.File(directory, key);
+        final Metadata metadata = Metadata.read(entry);
+        if (metadata == null) {
+            return null;
+        }
+        final java.io.File artifact = new java.io.File(entry, metadata.name);
+        if (!(artifact.length() == metadata.length && artifact.lastModified() == metadata.lastModified)) {
+            try {
+                if (!md5(artifact).equals(metadata.md5)) {
+                    LOG.warn("Checksum of artifact {} doesn't match, remove it from cache", artifact);
+                    remove(key);
+                    return null;
+                }
+            } catch (IOException e) {
+                LOG.warn("Unable verify checksum of artifact {}: {}", artifact, e.getMessage());
+                return null;
+            }
+        }
+        final java.io.File result = tarball ? new java.io.File(entry, metadata.name + UNTAR_SUFFIX) : artifact;
+        if (!result.exists()) {
+            return null;
+        }
+        if (!entry.setLastModified(System.currentTimeMillis())) {
+            LOG.warn("Unable update modification date of {} ", entry);
+        }
+        synchronized (entries) {
+            if (entries.get(key) == null) {
+                // Keep size of cache consistent with content of directory.
+                final long entrySize = sizeOf(entry);
+                entries.put(key, entrySize);
+                size += entrySize;
+            }
+        }
+        return result;
+    }
+
+    private java.io.File download(String key, String url, boolean tarball) throws IOException {
+        // Might be added by other thread after the first lookup.
+        final java.io.File cached = lookup(key, tarball);
+        if (cached != null) {
+            return cached;
+        }
+        final java.io.File tmp = new java.io.File(directory, '.' + UUID.randomUUID().toString());
+        try {
+            Files.createDirectories(tmp.toPath());
+            final long start = System.currentTimeMillis();
+            final java.io.File[] downloaded = new java.io.File[1];
+            final IOException[] error = new IOException[1];
+            downloadPlugin.download(url, tmp, new DownloadPlugin.Callback() {
+                @Override
+                public void done(java.io.File file) {
+                    downloaded[0] = file;
+                }
+
+                @Override
+                public void error(IOException e) {
+                    error[0] = e;
+                }
+            });
+            if (error[0] != null) {
+                throw error[0];
+            }
+            if (downloaded[0] == null) {
+                throw new IOException(String.format("Unable download %s", url));
+            }
+            final java.io.File artifact = downloaded[0];
+            if (tarball) {
+                TarUtils.untar(artifact, new java.io.File(tmp, artifact.getName() + UNTAR_SUFFIX));
+            }
+            new Metadata(artifact.getName(), md5(artifact), artifact.length(), artifact.lastModified()).write(tmp);
+            final long entrySize = sizeOf(tmp);
+            final java.io.File entry = new java.io.File(directory, key);
+            if (entry.exists()) {
+                // Broken entry that isn't removed by lookup.
+                remove(key);
+            }
+            try {
+                Files.move(tmp.toPath(), entry.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // Added at the same time out of this cache instance.
+                final java.io.File existed = lookup(key, tarball);
+                if (existed != null) {
+                    return existed;
+                }
+                throw e;
+            }
+            synchronized (entries) {
+                entries.put(key, entrySize);
+                size += entrySize;
+                evict();
+            }
+            LOG.debug("Download artifact {} to cache in {} ms, size: {} bytes", key, (System.currentTimeMillis() - start), entrySize);
+            return new java.io.File(entry, tarball ? artifact.getName() + UNTAR_SUFFIX : artifact.getName());
+        } finally {
+            if (tmp.exists() && !IoUtil.deleteRecursive(tmp)) {
+                LOG.warn("Unable delete directory {}", tmp);
+            }
+        }
+    }
+
+    private void remove(String key) {
+        final java.io.File entry = new java.io.File(directory, key);
+        if (entry.exists() && !IoUtil.deleteRecursive(entry)) {
+            LOG.warn("Unable delete directory {}", entry);
+        }
+        synchronized (entries) {
+            final Long entrySize = entries.remove(key);
+            if (entrySize != null) {
+                size -= entrySize;
+            }
+        }
+    }
+
+    /** Removes least recently used entries until total size of cache is greater than max size. Pinned entries are skipped. */
+    private void evict() {
+        for (Iterator<Map.Entry<String, Long>> i = entries.entrySet().iterator(); i.hasNext() && size > maxSize; ) {
+            final Map.Entry<String, Long> e = i.next();
+            if (pinned.containsKey(e.getKey())) {
+                continue;
+            }
+            final java.io.File entry = new java.io.File(directory, e.getKey());
+            if (entry.exists() && !IoUtil.deleteRecursive(entry)) {
+                LOG.warn("Unable delete directory {}", entry);
+                continue;
+            }
+            i.remove();
+            size -= e.getValue();
+            LOG.debug("Remove artifact {} from cache", e.getKey());
+        }
+    }
+
+    /** Reads entries that are left from previous run. Entries are sorted by time of last usage. */
+    private void load() {
+        final java.io.File[] list = directory.listFiles();
+        if (list == null) {
+            return;
+        }
+        Arrays.sort(list, new Comparator<java.io.File>() {
+            @Override
+            public int compare(java.io.File a, java.io.File b) {
+                return Long.compare(a.lastModified(), b.lastModified());
+            }
+        });
+        synchronized (entries) {
+            for (java.io.File f : list) {
+                if (f.getName().startsWith(".")) {
+                    // Entry that isn't completed, e.g. after crash.
+                    if (!IoUtil.deleteRecursive(f)) {
+                        LOG.warn("Unable delete directory {}", f);
+                    }
+                } else if (f.isDirectory()) {
+                    final long entrySize = sizeOf(f);
+                    entries.put(f.getName(), entrySize);
+                    size += entrySize;
+                }
+            }
+            evict();
+        }
+        LOG.debug("Found {} artifacts in cache {}, total size: {} bytes", entries.size(), directory, size);
+    }
+
+    private static String md5(java.io.File file) throws IOException {
+        return com.google.common.io.Files.asByteSource(file).hash(Hashing.md5()).toString();
+    }
+
+    private static long sizeOf(java.io.File file) {
+        if (!file.isDirectory()) {
+            return file.length();
+        }
+        long result = 0;
+        final java.io.File[] list = file.listFiles();
+        if (list != null) {
+            for (java.io.File f : list) {
+                result += sizeOf(f);
+            }
+        }
+        return result;
+    }
+
+    /** Name, checksum, size and modification date of cached artifact. Stored as one line in file {@link #METADATA_FILE} of entry. */
+    private static class Metadata {
+        final String name;
+        final String md5;
+        final long   length;
+        final long   lastModified;
+
+        Metadata(String name, String md5, long length, long lastModified) {
+            this.name = name;
+            this.md5 = md5;
+            this.length = length;
+            this.lastModified = lastModified;
+        }
+
+        void write(java.io.File entry) throws IOException {
+            final String line = md5 + ' ' + length + ' ' + lastModified + ' ' + name;
+            Files.write(new java.io.File(entry, METADATA_FILE).toPath(), line.getBytes(StandardCharsets.UTF_8));
+        }
+
+        /** Returns {@code null} if there is no metadata file or it is broken. */
+        static Metadata read(java.io.File entry) {
+            final java.io.File file = new java.io.File(entry, METADATA_FILE);
+            if (!file.isFile()) {
+                return null;
+            }
+            try {
+                final List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+                final String[] parts = lines.isEmpty() ? new String[0] : lines.get(0).split(" ", 4);
+                if (parts.length != 4) {
+                    LOG.warn("Broken metadata of artifact {}", entry);
+                    return null;
+                }
+                return new Metadata(parts[3], parts[0], Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+            } catch (IOException | NumberFormatException e) {
+                LOG.warn("Unable read metadata of artifact {}: {}", entry, e.getMessage());
+                return null;
+            }
+        }
+    }
+}
@@ -30,6 +30,8 @@ public class Constants {
     public static final String LINK_REL_RUNNER_RECIPE            = "runner recipe";
     public static final String LINK_REL_GET_RECIPE               = "get recipe";
     public static final String LINK_REL_GET_CURRENT_RECIPE       = "get current recipe";
+    public static final String LINK_REL_QUEUE_STATE              = "queue state";
+    public static final String LINK_REL_PREFETCH                 = "prefetch";
 
     // config properties
     /**
@@ -64,6 +66,28 @@ public class Constants {
     public static final String APP_LIFETIME                       = "runner.app_lifetime";
     /** Name of configuration parameter that sets amount of memory (in megabytes) for running applications. */
     public static final String TOTAL_APPS_MEM_SIZE                = "runner.total_apps_mem_size_mb";
+    /**
+     * Name of configuration parameter that sets the number of threads of RunQueue that wait for builds and send run requests to the
+     * slave-runners. Tasks that don't get thread stay in the queue.
+     */
+    public static final String QUEUE_WORKERS_NUMBER               = "runner.queue.workers_number";
+    /**
+     * Name of configuration parameter that sets the max number of tasks of one workspace that RunQueue may process at the same time.
+     * Others tasks of the workspace stay in the queue and don't prevent processing of tasks of other workspaces.
+     */
+    public static final String QUEUE_MAX_TASKS_PER_WORKSPACE      = "runner.queue.max_tasks_per_workspace";
+    /**
+     * Directory of cache of artifacts which are downloaded from builders. All implementation of {@link Runner} create sub-directories in
+     * this directory. Artifacts aren't cached if this parameter isn't set.
+     */
+    public static final String ARTIFACT_CACHE_DIRECTORY           = "runner.artifact_cache.directory";
+    /** Max size of cache of artifacts in megabytes. */
+    public static final String ARTIFACT_CACHE_MAX_SIZE            = "runner.artifact_cache.max_size";
+    /**
+     * Max number of idle warm containers of each {@link Runner}, see {@link WarmContainer}. Warm pool is disabled if this parameter isn't
+     * set or is 0.
+     */
+    public static final String WARM_POOL_SIZE                     = "runner.warm_pool.size";
 
     public static final String RUNNER_ASSIGNED_TO_WORKSPACE = "runner.assigned_to_workspace";
     public static final String RUNNER_ASSIGNED_TO_PROJECT   = "runner.assigned_to_project";
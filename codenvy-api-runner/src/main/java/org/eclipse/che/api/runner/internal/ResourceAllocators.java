@@ -18,6 +18,8 @@ import org.slf4j.LoggerFactory;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Semaphore;
 
 /**
@@ -42,8 +44,25 @@ public class ResourceAllocators {
 
     private static final Logger LOG = LoggerFactory.getLogger(ResourceAllocators.class);
 
-    private final int       memSize;
-    private final Semaphore memSemaphore;
+    /**
+     * Holder of memory that is allocated but isn't used by applications and may be released on demand, e.g. idle warm containers of
+     * Runner.
+     */
+    public interface MemoryReclaimer {
+        /** Returns amount of memory in megabytes that may be released. */
+        int getReclaimableMemory();
+
+        /**
+         * Releases at least {@code size} megabytes of memory if possible.
+         *
+         * @return amount of released memory in megabytes
+         */
+        int reclaimMemory(int size);
+    }
+
+    private final int                   memSize;
+    private final Semaphore             memSemaphore;
+    private final List<MemoryReclaimer> reclaimers;
 
     @Inject
     public ResourceAllocators(@Named(Constants.TOTAL_APPS_MEM_SIZE) int memSize) {
@@ -52,6 +71,7 @@ public class ResourceAllocators {
         }
         this.memSize = memSize;
         memSemaphore = new Semaphore(memSize);
+        reclaimers = new CopyOnWriteArrayList<>();
     }
 
     /**
@@ -69,19 +89,44 @@ public class ResourceAllocators {
      * @see Constants#TOTAL_APPS_MEM_SIZE
      */
     public ResourceAllocator newMemoryAllocator(int size) {
-        return new MemoryAllocator(size);
+        return new MemoryAllocator(size, true);
+    }
+
+    /**
+     * Create new allocator for memory that isn't used by application yet and may be reclaimed, see {@link MemoryReclaimer}. Unlike
+     * allocator that is returned by method {@link #newMemoryAllocator(int)} it doesn't reclaim memory if there is not enough free memory.
+     *
+     * @param size
+     *         memory size in megabytes
+     * @return memory allocator
+     */
+    public ResourceAllocator newReclaimableMemoryAllocator(int size) {
+        return new MemoryAllocator(size, false);
+    }
+
+    public void addMemoryReclaimer(MemoryReclaimer reclaimer) {
+        reclaimers.add(reclaimer);
+    }
+
+    public void removeMemoryReclaimer(MemoryReclaimer reclaimer) {
+        reclaimers.remove(reclaimer);
     }
 
     /**
      * Returns amount of 'free' memory in megabytes. The returned value is not related to amount of free memory in the Java virtual
-     * machine or free physical memory. It shows how much memory is available for <b>all</b> Runners for starting new applications.
+     * machine or free physical memory. It shows how much memory is available for <b>all</b> Runners for starting new applications,
+     * including memory that may be reclaimed, see {@link MemoryReclaimer}.
      *
      * @return amount of 'free' memory in megabytes
      * @see #totalMemory()
      * @see Constants#TOTAL_APPS_MEM_SIZE
      */
     public int freeMemory() {
-        return memSemaphore.availablePermits();
+        int free = memSemaphore.availablePermits();
+        for (MemoryReclaimer reclaimer : reclaimers) {
+            free += reclaimer.getReclaimableMemory();
+        }
+        return free;
     }
 
     /**
@@ -100,21 +145,37 @@ public class ResourceAllocators {
 
     /** Manages memory available for running applications. */
     private class MemoryAllocator implements ResourceAllocator {
-        final int size;
+        final int     size;
+        final boolean reclaim;
 
-        MemoryAllocator(int size) {
+        MemoryAllocator(int size, boolean reclaim) {
             this.size = size;
+            this.reclaim = reclaim;
         }
 
         @Override
         public MemoryAllocator allocate() throws RunnerException {
-            if (!memSemaphore.tryAcquire(size)) {
+            if (!memSemaphore.tryAcquire(size) && !(reclaim && reclaimAndAcquire())) {
                 throw new RunnerException(String.format("Couldn't allocate %dM for starting application", size));
             }
             LOG.debug("allocate memory: {}M, available: {}M", size, memSemaphore.availablePermits());
             return this;
         }
 
+        private boolean reclaimAndAcquire() {
+            for (MemoryReclaimer reclaimer : reclaimers) {
+                final int needed = size - memSemaphore.availablePermits();
+                if (needed > 0) {
+                    final int released = reclaimer.reclaimMemory(needed);
+                    LOG.debug("reclaim memory: {}M", released);
+                }
+                if (memSemaphore.tryAcquire(size)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
         @Override
         public void release() {
             memSemaphore.release(size);
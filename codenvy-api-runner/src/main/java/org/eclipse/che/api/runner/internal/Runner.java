@@ -31,18 +31,24 @@ import org.eclipse.che.commons.lang.concurrent.ThreadLocalPropagateContext;
 import org.eclipse.che.dto.server.DtoFactory;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
+import com.google.common.hash.Hashing;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
+import javax.inject.Named;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -74,6 +80,9 @@ public abstract class Runner {
 
     private static final DeploymentSources NO_SOURCES = new DeploymentSources(null);
 
+    /** Default max size of cache of artifacts in megabytes. */
+    private static final long DEFAULT_ARTIFACT_CACHE_MAX_SIZE = 1024;
+
     private final Map<Long, RunnerProcessImpl> processes;
     private final Map<Long, RunnerProcessImpl> expiredProcesses;
     private final Map<Long, List<Disposer>>    applicationDisposers;
@@ -83,6 +92,9 @@ public abstract class Runner {
     private final ResourceAllocators           allocators;
     private final EventService                 eventService;
     private final AtomicBoolean                started;
+    /** Idle warm containers by keys of configurations in the order of access, see {@link #getWarmPoolKey(RunnerConfiguration)}. */
+    private final Map<String, LinkedList<PooledContainer>> warmPool;
+    private final WarmPoolReclaimer                        warmPoolReclaimer;
 
     protected final long cleanupDelayMillis;
     protected final long maxStartTime;
@@ -90,6 +102,30 @@ public abstract class Runner {
     private ExecutorService          executor;
     private ScheduledExecutorService cleanScheduler;
     private java.io.File             deployDirectory;
+    private ArtifactCache            artifactCache;
+
+    /** Optional directory of cache of artifacts. */
+    @com.google.inject.Inject(optional = true)
+    @Named(org.eclipse.che.api.runner.internal.Constants.ARTIFACT_CACHE_DIRECTORY)
+    private String artifactCacheDirectory;
+
+    @com.google.inject.Inject(optional = true)
+    @Named(org.eclipse.che.api.runner.internal.Constants.ARTIFACT_CACHE_MAX_SIZE)
+    private long artifactCacheMaxSize = DEFAULT_ARTIFACT_CACHE_MAX_SIZE;
+
+    /** Max number of idle warm containers, warm pool is disabled by default. */
+    @com.google.inject.Inject(optional = true)
+    @Named(org.eclipse.che.api.runner.internal.Constants.WARM_POOL_SIZE)
+    private int warmPoolSize;
+
+    // guarded by warmPool
+    /** Number of idle and starting warm containers. */
+    private int warmPoolCount;
+    /** Memory of idle warm containers in megabytes. */
+    private int warmPoolMemory;
+
+    /** Set to {@code false} if this runner doesn't support warm containers, see {@link #newWarmContainer(RunnerConfiguration)}. */
+    private volatile boolean warmPoolSupported = true;
 
     protected final DownloadPlugin downloadPlugin;
 
@@ -107,6 +143,8 @@ public abstract class Runner {
         runningAppsCounter = new AtomicInteger(0);
         downloadPlugin = new HttpDownloadPlugin();
         started = new AtomicBoolean(false);
+        warmPool = new LinkedHashMap<>(16, 0.75f, true);
+        warmPoolReclaimer = new WarmPoolReclaimer();
     }
 
     /**
@@ -148,6 +186,15 @@ public abstract class Runner {
                              .withValue(Integer.toString(getTotalAppsNum())));
         global.add(dtoFactory.createDto(RunnerMetric.class).withName(RunnerMetric.RUNNING_APPS)
                              .withValue(Integer.toString(getRunningAppsNum())));
+        if (warmPoolSize > 0 && warmPoolSupported) {
+            final int warmContainers;
+            synchronized (warmPool) {
+                warmContainers = warmPoolCount;
+            }
+            global.add(dtoFactory.createDto(RunnerMetric.class).withName(RunnerMetric.WARM_CONTAINERS)
+                                 .withValue(Integer.toString(warmContainers))
+                                 .withDescription("Number of idle and starting warm containers"));
+        }
         return global;
     }
 
@@ -272,11 +319,20 @@ public abstract class Runner {
         final Watchdog watcher = new Watchdog(getName().toUpperCase() + "-WATCHDOG", request.getLifetime(), TimeUnit.SECONDS);
         final Long internalId = processIdSequence.getAndIncrement();
         final RunnerProcessImpl process = new RunnerProcessImpl(internalId, getName(), runnerCfg, callback);
+        final String warmPoolKey = warmPoolSize > 0 && warmPoolSupported ? getWarmPoolKey(runnerCfg) : null;
         final Runnable r = ThreadLocalPropagateContext.wrap(new Runnable() {
             @Override
             public void run() {
+                WarmContainer warmContainer = null;
                 try {
-                    memoryAllocator.allocate();
+                    if (warmPoolKey != null) {
+                        warmContainer = takeWarmContainer(warmPoolKey);
+                    }
+                    if (warmContainer == null) {
+                        memoryAllocator.allocate();
+                    }
+                    // Otherwise memory that is allocated for warm container is handed over to the application. It has the same size
+                    // and is released with memoryAllocator when application is stopped.
                     final java.io.File downloadDir =
                             Files.createTempDirectory(deployDirectory.toPath(), ("download_" + getName().replace("/", "."))).toFile();
                     final DeploymentSources deploymentSources = createDeploymentSources(request, downloadDir);
@@ -287,8 +343,14 @@ public abstract class Runner {
                                               request.getProject(), request.getWorkspace(), getName())
                         );
                     }
-                    final ApplicationProcess realProcess = newApplicationProcess(deploymentSources, runnerCfg);
-                    realProcess.start();
+                    final WarmContainer container = warmContainer;
+                    // From now container is managed by method startApplicationProcess.
+                    warmContainer = null;
+                    final ApplicationProcess realProcess = startApplicationProcess(deploymentSources, runnerCfg, container);
+                    if (warmPoolKey != null) {
+                        // Replace container that is just used or start the first one if environment is used first time.
+                        warmUp(warmPoolKey, runnerCfg);
+                    }
                     process.started(realProcess);
                     watcher.start(new Cancellable() {
                         @Override
@@ -308,6 +370,9 @@ public abstract class Runner {
                     LOG.debug("Stopped {}", process);
                 } catch (Throwable e) {
                     LOG.warn(e.getMessage(), e);
+                    if (warmContainer != null) {
+                        stopWarmContainer(warmContainer);
+                    }
                     process.setError(e);
                 } finally {
                     watcher.stop();
@@ -323,6 +388,258 @@ public abstract class Runner {
         return process;
     }
 
+    /**
+     * Starts application in warm container if it isn't {@code null}. If application can't be deployed to the warm container, container
+     * is stopped and application is started from scratch.
+     */
+    private ApplicationProcess startApplicationProcess(DeploymentSources toDeploy, RunnerConfiguration runnerCfg,
+                                                       WarmContainer warmContainer) throws RunnerException {
+        if (warmContainer != null) {
+            try {
+                final ApplicationProcess realProcess = warmContainer.newApplicationProcess(toDeploy, runnerCfg);
+                realProcess.start();
+                return realProcess;
+            } catch (RunnerException | RuntimeException e) {
+                LOG.warn("Unable deploy application to warm container, start new one. {}", e.getMessage());
+                stopWarmContainer(warmContainer);
+            }
+        }
+        final ApplicationProcess realProcess = newApplicationProcess(toDeploy, runnerCfg);
+        realProcess.start();
+        return realProcess;
+    }
+
+    /**
+     * Starts server or container that is kept in the warm pool until application with the same key of configuration, see {@link
+     * #getWarmPoolKey(RunnerConfiguration)}, is run. Container must be configured only by settings of {@code runnerCfg} which are used
+     * for calculation of the key. By default this method returns {@code null} that means this runner doesn't support warm pool.
+     * Sub-classes may override this method.
+     *
+     * @param runnerCfg
+     *         configuration of application that is run with this runner recently
+     * @return new container or {@code null}
+     * @see Constants#WARM_POOL_SIZE
+     */
+    protected WarmContainer newWarmContainer(RunnerConfiguration runnerCfg) throws RunnerException {
+        return null;
+    }
+
+    /**
+     * Gets key of configuration of application. Application may be deployed to the warm container which is started for configuration
+     * with the same key. If this method returns {@code null} warm container isn't used. By default application in debug mode doesn't
+     * use warm container, other applications use the same container if they have the same environment, memory, options and variables.
+     * Sub-classes may override this method.
+     */
+    protected String getWarmPoolKey(RunnerConfiguration runnerCfg) {
+        final RunRequest request = runnerCfg.getRequest();
+        if (request.isInDebugMode()) {
+            return null;
+        }
+        return request.getEnvironmentId() + ' ' + runnerCfg.getMemory() + ' ' + new TreeMap<>(request.getOptions()) + ' ' +
+               new TreeMap<>(request.getVariables());
+    }
+
+    /** Takes idle warm container from the pool. Returns {@code null} if there is no alive container with specified key. */
+    private WarmContainer takeWarmContainer(String key) {
+        for (; ; ) {
+            final PooledContainer pooled;
+            synchronized (warmPool) {
+                final LinkedList<PooledContainer> containers = warmPool.get(key);
+                if (containers == null || containers.isEmpty()) {
+                    return null;
+                }
+                pooled = containers.poll();
+                warmPoolCount--;
+                warmPoolMemory -= pooled.memory;
+            }
+            if (isAlive(pooled.container)) {
+                return pooled.container;
+            }
+            disposeWarmContainer(pooled);
+        }
+    }
+
+    /**
+     * Starts new warm container in background. If pool is full, idle container of the least recently used configuration is removed to
+     * make room for the new one.
+     */
+    private void warmUp(final String key, final RunnerConfiguration runnerCfg) {
+        PooledContainer evicted = null;
+        synchronized (warmPool) {
+            if (warmPoolCount >= warmPoolSize) {
+                final LinkedList<PooledContainer> containers = warmPool.get(key);
+                if (containers != null && !containers.isEmpty()) {
+                    // Don't remove container of other configuration for one more container of this configuration.
+                    return;
+                }
+                evicted = pollLeastRecentlyUsed(key);
+                if (evicted == null) {
+                    return;
+                }
+            }
+            warmPoolCount++;
+        }
+        if (evicted != null) {
+            disposeWarmContainer(evicted);
+        }
+        executor.execute(ThreadLocalPropagateContext.wrap(new Runnable() {
+            @Override
+            public void run() {
+                PooledContainer pooled = null;
+                try {
+                    final int memory = runnerCfg.getMemory();
+                    final ResourceAllocator memoryAllocator = allocators.newReclaimableMemoryAllocator(memory).allocate();
+                    WarmContainer container = null;
+                    try {
+                        container = newWarmContainer(runnerCfg);
+                    } finally {
+                        if (container == null) {
+                            memoryAllocator.release();
+                        }
+                    }
+                    if (container == null) {
+                        warmPoolSupported = false;
+                    } else {
+                        pooled = new PooledContainer(container, memory, memoryAllocator);
+                    }
+                } catch (Exception e) {
+                    // Not enough memory or container failed to start, application is started from scratch next time.
+                    LOG.debug("Unable start warm container. {}", e.getMessage());
+                }
+                boolean added = false;
+                synchronized (warmPool) {
+                    if (pooled != null && started.get()) {
+                        LinkedList<PooledContainer> containers = warmPool.get(key);
+                        if (containers == null) {
+                            warmPool.put(key, containers = new LinkedList<>());
+                        }
+                        containers.add(pooled);
+                        warmPoolMemory += pooled.memory;
+                        added = true;
+                    } else {
+                        warmPoolCount--;
+                    }
+                }
+                if (pooled != null && !added) {
+                    disposeWarmContainer(pooled);
+                }
+            }
+        }));
+    }
+
+    /** Removes idle container of the least recently used configuration except configuration with key {@code except}. */
+    private PooledContainer pollLeastRecentlyUsed(String except) {
+        for (Iterator<Map.Entry<String, LinkedList<PooledContainer>>> i = warmPool.entrySet().iterator(); i.hasNext(); ) {
+            final Map.Entry<String, LinkedList<PooledContainer>> e = i.next();
+            final LinkedList<PooledContainer> containers = e.getValue();
+            if (containers.isEmpty()) {
+                i.remove();
+            } else if (except == null || !except.equals(e.getKey())) {
+                final PooledContainer pooled = containers.poll();
+                if (containers.isEmpty()) {
+                    i.remove();
+                }
+                warmPoolCount--;
+                warmPoolMemory -= pooled.memory;
+                return pooled;
+            }
+        }
+        return null;
+    }
+
+    /** Removes idle warm containers which are not alive anymore. */
+    private void removeDeadWarmContainers() {
+        final List<PooledContainer> idle = new LinkedList<>();
+        synchronized (warmPool) {
+            for (LinkedList<PooledContainer> containers : warmPool.values()) {
+                idle.addAll(containers);
+            }
+        }
+        for (PooledContainer pooled : idle) {
+            if (isAlive(pooled.container)) {
+                continue;
+            }
+            boolean removed = false;
+            synchronized (warmPool) {
+                // Don't use method get() of map, it changes order of access.
+                for (LinkedList<PooledContainer> containers : warmPool.values()) {
+                    if (containers.remove(pooled)) {
+                        warmPoolCount--;
+                        warmPoolMemory -= pooled.memory;
+                        removed = true;
+                        break;
+                    }
+                }
+            }
+            // Otherwise container is taken by application at the same time.
+            if (removed) {
+                disposeWarmContainer(pooled);
+            }
+        }
+    }
+
+    private boolean isAlive(WarmContainer container) {
+        try {
+            return container.isAlive();
+        } catch (RunnerException | RuntimeException e) {
+            LOG.warn(e.getMessage(), e);
+            return false;
+        }
+    }
+
+    private void disposeWarmContainer(PooledContainer pooled) {
+        stopWarmContainer(pooled.container);
+        pooled.memoryAllocator.release();
+    }
+
+    private void stopWarmContainer(WarmContainer container) {
+        try {
+            container.stop();
+        } catch (RunnerException | RuntimeException e) {
+            LOG.error(e.getMessage(), e);
+        }
+    }
+
+    /** Idle warm container and its memory. */
+    private static class PooledContainer {
+        final WarmContainer     container;
+        final int               memory;
+        final ResourceAllocator memoryAllocator;
+
+        PooledContainer(WarmContainer container, int memory, ResourceAllocator memoryAllocator) {
+            this.container = container;
+            this.memory = memory;
+            this.memoryAllocator = memoryAllocator;
+        }
+    }
+
+    /** Gives memory of idle warm containers to applications if there is not enough free memory. */
+    private class WarmPoolReclaimer implements ResourceAllocators.MemoryReclaimer {
+        @Override
+        public int getReclaimableMemory() {
+            synchronized (warmPool) {
+                return warmPoolMemory;
+            }
+        }
+
+        @Override
+        public int reclaimMemory(int size) {
+            int released = 0;
+            while (released < size) {
+                final PooledContainer pooled;
+                synchronized (warmPool) {
+                    pooled = pollLeastRecentlyUsed(null);
+                }
+                if (pooled == null) {
+                    break;
+                }
+                disposeWarmContainer(pooled);
+                released += pooled.memory;
+            }
+            return released;
+        }
+    }
+
     /** @see RunnerConfiguration */
     public abstract RunnerConfigurationFactory getRunnerConfigurationFactory();
 
@@ -349,34 +666,17 @@ public abstract class Runner {
     }
 
     protected DeploymentSources createDeploymentSources(RunRequest request, java.io.File dir) throws IOException {
-        Link link = null;
-        final BuildTaskDescriptor buildTaskDescriptor = request.getBuildTaskDescriptor();
-        boolean artifactTarball = false;
-        if (buildTaskDescriptor != null) {
-            final List<Link> artifactLinks =
-                    buildTaskDescriptor.getLinks(org.eclipse.che.api.builder.internal.Constants.LINK_REL_DOWNLOAD_RESULT);
-            if (artifactLinks.size() == 1) {
-                link = artifactLinks.get(0);
-            } else if (artifactLinks.size() > 1) {
-                link = buildTaskDescriptor.getLink(Constants.LINK_REL_DOWNLOAD_RESULTS_TARBALL);
-                artifactTarball = link != null;
-            }
-        } else {
-            link = request.getProjectDescriptor().getLink(org.eclipse.che.api.project.server.Constants.LINK_REL_EXPORT_ZIP);
-        }
-        String url = null;
-        if (link != null) {
-            final String href = link.getHref();
-            final String token = request.getUserToken();
-            if (href.indexOf('?') > 0) {
-                url = href + "&token=" + token;
-            } else {
-                url = href + "?token=" + token;
-            }
-        }
-        if (url == null) {
+        final Link link = getDeploymentSourcesLink(request);
+        if (link == null) {
             return NO_SOURCES;
         }
+        final String url = getDownloadUrl(link, request);
+        final boolean artifactTarball = Constants.LINK_REL_DOWNLOAD_RESULTS_TARBALL.equals(link.getRel());
+        final BuildTaskDescriptor buildTaskDescriptor = request.getBuildTaskDescriptor();
+        if (artifactCache != null && buildTaskDescriptor != null) {
+            return new DeploymentSources(
+                    artifactCache.copyTo(getArtifactCacheKey(buildTaskDescriptor, link), url, artifactTarball, dir));
+        }
         final DownloadCallback callback = new DownloadCallback();
         downloadPlugin.download(url, dir, callback);
         if (callback.getError() != null) {
@@ -393,6 +693,70 @@ public abstract class Runner {
         return new DeploymentSources(downloaded);
     }
 
+    /**
+     * Downloads artifact of build to the cache of artifacts in background, so the following run of the same build doesn't wait for
+     * download. Does nothing if cache of artifacts isn't configured or request doesn't contain build task.
+     */
+    public void prefetch(final RunRequest request) {
+        checkStarted();
+        final BuildTaskDescriptor buildTaskDescriptor = request.getBuildTaskDescriptor();
+        if (artifactCache == null || buildTaskDescriptor == null) {
+            return;
+        }
+        final Link link = getDeploymentSourcesLink(request);
+        if (link == null) {
+            return;
+        }
+        final String key = getArtifactCacheKey(buildTaskDescriptor, link);
+        final String url = getDownloadUrl(link, request);
+        final boolean artifactTarball = Constants.LINK_REL_DOWNLOAD_RESULTS_TARBALL.equals(link.getRel());
+        executor.execute(ThreadLocalPropagateContext.wrap(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    artifactCache.get(key, url, artifactTarball);
+                } catch (IOException e) {
+                    LOG.warn("Unable prefetch artifact {}: {}", url, e.getMessage());
+                }
+            }
+        }));
+    }
+
+    /**
+     * Gets key of artifact in the cache of artifacts. Key is calculated from id and end time of build task, since id of task isn't
+     * unique after restart of builder, and link of artifact without user token.
+     */
+    protected String getArtifactCacheKey(BuildTaskDescriptor buildTaskDescriptor, Link link) {
+        return Hashing.sha1().newHasher()
+                      .putLong(buildTaskDescriptor.getTaskId())
+                      .putLong(buildTaskDescriptor.getEndTime())
+                      .putString(link.getHref(), StandardCharsets.UTF_8)
+                      .hash().toString();
+    }
+
+    private Link getDeploymentSourcesLink(RunRequest request) {
+        final BuildTaskDescriptor buildTaskDescriptor = request.getBuildTaskDescriptor();
+        if (buildTaskDescriptor != null) {
+            final List<Link> artifactLinks = buildTaskDescriptor.getLinks(Constants.LINK_REL_DOWNLOAD_RESULT);
+            if (artifactLinks.size() == 1) {
+                return artifactLinks.get(0);
+            } else if (artifactLinks.size() > 1) {
+                return buildTaskDescriptor.getLink(Constants.LINK_REL_DOWNLOAD_RESULTS_TARBALL);
+            }
+            return null;
+        }
+        return request.getProjectDescriptor().getLink(org.eclipse.che.api.project.server.Constants.LINK_REL_EXPORT_ZIP);
+    }
+
+    private String getDownloadUrl(Link link, RunRequest request) {
+        final String href = link.getHref();
+        final String token = request.getUserToken();
+        if (href.indexOf('?') > 0) {
+            return href + "&token=" + token;
+        }
+        return href + "?token=" + token;
+    }
+
     private static class DownloadCallback implements DownloadPlugin.Callback {
         java.io.File downloaded;
         IOException  error;
@@ -620,12 +984,23 @@ public abstract class Runner {
             if (!(deployDirectory.exists() || deployDirectory.mkdirs())) {
                 throw new IllegalStateException(String.format("Unable create directory %s", deployDirectory.getAbsolutePath()));
             }
+            if (artifactCacheDirectory != null && !artifactCacheDirectory.isEmpty()) {
+                final java.io.File cacheDirectory = new java.io.File(artifactCacheDirectory, getName().replace("/", "."));
+                try {
+                    artifactCache = new ArtifactCache(cacheDirectory, artifactCacheMaxSize * 1024 * 1024, downloadPlugin);
+                } catch (IOException e) {
+                    throw new IllegalStateException(String.format("Unable initialize cache of artifacts in %s", cacheDirectory), e);
+                }
+            }
             executor = Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat(getName() + "-Runner-")
                                                                                .setDaemon(true).build());
             cleanScheduler =
                     Executors.newSingleThreadScheduledExecutor(
                             new ThreadFactoryBuilder().setNameFormat(getName() + "-RunnerCleanSchedulerPool-").setDaemon(true).build());
             cleanScheduler.scheduleAtFixedRate(new CleanupTask(), 1, 1, TimeUnit.MINUTES);
+            if (warmPoolSize > 0) {
+                allocators.addMemoryReclaimer(warmPoolReclaimer);
+            }
         } else {
             throw new IllegalStateException("Already started");
         }
@@ -688,6 +1063,7 @@ public abstract class Runner {
                     expiredProcesses.put(process.getId(), process);
                 }
             }
+            removeDeadWarmContainers();
         }
     }
 
@@ -726,6 +1102,19 @@ public abstract class Runner {
                 interrupted |= true;
                 executor.shutdownNow();
             }
+            allocators.removeMemoryReclaimer(warmPoolReclaimer);
+            final List<PooledContainer> idle = new LinkedList<>();
+            synchronized (warmPool) {
+                for (LinkedList<PooledContainer> containers : warmPool.values()) {
+                    idle.addAll(containers);
+                }
+                warmPool.clear();
+                warmPoolCount = 0;
+                warmPoolMemory = 0;
+            }
+            for (PooledContainer pooled : idle) {
+                disposeWarmContainer(pooled);
+            }
             final List<Disposer> allDisposers = new LinkedList<>();
             synchronized (applicationDisposersLock) {
                 for (List<Disposer> disposers : applicationDisposers.values()) {
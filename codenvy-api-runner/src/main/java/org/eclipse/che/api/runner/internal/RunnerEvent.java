@@ -10,13 +10,14 @@
  *******************************************************************************/
 package org.eclipse.che.api.runner.internal;
 
+import org.eclipse.che.api.core.notification.AsyncDeliveryOptions;
 import org.eclipse.che.api.core.notification.EventOrigin;
 
 /**
  * @author andrew00x
  */
 @EventOrigin("runner")
-public class RunnerEvent {
+public class RunnerEvent implements AsyncDeliveryOptions.KeyedEvent {
     public enum EventType {
         /** Application launching process started. */
         PREPARATION_STARTED("preparation started"),
@@ -56,12 +57,29 @@ public class RunnerEvent {
     public static class LoggedMessage {
         private String message;
         private int    lineNum;
+        private int    lineCount = 1;
 
         public LoggedMessage(String message, int lineNum) {
             this.message = message;
             this.lineNum = lineNum;
         }
 
+        /**
+         * Creates message that contains chunk of lines.
+         *
+         * @param message
+         *         lines separated with '\n'
+         * @param lineNum
+         *         number of the first line in chunk
+         * @param lineCount
+         *         number of lines in chunk
+         */
+        public LoggedMessage(String message, int lineNum, int lineCount) {
+            this.message = message;
+            this.lineNum = lineNum;
+            this.lineCount = lineCount;
+        }
+
         public LoggedMessage() {
         }
 
@@ -81,11 +99,21 @@ public class RunnerEvent {
             this.lineNum = lineNum;
         }
 
+        /** Gets number of lines in this message. Lines are numbered from {@link #getLineNum()} and separated with '\n'. */
+        public int getLineCount() {
+            return lineCount;
+        }
+
+        public void setLineCount(int lineCount) {
+            this.lineCount = lineCount;
+        }
+
         @Override
         public String toString() {
             return "LoggedMessage{" +
                    "message='" + message + '\'' +
                    ", lineNum=" + lineNum +
+                   ", lineCount=" + lineCount +
                    '}';
         }
     }
@@ -169,6 +197,12 @@ public class RunnerEvent {
         return processId;
     }
 
+    /** Events of the same process are delivered in order they were published. Not a getter, so it isn't serialized. */
+    @Override
+    public Object deliveryKey() {
+        return processId;
+    }
+
     public void setProcessId(long processId) {
         this.processId = processId;
     }
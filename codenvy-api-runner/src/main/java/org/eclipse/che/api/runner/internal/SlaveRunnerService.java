@@ -99,6 +99,14 @@ public class SlaveRunnerService extends Service {
         return getDescriptor(process, getServiceContext()).withRunStats(myRunner.getStats(process.getId()));
     }
 
+    @GenerateLink(rel = Constants.LINK_REL_PREFETCH)
+    @Path("prefetch")
+    @POST
+    @Consumes(MediaType.APPLICATION_JSON)
+    public void prefetch(@Description("Parameters for run task in JSON format") RunRequest request) throws Exception {
+        getRunner(request.getRunner()).prefetch(request);
+    }
+
     @GET
     @Path("status/{runner:.*}/{id}")
     @Produces(MediaType.APPLICATION_JSON)
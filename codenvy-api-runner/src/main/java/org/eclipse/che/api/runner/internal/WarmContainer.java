@@ -0,0 +1,36 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.runner.internal;
+
+import org.eclipse.che.api.runner.RunnerException;
+
+/**
+ * Server or container that is started in advance, before request for running of application comes. Runner that supports warm pool, see
+ * {@link Runner#newWarmContainer(RunnerConfiguration)}, keeps few such containers for recently used environments and deploys new
+ * application to one of them instead of starting server from scratch. Container is used for one application only and isn't returned to
+ * the pool after application is stopped.
+ *
+ * @author andrew00x
+ */
+public abstract class WarmContainer {
+    /**
+     * Creates process of application that runs in this container. Method {@link ApplicationProcess#start()} of returned process deploys
+     * application to the container, method {@link ApplicationProcess#stop()} stops the container.
+     */
+    public abstract ApplicationProcess newApplicationProcess(DeploymentSources toDeploy, RunnerConfiguration runnerCfg)
+            throws RunnerException;
+
+    /** Checks whether container is still alive while it waits in the pool. */
+    public abstract boolean isAlive() throws RunnerException;
+
+    /** Stops container that isn't used by any application. */
+    public abstract void stop() throws RunnerException;
+}
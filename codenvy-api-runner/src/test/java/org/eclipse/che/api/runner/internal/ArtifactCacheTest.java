@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.runner.internal;
+
+import org.eclipse.che.api.core.util.DownloadPlugin;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.eclipse.che.commons.lang.TarUtils;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** @author andrew00x */
+public class ArtifactCacheTest {
+    private File           root;
+    private File           cacheDir;
+    private DownloadPlugin downloadPlugin;
+    private AtomicInteger  downloads;
+    private CountDownLatch downloadLatch;
+    private File           tarballContent;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        root = Files.createTempDirectory("artifact-cache").toFile();
+        cacheDir = new File(root, "cache");
+        downloads = new AtomicInteger();
+        downloadLatch = new CountDownLatch(0);
+        tarballContent = new File(root, "index.html");
+        Files.write(tarballContent.toPath(), "cached".getBytes(StandardCharsets.UTF_8));
+        downloadPlugin = new DownloadPlugin() {
+            @Override
+            public void download(String downloadUrl, File downloadTo, Callback callback) {
+                downloads.incrementAndGet();
+                try {
+                    downloadLatch.await();
+                    final File file = new File(downloadTo, downloadUrl.substring(downloadUrl.lastIndexOf('/') + 1));
+                    if (file.getName().endsWith(".tar")) {
+                        TarUtils.tarFiles(file, 0, tarballContent);
+                    } else {
+                        Files.write(file.toPath(), new byte[100]);
+                    }
+                    callback.done(file);
+                } catch (IOException e) {
+                    callback.error(e);
+                } catch (InterruptedException e) {
+                    callback.error(new IOException(e));
+                }
+            }
+
+            @Override
+            public void download(String downloadUrl, File downloadTo, String fileName, boolean replaceExisting) {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        IoUtil.deleteRecursive(root);
+    }
+
+    @Test
+    public void testDownloadOnce() throws Exception {
+        new ArtifactCache(cacheDir, 1000, downloadPlugin).get("key", "http://builder/app.war", false);
+
+        final ArtifactCache cache = new ArtifactCache(cacheDir, 1000, downloadPlugin);
+        final File deployDir = new File(root, "deploy");
+        Files.createDirectories(deployDir.toPath());
+        final File deployed = cache.copyTo("key", "http://builder/app.war", false, deployDir);
+        Assert.assertEquals(deployed, new File(deployDir, "app.war"));
+        Assert.assertEquals(deployed.length(), 100);
+        Assert.assertEquals(downloads.get(), 1);
+    }
+
+    @Test
+    public void testModificationOfDeployedTarballDoesNotAffectCache() throws Exception {
+        final ArtifactCache cache = new ArtifactCache(cacheDir, 1000, downloadPlugin);
+        final File deployDir = new File(root, "deploy");
+        Files.createDirectories(deployDir.toPath());
+        final File deployed = cache.copyTo("key", "http://builder/app.tar", true, deployDir);
+        Files.write(new File(deployed, "index.html").toPath(), "modified".getBytes(StandardCharsets.UTF_8));
+
+        final File cached = cache.get("key", "http://builder/app.tar", true);
+        Assert.assertEquals(new String(Files.readAllBytes(new File(cached, "index.html").toPath()), StandardCharsets.UTF_8), "cached");
+        Assert.assertEquals(downloads.get(), 1);
+    }
+
+    @Test
+    public void testConcurrentDownloadsShareOneDownload() throws Exception {
+        final ArtifactCache cache = new ArtifactCache(cacheDir, 1000, downloadPlugin);
+        downloadLatch = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<File>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(new Callable<File>() {
+                    @Override
+                    public File call() throws Exception {
+                        return cache.get("key", "http://builder/app.war", false);
+                    }
+                }));
+            }
+            Thread.sleep(200);
+            downloadLatch.countDown();
+            for (Future<File> result : results) {
+                Assert.assertEquals(result.get().length(), 100);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertEquals(downloads.get(), 1);
+    }
+
+    @Test
+    public void testDownloadAgainIfChecksumDoesNotMatch() throws Exception {
+        final ArtifactCache cache = new ArtifactCache(cacheDir, 1000, downloadPlugin);
+        final File cached = cache.get("key", "http://builder/app.war", false);
+        Files.write(cached.toPath(), new byte[]{1, 2, 3});
+
+        Assert.assertEquals(cache.get("key", "http://builder/app.war", false).length(), 100);
+        Assert.assertEquals(downloads.get(), 2);
+    }
+
+    @Test
+    public void testEvictLeastRecentlyUsed() throws Exception {
+        // Each entry takes 100 bytes of artifact and a few bytes of metadata.
+        final ArtifactCache cache = new ArtifactCache(cacheDir, 400, downloadPlugin);
+        cache.get("key1", "http://builder/app1.war", false);
+        cache.get("key2", "http://builder/app2.war", false);
+        cache.get("key1", "http://builder/app1.war", false);
+        cache.get("key3", "http://builder/app3.war", false);
+
+        Assert.assertTrue(new File(cacheDir, "key1").exists());
+        Assert.assertFalse(new File(cacheDir, "key2").exists());
+        Assert.assertTrue(new File(cacheDir, "key3").exists());
+        Assert.assertEquals(downloads.get(), 3);
+    }
+}
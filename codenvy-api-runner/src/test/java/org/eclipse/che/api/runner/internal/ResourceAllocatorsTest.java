@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.runner.internal;
+
+import org.eclipse.che.api.runner.RunnerException;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** @author andrew00x */
+public class ResourceAllocatorsTest {
+    private ResourceAllocators allocators;
+    private ResourceAllocator  spare;
+    private int                reclaimed;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        allocators = new ResourceAllocators(1024);
+        reclaimed = 0;
+        spare = allocators.newReclaimableMemoryAllocator(512).allocate();
+        allocators.addMemoryReclaimer(new ResourceAllocators.MemoryReclaimer() {
+            @Override
+            public int getReclaimableMemory() {
+                return spare == null ? 0 : 512;
+            }
+
+            @Override
+            public int reclaimMemory(int size) {
+                if (spare == null) {
+                    return 0;
+                }
+                spare.release();
+                spare = null;
+                reclaimed += 512;
+                return 512;
+            }
+        });
+    }
+
+    @Test
+    public void testReclaimableMemoryIsFree() throws Exception {
+        Assert.assertEquals(allocators.freeMemory(), 1024);
+    }
+
+    @Test
+    public void testReclaimMemoryIfNotEnoughFreeMemory() throws Exception {
+        allocators.newMemoryAllocator(512).allocate();
+        Assert.assertEquals(reclaimed, 0);
+        allocators.newMemoryAllocator(512).allocate();
+        Assert.assertEquals(reclaimed, 512);
+        Assert.assertEquals(allocators.freeMemory(), 0);
+    }
+
+    @Test(expectedExceptions = RunnerException.class)
+    public void testReclaimableAllocatorDoesNotReclaimMemory() throws Exception {
+        allocators.newMemoryAllocator(512).allocate();
+        allocators.newReclaimableMemoryAllocator(512).allocate();
+    }
+}
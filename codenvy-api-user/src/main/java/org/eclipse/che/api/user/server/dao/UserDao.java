@@ -47,8 +47,10 @@ public interface UserDao {
      *
      * @param user
      *         POJO representation of user entity
+     * @throws ConflictException
+     *         if any alias of user is already in use by other user
      */
-    void update(User user) throws NotFoundException, ServerException;
+    void update(User user) throws NotFoundException, ServerException, ConflictException;
 
     /**
      * Removes user from persistent layer by his identifier.
@@ -10,6 +10,14 @@
  *******************************************************************************/
 package org.eclipse.che.api.vfs.server;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
 /**
  * Advisory file locks. It does not prevent access to the file from other programs.
  * <p/>
@@ -30,15 +38,33 @@ package org.eclipse.che.api.vfs.server;
  *         }
  *      }
  * </pre>
+ * Lock of path conflicts with locks of its parents and children obtained by other threads if any of these locks is exclusive. Locks
+ * are reentrant, thread that already holds lock of some path gets it again without waiting. Lock is usually released by the thread that
+ * acquired it, but it may be released by other thread too, in this case lock of the same path with the same number of permits held by
+ * any thread is released.
+ * <p/>
+ * Locks are kept in tree which mirrors structure of locked paths, so check of lock takes time proportional to the depth of path but not
+ * to the number of locks. Tree is split in stripes by the first element of path, stripes are guarded by separate locks, so threads that
+ * work with different top level folders don't block each other. Lock of root path is checked against all stripes.
  *
  * @author <a href="mailto:andrew00x@gmail.com">Andrey Parfonov</a>
  */
 public final class PathLockFactory {
     private static final int MAX_RECURSIVE_LOCKS = (1 << 10) - 1;
+    private static final int DEFAULT_STRIPES     = 16;
+
     /** Max number of threads allowed to access file. */
-    private final int maxThreads;
-    // Tail of the "lock table".
-    private final Node tail = new Node(null, 0, null);
+    private final int      maxThreads;
+    private final Stripe[] stripes;
+    /** Locks of root path. Modified only while holding locks of all stripes. */
+    private final Node     root;
+    /** Incremented on every release, lets threads that wait for lock of root path detect releases in any stripe. */
+    private final AtomicLong    releases;
+    private final AtomicInteger rootWaiters;
+    private final Object        rootMonitor;
+
+    private final AtomicLong contendedAcquires;
+    private final AtomicLong waitTime;
 
     /**
      * @param maxThreads
@@ -46,142 +72,417 @@ public final class PathLockFactory {
      *         avoid blocking threads that need to obtain NOT exclusive lock.
      */
     public PathLockFactory(int maxThreads) {
-        if (maxThreads < 1) {
+        this(maxThreads, DEFAULT_STRIPES);
+    }
+
+    /**
+     * @param maxThreads
+     *         the max number of threads are allowed to access one file. Typically this parameter should be big enough to
+     *         avoid blocking threads that need to obtain NOT exclusive lock.
+     * @param stripes
+     *         number of independently guarded parts of lock table, paths with the same first element always share the same stripe.
+     *         Value is rounded up to the nearest power of two.
+     */
+    public PathLockFactory(int maxThreads, int stripes) {
+        if (maxThreads < 1 || stripes < 1) {
             throw new IllegalArgumentException();
         }
         this.maxThreads = maxThreads;
+        int size = 1;
+        while (size < stripes) {
+            size <<= 1;
+        }
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new Stripe();
+        }
+        root = new Node(null, null);
+        releases = new AtomicLong();
+        rootWaiters = new AtomicInteger();
+        rootMonitor = new Object();
+        contendedAcquires = new AtomicLong();
+        waitTime = new AtomicLong();
     }
 
     public PathLock getLock(Path path, boolean exclusive) {
         return new PathLock(path, exclusive ? maxThreads : 1);
     }
 
-    private synchronized void acquire(Path path, int permits) {
-        while (!tryAcquire(path, permits)) {
+    /** Gets number of acquisitions of locks that had to wait for release of other locks. */
+    public long getContendedAcquires() {
+        return contendedAcquires.get();
+    }
+
+    /** Gets total time (in milliseconds) that threads spent waiting for locks. */
+    public long getWaitTime() {
+        return TimeUnit.NANOSECONDS.toMillis(waitTime.get());
+    }
+
+    private void acquire(Path path, int permits, long timeoutMilliseconds) {
+        if (path.isRoot()) {
+            acquireRoot(permits, timeoutMilliseconds);
+            return;
+        }
+        final Stripe stripe = stripeFor(path);
+        final Thread current = Thread.currentThread();
+        stripe.lock.lock();
+        try {
+            if (tryAcquire(stripe, path, permits, current)) {
+                return;
+            }
+            contendedAcquires.incrementAndGet();
+            final long start = System.nanoTime();
+            long waitNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMilliseconds);
             try {
-                wait();
+                do {
+                    if (timeoutMilliseconds < 0) {
+                        stripe.released.await();
+                    } else {
+                        if (waitNanos <= 0) {
+                            throw new RuntimeException(String.format("Get lock timeout for '%s'. ", path));
+                        }
+                        waitNanos = stripe.released.awaitNanos(waitNanos);
+                    }
+                } while (!tryAcquire(stripe, path, permits, current));
             } catch (InterruptedException e) {
-                notifyAll();
+                Thread.currentThread().interrupt();
                 throw new RuntimeException(e);
+            } finally {
+                waitTime.addAndGet(System.nanoTime() - start);
             }
+        } finally {
+            stripe.lock.unlock();
         }
     }
 
-    private synchronized void acquire(Path path, int permits, long timeoutMilliseconds) {
+    private void acquireRoot(int permits, long timeoutMilliseconds) {
+        final Thread current = Thread.currentThread();
         final long endTime = System.currentTimeMillis() + timeoutMilliseconds;
-        long waitTime = timeoutMilliseconds;
-        while (!tryAcquire(path, permits)) {
-            try {
-                wait(waitTime);
-            } catch (InterruptedException e) {
-                notifyAll();
-                throw new RuntimeException(e);
+        boolean waited = false;
+        long start = 0;
+        try {
+            for (; ; ) {
+                final long seen = releases.get();
+                lockAll();
+                try {
+                    if (tryAcquireRoot(permits, current)) {
+                        return;
+                    }
+                } finally {
+                    unlockAll();
+                }
+                if (!waited) {
+                    contendedAcquires.incrementAndGet();
+                    start = System.nanoTime();
+                    waited = true;
+                }
+                rootWaiters.incrementAndGet();
+                try {
+                    synchronized (rootMonitor) {
+                        while (releases.get() == seen) {
+                            if (timeoutMilliseconds < 0) {
+                                rootMonitor.wait();
+                            } else {
+                                final long waitMillis = endTime - System.currentTimeMillis();
+                                if (waitMillis <= 0) {
+                                    throw new RuntimeException(String.format("Get lock timeout for '%s'. ", Path.ROOT));
+                                }
+                                rootMonitor.wait(waitMillis);
+                            }
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(e);
+                } finally {
+                    rootWaiters.decrementAndGet();
+                }
             }
-            long now = System.currentTimeMillis();
-            if (now >= endTime) {
-                throw new RuntimeException(String.format("Get lock timeout for '%s'. ", path));
+        } finally {
+            if (waited) {
+                waitTime.addAndGet(System.nanoTime() - start);
             }
-            waitTime = endTime - now;
         }
     }
 
-    private synchronized void release(Path path, int permits) {
-        Node node = tail;
-        while (node != null) {
-            Node prev = node.prev;
-            if (prev == null) {
-                break;
+    private void release(Path path, int permits) {
+        final Thread current = Thread.currentThread();
+        if (path.isRoot()) {
+            lockAll();
+            try {
+                final Thread owner = findOwner(root, current, permits);
+                if (owner == null) {
+                    // Lock isn't held, nothing to release.
+                    return;
+                }
+                if (releaseHold(root, owner) != null) {
+                    for (Stripe stripe : stripes) {
+                        stripe.released.signalAll();
+                    }
+                }
+            } finally {
+                unlockAll();
             }
-            if (prev.path.equals(path)) {
-                if (prev.threadDeep == 1) {
-                    // If last recursive lock.
-                    prev.permits += permits;
-                    if (prev.permits >= maxThreads) {
-                        // remove
-                        node.prev = prev.prev;
-                        prev.prev = null;
+        } else {
+            final Stripe stripe = stripeFor(path);
+            stripe.lock.lock();
+            try {
+                Node node = stripe.root;
+                for (int i = 0, length = path.length(); i < length && node != null; i++) {
+                    node = node.children.get(path.element(i));
+                }
+                final Thread owner = node == null ? null : findOwner(node, current, permits);
+                if (owner == null) {
+                    // Lock isn't held, nothing to release.
+                    return;
+                }
+                final Hold released = releaseHold(node, owner);
+                if (released != null) {
+                    final boolean exclusive = released.permits == maxThreads;
+                    for (Node parent = node.parent; parent != null; parent = parent.parent) {
+                        parent.removeDescendantHold(owner, exclusive);
                     }
-                } else {
-                    --prev.threadDeep;
+                    prune(node);
+                    stripe.released.signalAll();
                 }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        releases.incrementAndGet();
+        if (rootWaiters.get() > 0) {
+            synchronized (rootMonitor) {
+                rootMonitor.notifyAll();
             }
-            node = node.prev;
         }
-        notifyAll();
-        //System.err.printf(">>>>> release: %s : %d%n", path, permits);
     }
 
-    private boolean tryAcquire(Path path, int permits) {
-        //System.err.printf(">>>>> acquire: %s : %d%n", path, permits);
-        Node node = tail.prev;
-        final Thread current = Thread.currentThread();
-        while (node != null) {
-            if (node.path.equals(path)) {
-                if (node.threadId == current.getId()) {
-                    // Current thread already has direct lock for this path
-                    if (node.threadDeep > MAX_RECURSIVE_LOCKS) {
-                        throw new Error("Max number of recursive locks exceeded. ");
-                    }
-                    ++node.threadDeep;
-                    return true;
-                }
-                if (node.permits > permits) {
-                    // Lock already exists and current thread is not owner of this lock,
-                    // but lock is not exclusive and we can "share" it for other thread.
-                    node.permits -= permits; // decrement number of allowed concurrent threads
-                    return true;
+    private boolean tryAcquire(Stripe stripe, Path path, int permits, Thread current) {
+        final boolean exclusive = permits == maxThreads;
+        if (root.isLockedByOther(current, exclusive)) {
+            return false;
+        }
+        final int length = path.length();
+        Node node = stripe.root;
+        int depth = 0;
+        // Check locks of parents.
+        for (; depth < length; depth++) {
+            final Node child = node.children.get(path.element(depth));
+            if (child == null) {
+                break;
+            }
+            node = child;
+            if (depth < length - 1 && node.isLockedByOther(current, exclusive)) {
+                return false;
+            }
+        }
+        if (depth == length) {
+            // Node for the path exists.
+            final Hold hold = node.holds.get(current);
+            if (hold != null) {
+                // Current thread already has direct lock for this path
+                if (hold.count > MAX_RECURSIVE_LOCKS) {
+                    throw new Error("Max number of recursive locks exceeded. ");
                 }
+                ++hold.count;
+                return true;
+            }
+            if (node.usedPermits + permits > maxThreads) {
                 // Lock is exclusive or max number of allowed concurrent thread is reached.
                 return false;
-            } else if ((node.path.isChild(path) || path.isChild(node.path)) && node.permits <= permits) {
-                // Found some path which already has lock that prevents us to get required permits.
-                // There is two possibilities:
-                // 1. Parent of the path we try to lock already locked
-                // 2. Child of the path we try to lock already locked
-                // Need to check is such lock obtained by current thread or not.
-                // If such lock obtained by other thread stop here immediately there is no reasons to continue.
-                if (node.threadId != current.getId()) {
-                    return false;
-                }
             }
-            node = node.prev;
+            if (node.hasDescendantLockedByOther(current, exclusive)) {
+                return false;
+            }
+        } else {
+            // There is no lock for the path and its children yet.
+            for (; depth < length; depth++) {
+                final String name = path.element(depth);
+                final Node child = new Node(node, name);
+                node.children.put(name, child);
+                node = child;
+            }
+        }
+        node.holds.put(current, new Hold(permits));
+        node.usedPermits += permits;
+        node.exclusive = exclusive;
+        for (Node parent = node.parent; parent != null; parent = parent.parent) {
+            parent.addDescendantHold(current, exclusive);
         }
-        // If we are here there is no lock for path yet.
-        tail.prev = new Node(path, maxThreads - permits, tail.prev);
         return true;
     }
 
-    public synchronized void checkClean() {
-        assert tail.prev == null;
+    private boolean tryAcquireRoot(int permits, Thread current) {
+        final boolean exclusive = permits == maxThreads;
+        final Hold hold = root.holds.get(current);
+        if (hold != null) {
+            if (hold.count > MAX_RECURSIVE_LOCKS) {
+                throw new Error("Max number of recursive locks exceeded. ");
+            }
+            ++hold.count;
+            return true;
+        }
+        if (root.usedPermits + permits > maxThreads) {
+            return false;
+        }
+        for (Stripe stripe : stripes) {
+            if (stripe.root.hasDescendantLockedByOther(current, exclusive)) {
+                return false;
+            }
+        }
+        root.holds.put(current, new Hold(permits));
+        root.usedPermits += permits;
+        root.exclusive = exclusive;
+        return true;
+    }
+
+    /**
+     * Finds thread which lock of {@code node} should be released. Lock of current thread is preferred, otherwise any lock with the same
+     * number of permits is used. Returns {@code null} if there is no such lock.
+     */
+    private Thread findOwner(Node node, Thread current, int permits) {
+        if (node.holds.containsKey(current)) {
+            return current;
+        }
+        for (Map.Entry<Thread, Hold> e : node.holds.entrySet()) {
+            if (e.getValue().permits == permits) {
+                return e.getKey();
+            }
+        }
+        return null;
+    }
+
+    /** Returns released lock if it was the last recursive lock of {@code owner} thread, otherwise {@code null}. */
+    private Hold releaseHold(Node node, Thread owner) {
+        final Hold hold = node.holds.get(owner);
+        if (--hold.count > 0) {
+            return null;
+        }
+        node.holds.remove(owner);
+        node.usedPermits -= hold.permits;
+        if (node.holds.isEmpty()) {
+            node.exclusive = false;
+        }
+        return hold;
+    }
+
+    /** Removes nodes that don't keep any locks anymore. */
+    private void prune(Node node) {
+        while (node.parent != null && node.holds.isEmpty() && node.children.isEmpty()) {
+            node.parent.children.remove(node.name);
+            node = node.parent;
+        }
+    }
+
+    private Stripe stripeFor(Path path) {
+        int h = path.element(0).hashCode();
+        h ^= (h >>> 16);
+        return stripes[h & (stripes.length - 1)];
+    }
+
+    private void lockAll() {
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+        }
+    }
+
+    private void unlockAll() {
+        for (int i = stripes.length - 1; i >= 0; i--) {
+            stripes[i].lock.unlock();
+        }
+    }
+
+    public void checkClean() {
+        lockAll();
+        try {
+            assert root.holds.isEmpty();
+            for (Stripe stripe : stripes) {
+                assert stripe.root.children.isEmpty();
+            }
+        } finally {
+            unlockAll();
+        }
     }
 
    /* =============================================== */
 
+    private static class Stripe {
+        final ReentrantLock lock     = new ReentrantLock();
+        final Condition     released = lock.newCondition();
+        final Node          root     = new Node(null, null);
+    }
+
     private static class Node {
-        final Path path;
-        final long threadId = Thread.currentThread().getId();
-        int  permits;
-        int  threadDeep;
-        Node prev;
+        final Node              parent;
+        final String            name;
+        final Map<String, Node> children;
+        /** Locks of this path, only one thread may hold lock if lock is exclusive. */
+        final Map<Thread, Hold> holds;
+        /** Number of locks of children of this path per thread: [0] - shared locks, [1] - exclusive locks. */
+        final Map<Thread, int[]> descendantHolds;
+        int     usedPermits;
+        boolean exclusive;
 
-        Node(Path path, int permits, Node prev) {
-            this.path = path;
-            this.permits = permits;
-            this.prev = prev;
-            threadDeep = 1;
+        Node(Node parent, String name) {
+            this.parent = parent;
+            this.name = name;
+            children = new HashMap<>(4);
+            holds = new HashMap<>(2);
+            descendantHolds = new HashMap<>(2);
+        }
+
+        boolean isLockedByOther(Thread current, boolean exclusiveRequest) {
+            if (holds.isEmpty() || (holds.size() == 1 && holds.containsKey(current))) {
+                return false;
+            }
+            return exclusiveRequest || exclusive;
+        }
+
+        boolean hasDescendantLockedByOther(Thread current, boolean exclusiveRequest) {
+            for (Map.Entry<Thread, int[]> e : descendantHolds.entrySet()) {
+                if (e.getKey() != current && (exclusiveRequest || e.getValue()[1] > 0)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void addDescendantHold(Thread thread, boolean exclusive) {
+            int[] counters = descendantHolds.get(thread);
+            if (counters == null) {
+                descendantHolds.put(thread, counters = new int[2]);
+            }
+            ++counters[exclusive ? 1 : 0];
+        }
+
+        void removeDescendantHold(Thread thread, boolean exclusive) {
+            final int[] counters = descendantHolds.get(thread);
+            if (counters != null && --counters[exclusive ? 1 : 0] <= 0 && counters[exclusive ? 0 : 1] <= 0) {
+                descendantHolds.remove(thread);
+            }
         }
 
         @Override
         public String toString() {
             return "Node{" +
-                   "path=" + path +
-                   ", threadId=" + threadId +
-                   ", permits=" + permits +
-                   ", prev=" + prev +
+                   "name=" + name +
+                   ", holds=" + holds.size() +
+                   ", usedPermits=" + usedPermits +
+                   ", exclusive=" + exclusive +
                    '}';
         }
     }
 
+    private static class Hold {
+        final int permits;
+        int count;
+
+        Hold(int permits) {
+            this.permits = permits;
+            count = 1;
+        }
+    }
+
     public final class PathLock {
         private final Path path;
         private final int  permits;
@@ -197,7 +498,7 @@ public final class PathLockFactory {
          * @return this PathLock instance
          */
         public PathLock acquire() {
-            PathLockFactory.this.acquire(path, permits);
+            PathLockFactory.this.acquire(path, permits, -1);
             return this;
         }
 
@@ -212,7 +513,7 @@ public final class PathLockFactory {
          *         if waiting timeout reached
          */
         public PathLock acquire(long timeoutMilliseconds) {
-            PathLockFactory.this.acquire(path, permits, timeoutMilliseconds);
+            PathLockFactory.this.acquire(path, permits, Math.max(0, timeoutMilliseconds));
             return this;
         }
 
@@ -321,7 +321,8 @@ public interface VirtualFile extends Comparable<VirtualFile> {
 
     /**
      * Gets zipped content of folder denoted by this VirtualFile. All child items that user doesn't have read permission are not added in
-     * result archive.
+     * result archive. Implementation may create archive while returned stream is read, in this case length of returned content is
+     * unknown and {@link ContentStream#getLength()} returns {@code -1}.
      *
      * @param filter
      *         filter of file. Only files that are matched to the filter are added in the zip archive
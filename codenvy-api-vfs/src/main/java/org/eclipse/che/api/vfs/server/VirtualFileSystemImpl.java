@@ -15,6 +15,8 @@ import org.eclipse.che.api.core.ForbiddenException;
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.vfs.server.search.QueryExpression;
+import org.eclipse.che.api.vfs.server.search.SearchResult;
+import org.eclipse.che.api.vfs.server.search.SearchResultEntry;
 import org.eclipse.che.api.vfs.server.search.SearcherProvider;
 import org.eclipse.che.api.vfs.server.util.LinksHelper;
 import org.eclipse.che.api.vfs.shared.ItemType;
@@ -63,8 +65,6 @@ import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -535,26 +535,26 @@ public abstract class VirtualFileSystemImpl implements VirtualFileSystem {
                     .setPath(query.getFirst("path"))
                     .setName(query.getFirst("name"))
                     .setMediaType(query.getFirst("mediaType"))
-                    .setText(query.getFirst("text"));
+                    .setText(query.getFirst("text"))
+                    .setSkipCount(skipCount)
+                    .setMaxItems(maxItems);
 
-            final String[] result = searcherProvider.getSearcher(mountPoint, true).search(expr);
+            final SearchResult result = searcherProvider.getSearcher(mountPoint, true).searchPage(expr);
             if (skipCount > 0) {
-                if (skipCount > result.length) {
+                if (skipCount > result.getTotalHits()) {
                     throw new ConflictException("'skipCount' parameter is greater then total number of items. ");
                 }
             }
-            final int length = maxItems > 0 ? Math.min(result.length, maxItems) : result.length;
-            final List<Item> items = new ArrayList<>(length);
-            for (int i = skipCount; i < length; i++) {
-                String path = result[i];
+            final List<Item> items = new ArrayList<>(result.getEntries().size());
+            for (SearchResultEntry entry : result.getEntries()) {
                 try {
-                    items.add(fromVirtualFile(mountPoint.getVirtualFile(path), false, propertyFilter));
+                    items.add(fromVirtualFile(mountPoint.getVirtualFile(entry.getPath()), false, propertyFilter));
                 } catch (NotFoundException | ForbiddenException ignored) {
                 }
             }
 
-            return DtoFactory.getInstance().createDto(ItemList.class).withItems(items).withNumItems(result.length)
-                             .withHasMoreItems(length < result.length);
+            return DtoFactory.getInstance().createDto(ItemList.class).withItems(items).withNumItems(result.getTotalHits())
+                             .withHasMoreItems(skipCount + result.getEntries().size() < result.getTotalHits());
         }
         throw new ServerException("Not supported. ");
     }
@@ -660,7 +660,9 @@ public abstract class VirtualFileSystemImpl implements VirtualFileSystem {
         final List<OutputItem> multipart = new LinkedList<>();
         // String name, Object entity, MediaType mediaType, String fileName
         final OutputItem updates = OutputItem.create("updates", zip.getStream(), MediaType.valueOf("application/zip"), zip.getFileName());
-        updates.getHeaders().putSingle(HttpHeaders.CONTENT_LENGTH, Long.toString(zip.getLength()));
+        if (zip.getLength() >= 0) {
+            updates.getHeaders().putSingle(HttpHeaders.CONTENT_LENGTH, Long.toString(zip.getLength()));
+        }
         multipart.add(updates);
 
         if (!deleted.isEmpty()) {
@@ -686,8 +688,10 @@ public abstract class VirtualFileSystemImpl implements VirtualFileSystem {
         final Response.ResponseBuilder responseBuilder = Response
                 .ok(zip.getStream(), zip.getMimeType())
                 .lastModified(zip.getLastModificationDate())
-                .header(HttpHeaders.CONTENT_LENGTH, Long.toString(zip.getLength()))
                 .header("Content-Disposition", "attachment; filename=\"" + zip.getFileName() + '"');
+        if (zip.getLength() >= 0) {
+            responseBuilder.header(HttpHeaders.CONTENT_LENGTH, Long.toString(zip.getLength()));
+        }
         if (!deleted.isEmpty()) {
             final StringBuilder buff = new StringBuilder();
             for (String str : deleted) {
@@ -726,77 +730,55 @@ public abstract class VirtualFileSystemImpl implements VirtualFileSystem {
         }
         final LazyIterator<Pair<String, String>> md5Sums = folder.countMd5Sums();
         final int size = md5Sums.size();
-        final List<Pair<String, String>> local =
-                size > 0 ? new ArrayList<Pair<String, String>>(size) : new ArrayList<Pair<String, String>>();
+        final Map<String, String> local = size > 0 ? new HashMap<String, String>(size * 4 / 3 + 1) : new HashMap<String, String>();
         while (md5Sums.hasNext()) {
-            local.add(md5Sums.next());
+            final Pair<String, String> md5Sum = md5Sums.next();
+            local.put(md5Sum.second, md5Sum.first);
         }
-        final Comparator<Pair<String, String>> comp = new Comparator<Pair<String, String>>() {
-            @Override
-            public int compare(Pair<String, String> o1, Pair<String, String> o2) {
-                return o1.second.compareTo(o2.second);
-            }
-        };
-        Collections.sort(remote, comp);
-        Collections.sort(local, comp);
-        int remoteIndex = 0;
-        int localIndex = 0;
-        final List<Pair<String, org.eclipse.che.api.vfs.server.Path>> diff = new LinkedList<>();
-        while (remoteIndex < remote.size() && localIndex < local.size()) {
-            final Pair<String, String> remoteItem = remote.get(remoteIndex);
-            final Pair<String, String> localItem = local.get(localIndex);
-            // compare path
-            int r = remoteItem.second.compareTo(localItem.second);
-            if (r == 0) {
-                // remote and local file exist, compare md5sum
-                if (!remoteItem.first.equals(localItem.first)) {
-                    diff.add(Pair.of(remoteItem.second, folder.getVirtualFilePath().newPath(localItem.second)));
-                }
-                remoteIndex++;
-                localIndex++;
-            } else if (r > 0) {
-                // new file
-                diff.add(Pair.of((String)null, folder.getVirtualFilePath().newPath(localItem.second)));
-                localIndex++;
-            } else {
+        final org.eclipse.che.api.vfs.server.Path folderPath = folder.getVirtualFilePath();
+        // Paths of new or updated files and all their parents up to the exported folder.
+        final Set<org.eclipse.che.api.vfs.server.Path> toZip = new HashSet<>();
+        final List<String> deletedFiles = new ArrayList<>();
+        for (Pair<String, String> remoteItem : remote) {
+            final String localHash = local.remove(remoteItem.second);
+            if (localHash == null) {
                 // deleted file
-                diff.add(Pair.of(remoteItem.second, (org.eclipse.che.api.vfs.server.Path)null));
-                remoteIndex++;
+                deletedFiles.add(remoteItem.second);
+            } else if (!remoteItem.first.equals(localHash)) {
+                // remote and local file exist but md5sums are different
+                addWithParents(toZip, folderPath, folderPath.newPath(remoteItem.second));
             }
         }
-        while (remoteIndex < remote.size()) {
-            diff.add(Pair.of(remote.get(remoteIndex++).second, (org.eclipse.che.api.vfs.server.Path)null));
-        }
-        while (localIndex < local.size()) {
-            diff.add(Pair.of((String)null, folder.getVirtualFilePath().newPath(local.get(localIndex++).second)));
+        for (String newFile : local.keySet()) {
+            addWithParents(toZip, folderPath, folderPath.newPath(newFile));
         }
 
-        if (diff.isEmpty()) {
+        if (toZip.isEmpty() && deletedFiles.isEmpty()) {
             return null;
         }
 
         final ContentStream zip = folder.zip(new VirtualFileFilter() {
             @Override
             public boolean accept(VirtualFile file) {
-                for (Pair<String, org.eclipse.che.api.vfs.server.Path> pair : diff) {
-                    if (pair.second != null
-                        && (pair.second.equals(file.getVirtualFilePath()) || pair.second.isChild(file.getVirtualFilePath()))) {
-                        return true;
-                    }
-                }
-                return false;
+                return toZip.contains(file.getVirtualFilePath());
             }
         });
 
         deleted.clear();
-        for (Pair<String, org.eclipse.che.api.vfs.server.Path> pair : diff) {
-            if (pair.first != null && pair.second == null) {
-                deleted.add(pair.first);
-            }
-        }
+        deleted.addAll(deletedFiles);
         return zip;
     }
 
+    private static void addWithParents(Set<org.eclipse.che.api.vfs.server.Path> paths,
+                                       org.eclipse.che.api.vfs.server.Path root,
+                                       org.eclipse.che.api.vfs.server.Path path) {
+        org.eclipse.che.api.vfs.server.Path current = path;
+        // Stop at first path that is already added, all its parents are added too.
+        while (current != null && !current.equals(root) && paths.add(current)) {
+            current = current.getParent();
+        }
+    }
+
     @Path("import/{parentId}")
     @Override
     public void importZip(@PathParam("parentId") String parentId,
@@ -899,12 +881,15 @@ public abstract class VirtualFileSystemImpl implements VirtualFileSystem {
     @Override
     public Response downloadZip(@PathParam("folderId") String folderId) throws NotFoundException, ForbiddenException, ServerException {
         final ContentStream zip = exportZip(folderId);
-        return Response //
+        final Response.ResponseBuilder responseBuilder = Response //
                 .ok(zip.getStream(), zip.getMimeType()) //
                 .lastModified(zip.getLastModificationDate()) //
-                .header(HttpHeaders.CONTENT_LENGTH, Long.toString(zip.getLength())) //
-                .header("Content-Disposition", "attachment; filename=\"" + zip.getFileName() + '"') //
-                .build();
+                .header("Content-Disposition", "attachment; filename=\"" + zip.getFileName() + '"');
+        // Length of zip archive is unknown if it is created while it is sent to the client, chunked encoding is used in this case.
+        if (zip.getLength() >= 0) {
+            responseBuilder.header(HttpHeaders.CONTENT_LENGTH, Long.toString(zip.getLength()));
+        }
+        return responseBuilder.build();
     }
 
     @Path("uploadzip/{parentId}")
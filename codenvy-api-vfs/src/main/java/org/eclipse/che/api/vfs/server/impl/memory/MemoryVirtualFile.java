@@ -30,8 +30,9 @@ import org.eclipse.che.api.vfs.server.observation.RenameEvent;
 import org.eclipse.che.api.vfs.server.observation.UpdateACLEvent;
 import org.eclipse.che.api.vfs.server.observation.UpdateContentEvent;
 import org.eclipse.che.api.vfs.server.observation.UpdatePropertiesEvent;
+import org.eclipse.che.api.vfs.server.observation.VirtualFileEvent;
 import org.eclipse.che.api.vfs.server.search.SearcherProvider;
-import org.eclipse.che.api.vfs.server.util.NotClosableInputStream;
+import org.eclipse.che.api.vfs.server.util.StreamingZipInputStream;
 import org.eclipse.che.api.vfs.server.util.ZipContent;
 import org.eclipse.che.api.vfs.shared.PropertyFilter;
 import org.eclipse.che.api.vfs.shared.dto.AccessControlEntry;
@@ -44,16 +45,14 @@ import org.eclipse.che.api.vfs.shared.dto.VirtualFileSystemInfo.BasicPermissions
 import org.eclipse.che.commons.lang.NameGenerator;
 import org.eclipse.che.commons.lang.Pair;
 import org.eclipse.che.dto.server.DtoFactory;
-import com.google.common.hash.HashFunction;
 import com.google.common.hash.Hashing;
-import com.google.common.io.ByteSource;
 import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
@@ -69,9 +68,15 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
-import java.util.zip.ZipOutputStream;
 
 /**
  * In-memory implementation of VirtualFile.
@@ -114,6 +119,12 @@ public class MemoryVirtualFile implements VirtualFile {
     private LockHolder                  lock;
     private Map<Principal, Set<String>> permissionsMap;
     private boolean exists = true;
+    /** Cached md5sum of content of file together with content it is counted for. */
+    private volatile Pair<byte[], String> md5;
+    /** Cached md5sums of all files in folder, paths are relative to this folder. Guarded by this file. */
+    private List<Pair<String, String>>  md5Manifest;
+    /** Incremented each time when cached md5sums of folder are dropped. Guarded by this file. */
+    private long                        md5ManifestVersion;
 
     // --- File ---
     private MemoryVirtualFile(MemoryVirtualFile parent, String id, String name, InputStream content, String mediaType)
@@ -312,6 +323,10 @@ public class MemoryVirtualFile implements VirtualFile {
         }
 
         permissionsMap = update;
+        if (parent != null) {
+            // Visibility of this item in list of md5sums of parent folder depends on permissions.
+            parent.invalidateMd5Manifests();
+        }
         lastModificationDate = System.currentTimeMillis();
         mountPoint.getEventService().publish(new UpdateACLEvent(mountPoint.getWorkspaceId(), getPath(), isFolder()));
         return this;
@@ -419,40 +434,80 @@ public class MemoryVirtualFile implements VirtualFile {
         if (isFile()) {
             return LazyIterator.emptyIterator();
         }
+        return LazyIterator.fromList(Collections.unmodifiableList(getMd5Manifest()));
+    }
 
-        final List<Pair<String, String>> hashes = new ArrayList<>();
-        final int trimPathLength = getPath().length() + 1;
-        final HashFunction hashFunction = Hashing.md5();
-        final ValueHolder<ServerException> errorHolder = new ValueHolder<>();
-        accept(new VirtualFileVisitor() {
-            @Override
-            public void visit(final VirtualFile virtualFile) {
-                try {
-                    if (virtualFile.isFile()) {
-                        try (InputStream stream = virtualFile.getContent().getStream()) {
-                            final String hexHash = ByteSource.wrap(ByteStreams.toByteArray(stream)).hash(hashFunction).toString();
-                            hashes.add(Pair.of(hexHash, virtualFile.getPath().substring(trimPathLength)));
-                        } catch (ForbiddenException e) {
-                            throw new ServerException(e.getServiceError());
-                        } catch (IOException e) {
-                            throw new ServerException(e);
-                        }
-                    } else {
-                        final LazyIterator<VirtualFile> children = virtualFile.getChildren(VirtualFileFilter.ALL);
-                        while (children.hasNext()) {
-                            children.next().accept(this);
-                        }
-                    }
-                } catch (ServerException e) {
-                    errorHolder.set(e);
+    /**
+     * Gets md5sums of all files in this folder. Hash of file is counted once and kept until content of file is updated. List of hashes
+     * of folder is kept until any item inside this folder is created, updated or removed, so unchanged sub-folders are not traversed at
+     * all. Folders that contain items with own permissions are not cached since their content depends on current user.
+     */
+    private List<Pair<String, String>> getMd5Manifest() {
+        final long version;
+        synchronized (this) {
+            if (md5Manifest != null) {
+                return md5Manifest;
+            }
+            version = md5ManifestVersion;
+        }
+        final List<Pair<String, String>> manifest = new ArrayList<>();
+        boolean cacheable = true;
+        for (VirtualFile virtualFile : children.values()) {
+            final MemoryVirtualFile child = (MemoryVirtualFile)virtualFile;
+            if (!child.permissionsMap.isEmpty()) {
+                cacheable = false;
+                if (!child.hasPermission(BasicPermissions.READ.value(), false)) {
+                    continue;
                 }
             }
-        });
-        final ServerException error = errorHolder.get();
-        if (error != null) {
-            throw error;
+            if (child.isFile()) {
+                manifest.add(Pair.of(child.getMd5(), child.name));
+            } else {
+                final List<Pair<String, String>> childManifest = child.getMd5Manifest();
+                if (!child.isMd5ManifestCached()) {
+                    cacheable = false;
+                }
+                final String prefix = child.name + '/';
+                for (Pair<String, String> pair : childManifest) {
+                    manifest.add(Pair.of(pair.first, prefix + pair.second));
+                }
+            }
+        }
+        if (cacheable) {
+            synchronized (this) {
+                // Don't cache list if anything in this folder was changed while we were counting it.
+                if (md5ManifestVersion == version) {
+                    md5Manifest = manifest;
+                }
+            }
+        }
+        return manifest;
+    }
+
+    private synchronized boolean isMd5ManifestCached() {
+        return md5Manifest != null;
+    }
+
+    private String getMd5() {
+        final byte[] current = content;
+        final Pair<byte[], String> cached = md5;
+        // Cached hash is valid only for the same content, content is replaced when file is updated.
+        if (cached != null && cached.first == current) {
+            return cached.second;
+        }
+        final String hash = Hashing.md5().hashBytes(current).toString();
+        md5 = Pair.of(current, hash);
+        return hash;
+    }
+
+    /** Drops cached md5sums of this folder and all its parents. */
+    private void invalidateMd5Manifests() {
+        for (MemoryVirtualFile current = this; current != null; current = current.parent) {
+            synchronized (current) {
+                current.md5Manifest = null;
+                current.md5ManifestVersion++;
+            }
         }
-        return LazyIterator.fromList(hashes);
     }
 
     @Override
@@ -517,6 +572,7 @@ public class MemoryVirtualFile implements VirtualFile {
         final String childName = child.getName();
         if (children.get(childName) == null) {
             children.put(childName, child);
+            invalidateMd5Manifests();
             return true;
         }
         return false;
@@ -571,6 +627,7 @@ public class MemoryVirtualFile implements VirtualFile {
         } catch (IOException e) {
             throw new ServerException(String.format("We were unable to set the content of '%s'. ", getPath()));
         }
+        parent.invalidateMd5Manifests();
 
         if (updateMediaType) {
             setMediaType(mediaType);
@@ -744,6 +801,7 @@ public class MemoryVirtualFile implements VirtualFile {
             throw new ConflictException(String.format("Item '%s' already exists. ", (parent.getPath() + '/' + name)));
         }
         this.parent.children.remove(getName());
+        this.parent.invalidateMd5Manifests();
         this.parent = (MemoryVirtualFile)parent;
         SearcherProvider searcherProvider = mountPoint.getSearcherProvider();
         if (searcherProvider != null) {
@@ -826,6 +884,7 @@ public class MemoryVirtualFile implements VirtualFile {
         }
         parent.children.remove(name);
         parent.children.put(newName, this);
+        parent.invalidateMd5Manifests();
         name = newName;
 
         if (newMediaType != null) {
@@ -911,6 +970,7 @@ public class MemoryVirtualFile implements VirtualFile {
             mountPoint.deleteItem(getId());
         }
         parent.children.remove(name);
+        parent.invalidateMd5Manifests();
         exists = false;
         parent = null;
         SearcherProvider searcherProvider = mountPoint.getSearcherProvider();
@@ -930,39 +990,27 @@ public class MemoryVirtualFile implements VirtualFile {
         if (!isFolder()) {
             throw new ForbiddenException(String.format("Unable export to zip. Item '%s' is not a folder. ", getPath()));
         }
-        final ByteArrayOutputStream out = new ByteArrayOutputStream();
-        try {
-            final ZipOutputStream zipOut = new ZipOutputStream(out);
-            final LinkedList<VirtualFile> q = new LinkedList<>();
-            q.add(this);
-            final int rootZipPathLength = isRoot() ? 1 : (getPath().length() + 1);
-            while (!q.isEmpty()) {
-                final LazyIterator<VirtualFile> children = q.pop().getChildren(filter);
-                while (children.hasNext()) {
-                    VirtualFile current = children.next();
-                    final String zipEntryName = current.getPath().substring(rootZipPathLength);
-                    if (current.isFile()) {
-                        final ZipEntry zipEntry = new ZipEntry(zipEntryName);
-                        zipEntry.setTime(current.getLastModificationDate());
-                        zipOut.putNextEntry(zipEntry);
-                        zipOut.write(((MemoryVirtualFile)current).content);
-                        zipOut.closeEntry();
-                    } else if (current.isFolder()) {
-                        final ZipEntry zipEntry = new ZipEntry(zipEntryName + '/');
-                        zipEntry.setTime(0);
-                        zipOut.putNextEntry(zipEntry);
-                        q.add(current);
-                        zipOut.closeEntry();
-                    }
+        // Collect entries here to check permissions and get snapshot of the tree. Archive is created while it is read by caller.
+        // Content of file is never changed, it is replaced when file is updated, so no need to copy it.
+        final List<StreamingZipInputStream.Entry> entries = new ArrayList<>();
+        final LinkedList<VirtualFile> q = new LinkedList<>();
+        q.add(this);
+        final int rootZipPathLength = isRoot() ? 1 : (getPath().length() + 1);
+        while (!q.isEmpty()) {
+            final LazyIterator<VirtualFile> children = q.pop().getChildren(filter);
+            while (children.hasNext()) {
+                VirtualFile current = children.next();
+                final String zipEntryName = current.getPath().substring(rootZipPathLength);
+                if (current.isFile()) {
+                    entries.add(new StreamingZipInputStream.Entry(zipEntryName, current.getLastModificationDate(),
+                                                                  ((MemoryVirtualFile)current).content));
+                } else if (current.isFolder()) {
+                    entries.add(new StreamingZipInputStream.Entry(zipEntryName + '/', 0, null));
+                    q.add(current);
                 }
             }
-            zipOut.close();
-        } catch (IOException e) {
-            throw new ServerException(e.getMessage(), e);
         }
-        final byte[] zipContent = out.toByteArray();
-        return new ContentStream(getName() + ".zip", new ByteArrayInputStream(zipContent), "application/zip", zipContent.length,
-                                 new Date());
+        return new ContentStream(getName() + ".zip", new StreamingZipInputStream(entries), "application/zip", new Date());
     }
 
     @Override
@@ -973,17 +1021,41 @@ public class MemoryVirtualFile implements VirtualFile {
                                                        " You do not have the correct permissions to complete this operation.", getPath()));
         }
 
-        ZipInputStream zip = null;
+        final ZipContent zipContent;
+        try {
+            zipContent = ZipContent.newInstance(zipped);
+        } catch (IOException e) {
+            throw new ServerException(e.getMessage(), e);
+        }
+        // Entries are inflated in separate thread while this thread adds them to the tree.
+        final BlockingQueue<UnzipEntry> queue = new ArrayBlockingQueue<>(UNZIP_QUEUE_SIZE);
+        // Set by inflater when it starts or by this thread when inflater isn't started, whoever sets it closes zipped data.
+        final AtomicBoolean zippedDataTaken = new AtomicBoolean();
+        final Future<?> inflater;
+        try {
+            inflater = UnzipExecutorHolder.EXECUTOR.submit(new Runnable() {
+                @Override
+                public void run() {
+                    if (zippedDataTaken.compareAndSet(false, true)) {
+                        inflate(zipContent.zippedData, queue);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            closeZippedData(zipContent);
+            throw new ServerException(e.getMessage(), e);
+        }
+        // Events are published when all entries are added, subscribers don't see partially imported tree.
+        final List<VirtualFileEvent> events = new ArrayList<>();
+        // Folders which are already created or found, avoid lookup of the same folders for each entry.
+        final Map<Path, MemoryVirtualFile> folders = new HashMap<>();
         try {
-            final ZipContent zipContent = ZipContent.newInstance(zipped);
-            zip = new ZipInputStream(zipContent.zippedData);
-            // Wrap zip stream to prevent close it. We can pass stream to other method and it can read content of current
-            // ZipEntry but not able to close original stream of ZIPed data.
-            InputStream noCloseZip = new NotClosableInputStream(zip);
-            ZipEntry zipEntry;
-            while ((zipEntry = zip.getNextEntry()) != null) {
-                VirtualFile current = this;
-                Path relPath = Path.fromString(zipEntry.getName());
+            UnzipEntry entry;
+            while ((entry = queue.take()) != UnzipEntry.END) {
+                if (entry.error != null) {
+                    throw new ServerException(entry.error.getMessage(), entry.error);
+                }
+                Path relPath = Path.fromString(entry.name);
 
                 if (stripNumber > 0) {
                     int currentLevel = relPath.elements().length;
@@ -992,29 +1064,22 @@ public class MemoryVirtualFile implements VirtualFile {
                     }
                     relPath = relPath.subPath(stripNumber);
                 }
+                if (relPath.isRoot()) {
+                    continue;
+                }
 
                 final String name = relPath.getName();
-                if (relPath.length() > 1) {
-                    // create all required parent directories
-                    for (int i = 0, stop = relPath.length() - 1; i < stop; i++) {
-                        MemoryVirtualFile folder = newFolder((MemoryVirtualFile)current, relPath.element(i));
-                        if (((MemoryVirtualFile)current).addChild(folder)) {
-                            current = folder;
-                            mountPoint.putItem(folder);
-                        } else {
-                            current = current.getChild(relPath.element(i));
-                        }
-                    }
-                }
-                if (zipEntry.isDirectory()) {
+                // create all required parent directories
+                final MemoryVirtualFile current = getOrCreateFolder(relPath.getParent(), folders, events);
+                if (entry.directory) {
                     if (current.getChild(name) == null) {
-                        MemoryVirtualFile folder = newFolder((MemoryVirtualFile)current, name);
-                        ((MemoryVirtualFile)current).addChild(folder);
+                        MemoryVirtualFile folder = newFolder(current, name);
+                        current.addChild(folder);
                         mountPoint.putItem(folder);
-                        mountPoint.getEventService().publish(new CreateEvent(mountPoint.getWorkspaceId(), folder.getPath(), true));
+                        folders.put(relPath, folder);
+                        events.add(new CreateEvent(mountPoint.getWorkspaceId(), folder.getPath(), true));
                     }
                 } else {
-                    current.getChild(name);
                     VirtualFile file = current.getChild(name);
                     if (file != null) {
                         if (file.isLocked()) {
@@ -1028,35 +1093,111 @@ public class MemoryVirtualFile implements VirtualFile {
                         if (!overwrite) {
                             throw new ForbiddenException(String.format("File '%s' already exists. ", file.getPath()));
                         }
-                        file.updateContent(noCloseZip, null);
-                        mountPoint.getEventService().publish(new UpdateContentEvent(mountPoint.getWorkspaceId(), file.getPath()));
+                        file.updateContent(new ByteArrayInputStream(entry.content), null);
+                        events.add(new UpdateContentEvent(mountPoint.getWorkspaceId(), file.getPath()));
                     } else {
-                        file = newFile((MemoryVirtualFile)current, name, noCloseZip, ContentTypeGuesser.guessContentType(name));
-                        ((MemoryVirtualFile)current).addChild(file);
+                        file = newFile(current, name, entry.content, ContentTypeGuesser.guessContentType(name));
+                        current.addChild(file);
                         mountPoint.putItem((MemoryVirtualFile)file);
-                        mountPoint.getEventService().publish(new CreateEvent(mountPoint.getWorkspaceId(), file.getPath(), false));
+                        events.add(new CreateEvent(mountPoint.getWorkspaceId(), file.getPath(), false));
                     }
                 }
-                zip.closeEntry();
-            }
-            SearcherProvider searcherProvider = mountPoint.getSearcherProvider();
-            if (searcherProvider != null) {
-                try {
-                    searcherProvider.getSearcher(mountPoint, true).add(this);
-                } catch (ServerException e) {
-                    LOG.error(e.getMessage(), e);
-                }
             }
-
-        } catch (IOException e) {
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
             throw new ServerException(e.getMessage(), e);
         } finally {
-            if (zip != null) {
-                try {
-                    zip.close();
-                } catch (IOException ignored) {
+            // Stop inflating if import is failed.
+            inflater.cancel(true);
+            if (zippedDataTaken.compareAndSet(false, true)) {
+                // Inflater is cancelled before start.
+                closeZippedData(zipContent);
+            }
+            // Publish events of all items that were imported even if import is failed.
+            for (VirtualFileEvent event : events) {
+                mountPoint.getEventService().publish(event);
+            }
+        }
+        SearcherProvider searcherProvider = mountPoint.getSearcherProvider();
+        if (searcherProvider != null) {
+            try {
+                searcherProvider.getSearcher(mountPoint, true).add(this);
+            } catch (ServerException e) {
+                LOG.error(e.getMessage(), e);
+            }
+        }
+    }
+
+    /** Gets folder by path relative to this folder, creates all missing folders. */
+    private MemoryVirtualFile getOrCreateFolder(Path relPath, Map<Path, MemoryVirtualFile> folders, List<VirtualFileEvent> events)
+            throws ForbiddenException, ServerException {
+        if (relPath.isRoot()) {
+            return this;
+        }
+        MemoryVirtualFile folder = folders.get(relPath);
+        if (folder == null) {
+            final MemoryVirtualFile parent = getOrCreateFolder(relPath.getParent(), folders, events);
+            final String name = relPath.getName();
+            folder = (MemoryVirtualFile)parent.getChild(name);
+            if (folder == null) {
+                folder = newFolder(parent, name);
+                parent.addChild(folder);
+                mountPoint.putItem(folder);
+                events.add(new CreateEvent(mountPoint.getWorkspaceId(), folder.getPath(), true));
+            }
+            folders.put(relPath, folder);
+        }
+        return folder;
+    }
+
+    /** Reads entries of zip archive and puts them to the queue. Queue is always finished with {@link UnzipEntry#END}. */
+    private static void inflate(InputStream zipped, BlockingQueue<UnzipEntry> queue) {
+        try {
+            try (ZipInputStream zip = new ZipInputStream(zipped)) {
+                ZipEntry zipEntry;
+                while ((zipEntry = zip.getNextEntry()) != null) {
+                    final boolean directory = zipEntry.isDirectory();
+                    queue.put(new UnzipEntry(zipEntry.getName(), directory, directory ? null : ByteStreams.toByteArray(zip), null));
+                    zip.closeEntry();
                 }
+            } catch (IOException | RuntimeException e) {
+                queue.put(new UnzipEntry(null, false, null, e));
             }
+            queue.put(UnzipEntry.END);
+        } catch (InterruptedException ignored) {
+            // Import is failed, nobody reads the queue.
+        }
+    }
+
+    private static void closeZippedData(ZipContent zipContent) {
+        try {
+            zipContent.zippedData.close();
+        } catch (IOException e) {
+            LOG.warn(e.getMessage(), e);
+        }
+    }
+
+    private static final int UNZIP_QUEUE_SIZE = 64;
+
+    /** Threads for inflating of imported zip archives, created on first use. */
+    private static class UnzipExecutorHolder {
+        static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(
+                new ThreadFactoryBuilder().setNameFormat("MemoryVirtualFile-Unzip-%d").setDaemon(true).build());
+    }
+
+    private static class UnzipEntry {
+        static final UnzipEntry END = new UnzipEntry(null, false, null, null);
+
+        final String    name;
+        final boolean   directory;
+        final byte[]    content;
+        final Exception error;
+
+        UnzipEntry(String name, boolean directory, byte[] content, Exception error) {
+            this.name = name;
+            this.directory = directory;
+            this.content = content;
+            this.error = error;
         }
     }
 
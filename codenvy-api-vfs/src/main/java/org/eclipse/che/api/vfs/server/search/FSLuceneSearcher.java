@@ -0,0 +1,179 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.server.search;
+
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.vfs.server.LazyIterator;
+import org.eclipse.che.api.vfs.server.MountPoint;
+import org.eclipse.che.api.vfs.server.VirtualFile;
+import org.eclipse.che.api.vfs.server.VirtualFileFilter;
+import org.eclipse.che.api.vfs.server.util.MediaTypeFilter;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.MultiFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.MMapDirectory;
+import org.apache.lucene.util.Bits;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * LuceneSearcher that keeps index on the disk. Each document of index contains version of file (last modification date and length of
+ * file, format of document). When searcher is opened over existing index only files which are added, changed or removed since last
+ * commit are re-indexed, content of unchanged files is not read at all.
+ * <p/>
+ * Index is committed when searcher is closed and after indexing if there was no commit during last {@link #COMMIT_INTERVAL} ms.
+ * Changes which are not committed, e.g. after crash, are found and re-indexed next time searcher is opened.
+ *
+ * @author andrew00x
+ */
+public class FSLuceneSearcher extends LuceneSearcher {
+    private static final Logger LOG = LoggerFactory.getLogger(FSLuceneSearcher.class);
+
+    private static final long COMMIT_INTERVAL = 30000;
+    /**
+     * Format of documents, it is part of version of file. Files which are indexed in other format are re-indexed when searcher is opened.
+     * Format 2: content of file isn't stored, path of file has sortable copy.
+     */
+    private static final String FORMAT = "2";
+
+    private static final Set<String> RECONCILE_FIELDS = new HashSet<>(Arrays.asList("path", "version"));
+
+    private final File indexDirectory;
+
+    private volatile long lastCommit;
+
+    public FSLuceneSearcher(File indexDirectory, Set<String> indexedMediaTypes) {
+        this(indexDirectory, new MediaTypeFilter(indexedMediaTypes));
+    }
+
+    public FSLuceneSearcher(File indexDirectory, VirtualFileFilter filter) {
+        super(filter);
+        this.indexDirectory = indexDirectory;
+    }
+
+    public File getIndexDirectory() {
+        return indexDirectory;
+    }
+
+    @Override
+    protected Directory makeDirectory() throws ServerException {
+        try {
+            Files.createDirectories(indexDirectory.toPath());
+            return new MMapDirectory(indexDirectory.toPath());
+        } catch (IOException e) {
+            throw new ServerException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Opens index and brings it in sync with virtual filesystem. Index is built from scratch if it is empty, otherwise changed files
+     * are queued for re-indexing and documents of files which don't exist anymore are removed.
+     */
+    @Override
+    public void init(MountPoint mountPoint) throws ServerException {
+        doInit(mountPoint);
+        lastCommit = System.currentTimeMillis();
+        final Map<String, String> indexed = readVersions();
+        if (indexed.isEmpty()) {
+            add(mountPoint.getRoot());
+        } else {
+            reconcile(mountPoint.getRoot(), indexed);
+        }
+    }
+
+    private void reconcile(VirtualFile tree, Map<String, String> indexed) throws ServerException {
+        final long start = System.currentTimeMillis();
+        final LinkedList<VirtualFile> q = new LinkedList<>();
+        q.add(tree);
+        int changed = 0;
+        while (!q.isEmpty()) {
+            final VirtualFile folder = q.pop();
+            if (folder.exists()) {
+                LazyIterator<VirtualFile> children = folder.getChildren(VirtualFileFilter.ALL);
+                while (children.hasNext()) {
+                    final VirtualFile child = children.next();
+                    if (child.isFolder()) {
+                        q.push(child);
+                    } else if (!getVersion(child).equals(indexed.remove(child.getPath()))) {
+                        update(child);
+                        changed++;
+                    }
+                }
+            }
+        }
+        try {
+            // Delete exact paths, prefix query that is used by method delete() may remove documents of other files.
+            for (String path : indexed.keySet()) {
+                getIndexWriter().deleteDocuments(new Term("path", path));
+            }
+        } catch (IOException e) {
+            throw new ServerException(e.getMessage(), e);
+        }
+        final long end = System.currentTimeMillis();
+        LOG.debug("Found {} changed and {} removed files in {}, time: {} ms", changed, indexed.size(), indexDirectory, (end - start));
+    }
+
+    /** Reads path and version of all files in the index. */
+    private Map<String, String> readVersions() throws ServerException {
+        final Map<String, String> versions = new HashMap<>();
+        try (DirectoryReader reader = DirectoryReader.open(getIndexWriter(), true)) {
+            final Bits liveDocs = MultiFields.getLiveDocs(reader);
+            for (int i = 0, maxDoc = reader.maxDoc(); i < maxDoc; i++) {
+                if (liveDocs == null || liveDocs.get(i)) {
+                    final Document doc = reader.document(i, RECONCILE_FIELDS);
+                    versions.put(doc.get("path"), doc.get("version"));
+                }
+            }
+        } catch (IOException e) {
+            throw new ServerException(e.getMessage(), e);
+        }
+        return versions;
+    }
+
+    @Override
+    protected Document createDocument(VirtualFile virtualFile, Reader inReader) throws ServerException {
+        final Document doc = super.createDocument(virtualFile, inReader);
+        doc.add(new StoredField("version", getVersion(virtualFile)));
+        return doc;
+    }
+
+    @Override
+    protected void afterIndexing() throws ServerException {
+        final long now = System.currentTimeMillis();
+        if (now - lastCommit >= COMMIT_INTERVAL) {
+            try {
+                getIndexWriter().commit();
+            } catch (IOException e) {
+                throw new ServerException(e.getMessage(), e);
+            }
+            lastCommit = now;
+        }
+    }
+
+    private String getVersion(VirtualFile virtualFile) throws ServerException {
+        return virtualFile.getLastModificationDate() + "-" + virtualFile.getLength() + "-" + FORMAT;
+    }
+}
@@ -0,0 +1,63 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.server.search;
+
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.vfs.server.MountPoint;
+
+import java.io.File;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * SearcherProvider that creates {@link FSLuceneSearcher} for each workspace. Index of workspace is stored in sub-directory of {@code
+ * indexRoot} with name of workspace id and survives restart of server.
+ *
+ * @author andrew00x
+ */
+public class FSLuceneSearcherProvider extends LuceneSearcherProvider {
+    private final File                                      indexRoot;
+    private final ConcurrentMap<String, FSLuceneSearcher> searchers;
+
+    public FSLuceneSearcherProvider(File indexRoot) {
+        this.indexRoot = indexRoot;
+        searchers = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public Searcher getSearcher(MountPoint mountPoint, boolean create) throws ServerException {
+        final String workspaceId = mountPoint.getWorkspaceId();
+        FSLuceneSearcher searcher = searchers.get(workspaceId);
+        if (searcher != null && searcher.isClosed()) {
+            searchers.remove(workspaceId, searcher);
+            searcher = null;
+        }
+        if (searcher == null && create) {
+            synchronized (this) {
+                searcher = searchers.get(workspaceId);
+                if (searcher == null || searcher.isClosed()) {
+                    searcher = new FSLuceneSearcher(new File(indexRoot, workspaceId), getIndexedMediaTypes());
+                    searcher.init(mountPoint);
+                    searchers.put(workspaceId, searcher);
+                }
+            }
+        }
+        return searcher;
+    }
+
+    /** Closes all searchers. Indexes are committed and may be re-used after restart. */
+    public void close() {
+        for (FSLuceneSearcher searcher : searchers.values()) {
+            searcher.close();
+        }
+        searchers.clear();
+    }
+}
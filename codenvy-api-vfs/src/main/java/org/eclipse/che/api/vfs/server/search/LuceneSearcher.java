@@ -11,6 +11,7 @@
 package org.eclipse.che.api.vfs.server.search;
 
 import org.eclipse.che.api.core.ForbiddenException;
+import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.vfs.server.LazyIterator;
 import org.eclipse.che.api.vfs.server.MountPoint;
@@ -19,9 +20,13 @@ import org.eclipse.che.api.vfs.server.VirtualFileFilter;
 import org.eclipse.che.api.vfs.server.util.MediaTypeFilter;
 
 import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.core.SimpleAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
+import org.apache.lucene.document.SortedDocValuesField;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
 import org.apache.lucene.index.IndexWriter;
@@ -31,39 +36,103 @@ import org.apache.lucene.queryparser.classic.ParseException;
 import org.apache.lucene.queryparser.classic.QueryParser;
 import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.FieldDoc;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.SearcherFactory;
 import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
 import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.search.WildcardQuery;
 import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.io.CharStreams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Lucene based searcher.
+ * <p/>
+ * Changes of virtual filesystem are not written to the index in caller's thread. They are put in queue and written in background
+ * by batches, few changes of the same path which are queued together are merged in one. Reader of index is refreshed periodically
+ * while indexing is in progress and when queue is drained. Method {@link #search(QueryExpression)} waits until all changes queued before
+ * it are written to the index, so search result is consistent with virtual filesystem.
  *
  * @author andrew00x
  */
 public abstract class LuceneSearcher implements Searcher {
-    private static final Logger LOG          = LoggerFactory.getLogger(LuceneSearcher.class);
-    private static final int    RESULT_LIMIT = 1000;
+    private static final Logger LOG                = LoggerFactory.getLogger(LuceneSearcher.class);
+    /** Max number of results returned at once. */
+    private static final int    RESULT_LIMIT       = 1000;
+    /** Max number of queued changes which are taken from queue at once. */
+    private static final int    BATCH_SIZE         = 1000;
+    /** Number of files which are indexed in one task when whole tree is added to the index. */
+    private static final int    TREE_BATCH_SIZE    = 64;
+    /** Reader of index is refreshed not often than once per this interval (in milliseconds) while indexing is in progress. */
+    private static final long   REFRESH_INTERVAL   = 200;
+    /** Max number of matched lines returned for one file. */
+    private static final int    MAX_SNIPPETS       = 5;
+    private static final int    MAX_SNIPPET_LENGTH = 200;
+    /** Boost of matches of searched text in name of file. */
+    private static final float  NAME_BOOST         = 4.0f;
+    /** Boost of matches of searched text in path of file. */
+    private static final float  PATH_BOOST         = 2.0f;
+
+    /** Stored fields which are loaded for hits. */
+    private static final Set<String> HIT_FIELDS = Collections.singleton("path");
 
-    private final VirtualFileFilter filter;
+    /** Threads are created on first use. */
+    private static class ExecutorsHolder {
+        /** Drains queues of searchers, each searcher uses at most one thread at once. */
+        static final ExecutorService INDEXERS     = Executors.newCachedThreadPool(
+                new ThreadFactoryBuilder().setNameFormat("LuceneSearcher-Indexer-%d").setDaemon(true).build());
+        /** Indexes files when whole tree is added to the index. Tasks of this executor never wait for other tasks. */
+        static final ExecutorService TREE_INDEXERS = Executors.newFixedThreadPool(
+                Runtime.getRuntime().availableProcessors(),
+                new ThreadFactoryBuilder().setNameFormat("LuceneSearcher-TreeIndexer-%d").setDaemon(true).build());
+    }
+
+    private final VirtualFileFilter                 filter;
+    /** Queued changes, path is used as key. Guarded by itself. */
+    private final LinkedHashMap<String, IndexTask> pending;
 
     private IndexWriter     luceneIndexWriter;
     private SearcherManager searcherManager;
-    private boolean         closed;
+    /** Used for reading content of files to make snippets of matched lines, content isn't stored in the index. */
+    private MountPoint      mountPoint;
+
+    private volatile boolean closed;
+    /** {@code true} if task that drains queue is scheduled or running. Guarded by {@link #pending}. */
+    private          boolean indexing;
+    /** Sequence number of last queued change. Guarded by {@link #pending}. */
+    private          long    queuedSeq;
+    /** Sequence number of last change which is written to the index. Guarded by {@link #pending}. */
+    private          long    indexedSeq;
 
     public LuceneSearcher(Set<String> indexedMediaTypes) {
         this(new MediaTypeFilter(indexedMediaTypes));
@@ -71,6 +140,7 @@ public abstract class LuceneSearcher implements Searcher {
 
     public LuceneSearcher(VirtualFileFilter filter) {
         this.filter = filter;
+        pending = new LinkedHashMap<>();
     }
 
     protected Analyzer makeAnalyzer() {
@@ -81,6 +151,7 @@ public abstract class LuceneSearcher implements Searcher {
 
     /**
      * Init lucene index. Need call this method if index directory is clean. Scan all files in virtual filesystem and add to index.
+     * Files are added to the index in background, this method doesn't wait until indexing is done.
      *
      * @param mountPoint
      *         MountPoint
@@ -88,11 +159,12 @@ public abstract class LuceneSearcher implements Searcher {
      *         if any virtual filesystem error
      */
     public void init(MountPoint mountPoint) throws ServerException {
-        doInit();
-        addTree(mountPoint.getRoot());
+        doInit(mountPoint);
+        add(mountPoint.getRoot());
     }
 
-    protected final synchronized void doInit() throws ServerException {
+    protected final synchronized void doInit(MountPoint mountPoint) throws ServerException {
+        this.mountPoint = mountPoint;
         try {
             luceneIndexWriter = new IndexWriter(makeDirectory(), new IndexWriterConfig(makeAnalyzer()));
             searcherManager = new SearcherManager(luceneIndexWriter, true, new SearcherFactory());
@@ -103,21 +175,131 @@ public abstract class LuceneSearcher implements Searcher {
 
     public synchronized void close() {
         if (!closed) {
+            synchronized (pending) {
+                closed = true;
+                pending.clear();
+                pending.notifyAll();
+            }
             try {
                 IOUtils.close(getIndexWriter(), getIndexWriter().getDirectory(), searcherManager);
             } catch (IOException e) {
                 LOG.error(e.getMessage(), e);
             }
-            closed = true;
         }
     }
 
+    public boolean isClosed() {
+        return closed;
+    }
+
     public synchronized IndexWriter getIndexWriter() {
         return luceneIndexWriter;
     }
 
+    private synchronized MountPoint getMountPoint() {
+        return mountPoint;
+    }
+
+    /**
+     * Waits until all changes that are queued before call of this method are written to the index. Changes become visible for readers
+     * of index after refresh, see {@link SearcherManager#maybeRefresh()}.
+     *
+     * @throws ServerException
+     *         if thread is interrupted while waiting
+     */
+    public void flush() throws ServerException {
+        synchronized (pending) {
+            final long seq = queuedSeq;
+            while (indexedSeq < seq && !closed) {
+                try {
+                    pending.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new ServerException("Interrupted while waiting for indexing. ");
+                }
+            }
+        }
+    }
+
     @Override
     public String[] search(QueryExpression query) throws ServerException {
+        final SearchResult result = doSearch(query, 0, RESULT_LIMIT, null, false);
+        if (result.getTotalHits() > RESULT_LIMIT) {
+            throw new ServerException(String.format("Too many (%d) matched results found. ", result.getTotalHits()));
+        }
+        final List<SearchResultEntry> entries = result.getEntries();
+        final String[] paths = new String[entries.size()];
+        for (int i = 0, length = paths.length; i < length; i++) {
+            paths[i] = entries.get(i).getPath();
+        }
+        return paths;
+    }
+
+    @Override
+    public SearchResult searchPage(QueryExpression query) throws ServerException {
+        final int maxItems = query.getMaxItems() > 0 ? Math.min(query.getMaxItems(), RESULT_LIMIT) : RESULT_LIMIT;
+        return doSearch(query, query.getSkipCount(), maxItems, query.getPageToken(), true);
+    }
+
+    private SearchResult doSearch(QueryExpression query, int skipCount, int maxItems, String pageToken, boolean withSnippets)
+            throws ServerException {
+        final Query luceneQuery = createLuceneQuery(query);
+        final Object[] afterFields = pageToken == null ? null : parsePageToken(pageToken);
+        flush();
+        IndexSearcher luceneSearcher = null;
+        try {
+            searcherManager.maybeRefresh();
+            luceneSearcher = searcherManager.acquire();
+            // One more hit is requested to know whether there is next page.
+            final TopDocs topDocs;
+            if (afterFields == null) {
+                topDocs = luceneSearcher.search(luceneQuery, skipCount + maxItems + 1, newSort(), true, false);
+            } else {
+                skipCount = 0;
+                // Hits with the same score and path as the last hit of previous page are skipped whatever their document id is.
+                final int afterDoc = Math.max(0, luceneSearcher.getIndexReader().maxDoc() - 1);
+                final FieldDoc after = new FieldDoc(afterDoc, (Float)afterFields[0], afterFields);
+                topDocs = luceneSearcher.searchAfter(after, luceneQuery, maxItems + 1, newSort(), true, false);
+            }
+            final ScoreDoc[] scoreDocs = topDocs.scoreDocs;
+            final int end = Math.min(scoreDocs.length, skipCount + maxItems);
+            final Set<String> highlightTerms = withSnippets && query.getText() != null ? analyze(query.getText())
+                                                                                       : Collections.<String>emptySet();
+            final List<SearchResultEntry> entries = new ArrayList<>(Math.max(0, end - skipCount));
+            for (int i = skipCount; i < end; i++) {
+                final String path = luceneSearcher.doc(scoreDocs[i].doc, HIT_FIELDS).get("path");
+                final List<String> snippets = highlightTerms.isEmpty() ? Collections.<String>emptyList()
+                                                                       : getSnippets(path, highlightTerms);
+                entries.add(new SearchResultEntry(path, scoreDocs[i].score, snippets));
+            }
+            String nextPageToken = null;
+            if (scoreDocs.length > end && !entries.isEmpty()) {
+                final SearchResultEntry last = entries.get(entries.size() - 1);
+                nextPageToken = Float.toString(last.getScore()) + ':' + last.getPath();
+            }
+            return new SearchResult(entries, topDocs.totalHits, nextPageToken);
+        } catch (IOException e) {
+            throw new ServerException(e.getMessage(), e);
+        } finally {
+            try {
+                searcherManager.release(luceneSearcher);
+            } catch (IOException e) {
+                LOG.error(e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Hits are sorted by score and hits with the same score by path, so position of hit in result is defined by its score and path. Files
+     * are added in the index with sortable copy of path, documents which don't have it are put at the end of group of the same score.
+     */
+    private static Sort newSort() {
+        final SortField path = new SortField("path_sort", SortField.Type.STRING);
+        path.setMissingValue(SortField.STRING_LAST);
+        return new Sort(SortField.FIELD_SCORE, path);
+    }
+
+    private Query createLuceneQuery(QueryExpression query) throws ServerException {
         final BooleanQuery luceneQuery = new BooleanQuery();
         final String name = query.getName();
         final String path = query.getPath();
@@ -133,40 +315,229 @@ public abstract class LuceneSearcher implements Searcher {
             luceneQuery.add(new TermQuery(new Term("mediatype", mediaType)), BooleanClause.Occur.MUST);
         }
         if (text != null) {
-            QueryParser qParser = new QueryParser("text", makeAnalyzer());
             try {
-                luceneQuery.add(qParser.parse(text), BooleanClause.Occur.MUST);
+                luceneQuery.add(new QueryParser("text", makeAnalyzer()).parse(text), BooleanClause.Occur.MUST);
+                // Files which have searched words in name or path are ranked higher than files which have them in content only.
+                final Query nameQuery = new QueryParser("name_text", makeAnalyzer()).parse(text);
+                nameQuery.setBoost(NAME_BOOST);
+                luceneQuery.add(nameQuery, BooleanClause.Occur.SHOULD);
+                final Query pathQuery = new QueryParser("path_text", makeAnalyzer()).parse(text);
+                pathQuery.setBoost(PATH_BOOST);
+                luceneQuery.add(pathQuery, BooleanClause.Occur.SHOULD);
             } catch (ParseException e) {
                 throw new ServerException(e.getMessage());
             }
         }
-        IndexSearcher luceneSearcher = null;
+        return luceneQuery;
+    }
+
+    /**
+     * Parses token of next page. Token contains score and path of last hit of previous page, they are used as values of sort fields for
+     * {@link IndexSearcher#searchAfter(ScoreDoc, Query, int, Sort, boolean, boolean)}. Path is kept in token as is, so token stays
+     * valid when index is changed between requests of pages, though changed scores may move some files from one page to another.
+     */
+    private Object[] parsePageToken(String pageToken) throws ServerException {
+        final int colon = pageToken.indexOf(':');
         try {
-            searcherManager.maybeRefresh();
-            luceneSearcher = searcherManager.acquire();
-            final TopDocs topDocs = luceneSearcher.search(luceneQuery, RESULT_LIMIT);
-            if (topDocs.totalHits > RESULT_LIMIT) {
-                throw new ServerException(String.format("Too many (%d) matched results found. ", topDocs.totalHits));
+            if (colon > 0 && colon < pageToken.length() - 1) {
+                return new Object[]{Float.parseFloat(pageToken.substring(0, colon)), new BytesRef(pageToken.substring(colon + 1))};
+            }
+        } catch (NumberFormatException ignored) {
+        }
+        throw new ServerException(String.format("Invalid page token '%s'. ", pageToken));
+    }
+
+    /** Gets terms of text with analyzer that is used for indexing. */
+    private Set<String> analyze(String text) throws IOException {
+        final Set<String> terms = new HashSet<>();
+        try (TokenStream tokens = makeAnalyzer().tokenStream("text", text)) {
+            final CharTermAttribute term = tokens.addAttribute(CharTermAttribute.class);
+            tokens.reset();
+            while (tokens.incrementToken()) {
+                terms.add(term.toString());
             }
-            final String[] result = new String[topDocs.scoreDocs.length];
-            for (int i = 0, length = result.length; i < length; i++) {
-                result[i] = luceneSearcher.doc(topDocs.scoreDocs[i].doc).getField("path").stringValue();
+            tokens.end();
+        }
+        return terms;
+    }
+
+    /**
+     * Gets lines of file which contain any of {@code terms}. Content of file isn't stored in the index, it is read from virtual filesystem.
+     * Snippets are made for hits of requested page only.
+     */
+    private List<String> getSnippets(String path, Set<String> terms) throws IOException, ServerException {
+        final MountPoint mountPoint = getMountPoint();
+        if (mountPoint == null) {
+            return Collections.emptyList();
+        }
+        final String text;
+        try {
+            final VirtualFile virtualFile = mountPoint.getVirtualFile(path);
+            if (!virtualFile.isFile() || !filter.accept(virtualFile)) {
+                return Collections.emptyList();
             }
-            return result;
-        } catch (IOException e) {
-            throw new ServerException(e.getMessage(), e);
-        } finally {
-            try {
-                searcherManager.release(luceneSearcher);
-            } catch (IOException e) {
-                LOG.error(e.getMessage());
+            try (Reader reader = new InputStreamReader(virtualFile.getContent().getStream())) {
+                text = CharStreams.toString(reader);
+            }
+        } catch (NotFoundException | ForbiddenException e) {
+            // File is removed after it was found or current user isn't allowed to read it.
+            return Collections.emptyList();
+        }
+        final List<String> snippets = new ArrayList<>(MAX_SNIPPETS);
+        try (TokenStream tokens = makeAnalyzer().tokenStream("text", text)) {
+            final CharTermAttribute term = tokens.addAttribute(CharTermAttribute.class);
+            final OffsetAttribute offset = tokens.addAttribute(OffsetAttribute.class);
+            tokens.reset();
+            int lineEnd = -1;
+            while (snippets.size() < MAX_SNIPPETS && tokens.incrementToken()) {
+                final int start = offset.startOffset();
+                if (start > lineEnd && terms.contains(term.toString())) {
+                    final int lineStart = text.lastIndexOf('\n', start) + 1;
+                    lineEnd = text.indexOf('\n', start);
+                    if (lineEnd == -1) {
+                        lineEnd = text.length();
+                    }
+                    final String line = text.substring(lineStart, Math.min(lineEnd, lineStart + MAX_SNIPPET_LENGTH)).trim();
+                    snippets.add(line);
+                }
             }
+            tokens.end();
         }
+        return snippets;
     }
 
     @Override
     public final void add(VirtualFile virtualFile) throws ServerException {
-        doAdd(virtualFile);
+        enqueue(virtualFile.getPath(), IndexTask.ADD, virtualFile);
+    }
+
+    @Override
+    public final void delete(String path) throws ServerException {
+        enqueue(path, IndexTask.DELETE, null);
+    }
+
+    @Override
+    public final void update(VirtualFile virtualFile) throws ServerException {
+        enqueue(virtualFile.getPath(), IndexTask.UPDATE, virtualFile);
+    }
+
+    /**
+     * Puts change in queue. If there is queued change for the same path then they are merged and moved to the end of queue. Delete
+     * also drops queued changes of all children of deleted item since they are going to be removed from the index anyway.
+     */
+    private void enqueue(String path, int type, VirtualFile virtualFile) throws ServerException {
+        synchronized (pending) {
+            if (closed) {
+                throw new ServerException("Searcher is closed. ");
+            }
+            IndexTask task = pending.remove(path);
+            if (task == null) {
+                task = new IndexTask(path);
+            }
+            if (type == IndexTask.DELETE) {
+                task.delete = true;
+                task.type = IndexTask.DELETE;
+                task.virtualFile = null;
+                final String childPrefix = path.endsWith("/") ? path : (path + '/');
+                for (Iterator<String> i = pending.keySet().iterator(); i.hasNext(); ) {
+                    if (i.next().startsWith(childPrefix)) {
+                        i.remove();
+                    }
+                }
+            } else {
+                task.type = type;
+                task.virtualFile = virtualFile;
+            }
+            task.seq = ++queuedSeq;
+            pending.put(path, task);
+            if (!indexing) {
+                indexing = true;
+                try {
+                    ExecutorsHolder.INDEXERS.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            drain();
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    indexing = false;
+                    throw new ServerException(e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    /** Writes queued changes to the index by batches until queue is empty. */
+    private void drain() {
+        long lastRefresh = System.currentTimeMillis();
+        for (; ; ) {
+            final List<IndexTask> batch = new ArrayList<>();
+            synchronized (pending) {
+                if (closed || pending.isEmpty()) {
+                    indexing = false;
+                    break;
+                }
+                for (Iterator<IndexTask> i = pending.values().iterator(); i.hasNext() && batch.size() < BATCH_SIZE; ) {
+                    batch.add(i.next());
+                    i.remove();
+                }
+            }
+            for (IndexTask task : batch) {
+                try {
+                    apply(task);
+                } catch (ServerException | RuntimeException e) {
+                    if (!closed) {
+                        LOG.error(e.getMessage(), e);
+                    }
+                }
+            }
+            synchronized (pending) {
+                indexedSeq = batch.get(batch.size() - 1).seq;
+                pending.notifyAll();
+            }
+            final long now = System.currentTimeMillis();
+            if (now - lastRefresh >= REFRESH_INTERVAL) {
+                refresh();
+                lastRefresh = now;
+            }
+        }
+        refresh();
+        if (!closed) {
+            try {
+                afterIndexing();
+            } catch (ServerException | RuntimeException e) {
+                if (!closed) {
+                    LOG.error(e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    /** Called in indexer thread when all queued changes are written to the index. Default implementation does nothing. */
+    protected void afterIndexing() throws ServerException {
+    }
+
+    private void apply(IndexTask task) throws ServerException {
+        if (task.delete) {
+            doDelete(new Term("path", task.path));
+        }
+        if (task.type == IndexTask.ADD) {
+            doAdd(task.virtualFile);
+        } else if (task.type == IndexTask.UPDATE && task.virtualFile.exists()) {
+            doUpdate(new Term("path", task.virtualFile.getPath()), task.virtualFile);
+        }
+    }
+
+    private void refresh() {
+        if (!closed) {
+            try {
+                searcherManager.maybeRefresh();
+            } catch (IOException | RuntimeException e) {
+                if (!closed) {
+                    LOG.error(e.getMessage(), e);
+                }
+            }
+        }
     }
 
     protected void doAdd(VirtualFile virtualFile) throws ServerException {
@@ -177,25 +548,59 @@ public abstract class LuceneSearcher implements Searcher {
         }
     }
 
+    /**
+     * Adds all files of {@code tree} to the index. Files are indexed by batches in few threads, method waits until all of them are
+     * done.
+     */
     protected void addTree(VirtualFile tree) throws ServerException {
         final long start = System.currentTimeMillis();
         final LinkedList<VirtualFile> q = new LinkedList<>();
+        final List<Future<?>> futures = new ArrayList<>();
         q.add(tree);
         int indexedFiles = 0;
-        while (!q.isEmpty()) {
-            final VirtualFile folder = q.pop();
-            if (folder.exists()) {
-                LazyIterator<VirtualFile> children = folder.getChildren(VirtualFileFilter.ALL);
-                while (children.hasNext()) {
-                    final VirtualFile child = children.next();
-                    if (child.isFolder()) {
-                        q.push(child);
-                    } else {
-                        addFile(child);
-                        indexedFiles++;
+        List<VirtualFile> files = new ArrayList<>(TREE_BATCH_SIZE);
+        try {
+            while (!q.isEmpty()) {
+                final VirtualFile folder = q.pop();
+                if (folder.exists()) {
+                    LazyIterator<VirtualFile> children = folder.getChildren(VirtualFileFilter.ALL);
+                    while (children.hasNext()) {
+                        final VirtualFile child = children.next();
+                        if (child.isFolder()) {
+                            q.push(child);
+                        } else {
+                            files.add(child);
+                            indexedFiles++;
+                            if (files.size() == TREE_BATCH_SIZE) {
+                                futures.add(ExecutorsHolder.TREE_INDEXERS.submit(new AddFilesTask(files)));
+                                files = new ArrayList<>(TREE_BATCH_SIZE);
+                            }
+                        }
                     }
                 }
             }
+            if (!files.isEmpty()) {
+                futures.add(ExecutorsHolder.TREE_INDEXERS.submit(new AddFilesTask(files)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServerException(String.format("Interrupted while indexing %s. ", tree.getPath()));
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof ServerException) {
+                throw (ServerException)cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error)cause;
+            }
+            throw new ServerException(cause.getMessage(), cause);
+        } finally {
+            for (Future<?> future : futures) {
+                future.cancel(false);
+            }
         }
         final long end = System.currentTimeMillis();
         LOG.debug("Indexed {} files from {}, time: {} ms", indexedFiles, tree.getPath(), (end - start));
@@ -217,11 +622,6 @@ public abstract class LuceneSearcher implements Searcher {
         }
     }
 
-    @Override
-    public final void delete(String path) throws ServerException {
-        doDelete(new Term("path", path));
-    }
-
     protected void doDelete(Term deleteTerm) throws ServerException {
         try {
             getIndexWriter().deleteDocuments(new PrefixQuery(deleteTerm));
@@ -233,11 +633,6 @@ public abstract class LuceneSearcher implements Searcher {
         }
     }
 
-    @Override
-    public final void update(VirtualFile virtualFile) throws ServerException {
-        doUpdate(new Term("path", virtualFile.getPath()), virtualFile);
-    }
-
     protected void doUpdate(Term deleteTerm, VirtualFile virtualFile) throws ServerException {
         try (Reader fContentReader = filter.accept(virtualFile) ? new BufferedReader(
                 new InputStreamReader(virtualFile.getContent().getStream())) : null) {
@@ -255,8 +650,11 @@ public abstract class LuceneSearcher implements Searcher {
     protected Document createDocument(VirtualFile virtualFile, Reader inReader) throws ServerException {
         final Document doc = new Document();
         doc.add(new StringField("path", virtualFile.getPath(), Field.Store.YES));
+        doc.add(new SortedDocValuesField("path_sort", new BytesRef(virtualFile.getPath())));
         doc.add(new StringField("name", virtualFile.getName(), Field.Store.YES));
         doc.add(new StringField("mediatype", getMediaType(virtualFile), Field.Store.YES));
+        doc.add(new TextField("name_text", virtualFile.getName(), Field.Store.NO));
+        doc.add(new TextField("path_text", virtualFile.getPath(), Field.Store.NO));
         if (inReader != null) {
             doc.add(new TextField("text", inReader));
         }
@@ -273,4 +671,36 @@ public abstract class LuceneSearcher implements Searcher {
         return mediaType;
     }
 
+    /** Queued change of one path. Delete of path may be followed by add or update of item with the same path. */
+    private static class IndexTask {
+        static final int DELETE = 0;
+        static final int ADD    = 1;
+        static final int UPDATE = 2;
+
+        final String path;
+        boolean     delete;
+        int         type;
+        VirtualFile virtualFile;
+        long        seq;
+
+        IndexTask(String path) {
+            this.path = path;
+        }
+    }
+
+    private class AddFilesTask implements Callable<Void> {
+        final List<VirtualFile> files;
+
+        AddFilesTask(List<VirtualFile> files) {
+            this.files = files;
+        }
+
+        @Override
+        public Void call() throws ServerException {
+            for (VirtualFile file : files) {
+                addFile(file);
+            }
+            return null;
+        }
+    }
 }
@@ -16,6 +16,9 @@ public class QueryExpression {
     private String path;
     private String mediaType;
     private String text;
+    private int    skipCount;
+    private int    maxItems;
+    private String pageToken;
 
     public String getPath() {
         return path;
@@ -53,6 +56,35 @@ public class QueryExpression {
         return this;
     }
 
+    public int getSkipCount() {
+        return skipCount;
+    }
+
+    public QueryExpression setSkipCount(int skipCount) {
+        this.skipCount = skipCount;
+        return this;
+    }
+
+    /** Max number of items in result. Zero or negative value means that searcher uses default limit. */
+    public int getMaxItems() {
+        return maxItems;
+    }
+
+    public QueryExpression setMaxItems(int maxItems) {
+        this.maxItems = maxItems;
+        return this;
+    }
+
+    /** Token of page of result, see {@link SearchResult#getNextPageToken()}. If token is set then skip count is ignored. */
+    public String getPageToken() {
+        return pageToken;
+    }
+
+    public QueryExpression setPageToken(String pageToken) {
+        this.pageToken = pageToken;
+        return this;
+    }
+
     @Override
     public String toString() {
         return "QueryExpression{" +
@@ -60,6 +92,9 @@ public class QueryExpression {
                ", path='" + path + '\'' +
                ", mediaType='" + mediaType + '\'' +
                ", text='" + text + '\'' +
+               ", skipCount=" + skipCount +
+               ", maxItems=" + maxItems +
+               ", pageToken='" + pageToken + '\'' +
                '}';
     }
 }
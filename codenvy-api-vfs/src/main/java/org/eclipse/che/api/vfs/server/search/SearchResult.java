@@ -0,0 +1,48 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.server.search;
+
+import java.util.List;
+
+/**
+ * One page of result of search.
+ *
+ * @author andrew00x
+ */
+public class SearchResult {
+    private final List<SearchResultEntry> entries;
+    private final int                     totalHits;
+    private final String                  nextPageToken;
+
+    public SearchResult(List<SearchResultEntry> entries, int totalHits, String nextPageToken) {
+        this.entries = entries;
+        this.totalHits = totalHits;
+        this.nextPageToken = nextPageToken;
+    }
+
+    /** Matched items sorted by relevance. */
+    public List<SearchResultEntry> getEntries() {
+        return entries;
+    }
+
+    /** Total number of matched items. */
+    public int getTotalHits() {
+        return totalHits;
+    }
+
+    /**
+     * Token that should be used to get next page, see {@link QueryExpression#setPageToken(String)}. Returns {@code null} if there is no
+     * more results.
+     */
+    public String getNextPageToken() {
+        return nextPageToken;
+    }
+}
@@ -0,0 +1,43 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.server.search;
+
+import java.util.List;
+
+/**
+ * Matched item of search result.
+ *
+ * @author andrew00x
+ */
+public class SearchResultEntry {
+    private final String       path;
+    private final float        score;
+    private final List<String> snippets;
+
+    public SearchResultEntry(String path, float score, List<String> snippets) {
+        this.path = path;
+        this.score = score;
+        this.snippets = snippets;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public float getScore() {
+        return score;
+    }
+
+    /** Lines of file which contain searched text. List is empty if query doesn't contain text. */
+    public List<String> getSnippets() {
+        return snippets;
+    }
+}
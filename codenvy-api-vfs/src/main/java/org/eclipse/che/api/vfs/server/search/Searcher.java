@@ -25,6 +25,19 @@ public interface Searcher {
      */
     String[] search(QueryExpression query) throws ServerException;
 
+    /**
+     * Return one page of matched items on virtual filesystem. Items are sorted by relevance. Size and position of page are set with
+     * {@link QueryExpression#setMaxItems(int)} and {@link QueryExpression#setSkipCount(int)} or {@link
+     * QueryExpression#setPageToken(String)}.
+     *
+     * @param query
+     *         query expression
+     * @return page of matched items
+     * @throws ServerException
+     *         if an error occurs
+     */
+    SearchResult searchPage(QueryExpression query) throws ServerException;
+
     /**
      * Add VirtualFile to index.
      *
@@ -0,0 +1,165 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.server.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * InputStream that produces zip archive on the fly while it is read. Only small part of archive is kept in memory at once, so export of
+ * big folder doesn't need memory for the whole archive. Length of archive is unknown until it is read completely.
+ * <p/>
+ * Files which are already compressed, e.g. archives or images, are added with method {@link ZipEntry#STORED}, there is no sense to
+ * compress them again.
+ *
+ * @author andrew00x
+ */
+public final class StreamingZipInputStream extends InputStream {
+    private static final int CHUNK_SIZE = 8192;
+
+    private static final Set<String> COMPRESSED_EXTENSIONS = new HashSet<>(Arrays.asList(
+            "zip", "jar", "war", "ear", "gz", "tgz", "bz2", "xz", "7z", "rar",
+            "png", "jpg", "jpeg", "gif", "ico", "mp3", "mp4", "avi", "mov", "ogg", "woff", "woff2"));
+
+    /** Entry of zip archive. Folder entry has {@code null} content and name that ends with '/'. */
+    public static final class Entry {
+        private final String name;
+        private final long   time;
+        private final byte[] content;
+
+        public Entry(String name, long time, byte[] content) {
+            this.name = name;
+            this.time = time;
+            this.content = content;
+        }
+    }
+
+    private final Iterator<Entry> entries;
+    private final Buffer          buffer;
+    private final ZipOutputStream zipOut;
+
+    private Entry   current;
+    private int     offset;
+    private int     position;
+    private boolean finished;
+    private boolean closed;
+
+    public StreamingZipInputStream(List<Entry> entries) {
+        this.entries = entries.iterator();
+        buffer = new Buffer();
+        zipOut = new ZipOutputStream(buffer);
+    }
+
+    @Override
+    public int read() throws IOException {
+        final byte[] b = new byte[1];
+        return read(b, 0, 1) == -1 ? -1 : (b[0] & 0xFF);
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        if (len == 0) {
+            return 0;
+        }
+        if (position == buffer.size() && !fill()) {
+            return -1;
+        }
+        final int n = Math.min(len, buffer.size() - position);
+        System.arraycopy(buffer.array(), position, b, off, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return buffer.size() - position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            zipOut.close();
+        }
+    }
+
+    /**
+     * Writes next part of archive to the buffer.
+     *
+     * @return {@code false} if there is no more data
+     */
+    private boolean fill() throws IOException {
+        buffer.reset();
+        position = 0;
+        while (buffer.size() == 0 && !finished) {
+            if (current == null) {
+                if (entries.hasNext()) {
+                    current = entries.next();
+                    offset = 0;
+                    zipOut.putNextEntry(createZipEntry(current));
+                } else {
+                    zipOut.finish();
+                    finished = true;
+                }
+            } else if (current.content != null && offset < current.content.length) {
+                final int n = Math.min(CHUNK_SIZE, current.content.length - offset);
+                zipOut.write(current.content, offset, n);
+                offset += n;
+            } else {
+                zipOut.closeEntry();
+                current = null;
+            }
+        }
+        return buffer.size() > 0;
+    }
+
+    private ZipEntry createZipEntry(Entry entry) {
+        final ZipEntry zipEntry = new ZipEntry(entry.name);
+        zipEntry.setTime(entry.time);
+        if (entry.content != null && isCompressed(entry.name)) {
+            final CRC32 crc = new CRC32();
+            crc.update(entry.content);
+            zipEntry.setMethod(ZipEntry.STORED);
+            zipEntry.setSize(entry.content.length);
+            zipEntry.setCompressedSize(entry.content.length);
+            zipEntry.setCrc(crc.getValue());
+        }
+        return zipEntry;
+    }
+
+    private static boolean isCompressed(String name) {
+        final int dot = name.lastIndexOf('.');
+        return dot > name.lastIndexOf('/') && COMPRESSED_EXTENSIONS.contains(name.substring(dot + 1).toLowerCase());
+    }
+
+    /** Gives access to the internal array to avoid copying of data. */
+    private static class Buffer extends ByteArrayOutputStream {
+        Buffer() {
+            super(CHUNK_SIZE * 2);
+        }
+
+        byte[] array() {
+            return buf;
+        }
+    }
+}
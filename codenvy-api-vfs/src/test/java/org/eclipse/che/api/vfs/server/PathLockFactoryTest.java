@@ -236,4 +236,134 @@ public class PathLockFactoryTest extends TestCase {
         waiter.await();
         assertEquals(2, acquired.get());
     }
+
+    public void testChildLockBlocksExclusiveParentLock() throws Exception {
+        final CountDownLatch starter = new CountDownLatch(1);
+        final CountDownLatch finisher = new CountDownLatch(1);
+        Thread t = new Thread() {
+            @Override
+            public void run() {
+                PathLockFactory.PathLock lock = pathLockFactory.getLock(path, false);
+                lock.acquire();
+                starter.countDown();
+                try {
+                    finisher.await();
+                } catch (InterruptedException ignored) {
+                } finally {
+                    lock.release();
+                }
+            }
+        };
+        t.start();
+        starter.await();
+        PathLockFactory.PathLock parentLock = pathLockFactory.getLock(path.getParent().getParent(), true);
+        try {
+            parentLock.acquire(100);
+            fail();
+        } catch (RuntimeException e) {
+            // OK
+        }
+        // Not exclusive lock of parent doesn't conflict with not exclusive lock of child.
+        pathLockFactory.getLock(path.getParent(), false).acquire(100).release();
+        finisher.countDown();
+        t.join();
+        parentLock.acquire(1000).release();
+        pathLockFactory.checkClean();
+    }
+
+    public void testRootLock() throws Exception {
+        final CountDownLatch starter = new CountDownLatch(1);
+        final CountDownLatch finisher = new CountDownLatch(1);
+        Thread t = new Thread() {
+            @Override
+            public void run() {
+                PathLockFactory.PathLock lock = pathLockFactory.getLock(Path.ROOT, true);
+                lock.acquire();
+                starter.countDown();
+                try {
+                    finisher.await();
+                } catch (InterruptedException ignored) {
+                } finally {
+                    lock.release();
+                }
+            }
+        };
+        t.start();
+        starter.await();
+        try {
+            pathLockFactory.getLock(Path.fromString("/x/y"), false).acquire(100);
+            fail();
+        } catch (RuntimeException e) {
+            // OK
+        }
+        finisher.countDown();
+        t.join();
+        pathLockFactory.getLock(Path.fromString("/x/y"), true).acquire(1000).release();
+        pathLockFactory.checkClean();
+    }
+
+    public void testExclusiveLocksOfDifferentPaths() throws Exception {
+        final CountDownLatch starter = new CountDownLatch(1);
+        final CountDownLatch finisher = new CountDownLatch(1);
+        Thread t = new Thread() {
+            @Override
+            public void run() {
+                PathLockFactory.PathLock lock = pathLockFactory.getLock(path, true);
+                lock.acquire();
+                starter.countDown();
+                try {
+                    finisher.await();
+                } catch (InterruptedException ignored) {
+                } finally {
+                    lock.release();
+                }
+            }
+        };
+        t.start();
+        starter.await();
+        try {
+            // Neither parent nor child of locked path, must not wait.
+            pathLockFactory.getLock(Path.fromString("/a/b/d"), true).acquire(100).release();
+            pathLockFactory.getLock(Path.fromString("/x"), true).acquire(100).release();
+        } finally {
+            finisher.countDown();
+        }
+        t.join();
+        assertEquals(0, pathLockFactory.getContendedAcquires());
+        pathLockFactory.checkClean();
+    }
+
+    public void testReleaseLockInOtherThread() throws Exception {
+        final PathLockFactory.PathLock lock = pathLockFactory.getLock(path, true).acquire();
+        final List<Throwable> errors = new ArrayList<>(1);
+        Thread t = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    // Lock acquired by other thread may be released, e.g. when work is handed over to other thread.
+                    lock.release();
+                    // Lock that isn't held at all is ignored.
+                    pathLockFactory.getLock(Path.fromString("/x/y"), false).release();
+                } catch (Throwable e) {
+                    errors.add(e);
+                }
+            }
+        };
+        t.start();
+        t.join();
+        assertTrue(errors.isEmpty());
+        pathLockFactory.checkClean();
+        final AtomicBoolean acquired = new AtomicBoolean(false);
+        t = new Thread() {
+            @Override
+            public void run() {
+                pathLockFactory.getLock(path, true).acquire(100).release();
+                acquired.set(true);
+            }
+        };
+        t.start();
+        t.join();
+        assertTrue(acquired.get());
+        pathLockFactory.checkClean();
+    }
 }
@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.server.impl.memory;
+
+import org.eclipse.che.api.vfs.server.LazyIterator;
+import org.eclipse.che.api.vfs.server.VirtualFile;
+import org.eclipse.che.commons.lang.Pair;
+import com.google.common.hash.Hashing;
+
+import java.io.ByteArrayInputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/** @author andrew00x */
+public class CountMd5SumsTest extends MemoryFileSystemTest {
+    private VirtualFile folder;
+    private VirtualFile file1;
+    private VirtualFile folder2;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        folder = mountPoint.getRoot().createFolder(getClass().getName());
+        file1 = folder.createFile("file1.txt", "text/plain", new ByteArrayInputStream(DEFAULT_CONTENT_BYTES));
+        folder2 = folder.createFolder("folder2");
+        folder2.createFile("file2.txt", "text/plain", new ByteArrayInputStream(DEFAULT_CONTENT_BYTES));
+    }
+
+    public void testCountMd5Sums() throws Exception {
+        final Map<String, String> md5Sums = countMd5Sums(folder);
+        assertEquals(2, md5Sums.size());
+        assertEquals(md5(DEFAULT_CONTENT), md5Sums.get("file1.txt"));
+        assertEquals(md5(DEFAULT_CONTENT), md5Sums.get("folder2/file2.txt"));
+    }
+
+    public void testCountMd5SumsAfterUpdate() throws Exception {
+        countMd5Sums(folder); // fill cache
+        folder2.getChild("file2.txt").updateContent(new ByteArrayInputStream("updated".getBytes()), null);
+        file1.rename("file1_renamed.txt", null, null);
+        folder2.createFile("file3.txt", "text/plain", new ByteArrayInputStream(DEFAULT_CONTENT_BYTES));
+        final Map<String, String> md5Sums = countMd5Sums(folder);
+        assertEquals(3, md5Sums.size());
+        assertEquals(md5(DEFAULT_CONTENT), md5Sums.get("file1_renamed.txt"));
+        assertEquals(md5("updated"), md5Sums.get("folder2/file2.txt"));
+        assertEquals(md5(DEFAULT_CONTENT), md5Sums.get("folder2/file3.txt"));
+    }
+
+    public void testCountMd5SumsAfterDelete() throws Exception {
+        countMd5Sums(folder); // fill cache
+        folder2.getChild("file2.txt").delete(null);
+        final Map<String, String> md5Sums = countMd5Sums(folder);
+        assertEquals(1, md5Sums.size());
+        assertEquals(md5(DEFAULT_CONTENT), md5Sums.get("file1.txt"));
+    }
+
+    public void testCountMd5SumsAfterMove() throws Exception {
+        countMd5Sums(folder); // fill cache
+        final VirtualFile target = mountPoint.getRoot().createFolder(getClass().getName() + "_target");
+        countMd5Sums(target); // fill cache
+        folder2.moveTo(target, null);
+        assertEquals(1, countMd5Sums(folder).size());
+        final Map<String, String> md5Sums = countMd5Sums(target);
+        assertEquals(1, md5Sums.size());
+        assertEquals(md5(DEFAULT_CONTENT), md5Sums.get("folder2/file2.txt"));
+    }
+
+    private Map<String, String> countMd5Sums(VirtualFile folder) throws Exception {
+        final Map<String, String> md5Sums = new HashMap<>();
+        final LazyIterator<Pair<String, String>> iterator = folder.countMd5Sums();
+        while (iterator.hasNext()) {
+            final Pair<String, String> md5Sum = iterator.next();
+            md5Sums.put(md5Sum.second, md5Sum.first);
+        }
+        return md5Sums;
+    }
+
+    private String md5(String content) {
+        return Hashing.md5().hashBytes(content.getBytes()).toString();
+    }
+}
@@ -10,13 +10,18 @@
  *******************************************************************************/
 package org.eclipse.che.api.vfs.server.impl.memory;
 
+import org.eclipse.che.api.vfs.server.ContentStream;
 import org.eclipse.che.api.vfs.server.VirtualFile;
+import org.eclipse.che.api.vfs.server.VirtualFileFilter;
+import com.google.common.io.ByteStreams;
 
 import org.everrest.core.impl.ContainerResponse;
 import org.everrest.core.tools.ByteArrayContainerResponseWriter;
 
 import java.io.ByteArrayInputStream;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.Random;
 import java.util.Set;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
@@ -114,6 +119,28 @@ public class ExportTest extends MemoryFileSystemTest {
         assertEquals(403, response.getStatus());
     }
 
+    public void testExportLargeAndCompressedFiles() throws Exception {
+        VirtualFile folder = mountPoint.getVirtualFileById(exportFolderId).createFolder("export_streaming");
+        byte[] content = new byte[100 * 1024];
+        new Random().nextBytes(content);
+        folder.createFile("file.bin", "application/octet-stream", new ByteArrayInputStream(content));
+        folder.createFile("image.png", "image/png", new ByteArrayInputStream(content));
+        ContentStream zip = folder.zip(VirtualFileFilter.ALL);
+        // Archive is created while it is read, length is unknown.
+        assertEquals(-1, zip.getLength());
+        ZipInputStream zipIn = new ZipInputStream(zip.getStream());
+        Set<String> names = new HashSet<>();
+        ZipEntry zipEntry;
+        while ((zipEntry = zipIn.getNextEntry()) != null) {
+            names.add(zipEntry.getName());
+            assertEquals(zipEntry.getName().endsWith(".png") ? ZipEntry.STORED : ZipEntry.DEFLATED, zipEntry.getMethod());
+            assertTrue(Arrays.equals(content, ByteStreams.toByteArray(zipIn)));
+            zipIn.closeEntry();
+        }
+        zipIn.close();
+        assertEquals(new HashSet<>(Arrays.asList("file.bin", "image.png")), names);
+    }
+
     private void checkZipItems(Set<String> expected, ZipInputStream zip) throws Exception {
         ZipEntry zipEntry;
         while ((zipEntry = zip.getNextEntry()) != null) {
@@ -0,0 +1,71 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.server.impl.memory;
+
+import org.eclipse.che.api.vfs.server.VirtualFile;
+import org.eclipse.che.api.vfs.server.search.FSLuceneSearcher;
+import org.eclipse.che.api.vfs.server.search.QueryExpression;
+import org.eclipse.che.commons.lang.IoUtil;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/** @author andrew00x */
+public class FSLuceneSearcherTest extends MemoryFileSystemTest {
+    private static final Set<String> INDEXED_TYPES = Collections.singleton("text/plain");
+
+    private File        indexDirectory;
+    private VirtualFile folder;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        indexDirectory = Files.createTempDirectory("index").toFile();
+        folder = mountPoint.getRoot().createFolder(getClass().getSimpleName());
+        folder.createFile("file1", "text/plain", new ByteArrayInputStream("to be or not to be".getBytes()));
+        folder.createFile("file2", "text/plain", new ByteArrayInputStream("to be or not to be".getBytes()));
+        folder.createFile("file3", "text/plain", new ByteArrayInputStream("to be or not to be".getBytes()));
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        IoUtil.deleteRecursive(indexDirectory);
+        super.tearDown();
+    }
+
+    public void testReopen() throws Exception {
+        FSLuceneSearcher searcher = new FSLuceneSearcher(indexDirectory, INDEXED_TYPES);
+        searcher.init(mountPoint);
+        assertEquals(3, searcher.search(new QueryExpression().setText("be")).length);
+        searcher.close();
+
+        // Changes which are made while searcher is closed.
+        folder.getChild("file1").updateContent("text/plain", new ByteArrayInputStream("updated".getBytes()), null);
+        folder.getChild("file2").delete(null);
+        folder.createFile("file4", "text/plain", new ByteArrayInputStream("to be or not to be".getBytes()));
+
+        searcher = new FSLuceneSearcher(indexDirectory, INDEXED_TYPES);
+        try {
+            searcher.init(mountPoint);
+            final String path = folder.getPath();
+            assertEquals(new HashSet<>(Arrays.asList(path + "/file3", path + "/file4")),
+                         new HashSet<>(Arrays.asList(searcher.search(new QueryExpression().setText("be")))));
+            assertEquals(Arrays.asList(path + "/file1"), Arrays.asList(searcher.search(new QueryExpression().setText("updated"))));
+        } finally {
+            searcher.close();
+        }
+    }
+}
@@ -17,6 +17,7 @@ import org.eclipse.che.api.vfs.server.observation.VirtualFileEvent;
 
 import org.everrest.core.impl.ContainerResponse;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.util.ArrayList;
 import java.util.Iterator;
@@ -112,4 +113,23 @@ public class ImportTest extends MemoryFileSystemTest {
 
         assertEquals(0, _events.size());
     }
+
+    public void testImportFilesWithoutFolderEntries() throws Exception {
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        ZipOutputStream zipOut = new ZipOutputStream(bout);
+        for (int i = 0; i < 100; i++) {
+            zipOut.putNextEntry(new ZipEntry("a/b" + (i % 10) + "/c/file" + i + ".txt"));
+            zipOut.write(DEFAULT_CONTENT_BYTES);
+        }
+        zipOut.close();
+        VirtualFile parent = mountPoint.getVirtualFileById(importTestRootId);
+        parent.unzip(new ByteArrayInputStream(bout.toByteArray()), false, 0);
+        for (int i = 0; i < 100; i++) {
+            VirtualFile file = parent.getChild("a/b" + (i % 10) + "/c/file" + i + ".txt");
+            assertNotNull(file);
+            checkFileContext(DEFAULT_CONTENT, "text/plain", file);
+        }
+        // 'a', 10 folders 'b', 10 folders 'c' and 100 files
+        assertEquals(121, events.size());
+    }
 }
@@ -116,6 +116,7 @@ public class SearcherTest extends MemoryFileSystemTest {
     }
 
     public void testDelete() throws Exception {
+        searcher.flush();
         searcherManager.maybeRefresh();
         IndexSearcher luceneSearcher = searcherManager.acquire();
         TopDocs topDocs = luceneSearcher.search(new TermQuery(new Term("path", file1)), 10);
@@ -123,6 +124,7 @@ public class SearcherTest extends MemoryFileSystemTest {
         searcherManager.release(luceneSearcher);
 
         mountPoint.getVirtualFile(file1).delete(null);
+        searcher.flush();
         searcherManager.maybeRefresh();
         luceneSearcher = searcherManager.acquire();
         topDocs = luceneSearcher.search(new TermQuery(new Term("path", file1)), 10);
@@ -131,6 +133,7 @@ public class SearcherTest extends MemoryFileSystemTest {
     }
 
     public void testDelete2() throws Exception {
+        searcher.flush();
         searcherManager.maybeRefresh();
         IndexSearcher luceneSearcher = searcherManager.acquire();
         TopDocs topDocs = luceneSearcher.search(new PrefixQuery(new Term("path", searchTestPath)), 10);
@@ -138,6 +141,7 @@ public class SearcherTest extends MemoryFileSystemTest {
         searcherManager.release(luceneSearcher);
 
         mountPoint.getVirtualFile(searchTestPath).delete(null);
+        searcher.flush();
         searcherManager.maybeRefresh();
         luceneSearcher = searcherManager.acquire();
         topDocs = luceneSearcher.search(new PrefixQuery(new Term("path", searchTestPath)), 10);
@@ -146,6 +150,7 @@ public class SearcherTest extends MemoryFileSystemTest {
     }
 
     public void testAdd() throws Exception {
+        searcher.flush();
         searcherManager.maybeRefresh();
         IndexSearcher luceneSearcher = searcherManager.acquire();
         TopDocs topDocs = luceneSearcher.search(new PrefixQuery(new Term("path", searchTestPath)), 10);
@@ -153,6 +158,7 @@ public class SearcherTest extends MemoryFileSystemTest {
         searcherManager.release(luceneSearcher);
         mountPoint.getVirtualFile(searchTestPath).createFile("new_file", "text/plain", new ByteArrayInputStream(DEFAULT_CONTENT_BYTES));
 
+        searcher.flush();
         searcherManager.maybeRefresh();
         luceneSearcher = searcherManager.acquire();
         topDocs = luceneSearcher.search(new PrefixQuery(new Term("path", searchTestPath)), 10);
@@ -161,6 +167,7 @@ public class SearcherTest extends MemoryFileSystemTest {
     }
 
     public void testUpdate() throws Exception {
+        searcher.flush();
         searcherManager.maybeRefresh();
         IndexSearcher luceneSearcher = searcherManager.acquire();
         TopDocs topDocs = luceneSearcher.search(
@@ -169,6 +176,7 @@ public class SearcherTest extends MemoryFileSystemTest {
         searcherManager.release(luceneSearcher);
         mountPoint.getVirtualFile(file2).updateContent("text/plain", new ByteArrayInputStream("updated content".getBytes()), null);
 
+        searcher.flush();
         searcherManager.maybeRefresh();
         luceneSearcher = searcherManager.acquire();
         topDocs = luceneSearcher.search(new QueryParser("text", new SimpleAnalyzer()).parse("updated"), 10);
@@ -177,6 +185,7 @@ public class SearcherTest extends MemoryFileSystemTest {
     }
 
     public void testMove() throws Exception {
+        searcher.flush();
         searcherManager.maybeRefresh();
         IndexSearcher luceneSearcher = searcherManager.acquire();
         String destination = searchTestFolder.createFolder("___destination").getPath();
@@ -186,6 +195,7 @@ public class SearcherTest extends MemoryFileSystemTest {
         searcherManager.release(luceneSearcher);
         mountPoint.getVirtualFile(file3).moveTo(mountPoint.getVirtualFile(destination), null);
 
+        searcher.flush();
         searcherManager.maybeRefresh();
         luceneSearcher = searcherManager.acquire();
         topDocs = luceneSearcher.search(new PrefixQuery(new Term("path", expected)), 10);
@@ -196,6 +206,7 @@ public class SearcherTest extends MemoryFileSystemTest {
     }
 
     public void testCopy() throws Exception {
+        searcher.flush();
         searcherManager.maybeRefresh();
         IndexSearcher luceneSearcher = searcherManager.acquire();
         String destination = searchTestFolder.createFolder("___destination").getPath();
@@ -205,6 +216,7 @@ public class SearcherTest extends MemoryFileSystemTest {
         searcherManager.release(luceneSearcher);
         mountPoint.getVirtualFile(file3).copyTo(mountPoint.getVirtualFile(destination));
 
+        searcher.flush();
         searcherManager.maybeRefresh();
         luceneSearcher = searcherManager.acquire();
         topDocs = luceneSearcher.search(new PrefixQuery(new Term("path", expected)), 10);
@@ -216,6 +228,7 @@ public class SearcherTest extends MemoryFileSystemTest {
 
     public void testRename() throws Exception {
         String newName = "___renamed";
+        searcher.flush();
         searcherManager.maybeRefresh();
         IndexSearcher luceneSearcher = searcherManager.acquire();
         TopDocs topDocs = luceneSearcher.search(new PrefixQuery(new Term("path", file3)), 10);
@@ -223,6 +236,7 @@ public class SearcherTest extends MemoryFileSystemTest {
         searcherManager.release(luceneSearcher);
         mountPoint.getVirtualFile(file2).rename(newName, null, null);
 
+        searcher.flush();
         searcherManager.maybeRefresh();
         luceneSearcher = searcherManager.acquire();
         topDocs = luceneSearcher.search(new PrefixQuery(new Term("path", searchTestPath + '/' + newName)), 10);
@@ -231,4 +245,32 @@ public class SearcherTest extends MemoryFileSystemTest {
         assertEquals(0, topDocs.totalHits);
         searcherManager.release(luceneSearcher);
     }
+
+    public void testUpdateManyTimes() throws Exception {
+        final VirtualFile file = mountPoint.getVirtualFile(file2);
+        for (int i = 0; i < 100; i++) {
+            file.updateContent("text/plain", new ByteArrayInputStream(("content" + i).getBytes()), null);
+        }
+        searcher.flush();
+        searcherManager.maybeRefresh();
+        IndexSearcher luceneSearcher = searcherManager.acquire();
+        TopDocs topDocs = luceneSearcher.search(new QueryParser("text", new SimpleAnalyzer()).parse("content99"), 10);
+        assertEquals(1, topDocs.totalHits);
+        topDocs = luceneSearcher.search(new QueryParser("text", new SimpleAnalyzer()).parse("content98"), 10);
+        assertEquals(0, topDocs.totalHits);
+        searcherManager.release(luceneSearcher);
+    }
+
+    public void testDeleteAndCreateWithSameName() throws Exception {
+        final VirtualFile parent = mountPoint.getVirtualFile(searchTestPath);
+        parent.delete(null);
+        final VirtualFile folder = searchTestFolder.createFolder("SearcherTest_Folder");
+        folder.createFile("new_file", "text/plain", new ByteArrayInputStream(DEFAULT_CONTENT_BYTES));
+        searcher.flush();
+        searcherManager.maybeRefresh();
+        IndexSearcher luceneSearcher = searcherManager.acquire();
+        TopDocs topDocs = luceneSearcher.search(new PrefixQuery(new Term("path", searchTestPath)), 10);
+        assertEquals(1, topDocs.totalHits);
+        searcherManager.release(luceneSearcher);
+    }
 }
@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.dto.benchmark;
+
+import org.eclipse.che.dto.definitions.ComplicatedDto;
+import org.eclipse.che.dto.definitions.SimpleDto;
+import org.eclipse.che.dto.server.DtoFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures basic operations with DTO objects: creation, cloning, serialization to and deserialization from JSON. {@link SimpleDto} is
+ * used as example of small DTO, e.g. link, {@link ComplicatedDto} as example of DTO with nested collections and DTOs, e.g. build request.
+ *
+ * @author andrew00x
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class DtoBenchmark {
+    private static final DtoFactory DTO_FACTORY = DtoFactory.getInstance();
+
+    private SimpleDto      simpleDto;
+    private String         simpleJson;
+    private ComplicatedDto complicatedDto;
+    private ComplicatedDto frozenComplicatedDto;
+    private String         complicatedJson;
+
+    @Setup
+    public void setUp() {
+        simpleDto = createSimpleDto(1);
+        simpleJson = simpleDto.toString();
+        final List<SimpleDto> list = new ArrayList<>();
+        final Map<String, SimpleDto> map = new HashMap<>();
+        for (int i = 0; i < 10; i++) {
+            list.add(createSimpleDto(i));
+            map.put("key" + i, createSimpleDto(i));
+        }
+        complicatedDto = DTO_FACTORY.createDto(ComplicatedDto.class)
+                                    .withStrings(Arrays.asList("a", "b", "c"))
+                                    .withSimpleEnum(ComplicatedDto.SimpleEnum.TWO)
+                                    .withSimpleDtos(list)
+                                    .withMap(map)
+                                    .withArrayOfArrayOfEnum(Arrays.asList(Arrays.asList(ComplicatedDto.SimpleEnum.ONE,
+                                                                                         ComplicatedDto.SimpleEnum.THREE)));
+        frozenComplicatedDto = DTO_FACTORY.freeze(DTO_FACTORY.clone(complicatedDto));
+        complicatedJson = complicatedDto.toString();
+    }
+
+    private static SimpleDto createSimpleDto(int i) {
+        return DTO_FACTORY.createDto(SimpleDto.class).withId(i).withName("name" + i).withDefault("default" + i);
+    }
+
+    @Benchmark
+    public SimpleDto createSimple() {
+        return createSimpleDto(1);
+    }
+
+    @Benchmark
+    public SimpleDto cloneSimple() {
+        return DTO_FACTORY.clone(simpleDto);
+    }
+
+    @Benchmark
+    public ComplicatedDto cloneComplicated() {
+        return DTO_FACTORY.clone(complicatedDto);
+    }
+
+    @Benchmark
+    public ComplicatedDto cloneFrozenComplicated() {
+        return DTO_FACTORY.clone(frozenComplicatedDto);
+    }
+
+    @Benchmark
+    public String toJsonSimple() {
+        return DTO_FACTORY.toJson(simpleDto);
+    }
+
+    @Benchmark
+    public String toJsonComplicated() {
+        return DTO_FACTORY.toJson(complicatedDto);
+    }
+
+    @Benchmark
+    public SimpleDto fromJsonSimple() throws IOException {
+        return DTO_FACTORY.createDtoFromJson(new StringReader(simpleJson), SimpleDto.class);
+    }
+
+    @Benchmark
+    public ComplicatedDto fromJsonComplicated() throws IOException {
+        return DTO_FACTORY.createDtoFromJson(new StringReader(complicatedJson), ComplicatedDto.class);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(DtoBenchmark.class.getSimpleName()).build()).run();
+    }
+}
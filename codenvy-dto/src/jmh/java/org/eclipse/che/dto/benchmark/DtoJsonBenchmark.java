@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.dto.benchmark;
+
+import org.eclipse.che.dto.DtoServerImpls;
+import org.eclipse.che.dto.definitions.ComplicatedDto;
+import org.eclipse.che.dto.definitions.SimpleDto;
+import org.eclipse.che.dto.server.DtoFactory;
+import com.google.gson.Gson;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares serialization of DTO through tree of JSON elements with streaming serialization.
+ *
+ * @author andrew00x
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class DtoJsonBenchmark {
+    private static final DtoFactory DTO_FACTORY = DtoFactory.getInstance();
+    private static final Gson       GSON        = new Gson();
+
+    /** Number of nested DTO objects. */
+    @Param({"10", "1000"})
+    public int size;
+
+    private ComplicatedDto dto;
+    private String         json;
+
+    @Setup
+    public void setUp() {
+        final List<SimpleDto> list = new ArrayList<>(size);
+        final Map<String, SimpleDto> map = new HashMap<>(size);
+        for (int i = 0; i < size; i++) {
+            final SimpleDto simpleDto = DTO_FACTORY.createDto(SimpleDto.class).withId(i).withName("name" + i).withDefault("default" + i);
+            list.add(simpleDto);
+            map.put("key" + i, simpleDto);
+        }
+        dto = DTO_FACTORY.createDto(ComplicatedDto.class)
+                         .withSimpleEnum(ComplicatedDto.SimpleEnum.ONE)
+                         .withSimpleDtos(list)
+                         .withMap(map);
+        json = dto.toString();
+    }
+
+    @Benchmark
+    public String serializeTree() {
+        return GSON.toJson(((DtoServerImpls.ComplicatedDtoImpl)dto).toJsonElement());
+    }
+
+    @Benchmark
+    public String serializeStream() throws IOException {
+        final StringWriter writer = new StringWriter();
+        DTO_FACTORY.toJson(dto, writer);
+        return writer.toString();
+    }
+
+    @Benchmark
+    public ComplicatedDto deserializeTree() {
+        return DTO_FACTORY.createDtoFromJson(json, ComplicatedDto.class);
+    }
+
+    @Benchmark
+    public ComplicatedDto deserializeStream() throws IOException {
+        return DTO_FACTORY.createDtoFromJson(new StringReader(json), ComplicatedDto.class);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(DtoJsonBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -11,8 +11,10 @@
 
 package org.eclipse.che.dto.generator;
 
+import org.eclipse.che.dto.server.Freezable;
 import org.eclipse.che.dto.server.JsonArrayImpl;
 import org.eclipse.che.dto.server.JsonSerializable;
+import org.eclipse.che.dto.server.JsonStreamSerializable;
 import org.eclipse.che.dto.server.JsonStringMapImpl;
 import org.eclipse.che.dto.shared.DelegateRule;
 import org.eclipse.che.dto.shared.DTOImpl;
@@ -22,6 +24,7 @@ import org.eclipse.che.dto.shared.JsonStringMap;
 import org.eclipse.che.dto.shared.SerializationIndex;
 import com.google.common.base.Preconditions;
 import com.google.common.primitives.Primitives;
+import com.google.gson.stream.JsonReader;
 
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
@@ -70,9 +73,12 @@ public class DtoImplServerTemplate extends DtoImpl {
         // equals, hashCode, serialization and copy constructor
         emitEqualsAndHashCode(methods, builder);
         emitSerializer(methods, builder);
+        emitStreamSerializer(methods, builder);
         emitDeserializer(methods, builder);
         emitDeserializerShortcut(builder);
+        emitStreamDeserializer(methods, builder);
         emitCopyConstructor(methods, builder);
+        emitFreeze(getters, builder);
         // Delegation DTO methods.
         emitDelegateMethods(builder);
         // "builder" method, it is method that set field and return "this" instance
@@ -186,6 +192,7 @@ public class DtoImplServerTemplate extends DtoImpl {
             builder.append("    ");
             builder.append(getFieldTypeAndAssignment(getter, fieldName));
         }
+        builder.append("    private boolean $frozen;\n");
         builder.append("\n");
     }
 
@@ -296,7 +303,16 @@ public class DtoImplServerTemplate extends DtoImpl {
         builder.append("\n");
         builder.append("    @Override\n");
         builder.append("    public String toJson() {\n");
-        builder.append("      return gson.toJson(toJsonElement());\n");
+        builder.append("      java.io.StringWriter json = new java.io.StringWriter();\n");
+        builder.append("      try {\n");
+        builder.append("        JsonWriter out = new JsonWriter(json);\n");
+        builder.append("        out.setSerializeNulls(true);\n");
+        builder.append("        out.setLenient(true);\n");
+        builder.append("        writeJson(out);\n");
+        builder.append("      } catch (java.io.IOException e) {\n");
+        builder.append("        throw new com.google.gson.JsonIOException(e);\n");
+        builder.append("      }\n");
+        builder.append("      return json.toString();\n");
         builder.append("    }\n");
         builder.append("\n");
         builder.append("    @Override\n");
@@ -305,6 +321,131 @@ public class DtoImplServerTemplate extends DtoImpl {
         builder.append("    }\n\n");
     }
 
+    /** Generates method that writes DTO to JSON stream directly without building tree of JSON elements. */
+    private void emitStreamSerializer(List<Method> getters, StringBuilder builder) {
+        builder.append("    @Override\n");
+        builder.append("    public void writeJson(JsonWriter out) throws java.io.IOException {\n");
+        if (isCompactJson()) {
+            // Compact form is rarely used, it's simpler to reuse tree based serializer for it.
+            builder.append("      gson.toJson(toJsonElement(), out);\n");
+        } else {
+            builder.append("      out.beginObject();\n");
+            for (Method getter : getters) {
+                builder.append("      out.name(\"").append(getJsonFieldName(getter.getName())).append("\");\n");
+                emitStreamSerializerImpl(expandType(getter.getGenericReturnType()), 0, builder, getJavaFieldName(getter.getName()),
+                                         "      ");
+            }
+            builder.append("      out.endObject();\n");
+        }
+        builder.append("    }\n\n");
+    }
+
+    /**
+     * Produces code that writes value of the type with the given variable name to JSON stream.
+     *
+     * @param expandedTypes
+     *         the type and its generic (and its generic (..)) expanded into a list, @see {@link #expandType(java.lang.reflect.Type)}
+     * @param depth
+     *         the depth (in the generics) for this recursive call. This can be used to index into {@code expandedTypes}
+     * @param inVar
+     *         the java variable that will be the input for serialization
+     * @param i
+     *         indentation string
+     */
+    private void emitStreamSerializerImpl(List<Type> expandedTypes, int depth, StringBuilder builder, String inVar, String i) {
+        final Type type = expandedTypes.get(depth);
+        final Class<?> rawClass = getRawClass(type);
+        final String value = depth == 0 ? "this." + inVar : inVar;
+        if (isList(rawClass) || isMap(rawClass)) {
+            final String childInVar = inVar + "_";
+            final String childInTypeName = getImplName(expandedTypes.get(depth + 1), false);
+            String j = i;
+            if (depth == 0) {
+                builder.append(i).append("this.").append(getEnsureName(inVar)).append("();\n");
+            } else {
+                builder.append(i).append("if (").append(value).append(" == null) {\n");
+                builder.append(i).append("  out.nullValue();\n");
+                builder.append(i).append("} else {\n");
+                j = i + "  ";
+            }
+            if (isList(rawClass)) {
+                builder.append(j).append("out.beginArray();\n");
+                builder.append(j).append("for (").append(childInTypeName).append(" ").append(childInVar).append(" : ").append(value)
+                       .append(") {\n");
+                emitStreamSerializerImpl(expandedTypes, depth + 1, builder, childInVar, j + "  ");
+                builder.append(j).append("}\n");
+                builder.append(j).append("out.endArray();\n");
+            } else {
+                final String entryVar = "entry" + depth;
+                builder.append(j).append("out.beginObject();\n");
+                builder.append(j).append("for (java.util.Map.Entry<String, ").append(childInTypeName).append("> ").append(entryVar)
+                       .append(" : ").append(value).append(".entrySet()) {\n");
+                builder.append(j).append("  out.name(").append(entryVar).append(".getKey());\n");
+                builder.append(j).append("  ").append(childInTypeName).append(" ").append(childInVar).append(" = ").append(entryVar)
+                       .append(".getValue();\n");
+                emitStreamSerializerImpl(expandedTypes, depth + 1, builder, childInVar, j + "  ");
+                builder.append(j).append("}\n");
+                builder.append(j).append("out.endObject();\n");
+            }
+            if (depth > 0) {
+                builder.append(i).append("}\n");
+            }
+        } else if (rawClass.isEnum()) {
+            builder.append(i).append("out.value(").append(value).append(" == null ? null : ").append(value).append(".name());\n");
+        } else if (getEnclosingTemplate().isDtoInterface(rawClass)) {
+            builder.append(i).append("if (").append(value).append(" == null) {\n");
+            builder.append(i).append("  out.nullValue();\n");
+            builder.append(i).append("} else {\n");
+            builder.append(i).append("  ((").append(getImplNameForDto(rawClass)).append(")").append(value).append(").writeJson(out);\n");
+            builder.append(i).append("}\n");
+        } else if (rawClass.equals(String.class)
+                   || rawClass == Integer.class
+                   || rawClass == Long.class
+                   || rawClass == Double.class
+                   || rawClass == Float.class
+                   || rawClass == Short.class
+                   || rawClass == Byte.class) {
+            // Writes null if value is null.
+            builder.append(i).append("out.value(").append(value).append(");\n");
+        } else if (rawClass == float.class) {
+            // Write float as Number, otherwise it is converted to double and loses its string representation, e.g. 0.1 vs 0.10000000149.
+            builder.append(i).append("out.value(Float.valueOf(").append(value).append("));\n");
+        } else if (rawClass == boolean.class
+                   || rawClass == int.class
+                   || rawClass == long.class
+                   || rawClass == double.class
+                   || rawClass == short.class
+                   || rawClass == byte.class) {
+            builder.append(i).append("out.value(").append(value).append(");\n");
+        } else if (rawClass == Boolean.class) {
+            builder.append(i).append("if (").append(value).append(" == null) {\n");
+            builder.append(i).append("  out.nullValue();\n");
+            builder.append(i).append("} else {\n");
+            builder.append(i).append("  out.value(").append(value).append(".booleanValue());\n");
+            builder.append(i).append("}\n");
+        } else {
+            final Class<?> dtoImplementation = getEnclosingTemplate().getDtoImplementation(rawClass);
+            if (dtoImplementation != null) {
+                final String implName = dtoImplementation.getCanonicalName();
+                builder.append(i).append("if (").append(value).append(" == null) {\n");
+                builder.append(i).append("  out.nullValue();\n");
+                builder.append(i).append("} else {\n");
+                if (JsonStreamSerializable.class.isAssignableFrom(dtoImplementation)) {
+                    builder.append(i).append("  ((").append(implName).append(")").append(value).append(").writeJson(out);\n");
+                } else {
+                    // Implementation is generated by older version of generator.
+                    builder.append(i).append("  gson.toJson(((").append(implName).append(")").append(value)
+                           .append(").toJsonElement(), out);\n");
+                }
+                builder.append(i).append("}\n");
+            } else {
+                throw new IllegalArgumentException("Unable to generate server implementation for DTO interface " +
+                                                   getDtoInterface().getCanonicalName() + ". Type " + rawClass +
+                                                   " is not allowed to use in DTO interface.");
+            }
+        }
+    }
+
     private void emitSerializeFieldForMethod(Method getter, final StringBuilder builder) {
         final String jsonFieldName = getJsonFieldName(getter.getName());
         final String fieldNameOut = jsonFieldName + "Out";
@@ -471,6 +612,131 @@ public class DtoImplServerTemplate extends DtoImpl {
         builder.append("    }\n\n");
     }
 
+    /** Generates a static factory method that reads new instance from JSON stream directly without building tree of JSON elements. */
+    private void emitStreamDeserializer(List<Method> getters, StringBuilder builder) {
+        builder.append("    public static ").append(getImplClassName())
+               .append(" fromJsonReader(JsonReader in) throws java.io.IOException {\n");
+        if (isCompactJson()) {
+            // Compact form is rarely used, it's simpler to reuse tree based deserializer for it.
+            builder.append("      return fromJsonElement(new JsonParser().parse(in));\n");
+            builder.append("    }\n\n");
+            return;
+        }
+        builder.append("      if (in.peek() == JsonToken.NULL) {\n");
+        builder.append("        in.nextNull();\n");
+        builder.append("        return null;\n");
+        builder.append("      }\n\n");
+        builder.append("      ").append(getImplClassName()).append(" dto = new ").append(getImplClassName()).append("();\n");
+        builder.append("      in.beginObject();\n");
+        builder.append("      while (in.hasNext()) {\n");
+        builder.append("        switch (in.nextName()) {\n");
+        for (Method getter : getters) {
+            final String fieldName = getJsonFieldName(getter.getName());
+            final String fieldNameOut = fieldName + "Out";
+            builder.append("          case \"").append(fieldName).append("\": {\n");
+            emitStreamDeserializerImpl(expandType(getter.getGenericReturnType()), 0, builder, fieldNameOut, "            ");
+            builder.append("            dto.").append(getSetterName(fieldName)).append("(").append(fieldNameOut).append(");\n");
+            builder.append("            break;\n");
+            builder.append("          }\n");
+        }
+        builder.append("          default:\n");
+        builder.append("            in.skipValue();\n");
+        builder.append("        }\n");
+        builder.append("      }\n");
+        builder.append("      in.endObject();\n");
+        builder.append("      return dto;\n");
+        builder.append("    }\n\n");
+    }
+
+    /**
+     * Produces code that reads value of the type from JSON stream.
+     *
+     * @param expandedTypes
+     *         the type and its generic (and its generic (..)) expanded into a list, @see {@link #expandType(java.lang.reflect.Type)}
+     * @param depth
+     *         the depth (in the generics) for this recursive call. This can be used to index into {@code expandedTypes}
+     * @param outVar
+     *         the java variable that will be the output for deserialization
+     * @param i
+     *         indentation string
+     */
+    private void emitStreamDeserializerImpl(List<Type> expandedTypes, int depth, StringBuilder builder, String outVar, String i) {
+        final Type type = expandedTypes.get(depth);
+        final Class<?> rawClass = getRawClass(type);
+        if (isList(rawClass) || isMap(rawClass)) {
+            final String childOutVar = outVar + "_";
+            builder.append(i).append(getImplName(type, false)).append(" ").append(outVar).append(" = null;\n");
+            builder.append(i).append("if (in.peek() == JsonToken.NULL) {\n");
+            builder.append(i).append("  in.nextNull();\n");
+            builder.append(i).append("} else {\n");
+            builder.append(i).append("  ").append(outVar).append(" = new ").append(getImplName(type, true)).append("();\n");
+            if (isList(rawClass)) {
+                builder.append(i).append("  in.beginArray();\n");
+                builder.append(i).append("  while (in.hasNext()) {\n");
+                emitStreamDeserializerImpl(expandedTypes, depth + 1, builder, childOutVar, i + "    ");
+                builder.append(i).append("    ").append(outVar).append(".add(").append(childOutVar).append(");\n");
+                builder.append(i).append("  }\n");
+                builder.append(i).append("  in.endArray();\n");
+            } else {
+                final String keyVar = "key" + depth;
+                builder.append(i).append("  in.beginObject();\n");
+                builder.append(i).append("  while (in.hasNext()) {\n");
+                builder.append(i).append("    String ").append(keyVar).append(" = in.nextName();\n");
+                emitStreamDeserializerImpl(expandedTypes, depth + 1, builder, childOutVar, i + "    ");
+                builder.append(i).append("    ").append(outVar).append(".put(").append(keyVar).append(", ").append(childOutVar)
+                       .append(");\n");
+                builder.append(i).append("  }\n");
+                builder.append(i).append("  in.endObject();\n");
+            }
+            builder.append(i).append("}\n");
+        } else if (getEnclosingTemplate().isDtoInterface(rawClass)) {
+            builder.append(i).append(getImplName(rawClass, false)).append(" ").append(outVar).append(" = ")
+                   .append(getImplNameForDto(rawClass)).append(".fromJsonReader(in);\n");
+        } else if (rawClass.isPrimitive()) {
+            builder.append(i).append(rawClass.getSimpleName()).append(" ").append(outVar).append(" = ");
+            if (rawClass == boolean.class) {
+                builder.append("in.nextBoolean()");
+            } else if (rawClass == long.class) {
+                builder.append("in.nextLong()");
+            } else if (rawClass == double.class) {
+                builder.append("in.nextDouble()");
+            } else if (rawClass == int.class) {
+                builder.append("in.nextInt()");
+            } else {
+                // float, short, byte
+                builder.append("(").append(rawClass.getSimpleName()).append(")")
+                       .append(rawClass == float.class ? "in.nextDouble()" : "in.nextInt()");
+            }
+            builder.append(";\n");
+        } else {
+            final Class<?> dtoImplementation = getEnclosingTemplate().getDtoImplementation(rawClass);
+            if (dtoImplementation != null) {
+                final String implName = dtoImplementation.getCanonicalName();
+                builder.append(i).append(getImplName(rawClass, false)).append(" ").append(outVar).append(" = ");
+                if (hasStreamDeserializer(dtoImplementation)) {
+                    builder.append(implName).append(".fromJsonReader(in);\n");
+                } else {
+                    // Implementation is generated by older version of generator.
+                    builder.append(implName).append(".fromJsonElement(new JsonParser().parse(in));\n");
+                }
+            } else {
+                // Use gson to handle all other types.
+                String rawClassName = rawClass.getName().replace('$', '.');
+                builder.append(i).append(rawClassName).append(" ").append(outVar).append(" = gson.getAdapter(").append(rawClassName)
+                       .append(".class).read(in);\n");
+            }
+        }
+    }
+
+    private static boolean hasStreamDeserializer(Class<?> dtoImplementation) {
+        try {
+            dtoImplementation.getMethod("fromJsonReader", JsonReader.class);
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
     private void emitDeserializeFieldForMethod(Method method, StringBuilder builder) {
         final String fieldName = getJsonFieldName(method.getName());
         final String fieldNameIn = fieldName + "In";
@@ -599,7 +865,7 @@ public class DtoImplServerTemplate extends DtoImpl {
         }
         builder.append(" implements ");
         builder.append(dtoInterface.getCanonicalName());
-        builder.append(", JsonSerializable ");
+        builder.append(", JsonStreamSerializable, Freezable ");
         builder.append(" {\n\n");
         emitFactoryMethod(builder);
         emitDefaultConstructor(builder);
@@ -644,6 +910,7 @@ public class DtoImplServerTemplate extends DtoImpl {
         builder.append("(");
         builder.append(paramType);
         builder.append(" v) {\n");
+        builder.append("      $checkNotFrozen();\n");
         builder.append("      this.");
         builder.append(fieldName);
         builder.append(" = ");
@@ -666,6 +933,7 @@ public class DtoImplServerTemplate extends DtoImpl {
         builder.append("(");
         builder.append(paramType);
         builder.append(" v) {\n");
+        builder.append("      $checkNotFrozen();\n");
         builder.append("      this.");
         builder.append(fieldName);
         builder.append(" = ");
@@ -684,6 +952,7 @@ public class DtoImplServerTemplate extends DtoImpl {
         builder.append("(");
         builder.append(getTypeArgumentImplName((ParameterizedType)method.getGenericReturnType(), 0));
         builder.append(" v) {\n      ");
+        builder.append("$checkNotFrozen();\n      ");
         builder.append(getEnsureName(fieldName));
         builder.append("();\n      ");
         builder.append(fieldName);
@@ -703,6 +972,7 @@ public class DtoImplServerTemplate extends DtoImpl {
         builder.append("(String k, ");
         builder.append(getTypeArgumentImplName((ParameterizedType)method.getGenericReturnType(), 1));
         builder.append(" v) {\n      ");
+        builder.append("$checkNotFrozen();\n      ");
         builder.append(getEnsureName(fieldName));
         builder.append("();\n      ");
         builder.append(fieldName);
@@ -715,6 +985,7 @@ public class DtoImplServerTemplate extends DtoImpl {
         builder.append("    public void ");
         builder.append(getClearName(fieldName));
         builder.append("() {\n      ");
+        builder.append("$checkNotFrozen();\n      ");
         builder.append(getEnsureName(fieldName));
         builder.append("();\n      ");
         builder.append(fieldName);
@@ -722,17 +993,30 @@ public class DtoImplServerTemplate extends DtoImpl {
         builder.append("    }\n\n");
     }
 
+    /**
+     * Emits copy constructor. If origin is instance of the same implementation its fields are read directly, that helps avoid creation of
+     * wrappers for collections and additional checks in getters.
+     */
     private void emitCopyConstructor(List<Method> getters, StringBuilder builder) {
         String dtoInterface = getDtoInterface().getCanonicalName();
         String implClassName = getImplClassName();
         builder.append("    public ").append(implClassName).append("(").append(dtoInterface).append(" origin) {\n");
+        builder.append("      if (origin instanceof ").append(implClassName).append(") {\n");
+        builder.append("        ").append(implClassName).append(" originImpl = (").append(implClassName).append(")origin;\n");
+        for (Method method : getters) {
+            emitDeepCopyForGetters(expandType(method.getGenericReturnType()), 0, builder,
+                                   "originImpl." + getJavaFieldName(method.getName()), method, "        ");
+        }
+        builder.append("      } else {\n");
         for (Method method : getters) {
-            emitDeepCopyForGetters(expandType(method.getGenericReturnType()), 0, builder, "origin", method, "      ");
+            emitDeepCopyForGetters(expandType(method.getGenericReturnType()), 0, builder, "origin." + method.getName() + "()", method,
+                                   "        ");
         }
+        builder.append("      }\n");
         builder.append("    }\n\n");
     }
 
-    private void emitDeepCopyForGetters(List<Type> expandedTypes, int depth, StringBuilder builder, String origin, Method getter,
+    private void emitDeepCopyForGetters(List<Type> expandedTypes, int depth, StringBuilder builder, String source, Method getter,
                                         String i) {
         String getterName = getter.getName();
         String fieldName = getJavaFieldName(getterName);
@@ -743,24 +1027,31 @@ public class DtoImplServerTemplate extends DtoImpl {
         String rawTypeName = getImplName(type, false);
 
         if (isList(rawClass) || isMap(rawClass)) {
-            builder.append(i).append(rawTypeName).append(" ").append(fieldNameIn).append(" = ").append(origin).append(".")
-                   .append(getterName).append("();\n");
+            builder.append(i).append(rawTypeName).append(" ").append(fieldNameIn).append(" = ").append(source).append(";\n");
             builder.append(i).append("if (").append(fieldNameIn).append(" != null) {\n");
-            builder.append(i).append("  ").append(rawTypeName).append(" ").append(fieldNameOut)
-                   .append(" = new ").append(getImplName(type, true)).append("();\n");
+            builder.append(i).append("  ").append(rawTypeName).append(" ").append(fieldNameOut).append(" = ");
+            emitNewCollection(type, fieldNameIn, builder);
+            builder.append(";\n");
             emitDeepCopyCollections(expandedTypes, depth, builder, fieldNameIn, fieldNameOut, i);
             builder.append(i).append("  ").append("this.").append(fieldName).append(" = ").append(fieldNameOut).append(";\n");
             builder.append(i).append("}\n");
         } else if (getEnclosingTemplate().isDtoInterface(rawClass)) {
-            builder.append(i).append(rawTypeName).append(" ").append(fieldNameIn).append(" = ").append(origin).append(".")
-                   .append(getterName).append("();\n");
+            builder.append(i).append(rawTypeName).append(" ").append(fieldNameIn).append(" = ").append(source).append(";\n");
             builder.append(i).append("this.").append(fieldName).append(" = ");
             emitCheckNullAndCopyDto(rawClass, fieldNameIn, builder);
             builder.append(";\n");
         } else {
-            builder.append(i).append("this.").append(fieldName).append(" = ")
-                   .append(origin).append(".").append(getterName).append("();\n");
+            builder.append(i).append("this.").append(fieldName).append(" = ").append(source).append(";\n");
+        }
+    }
+
+    /** Emits creation of new collection for copying content of collection {@code varIn}. Lists are created with required capacity. */
+    private void emitNewCollection(Type type, String varIn, StringBuilder builder) {
+        builder.append("new ").append(getImplName(type, true)).append("(");
+        if (isList(getRawClass(type))) {
+            builder.append(varIn).append(".size()");
         }
+        builder.append(")");
     }
 
     private void emitDeepCopyCollections(List<Type> expandedTypes, int depth, StringBuilder builder, String varIn, String varOut,
@@ -782,11 +1073,15 @@ public class DtoImplServerTemplate extends DtoImpl {
                     entryVar).append(".getValue();\n");
         }
         if (isList(childRawType) || isMap(childRawType)) {
+            builder.append(i).append("    ").append(childTypeName).append(" ").append(childVarOut).append(" = null;\n");
             builder.append(i).append("    if (").append(childVarIn).append(" != null) {\n");
-            builder.append(i).append("      ").append(childTypeName).append(" ").append(childVarOut)
-                   .append(" = new ").append(getImplName(expandedTypes.get(depth + 1), true)).append("();\n");
+            builder.append(i).append("      ").append(childVarOut).append(" = ");
+            emitNewCollection(expandedTypes.get(depth + 1), childVarIn, builder);
+            builder.append(";\n");
             emitDeepCopyCollections(expandedTypes, depth + 1, builder, childVarIn, childVarOut, i + "    ");
-            builder.append(i).append("      ").append(varOut);
+            builder.append(i).append("    ").append("}\n");
+            // Keep null elements, copy must have the same size as origin.
+            builder.append(i).append("    ").append(varOut);
             if (isList(rawClass)) {
                 builder.append(".add(");
             } else {
@@ -794,7 +1089,6 @@ public class DtoImplServerTemplate extends DtoImpl {
             }
             builder.append(childVarOut);
             builder.append(");\n");
-            builder.append(i).append("    ").append("}\n");
         } else {
             builder.append(i).append("      ").append(varOut);
             if (isList(rawClass)) {
@@ -817,6 +1111,114 @@ public class DtoImplServerTemplate extends DtoImpl {
         builder.append(fieldName).append(" == null ? null : ").append("new ").append(implName).append("(").append(fieldName).append(")");
     }
 
+    /**
+     * Emits implementation of {@link Freezable}. Collections are replaced with unmodifiable copies and nested DTOs are frozen. Fields that
+     * are inherited from implementation of super DTO interface are frozen by super implementation.
+     */
+    private void emitFreeze(List<Method> getters, StringBuilder builder) {
+        builder.append("    @Override\n");
+        builder.append("    public void freeze() {\n");
+        builder.append("      if ($frozen) {\n");
+        builder.append("        return;\n");
+        builder.append("      }\n");
+        if (isSuperImplFreezable()) {
+            builder.append("      super.freeze();\n");
+        }
+        for (Method getter : getters) {
+            final String fieldName = getJavaFieldName(getter.getName());
+            final List<Type> expandedTypes = expandType(getter.getGenericReturnType());
+            final Class<?> rawClass = getRawClass(expandedTypes.get(0));
+            if (isList(rawClass) || isMap(rawClass)) {
+                builder.append("      ").append(getEnsureName(fieldName)).append("();\n");
+                emitFreezeImpl(expandedTypes, 0, builder, "this." + fieldName, fieldName + "Frozen", "      ");
+                builder.append("      this.").append(fieldName).append(" = ").append(fieldName).append("Frozen;\n");
+            } else if (isFreezable(rawClass)) {
+                emitFreezeImpl(expandedTypes, 0, builder, "this." + fieldName, null, "      ");
+            }
+        }
+        builder.append("      $frozen = true;\n");
+        builder.append("    }\n\n");
+        builder.append("    @Override\n");
+        builder.append("    public boolean frozen() {\n");
+        builder.append("      return $frozen;\n");
+        builder.append("    }\n\n");
+        builder.append("    private void $checkNotFrozen() {\n");
+        builder.append("      if ($frozen) {\n");
+        builder.append("        throw new IllegalStateException(\"Frozen DTO may not be modified. \");\n");
+        builder.append("      }\n");
+        builder.append("    }\n\n");
+    }
+
+    /**
+     * Produces code that freezes value of variable {@code inVar}. Collections are copied in unmodifiable collections that are assigned
+     * to new variable {@code outVar}. Other values are frozen in place, if they support it.
+     */
+    private void emitFreezeImpl(List<Type> expandedTypes, int depth, StringBuilder builder, String inVar, String outVar, String i) {
+        final Type type = expandedTypes.get(depth);
+        final Class<?> rawClass = getRawClass(type);
+        if (isList(rawClass) || isMap(rawClass)) {
+            final Type childType = expandedTypes.get(depth + 1);
+            final Class<?> childRawClass = getRawClass(childType);
+            final String childTypeName = getImplName(childType, false);
+            final String childVar = "v" + depth;
+            final String copyVar = "copy" + depth;
+            final String entryVar = "entry" + depth;
+            builder.append(i).append(getImplName(type, false)).append(" ").append(outVar).append(" = null;\n");
+            builder.append(i).append("if (").append(inVar).append(" != null) {\n");
+            builder.append(i).append("  ").append(getImplName(type, false)).append(" ").append(copyVar).append(" = ");
+            if (isList(rawClass)) {
+                builder.append("new ").append(getImplName(type, true)).append("(").append(inVar).append(".size());\n");
+                builder.append(i).append("  for (").append(childTypeName).append(" ").append(childVar).append(" : ").append(inVar)
+                       .append(") {\n");
+            } else {
+                // Keep order of entries.
+                builder.append("new java.util.LinkedHashMap<String, ").append(childTypeName).append(">();\n");
+                builder.append(i).append("  for (java.util.Map.Entry<String, ").append(childTypeName).append("> ").append(entryVar)
+                       .append(" : ").append(inVar).append(".entrySet()) {\n");
+                builder.append(i).append("    ").append(childTypeName).append(" ").append(childVar).append(" = ").append(entryVar)
+                       .append(".getValue();\n");
+            }
+            String childOutVar = childVar;
+            if (isList(childRawClass) || isMap(childRawClass)) {
+                childOutVar = childVar + "Frozen";
+                emitFreezeImpl(expandedTypes, depth + 1, builder, childVar, childOutVar, i + "    ");
+            } else if (isFreezable(childRawClass)) {
+                emitFreezeImpl(expandedTypes, depth + 1, builder, childVar, null, i + "    ");
+            }
+            builder.append(i).append("    ").append(copyVar);
+            if (isList(rawClass)) {
+                builder.append(".add(");
+            } else {
+                builder.append(".put(").append(entryVar).append(".getKey(), ");
+            }
+            builder.append(childOutVar).append(");\n");
+            builder.append(i).append("  }\n");
+            builder.append(i).append("  ").append(outVar).append(" = java.util.Collections.")
+                   .append(isList(rawClass) ? "unmodifiableList(" : "unmodifiableMap(").append(copyVar).append(");\n");
+            builder.append(i).append("}\n");
+        } else {
+            builder.append(i).append("if (").append(inVar).append(" instanceof Freezable) {\n");
+            builder.append(i).append("  ((Freezable)").append(inVar).append(").freeze();\n");
+            builder.append(i).append("}\n");
+        }
+    }
+
+    /** Tests whether value of specified type may need to be frozen. */
+    private boolean isFreezable(Class<?> rawClass) {
+        return getEnclosingTemplate().isDtoInterface(rawClass) || getEnclosingTemplate().getDtoImplementation(rawClass) != null;
+    }
+
+    /** Tests whether this implementation extends implementation of super DTO interface that supports freezing. */
+    private boolean isSuperImplFreezable() {
+        final Class<?> superType = getSuperInterface(getDtoInterface());
+        if (superType == null || superType == JsonSerializable.class) {
+            return false;
+        }
+        final Class<?> superTypeImpl = getEnclosingTemplate().getDtoImplementation(superType);
+        // Implementation that is generated in the same template supports freezing.
+        return superTypeImpl == null || Freezable.class.isAssignableFrom(superTypeImpl);
+    }
+
     /** Emit a method that ensures a collection is initialized. */
     private void emitEnsureCollection(Method method, String fieldName, StringBuilder builder) {
         builder.append("    protected void ");
@@ -191,7 +191,9 @@ public class DtoTemplate {
         builder.append(packageName);
         builder.append(";\n\n");
         if ("server".equals(implType)) {
+            builder.append("import org.eclipse.che.dto.server.Freezable;\n");
             builder.append("import org.eclipse.che.dto.server.JsonSerializable;\n");
+            builder.append("import org.eclipse.che.dto.server.JsonStreamSerializable;\n");
             builder.append("\n");
             builder.append("import com.google.gson.Gson;\n");
             builder.append("import com.google.gson.GsonBuilder;\n");
@@ -201,6 +203,9 @@ public class DtoTemplate {
             builder.append("import com.google.gson.JsonObject;\n");
             builder.append("import com.google.gson.JsonParser;\n");
             builder.append("import com.google.gson.JsonPrimitive;\n");
+            builder.append("import com.google.gson.stream.JsonReader;\n");
+            builder.append("import com.google.gson.stream.JsonToken;\n");
+            builder.append("import com.google.gson.stream.JsonWriter;\n");
             builder.append("\n");
             builder.append("import java.util.List;\n");
             builder.append("import java.util.Map;\n");
@@ -235,7 +240,7 @@ public class DtoTemplate {
             for (DtoImpl dto : getDtoInterfaces()) {
                 String dtoInterface = dto.getDtoInterface().getCanonicalName();
                 builder.append("    dtoFactory.registerProvider(").append(dtoInterface).append(".class").append(", ")
-                       .append("new org.eclipse.che.dto.server.DtoProvider<").append(dtoInterface).append(">() {\n");
+                       .append("new org.eclipse.che.dto.server.JsonStreamDtoProvider<").append(dtoInterface).append(">() {\n");
                 builder.append("        public Class<? extends ").append(dtoInterface).append("> getImplClass() {\n")
                        .append("            return ").append(dto.getImplClassName()).append(".class;\n");
                 builder.append("        }\n\n");
@@ -248,6 +253,10 @@ public class DtoTemplate {
                 builder.append("        public ").append(dtoInterface).append(" fromJson(com.google.gson.JsonElement json) {\n")
                        .append("            return ").append(dto.getImplClassName()).append(".fromJsonElement(json);\n");
                 builder.append("        }\n\n");
+                builder.append("        public ").append(dtoInterface)
+                       .append(" fromJson(com.google.gson.stream.JsonReader json) throws java.io.IOException {\n")
+                       .append("            return ").append(dto.getImplClassName()).append(".fromJsonReader(json);\n");
+                builder.append("        }\n\n");
                 builder.append("        public ").append(dtoInterface).append(" clone(").append(dtoInterface).append(" origin) {\n")
                        .append("            return new ").append(dto.getImplClassName()).append("(origin);\n");
                 builder.append("        }\n");
@@ -20,16 +20,23 @@ import org.eclipse.che.dto.shared.JsonStringMap;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
 import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.google.gson.stream.MalformedJsonException;
 
-import java.io.BufferedReader;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.io.Writer;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -103,6 +110,8 @@ public final class DtoFactory {
 
             if (dtoInterface != null) {
                 provider = getDtoProvider(dtoInterface);
+                // Remember provider, next time don't need to search for DTO interface.
+                dtoImpl2Providers.put(implClass, provider);
             }
         }
 
@@ -113,6 +122,31 @@ public final class DtoFactory {
         return (T)provider.clone(origin);
     }
 
+    /**
+     * Makes DTO object immutable. Frozen DTO may be shared without cloning, e.g. used as key of map or passed to other threads. Any
+     * attempt to modify frozen DTO fails with {@code IllegalStateException}. Clone of frozen DTO, see {@link #clone(Object)}, is not
+     * frozen.
+     *
+     * @param dto
+     *         DTO object
+     * @return the same DTO object after freezing
+     * @throws IllegalArgumentException
+     *         if specified object doesn't support freezing
+     * @see Freezable
+     */
+    public <T> T freeze(T dto) {
+        if (dto instanceof Freezable) {
+            ((Freezable)dto).freeze();
+            return dto;
+        }
+        throw new IllegalArgumentException("Freezable instance required. ");
+    }
+
+    /** Tests whether specified DTO object is frozen. */
+    public boolean isFrozen(Object dto) {
+        return dto instanceof Freezable && ((Freezable)dto).frozen();
+    }
+
     public <T> String toJson(T dto) {
         if (dto instanceof JsonSerializable) {
             return ((JsonSerializable)dto).toJson();
@@ -120,6 +154,48 @@ public final class DtoFactory {
         throw new IllegalArgumentException("JsonSerializable instance required. ");
     }
 
+    /**
+     * Writes JSON representation of DTO object to the specified writer. DTO objects are written directly to the stream without building
+     * intermediate string or tree of JSON elements. Besides DTO objects this method accepts collections and maps of DTO objects.
+     *
+     * @param dto
+     *         DTO object, collection or map of DTO objects
+     * @param writer
+     *         writer
+     * @throws IOException
+     *         if an i/o error occurs
+     */
+    public void toJson(Object dto, Writer writer) throws IOException {
+        final JsonWriter out = new JsonWriter(writer);
+        out.setSerializeNulls(true);
+        out.setLenient(true);
+        writeJson(dto, out);
+        out.flush();
+    }
+
+    private void writeJson(Object value, JsonWriter out) throws IOException {
+        if (value == null) {
+            out.nullValue();
+        } else if (value instanceof JsonStreamSerializable) {
+            ((JsonStreamSerializable)value).writeJson(out);
+        } else if (value instanceof Collection) {
+            out.beginArray();
+            for (Object item : (Collection<?>)value) {
+                writeJson(item, out);
+            }
+            out.endArray();
+        } else if (value instanceof Map) {
+            out.beginObject();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>)value).entrySet()) {
+                out.name(String.valueOf(entry.getKey()));
+                writeJson(entry.getValue(), out);
+            }
+            out.endObject();
+        } else {
+            gson.toJson(value, value.getClass(), out);
+        }
+    }
+
     /**
      * Creates new instance of class which implements specified DTO interface.
      *
@@ -159,18 +235,24 @@ public final class DtoFactory {
      *         DTO interface
      * @throws IllegalArgumentException
      *         if can't provide any implementation for specified interface
+     * @throws JsonSyntaxException
+     *         if JSON data is empty or malformed
      * @throws IOException
      *         if an i/o error occurs
      */
     public <T> T createDtoFromJson(Reader json, Class<T> dtoInterface) throws IOException {
-        DtoProvider<T> dtoProvider = getDtoProvider(dtoInterface);
-        StringBuilder sb = new StringBuilder();
-        BufferedReader br = new BufferedReader(json);
-        String line;
-        while ((line = br.readLine()) != null) {
-            sb.append(line);
+        final DtoProvider<T> dtoProvider = getDtoProvider(dtoInterface);
+        final JsonReader reader = newJsonReader(json);
+        try {
+            if (isEmptyDocument(reader)) {
+                throw new JsonSyntaxException("Empty JSON document");
+            }
+            final T dto = readDto(dtoProvider, reader);
+            checkEndOfDocument(reader);
+            return dto;
+        } catch (MalformedJsonException | IllegalStateException | NumberFormatException e) {
+            throw new JsonSyntaxException(e);
         }
-        return dtoProvider.fromJson(sb.toString());
     }
 
     /**
@@ -227,21 +309,22 @@ public final class DtoFactory {
      */
     public <T> JsonArray<T> createListDtoFromJson(Reader json, Class<T> dtoInterface) throws IOException {
         final DtoProvider<T> dtoProvider = getDtoProvider(dtoInterface);
-        final List<JsonElement> list;
+        final JsonReader reader = newJsonReader(json);
         try {
-            list = gson.fromJson(json, listTypeCache.get(JsonElement.class));
-        } catch (JsonSyntaxException e) {
-            final Throwable cause = e.getCause();
-            if (cause instanceof IOException) {
-                throw (IOException)cause;
+            if (isEmptyDocument(reader) || reader.peek() == JsonToken.NULL) {
+                return null;
             }
-            throw e;
-        }
-        final List<T> result = new ArrayList<>(list.size());
-        for (JsonElement e : list) {
-            result.add(dtoProvider.fromJson(e));
+            final List<T> result = new ArrayList<>();
+            reader.beginArray();
+            while (reader.hasNext()) {
+                result.add(readDto(dtoProvider, reader));
+            }
+            reader.endArray();
+            checkEndOfDocument(reader);
+            return new JsonArrayImpl<>(result);
+        } catch (MalformedJsonException | IllegalStateException | NumberFormatException e) {
+            throw new JsonSyntaxException(e);
         }
-        return new JsonArrayImpl<>(result);
     }
 
     /**
@@ -298,24 +381,25 @@ public final class DtoFactory {
      * @throws IOException
      *         if an i/o error occurs
      */
-    @SuppressWarnings("unchecked")
     public <T> JsonStringMap<T> createMapDtoFromJson(Reader json, Class<T> dtoInterface) throws IOException {
         final DtoProvider<T> dtoProvider = getDtoProvider(dtoInterface);
-        final Map<String, JsonElement> map;
+        final JsonReader reader = newJsonReader(json);
         try {
-            map = gson.fromJson(json, mapTypeCache.get(JsonElement.class));
-        } catch (JsonSyntaxException e) {
-            final Throwable cause = e.getCause();
-            if (cause instanceof IOException) {
-                throw (IOException)cause;
+            if (isEmptyDocument(reader) || reader.peek() == JsonToken.NULL) {
+                return null;
             }
-            throw e;
-        }
-        final Map<String, T> result = new LinkedHashMap<>(map.size());
-        for (Map.Entry<String, JsonElement> e : map.entrySet()) {
-            result.put(e.getKey(), dtoProvider.fromJson(e.getValue()));
+            final Map<String, T> result = new LinkedHashMap<>();
+            reader.beginObject();
+            while (reader.hasNext()) {
+                final String key = reader.nextName();
+                result.put(key, readDto(dtoProvider, reader));
+            }
+            reader.endObject();
+            checkEndOfDocument(reader);
+            return new JsonStringMapImpl<>(result);
+        } catch (MalformedJsonException | IllegalStateException | NumberFormatException e) {
+            throw new JsonSyntaxException(e);
         }
-        return new JsonStringMapImpl<>(result);
     }
 
     /**
@@ -337,6 +421,37 @@ public final class DtoFactory {
 
     //
 
+    private static JsonReader newJsonReader(Reader json) {
+        final JsonReader reader = new JsonReader(json);
+        // Be consistent with com.google.gson.JsonParser that is used when DTO is parsed from string.
+        reader.setLenient(true);
+        return reader;
+    }
+
+    private static boolean isEmptyDocument(JsonReader reader) throws IOException {
+        try {
+            reader.peek();
+            return false;
+        } catch (EOFException e) {
+            return true;
+        }
+    }
+
+    private static void checkEndOfDocument(JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.END_DOCUMENT) {
+            throw new JsonSyntaxException("Did not consume the entire document.");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T readDto(DtoProvider<T> dtoProvider, JsonReader reader) throws IOException {
+        if (dtoProvider instanceof JsonStreamDtoProvider) {
+            return ((JsonStreamDtoProvider<T>)dtoProvider).fromJson(reader);
+        }
+        // Provider is generated by older version of DTO generator, it is able to read DTO from tree of JSON elements only.
+        return dtoProvider.fromJson(new JsonParser().parse(reader));
+    }
+
     @SuppressWarnings("unchecked")
     private <T> DtoProvider<T> getDtoProvider(Class<T> dtoInterface) {
         DtoProvider<?> dtoProvider = dtoInterface2Providers.get(dtoInterface);
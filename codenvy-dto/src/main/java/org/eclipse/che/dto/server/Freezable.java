@@ -0,0 +1,28 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.dto.server;
+
+/**
+ * An entity that may be made immutable. Server implementations of DTO interfaces implement this interface. Frozen DTO may be safely shared
+ * between threads or used as key of map without cloning. Any attempt to modify frozen DTO causes {@code IllegalStateException} or {@code
+ * UnsupportedOperationException} if DTO is modified through collection returned by its getter. Nested DTOs are frozen together with
+ * parent DTO.
+ *
+ * @author andrew00x
+ * @see DtoFactory#freeze(Object)
+ */
+public interface Freezable {
+    /** Makes this object immutable. Has no effect if this object is already frozen. */
+    void freeze();
+
+    /** Tests whether this object is frozen. Method isn't named {@code isFrozen} to avoid conflicts with getters of DTO interfaces. */
+    boolean frozen();
+}
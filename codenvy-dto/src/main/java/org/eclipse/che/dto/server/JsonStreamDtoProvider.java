@@ -0,0 +1,26 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.dto.server;
+
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+
+/**
+ * Provider of DTO implementation that is able to read DTO from JSON stream directly. Providers that are generated by older versions of DTO
+ * generator implement {@link DtoProvider} only, for them {@link DtoFactory} parses stream in tree of JSON elements.
+ *
+ * @author andrew00x
+ */
+public interface JsonStreamDtoProvider<DTO> extends DtoProvider<DTO> {
+    /** Reads DTO from JSON stream directly, without building intermediate tree of JSON elements. */
+    DTO fromJson(JsonReader json) throws IOException;
+}
@@ -0,0 +1,33 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.dto.server;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * An entity that may write itself to JSON stream directly, without building intermediate tree of JSON elements. Server implementations of
+ * DTO interfaces implement this interface.
+ *
+ * @author andrew00x
+ */
+public interface JsonStreamSerializable extends JsonSerializable {
+    /**
+     * Writes DTO to JSON stream.
+     *
+     * @param writer
+     *         JSON writer
+     * @throws IOException
+     *         if an i/o error occurs
+     */
+    void writeJson(JsonWriter writer) throws IOException;
+}
@@ -14,15 +14,21 @@ import org.eclipse.che.dto.definitions.ComplicatedDto;
 import org.eclipse.che.dto.definitions.DtoWithDelegate;
 import org.eclipse.che.dto.definitions.SimpleDto;
 import org.eclipse.che.dto.server.DtoFactory;
+import org.eclipse.che.dto.server.DtoProvider;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSyntaxException;
 
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -227,6 +233,162 @@ public class ServerDtoTest {
         Assert.assertEquals(complicatedDto.getArrayOfArrayOfEnum().get(0).get(2), ComplicatedDto.SimpleEnum.THREE);
     }
 
+    @Test
+    public void testStreamSerializationRoundTrip() throws Exception {
+        final String fooString = "Something";
+        final int fooId = 1;
+        final String _default = "test_default_keyword";
+
+        SimpleDto simpleDto = dtoFactory.createDto(SimpleDto.class).withName(fooString).withId(fooId).withDefault(_default);
+        Map<String, SimpleDto> map = new HashMap<>();
+        map.put(fooString, simpleDto);
+        ComplicatedDto dto = dtoFactory.createDto(ComplicatedDto.class)
+                                       .withStrings(Arrays.asList(fooString, null))
+                                       .withSimpleEnum(ComplicatedDto.SimpleEnum.TWO)
+                                       .withMap(map)
+                                       .withSimpleDtos(Arrays.asList(simpleDto))
+                                       .withArrayOfArrayOfEnum(Arrays.asList(Arrays.asList(ComplicatedDto.SimpleEnum.ONE,
+                                                                                            ComplicatedDto.SimpleEnum.THREE)));
+
+        StringWriter writer = new StringWriter();
+        dtoFactory.toJson(dto, writer);
+        // Stream and tree serializers must produce the same JSON.
+        Assert.assertEquals(new JsonParser().parse(writer.toString()), new JsonParser().parse(dto.toString()));
+
+        ComplicatedDto copy = dtoFactory.createDtoFromJson(new StringReader(writer.toString()), ComplicatedDto.class);
+        Assert.assertEquals(copy, dto);
+        Assert.assertNull(copy.getStrings().get(1));
+        checkSimpleDto(copy.getMap().get(fooString), fooString, fooId, _default);
+        Assert.assertEquals(copy.getArrayOfArrayOfEnum().get(0).get(1), ComplicatedDto.SimpleEnum.THREE);
+    }
+
+    @Test
+    public void testStreamDeserializerSkipsUnknownFields() throws Exception {
+        String json = "{\"unknown\":{\"a\":[1,2,3]},\"name\":\"Something\",\"id\":1,\"default\":null}";
+        SimpleDto dto = dtoFactory.createDtoFromJson(new StringReader(json), SimpleDto.class);
+        checkSimpleDto(dto, "Something", 1, null);
+    }
+
+    @Test(expectedExceptions = JsonSyntaxException.class)
+    public void testStreamDeserializerRejectsEmptyDocument() throws Exception {
+        dtoFactory.createDtoFromJson(new StringReader(""), SimpleDto.class);
+    }
+
+    @Test(expectedExceptions = JsonSyntaxException.class)
+    public void testStreamDeserializerRejectsTrailingContent() throws Exception {
+        dtoFactory.createDtoFromJson(new StringReader("{\"name\":\"Something\",\"id\":1}garbage"), SimpleDto.class);
+    }
+
+    @Test(expectedExceptions = JsonSyntaxException.class)
+    public void testStreamDeserializerRejectsTrailingContentAfterList() throws Exception {
+        dtoFactory.createListDtoFromJson(new StringReader("[{\"name\":\"Something\",\"id\":1}]]"), SimpleDto.class);
+    }
+
+    @Test
+    public void testReadStreamWithProviderOfOlderGenerator() throws Exception {
+        dtoFactory.registerProvider(LegacyDto.class, new DtoProvider<LegacyDto>() {
+            @Override
+            public Class<? extends LegacyDto> getImplClass() {
+                return LegacyDtoImpl.class;
+            }
+
+            @Override
+            public LegacyDto fromJson(String json) {
+                return fromJson(new JsonParser().parse(json));
+            }
+
+            @Override
+            public LegacyDto fromJson(JsonElement json) {
+                return new LegacyDtoImpl(json.getAsJsonObject().get("name").getAsString());
+            }
+
+            @Override
+            public LegacyDto newInstance() {
+                return new LegacyDtoImpl(null);
+            }
+
+            @Override
+            public LegacyDto clone(LegacyDto origin) {
+                return new LegacyDtoImpl(origin.getName());
+            }
+        });
+        LegacyDto dto = dtoFactory.createDtoFromJson(new StringReader("{\"name\":\"Something\"}"), LegacyDto.class);
+        Assert.assertEquals(dto.getName(), "Something");
+        List<LegacyDto> list = dtoFactory.createListDtoFromJson(new StringReader("[{\"name\":\"a\"},{\"name\":\"b\"}]"),
+                                                                LegacyDto.class);
+        Assert.assertEquals(list.size(), 2);
+        Assert.assertEquals(list.get(1).getName(), "b");
+    }
+
+    /** DTO with provider that doesn't support streaming, as providers generated by older versions of DTO generator. */
+    public interface LegacyDto {
+        String getName();
+    }
+
+    private static class LegacyDtoImpl implements LegacyDto {
+        private final String name;
+
+        LegacyDtoImpl(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+    }
+
+    @Test
+    public void testClone() throws Exception {
+        SimpleDto simpleDto = dtoFactory.createDto(SimpleDto.class).withName("Something").withId(1).withDefault("default");
+        List<ComplicatedDto.SimpleEnum> enums = Arrays.asList(ComplicatedDto.SimpleEnum.ONE);
+        ComplicatedDto dto = dtoFactory.createDto(ComplicatedDto.class)
+                                       .withSimpleDtos(new ArrayList<>(Arrays.asList(simpleDto, null)))
+                                       .withArrayOfArrayOfEnum(Arrays.asList(enums, null));
+
+        ComplicatedDto copy = dtoFactory.clone(dto);
+        Assert.assertEquals(copy, dto);
+        // null elements of nested collections are kept
+        Assert.assertEquals(copy.getArrayOfArrayOfEnum().size(), 2);
+        Assert.assertNull(copy.getArrayOfArrayOfEnum().get(1));
+        // deep copy
+        Assert.assertFalse(copy.getSimpleDtos().get(0) == simpleDto);
+        simpleDto.setDefault("changed");
+        Assert.assertEquals(copy.getSimpleDtos().get(0).getDefault(), "default");
+    }
+
+    @Test
+    public void testFreeze() throws Exception {
+        SimpleDto simpleDto = dtoFactory.createDto(SimpleDto.class).withName("Something").withId(1);
+        List<SimpleDto> simpleDtos = new ArrayList<>(Arrays.asList(simpleDto));
+        ComplicatedDto dto = dtoFactory.createDto(ComplicatedDto.class).withSimpleDtos(simpleDtos);
+        final int hash = dto.hashCode();
+
+        Assert.assertSame(dtoFactory.freeze(dto), dto);
+        Assert.assertTrue(dtoFactory.isFrozen(dto));
+        Assert.assertTrue(dtoFactory.isFrozen(simpleDto));
+        Assert.assertEquals(dto.hashCode(), hash);
+        // modification of origin list doesn't affect frozen DTO
+        simpleDtos.clear();
+        Assert.assertEquals(dto.getSimpleDtos().size(), 1);
+        try {
+            simpleDto.setDefault("default");
+            Assert.fail("IllegalStateException expected");
+        } catch (IllegalStateException ignored) {
+        }
+        try {
+            dto.getStrings().add("string");
+            Assert.fail("UnsupportedOperationException expected");
+        } catch (UnsupportedOperationException ignored) {
+        }
+
+        ComplicatedDto copy = dtoFactory.clone(dto);
+        Assert.assertFalse(dtoFactory.isFrozen(copy));
+        Assert.assertFalse(dtoFactory.isFrozen(copy.getSimpleDtos().get(0)));
+        copy.getSimpleDtos().get(0).setDefault("default");
+        Assert.assertNull(simpleDto.getDefault());
+    }
+
     private void checkSimpleDto(SimpleDto dto, String expectedName, int expectedId, String expectedDefault) {
         Assert.assertEquals(dto.getName(), expectedName);
         Assert.assertEquals(dto.getId(), expectedId);
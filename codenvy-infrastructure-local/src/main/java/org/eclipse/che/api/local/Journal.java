@@ -0,0 +1,223 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.local;
+
+import org.eclipse.che.api.core.ServerException;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * Persistent storage of entities of local DAO. Each change of entity is appended to journal file as one line of JSON. When journal gets
+ * too big, state of DAO is written to snapshot file and journal is truncated. State is restored by reading of snapshot and replaying of
+ * journal after it. Both files have the same format, record with key and value puts entity, record without value removes it.
+ * <p/>
+ * Journal works over map of DAO which is used as state for snapshots, DAO must update map before call of {@link #put(String, Object)} or
+ * {@link #remove(String)}. Journal is flushed after each record but not synced with disk. Instance of this class is not thread safe,
+ * DAO must guard it with the same lock as its map.
+ *
+ * @author andrew00x
+ */
+final class Journal<T> {
+    private static final Logger  LOG                = LoggerFactory.getLogger(Journal.class);
+    private static final Charset UTF8               = Charset.forName("UTF-8");
+    /** Snapshot is written after this number of records in journal. */
+    private static final int     SNAPSHOT_THRESHOLD = 1000;
+
+    /** Dates are stored as milliseconds to don't depend on locale and keep precision. */
+    private static final Gson GSON = new GsonBuilder().registerTypeAdapter(Date.class, new TypeAdapter<Date>() {
+        @Override
+        public void write(JsonWriter out, Date value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+            } else {
+                out.value(value.getTime());
+            }
+        }
+
+        @Override
+        public Date read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            return new Date(in.nextLong());
+        }
+    }).create();
+
+    private final File           snapshotFile;
+    private final File           journalFile;
+    private final Type           type;
+    private final Map<String, T> state;
+
+    private Writer writer;
+    private int    records;
+
+    /**
+     * @param directory
+     *         directory where files are stored
+     * @param name
+     *         name of storage, used as base name of files
+     * @param type
+     *         type of stored entities
+     * @param state
+     *         map of DAO
+     */
+    Journal(File directory, String name, Type type, Map<String, T> state) {
+        this.snapshotFile = new File(directory, name + ".snapshot");
+        this.journalFile = new File(directory, name + ".journal");
+        this.type = type;
+        this.state = state;
+    }
+
+    /**
+     * Reads snapshot and replays journal. Unreadable tail of journal, e.g. after crash, is ignored and new snapshot is written, so
+     * records which are appended later are not lost behind broken one. Restored entities are put in map of DAO.
+     */
+    void load() throws IOException {
+        replay(snapshotFile);
+        records = replay(journalFile);
+        Files.createDirectories(journalFile.getParentFile().toPath());
+        writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(journalFile, true), UTF8));
+        if (records < 0) {
+            snapshot();
+        }
+    }
+
+    /** Records new or updated entity. */
+    void put(String key, T value) throws ServerException {
+        final JsonObject record = new JsonObject();
+        record.addProperty("key", key);
+        record.add("value", GSON.toJsonTree(value, type));
+        append(record);
+    }
+
+    /** Records removal of entity. */
+    void remove(String key) throws ServerException {
+        final JsonObject record = new JsonObject();
+        record.addProperty("key", key);
+        append(record);
+    }
+
+    /** Writes snapshot and closes journal. */
+    void close() {
+        if (writer != null) {
+            try {
+                snapshot();
+            } catch (IOException e) {
+                LOG.error(String.format("Failed write snapshot %s", snapshotFile), e);
+            }
+            try {
+                writer.close();
+            } catch (IOException e) {
+                LOG.error(e.getMessage(), e);
+            }
+            writer = null;
+        }
+    }
+
+    /** Writes map of DAO to snapshot file and truncates journal. */
+    private void snapshot() throws IOException {
+        final File tmp = new File(snapshotFile.getPath() + ".tmp");
+        try (Writer snapshotWriter = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tmp), UTF8))) {
+            for (Map.Entry<String, T> e : state.entrySet()) {
+                final JsonObject record = new JsonObject();
+                record.addProperty("key", e.getKey());
+                record.add("value", GSON.toJsonTree(e.getValue(), type));
+                snapshotWriter.write(record.toString());
+                snapshotWriter.write('\n');
+            }
+        }
+        Files.move(tmp.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        // Replay of journal over new snapshot is harmless, so crash before truncation doesn't break anything.
+        writer.close();
+        writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(journalFile, false), UTF8));
+        records = 0;
+    }
+
+    private void append(JsonObject record) throws ServerException {
+        try {
+            writer.write(record.toString());
+            writer.write('\n');
+            writer.flush();
+        } catch (IOException e) {
+            throw new ServerException(String.format("Failed write to %s. %s", journalFile, e.getMessage()), e);
+        }
+        if (++records >= SNAPSHOT_THRESHOLD) {
+            try {
+                snapshot();
+            } catch (IOException e) {
+                // Record is already written, keep going with long journal and try again later.
+                LOG.error(String.format("Failed write snapshot %s", snapshotFile), e);
+                records = 0;
+            }
+        }
+    }
+
+    /** Returns number of replayed records or {@code -1} if file contains broken record. */
+    private int replay(File file) throws IOException {
+        int count = 0;
+        if (!file.exists()) {
+            return count;
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), UTF8))) {
+            final JsonParser parser = new JsonParser();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                try {
+                    final JsonObject record = parser.parse(line).getAsJsonObject();
+                    final String key = record.get("key").getAsString();
+                    final JsonElement value = record.get("value");
+                    if (value == null || value.isJsonNull()) {
+                        state.remove(key);
+                    } else {
+                        state.put(key, GSON.<T>fromJson(value, type));
+                    }
+                    count++;
+                } catch (JsonParseException | IllegalStateException | NullPointerException e) {
+                    LOG.warn("Ignore broken record in {}: {}", file, e.getMessage());
+                    return -1;
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -21,14 +21,18 @@ import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.workspace.server.dao.WorkspaceDao;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
+import java.io.File;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -36,58 +40,135 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
 import static org.eclipse.che.api.account.shared.dto.SubscriptionState.ACTIVE;
 
 /**
+ * Accounts are indexed by id and name, memberships by account and user, subscriptions by id and account. If {@code
+ * codenvy.local.infrastructure.store_location} is set then all of them are persisted with {@link Journal} and initial accounts,
+ * memberships and subscriptions are used only if storage is empty.
+ *
  * @author Eugene Voevodin
  */
 @Singleton
 public class LocalAccountDaoImpl implements AccountDao {
-
-    private final List<Account>      accounts;
-    private final List<Member>       members;
-    private final List<Subscription> subscriptions;
-    private final ReadWriteLock      lock;
+    /** Accounts by id. */
+    private final Map<String, Account>                   accounts;
+    /** Accounts by name. */
+    private final Map<String, Account>                   names;
+    /** Memberships by key, see {@link #key(String, String)}. */
+    private final Map<String, Member>                    members;
+    /** Memberships by account id and user id. */
+    private final Map<String, Map<String, Member>>       accountMembers;
+    /** Memberships by user id and account id. */
+    private final Map<String, Map<String, Member>>       userMembers;
+    /** Subscriptions by id. */
+    private final Map<String, Subscription>              subscriptions;
+    /** Subscriptions by account id and subscription id. */
+    private final Map<String, Map<String, Subscription>> accountSubscriptions;
+    private final ReadWriteLock                          lock;
+    private final Set<Account>                           initialAccounts;
+    private final Set<Member>                            initialMembers;
+    private final Set<Subscription>                      initialSubscriptions;
 
     private final WorkspaceDao workspaceDao;
 
+    /** Directory for storing of accounts, memberships and subscriptions, they are kept in memory only if it isn't set. */
+    @com.google.inject.Inject(optional = true)
+    @Named("codenvy.local.infrastructure.store_location")
+    private String storeLocation;
+
+    private Journal<Account>      accountsJournal;
+    private Journal<Member>       membersJournal;
+    private Journal<Subscription> subscriptionsJournal;
+
     @Inject
     public LocalAccountDaoImpl(@Named("codenvy.local.infrastructure.accounts") Set<Account> accounts,
                                @Named("codenvy.local.infrastructure.account.members") Set<Member> members,
                                @Named("codenvy.local.infrastructure.account.subscriptions") Set<Subscription> subscriptions,
                                WorkspaceDao workspaceDao) {
         this.workspaceDao = workspaceDao;
-        this.accounts = new LinkedList<>();
-        this.members = new LinkedList<>();
-        this.subscriptions = new LinkedList<>();
+        this.accounts = new LinkedHashMap<>();
+        this.names = new HashMap<>();
+        this.members = new LinkedHashMap<>();
+        this.accountMembers = new HashMap<>();
+        this.userMembers = new HashMap<>();
+        this.subscriptions = new LinkedHashMap<>();
+        this.accountSubscriptions = new HashMap<>();
         lock = new ReentrantReadWriteLock();
+        initialAccounts = accounts;
+        initialMembers = members;
+        initialSubscriptions = subscriptions;
+    }
+
+    @PostConstruct
+    private void start() {
+        // use write lock since we are init storage at this stage
+        lock.writeLock().lock();
         try {
-            for (Account account : accounts) {
-                create(account);
-            }
-            for (Member member : members) {
-                addMember(member);
+            if (storeLocation != null && !storeLocation.isEmpty()) {
+                final File directory = new File(storeLocation);
+                accountsJournal = new Journal<>(directory, "accounts", Account.class, accounts);
+                membersJournal = new Journal<>(directory, "account_members", Member.class, members);
+                subscriptionsJournal = new Journal<>(directory, "subscriptions", Subscription.class, subscriptions);
+                accountsJournal.load();
+                membersJournal.load();
+                subscriptionsJournal.load();
+                for (Account account : accounts.values()) {
+                    names.put(account.getName(), account);
+                }
+                for (Member member : members.values()) {
+                    index(member);
+                }
+                for (Subscription subscription : subscriptions.values()) {
+                    index(subscription);
+                }
             }
-            for (Subscription subscription : subscriptions) {
-                addSubscription(subscription);
+            if (accounts.isEmpty()) {
+                for (Account account : initialAccounts) {
+                    create(account);
+                }
+                for (Member member : initialMembers) {
+                    addMember(member);
+                }
+                for (Subscription subscription : initialSubscriptions) {
+                    addSubscription(subscription);
+                }
             }
         } catch (Exception e) {
             // fail if can't validate this instance properly
             throw new RuntimeException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    private void stop() {
+        lock.writeLock().lock();
+        try {
+            if (accountsJournal != null) {
+                accountsJournal.close();
+                membersJournal.close();
+                subscriptionsJournal.close();
+            }
+        } finally {
+            lock.writeLock().unlock();
         }
     }
 
     @Override
-    public void create(Account account) throws ConflictException {
+    public void create(Account account) throws ConflictException, ServerException {
         lock.writeLock().lock();
         try {
-            for (Account a : accounts) {
-                if (a.getId().equals(account.getId())) {
-                    throw new ConflictException(String.format("Account with id %s already exists.", account.getId()));
-                }
-                if (a.getName().equals(account.getName())) {
-                    throw new ConflictException(String.format("Account with name %s already exists.", account.getName()));
-                }
+            if (accounts.containsKey(account.getId())) {
+                throw new ConflictException(String.format("Account with id %s already exists.", account.getId()));
+            }
+            if (names.containsKey(account.getName())) {
+                throw new ConflictException(String.format("Account with name %s already exists.", account.getName()));
+            }
+            final Account myAccount = doClone(account);
+            accounts.put(myAccount.getId(), myAccount);
+            names.put(myAccount.getName(), myAccount);
+            if (accountsJournal != null) {
+                accountsJournal.put(myAccount.getId(), myAccount);
             }
-            accounts.add(new Account().withId(account.getId()).withName(account.getName())
-                                      .withAttributes(new LinkedHashMap<>(account.getAttributes())));
         } finally {
             lock.writeLock().unlock();
         }
@@ -97,11 +178,9 @@ public class LocalAccountDaoImpl implements AccountDao {
     public Account getById(String id) throws NotFoundException {
         lock.readLock().lock();
         try {
-            for (Account account : accounts) {
-                if (account.getId().equals(id)) {
-                    return new Account().withId(account.getId()).withName(account.getName())
-                                        .withAttributes(new LinkedHashMap<>(account.getAttributes()));
-                }
+            final Account account = accounts.get(id);
+            if (account != null) {
+                return doClone(account);
             }
         } finally {
             lock.readLock().unlock();
@@ -113,11 +192,9 @@ public class LocalAccountDaoImpl implements AccountDao {
     public Account getByName(String name) throws NotFoundException {
         lock.readLock().lock();
         try {
-            for (Account account : accounts) {
-                if (account.getName().equals(name)) {
-                    return new Account().withId(account.getId()).withName(account.getName())
-                                        .withAttributes(new LinkedHashMap<>(account.getAttributes()));
-                }
+            final Account account = names.get(name);
+            if (account != null) {
+                return doClone(account);
             }
         } finally {
             lock.readLock().unlock();
@@ -130,13 +207,12 @@ public class LocalAccountDaoImpl implements AccountDao {
         final List<Account> result = new LinkedList<>();
         lock.readLock().lock();
         try {
-            for (Member member : members) {
-                if (member.getUserId().equals(owner)) {
-                    for (Account account : accounts) {
-                        if (account.getId().equals(member.getAccountId()) && member.getRoles().contains("account/owner")) {
-                            result.add(new Account().withId(account.getId()).withName(account.getName())
-                                                    .withAttributes(new LinkedHashMap<>(account.getAttributes())));
-                        }
+            final Map<String, Member> relationships = userMembers.get(owner);
+            if (relationships != null) {
+                for (Member member : relationships.values()) {
+                    final Account account = accounts.get(member.getAccountId());
+                    if (account != null && member.getRoles().contains("account/owner")) {
+                        result.add(doClone(account));
                     }
                 }
             }
@@ -151,10 +227,10 @@ public class LocalAccountDaoImpl implements AccountDao {
         final List<Member> result = new LinkedList<>();
         lock.readLock().lock();
         try {
-            for (Member member : members) {
-                if (userId.equals(member.getUserId())) {
-                    result.add(new Member().withUserId(member.getUserId()).withAccountId(member.getAccountId())
-                                           .withRoles(new ArrayList<>(member.getRoles())));
+            final Map<String, Member> relationships = userMembers.get(userId);
+            if (relationships != null) {
+                for (Member member : relationships.values()) {
+                    result.add(doClone(member));
                 }
             }
         } finally {
@@ -164,21 +240,23 @@ public class LocalAccountDaoImpl implements AccountDao {
     }
 
     @Override
-    public void update(Account account) throws NotFoundException {
+    public void update(Account account) throws NotFoundException, ServerException {
         lock.writeLock().lock();
         try {
-            Account myAccount = null;
-            for (int i = 0, size = accounts.size(); i < size && myAccount == null; i++) {
-                if (accounts.get(i).getId().equals(account.getId())) {
-                    myAccount = accounts.get(i);
-                }
-            }
+            final Account myAccount = accounts.get(account.getId());
             if (myAccount == null) {
                 throw new NotFoundException(String.format("Not found account %s", account.getId()));
             }
+            if (names.get(myAccount.getName()) == myAccount) {
+                names.remove(myAccount.getName());
+            }
             myAccount.setName(account.getName());
             myAccount.getAttributes().clear();
             myAccount.getAttributes().putAll(account.getAttributes());
+            names.put(myAccount.getName(), myAccount);
+            if (accountsJournal != null) {
+                accountsJournal.put(myAccount.getId(), myAccount);
+            }
         } finally {
             lock.writeLock().unlock();
         }
@@ -188,54 +266,55 @@ public class LocalAccountDaoImpl implements AccountDao {
     public void remove(String id) throws NotFoundException, ServerException, ConflictException {
         lock.writeLock().lock();
         try {
-            Account myAccount = null;
-            for (int i = 0, size = accounts.size(); i < size && myAccount == null; i++) {
-                if (accounts.get(i).getId().equals(id)) {
-                    myAccount = accounts.get(i);
-                }
-            }
+            final Account myAccount = accounts.get(id);
             if (myAccount == null) {
                 throw new NotFoundException(String.format("Not found account %s", id));
             }
             if (!workspaceDao.getByAccount(id).isEmpty()) {
                 throw new ConflictException("It is not possible to remove account that has associated workspaces");
             }
-            for (Iterator<Member> itr = members.iterator(); itr.hasNext(); ) {
-                final Member member = itr.next();
-                if (member.getAccountId().equals(id)) {
-                    itr.remove();
+            final Map<String, Member> myMembers = accountMembers.remove(id);
+            if (myMembers != null) {
+                for (Member member : myMembers.values()) {
+                    final String key = key(member.getAccountId(), member.getUserId());
+                    members.remove(key);
+                    unindex(userMembers, member.getUserId(), member.getAccountId());
+                    if (membersJournal != null) {
+                        membersJournal.remove(key);
+                    }
                 }
             }
-            accounts.remove(myAccount);
+            accounts.remove(id);
+            if (names.get(myAccount.getName()) == myAccount) {
+                names.remove(myAccount.getName());
+            }
+            if (accountsJournal != null) {
+                accountsJournal.remove(id);
+            }
         } finally {
             lock.writeLock().unlock();
         }
     }
 
     @Override
-    public void addMember(Member member) throws NotFoundException, ConflictException {
+    public void addMember(Member member) throws NotFoundException, ConflictException, ServerException {
         lock.writeLock().lock();
         try {
-            Account myAccount = null;
-            for (int i = 0, size = accounts.size(); i < size && myAccount == null; i++) {
-                if (accounts.get(i).getId().equals(member.getAccountId())) {
-                    myAccount = accounts.get(i);
-                }
-            }
-            if (myAccount == null) {
+            if (!accounts.containsKey(member.getAccountId())) {
                 throw new NotFoundException(String.format("Not found account %s", member.getAccountId()));
             }
-
-            for (Member m : members) {
-                if (m.getUserId().equals(member.getUserId()) && m.getAccountId().equals(member.getAccountId())) {
-                    throw new ConflictException(String.format("Membership of user %s in account %s already exists.",
-                                                              member.getUserId(), member.getAccountId())
-                    );
-                }
+            final String key = key(member.getAccountId(), member.getUserId());
+            if (members.containsKey(key)) {
+                throw new ConflictException(String.format("Membership of user %s in account %s already exists.",
+                                                          member.getUserId(), member.getAccountId())
+                );
+            }
+            final Member myMember = doClone(member);
+            members.put(key, myMember);
+            index(myMember);
+            if (membersJournal != null) {
+                membersJournal.put(key, myMember);
             }
-
-            members.add(new Member().withUserId(member.getUserId()).withAccountId(member.getAccountId())
-                                    .withRoles(new ArrayList<>(member.getRoles())));
         } finally {
             lock.writeLock().unlock();
         }
@@ -246,10 +325,10 @@ public class LocalAccountDaoImpl implements AccountDao {
         final List<Member> result = new LinkedList<>();
         lock.readLock().lock();
         try {
-            for (Member member : members) {
-                if (accountId.equals(member.getAccountId())) {
-                    result.add(new Member().withUserId(member.getUserId()).withAccountId(member.getAccountId())
-                                           .withRoles(new ArrayList<>(member.getRoles())));
+            final Map<String, Member> myMembers = accountMembers.get(accountId);
+            if (myMembers != null) {
+                for (Member member : myMembers.values()) {
+                    result.add(doClone(member));
                 }
             }
         } finally {
@@ -259,68 +338,54 @@ public class LocalAccountDaoImpl implements AccountDao {
     }
 
     @Override
-    public void removeMember(Member member) throws NotFoundException {
+    public void removeMember(Member member) throws NotFoundException, ServerException {
         lock.writeLock().lock();
         try {
-            Member myMember = null;
-            for (int i = 0, size = members.size(); i < size && myMember == null; i++) {
-                if (members.get(i).getUserId().equals(member.getUserId())) {
-                    myMember = members.get(i);
-                }
-            }
+            final String key = key(member.getAccountId(), member.getUserId());
+            final Member myMember = members.get(key);
             if (myMember == null) {
                 throw new NotFoundException(String.format("User with id %s hasn't any account membership", member.getUserId()));
             }
-
-            Account myAccount = null;
-            for (int i = 0, size = accounts.size(); i < size && myAccount == null; i++) {
-                if (accounts.get(i).getId().equals(member.getAccountId())) {
-                    myAccount = accounts.get(i);
-                }
-            }
-            if (myAccount == null) {
+            if (!accounts.containsKey(member.getAccountId())) {
                 throw new NotFoundException(String.format("Not found account %s", member.getAccountId()));
             }
-
-            members.remove(myMember);
+            members.remove(key);
+            unindex(accountMembers, myMember.getAccountId(), myMember.getUserId());
+            unindex(userMembers, myMember.getUserId(), myMember.getAccountId());
+            if (membersJournal != null) {
+                membersJournal.remove(key);
+            }
         } finally {
             lock.writeLock().unlock();
         }
     }
 
     @Override
-    public void addSubscription(Subscription subscription) throws NotFoundException {
+    public void addSubscription(Subscription subscription) throws NotFoundException, ServerException {
         lock.writeLock().lock();
         try {
-            Account myAccount = null;
-            for (int i = 0, size = accounts.size(); i < size && myAccount == null; i++) {
-                if (accounts.get(i).getId().equals(subscription.getAccountId())) {
-                    myAccount = accounts.get(i);
-                }
-            }
-            if (myAccount == null) {
+            if (!accounts.containsKey(subscription.getAccountId())) {
                 throw new NotFoundException(String.format("Not found account %s", subscription.getAccountId()));
             }
-            subscriptions.add(new Subscription(subscription));
+            final Subscription mySubscription = new Subscription(subscription);
+            putSubscription(mySubscription);
         } finally {
             lock.writeLock().unlock();
         }
     }
 
     @Override
-    public void removeSubscription(String subscriptionId) throws NotFoundException {
+    public void removeSubscription(String subscriptionId) throws NotFoundException, ServerException {
         lock.writeLock().lock();
         try {
-            Subscription subscription = null;
-            for (int i = 0, size = subscriptions.size(); i < size && subscription == null; i++) {
-                if (subscriptions.get(i).getId().equals(subscriptionId)) {
-                    subscription = subscriptions.get(i);
-                }
-            }
+            final Subscription subscription = subscriptions.remove(subscriptionId);
             if (subscription == null) {
                 throw new NotFoundException(String.format("Not found subscription %s", subscriptionId));
             }
-            subscriptions.remove(subscription);
+            unindex(accountSubscriptions, subscription.getAccountId(), subscriptionId);
+            if (subscriptionsJournal != null) {
+                subscriptionsJournal.remove(subscriptionId);
+            }
         } finally {
             lock.writeLock().unlock();
         }
@@ -330,12 +395,7 @@ public class LocalAccountDaoImpl implements AccountDao {
     public Subscription getSubscriptionById(String subscriptionId) throws NotFoundException {
         lock.readLock().lock();
         try {
-            Subscription subscription = null;
-            for (int i = 0, size = subscriptions.size(); i < size && subscription == null; i++) {
-                if (subscriptions.get(i).getId().equals(subscriptionId)) {
-                    subscription = subscriptions.get(i);
-                }
-            }
+            final Subscription subscription = subscriptions.get(subscriptionId);
             if (subscription == null) {
                 throw new NotFoundException(String.format("Not found subscription %s", subscriptionId));
             }
@@ -350,9 +410,12 @@ public class LocalAccountDaoImpl implements AccountDao {
         final List<Subscription> result = new LinkedList<>();
         lock.readLock().lock();
         try {
-            for (Subscription subscription : subscriptions) {
-                if (accountId.equals(subscription.getAccountId()) && ACTIVE.equals(subscription.getState())) {
-                    result.add(new Subscription(subscription));
+            final Map<String, Subscription> mySubscriptions = accountSubscriptions.get(accountId);
+            if (mySubscriptions != null) {
+                for (Subscription subscription : mySubscriptions.values()) {
+                    if (ACTIVE.equals(subscription.getState())) {
+                        result.add(new Subscription(subscription));
+                    }
                 }
             }
         } finally {
@@ -365,10 +428,12 @@ public class LocalAccountDaoImpl implements AccountDao {
     public Subscription getActiveSubscription(String accountId, String serviceId) {
         lock.readLock().lock();
         try {
-            for (Subscription subscription : subscriptions) {
-                if (accountId.equals(subscription.getAccountId()) && serviceId.equals(subscription.getServiceId())
-                    && ACTIVE.equals(subscription.getState())) {
-                    return new Subscription(subscription);
+            final Map<String, Subscription> mySubscriptions = accountSubscriptions.get(accountId);
+            if (mySubscriptions != null) {
+                for (Subscription subscription : mySubscriptions.values()) {
+                    if (serviceId.equals(subscription.getServiceId()) && ACTIVE.equals(subscription.getState())) {
+                        return new Subscription(subscription);
+                    }
                 }
             }
         } finally {
@@ -381,18 +446,13 @@ public class LocalAccountDaoImpl implements AccountDao {
     public void updateSubscription(Subscription subscription) throws NotFoundException, ServerException {
         lock.writeLock().lock();
         try {
-            int i = 0;
-            Subscription mySubscription = null;
-            for (int size = subscriptions.size(); i < size && mySubscription == null; i++) {
-                if (subscriptions.get(i).getId().equals(subscription.getId())) {
-                    mySubscription = subscriptions.get(i);
-                }
-            }
+            final Subscription mySubscription = subscriptions.get(subscription.getId());
             if (mySubscription == null) {
                 throw new NotFoundException(String.format("Not found subscription %s", subscription.getId()));
             }
-            subscriptions.remove(i);
-            subscriptions.add(i, new Subscription(subscription));
+            unindex(accountSubscriptions, mySubscription.getAccountId(), mySubscription.getId());
+            // Replace in place to keep order of subscriptions.
+            putSubscription(new Subscription(subscription));
         } finally {
             lock.writeLock().unlock();
         }
@@ -405,13 +465,70 @@ public class LocalAccountDaoImpl implements AccountDao {
 
     @Override
     public List<Account> getAccountsWithLockedResources() throws ServerException, ForbiddenException {
-        List<Account> lockedAccounts = new LinkedList<>();
-        for (Account account : accounts) {
-            if (account.getAttributes().containsKey("codenvy:locked") &&
-                account.getAttributes().get("codenvy:locked").equals("true")) {
-                lockedAccounts.add(account);
+        final List<Account> lockedAccounts = new LinkedList<>();
+        lock.readLock().lock();
+        try {
+            for (Account account : accounts.values()) {
+                if ("true".equals(account.getAttributes().get("codenvy:locked"))) {
+                    lockedAccounts.add(doClone(account));
+                }
             }
+        } finally {
+            lock.readLock().unlock();
         }
         return lockedAccounts;
     }
+
+    private void putSubscription(Subscription subscription) throws ServerException {
+        subscriptions.put(subscription.getId(), subscription);
+        index(subscription);
+        if (subscriptionsJournal != null) {
+            subscriptionsJournal.put(subscription.getId(), subscription);
+        }
+    }
+
+    private void index(Member member) {
+        Map<String, Member> myMembers = accountMembers.get(member.getAccountId());
+        if (myMembers == null) {
+            accountMembers.put(member.getAccountId(), myMembers = new LinkedHashMap<>());
+        }
+        myMembers.put(member.getUserId(), member);
+        Map<String, Member> relationships = userMembers.get(member.getUserId());
+        if (relationships == null) {
+            userMembers.put(member.getUserId(), relationships = new LinkedHashMap<>());
+        }
+        relationships.put(member.getAccountId(), member);
+    }
+
+    private void index(Subscription subscription) {
+        Map<String, Subscription> mySubscriptions = accountSubscriptions.get(subscription.getAccountId());
+        if (mySubscriptions == null) {
+            accountSubscriptions.put(subscription.getAccountId(), mySubscriptions = new LinkedHashMap<>());
+        }
+        mySubscriptions.put(subscription.getId(), subscription);
+    }
+
+    private <T> void unindex(Map<String, Map<String, T>> index, String key, String innerKey) {
+        final Map<String, T> inner = index.get(key);
+        if (inner != null) {
+            inner.remove(innerKey);
+            if (inner.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    private String key(String accountId, String userId) {
+        return accountId + ' ' + userId;
+    }
+
+    private Account doClone(Account account) {
+        return new Account().withId(account.getId()).withName(account.getName())
+                            .withAttributes(new LinkedHashMap<>(account.getAttributes()));
+    }
+
+    private Member doClone(Member member) {
+        return new Member().withUserId(member.getUserId()).withAccountId(member.getAccountId())
+                           .withRoles(new ArrayList<>(member.getRoles()));
+    }
 }
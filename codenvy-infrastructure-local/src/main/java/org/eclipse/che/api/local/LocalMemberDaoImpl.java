@@ -18,39 +18,95 @@ import org.eclipse.che.api.workspace.server.dao.Member;
 import org.eclipse.che.api.workspace.server.dao.MemberDao;
 import org.eclipse.che.api.workspace.server.dao.WorkspaceDao;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
+import java.io.File;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+/**
+ * Memberships are indexed by workspace and by user. If {@code codenvy.local.infrastructure.store_location} is set then memberships are
+ * persisted with {@link Journal} and initial set of memberships is used only if storage is empty.
+ */
 @Singleton
 public class LocalMemberDaoImpl implements MemberDao {
-    private final List<Member>  members;
-    private final ReadWriteLock lock;
+    /** Memberships by key, see {@link #key(String, String)}. */
+    private final Map<String, Member>              members;
+    /** Memberships by workspace id and user id. */
+    private final Map<String, Map<String, Member>> workspaceMembers;
+    /** Memberships by user id and workspace id. */
+    private final Map<String, Map<String, Member>> userMembers;
+    private final ReadWriteLock                    lock;
+    private final Set<Member>                      initialMembers;
 
     private final WorkspaceDao workspaceDao;
     private final UserDao      userDao;
 
+    /** Directory for storing of memberships, memberships are kept in memory only if it isn't set. */
+    @com.google.inject.Inject(optional = true)
+    @Named("codenvy.local.infrastructure.store_location")
+    private String storeLocation;
+
+    private Journal<Member> journal;
+
     @Inject
     public LocalMemberDaoImpl(@Named("codenvy.local.infrastructure.workspace.members") Set<Member> members,
                               WorkspaceDao workspaceDao,
                               UserDao userDao) {
         this.workspaceDao = workspaceDao;
         this.userDao = userDao;
-        this.members = new LinkedList<>();
+        this.members = new LinkedHashMap<>();
+        this.workspaceMembers = new HashMap<>();
+        this.userMembers = new HashMap<>();
         lock = new ReentrantReadWriteLock();
+        initialMembers = members;
+    }
+
+    @PostConstruct
+    private void start() {
+        // use write lock since we are init storage at this stage
+        lock.writeLock().lock();
         try {
-            for (Member member : members) {
-                create(member);
+            journal = storeLocation == null || storeLocation.isEmpty()
+                      ? null : new Journal<>(new File(storeLocation), "workspace_members", Member.class, members);
+            if (journal != null) {
+                journal.load();
+                for (Member member : members.values()) {
+                    index(member);
+                }
+            }
+            if (members.isEmpty()) {
+                for (Member member : initialMembers) {
+                    create(member);
+                }
             }
         } catch (Exception e) {
             // fail if can't validate this instance properly
             throw new RuntimeException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    private void stop() {
+        lock.writeLock().lock();
+        try {
+            if (journal != null) {
+                journal.close();
+            }
+        } finally {
+            lock.writeLock().unlock();
         }
     }
 
@@ -62,15 +118,18 @@ public class LocalMemberDaoImpl implements MemberDao {
             workspaceDao.getById(member.getWorkspaceId());
             // Check user existence
             userDao.getById(member.getUserId());
-            for (Member m : members) {
-                if (m.getWorkspaceId().equals(member.getWorkspaceId()) && m.getUserId().equals(member.getUserId())) {
-                    throw new ConflictException(
-                            String.format("Membership of user %s in workspace %s already exists. Use update method instead.",
-                                          member.getUserId(), member.getWorkspaceId()));
-                }
+            final String key = key(member.getWorkspaceId(), member.getUserId());
+            if (members.containsKey(key)) {
+                throw new ConflictException(
+                        String.format("Membership of user %s in workspace %s already exists. Use update method instead.",
+                                      member.getUserId(), member.getWorkspaceId()));
+            }
+            final Member myMember = doClone(member);
+            members.put(key, myMember);
+            index(myMember);
+            if (journal != null) {
+                journal.put(key, myMember);
             }
-            members.add(new Member().withUserId(member.getUserId()).withWorkspaceId(member.getWorkspaceId())
-                                    .withRoles(new ArrayList<>(member.getRoles())));
         } finally {
             lock.writeLock().unlock();
         }
@@ -84,19 +143,17 @@ public class LocalMemberDaoImpl implements MemberDao {
             workspaceDao.getById(member.getWorkspaceId());
             // Check user existence
             userDao.getById(member.getUserId());
-            Member myMember = null;
-            for (int i = 0, size = members.size(); i < size && myMember == null; i++) {
-                Member m = members.get(i);
-                if (m.getWorkspaceId().equals(member.getWorkspaceId()) && m.getUserId().equals(member.getUserId())) {
-                    myMember = m;
-                }
-            }
+            final String key = key(member.getWorkspaceId(), member.getUserId());
+            final Member myMember = members.get(key);
             if (myMember == null) {
                 throw new NotFoundException(String.format("Unable to update membership: user %s has no memberships in workspace %s.",
                                                           member.getUserId(), member.getWorkspaceId()));
             }
             myMember.getRoles().clear();
             myMember.getRoles().addAll(member.getRoles());
+            if (journal != null) {
+                journal.put(key, myMember);
+            }
         } finally {
             lock.writeLock().unlock();
         }
@@ -107,10 +164,10 @@ public class LocalMemberDaoImpl implements MemberDao {
         final List<Member> result = new LinkedList<>();
         lock.readLock().lock();
         try {
-            for (Member member : members) {
-                if (member.getWorkspaceId().equals(wsId)) {
-                    result.add(new Member().withUserId(member.getUserId()).withWorkspaceId(member.getWorkspaceId())
-                                           .withRoles(new ArrayList<>(member.getRoles())));
+            final Map<String, Member> wsMembers = workspaceMembers.get(wsId);
+            if (wsMembers != null) {
+                for (Member member : wsMembers.values()) {
+                    result.add(doClone(member));
                 }
             }
         } finally {
@@ -124,10 +181,10 @@ public class LocalMemberDaoImpl implements MemberDao {
         final List<Member> result = new LinkedList<>();
         lock.readLock().lock();
         try {
-            for (Member member : members) {
-                if (member.getUserId().equals(userId)) {
-                    result.add(new Member().withUserId(member.getUserId()).withWorkspaceId(member.getWorkspaceId())
-                                           .withRoles(new ArrayList<>(member.getRoles())));
+            final Map<String, Member> relationships = userMembers.get(userId);
+            if (relationships != null) {
+                for (Member member : relationships.values()) {
+                    result.add(doClone(member));
                 }
             }
         } finally {
@@ -140,11 +197,9 @@ public class LocalMemberDaoImpl implements MemberDao {
     public Member getWorkspaceMember(String wsId, String userId) throws NotFoundException, ServerException {
         lock.readLock().lock();
         try {
-            for (Member member : members) {
-                if (member.getWorkspaceId().equals(member.getWorkspaceId()) && member.getUserId().equals(userId)) {
-                    return new Member().withUserId(member.getUserId()).withWorkspaceId(member.getWorkspaceId())
-                                       .withRoles(new ArrayList<>(member.getRoles()));
-                }
+            final Member member = members.get(key(wsId, userId));
+            if (member != null) {
+                return doClone(member);
             }
         } finally {
             lock.readLock().unlock();
@@ -153,23 +208,54 @@ public class LocalMemberDaoImpl implements MemberDao {
     }
 
     @Override
-    public void remove(Member member) throws NotFoundException {
+    public void remove(Member member) throws NotFoundException, ServerException {
         lock.writeLock().lock();
         try {
-            Member myMember = null;
-            for (int i = 0, size = members.size(); i < size && myMember == null; i++) {
-                Member m = members.get(i);
-                if (m.getWorkspaceId().equals(member.getWorkspaceId()) && m.getUserId().equals(member.getUserId())) {
-                    myMember = m;
-                }
-            }
+            final String key = key(member.getWorkspaceId(), member.getUserId());
+            final Member myMember = members.remove(key);
             if (myMember == null) {
                 throw new NotFoundException(String.format("Unable to update membership: user %s has no memberships in workspace %s.",
                                                           member.getUserId(), member.getWorkspaceId()));
             }
-            members.remove(myMember);
+            unindex(workspaceMembers, myMember.getWorkspaceId(), myMember.getUserId());
+            unindex(userMembers, myMember.getUserId(), myMember.getWorkspaceId());
+            if (journal != null) {
+                journal.remove(key);
+            }
         } finally {
             lock.writeLock().unlock();
         }
     }
+
+    private void index(Member member) {
+        Map<String, Member> wsMembers = workspaceMembers.get(member.getWorkspaceId());
+        if (wsMembers == null) {
+            workspaceMembers.put(member.getWorkspaceId(), wsMembers = new LinkedHashMap<>());
+        }
+        wsMembers.put(member.getUserId(), member);
+        Map<String, Member> relationships = userMembers.get(member.getUserId());
+        if (relationships == null) {
+            userMembers.put(member.getUserId(), relationships = new LinkedHashMap<>());
+        }
+        relationships.put(member.getWorkspaceId(), member);
+    }
+
+    private void unindex(Map<String, Map<String, Member>> index, String key, String innerKey) {
+        final Map<String, Member> inner = index.get(key);
+        if (inner != null) {
+            inner.remove(innerKey);
+            if (inner.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    private String key(String wsId, String userId) {
+        return wsId + ' ' + userId;
+    }
+
+    private Member doClone(Member member) {
+        return new Member().withUserId(member.getUserId()).withWorkspaceId(member.getWorkspaceId())
+                           .withRoles(new ArrayList<>(member.getRoles()));
+    }
 }
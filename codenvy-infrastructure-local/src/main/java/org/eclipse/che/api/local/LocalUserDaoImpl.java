@@ -12,36 +12,87 @@ package org.eclipse.che.api.local;
 
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.NotFoundException;
+import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.user.server.dao.UserDao;
 import org.eclipse.che.api.user.server.dao.User;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
+import java.io.File;
 import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+/**
+ * Users are indexed by id and alias. If {@code codenvy.local.infrastructure.store_location} is set then users are persisted with
+ * {@link Journal} and initial set of users is used only if storage is empty.
+ */
 @Singleton
 public class LocalUserDaoImpl implements UserDao {
-    private final List<User>    users;
-    private final ReadWriteLock lock;
+    private final Map<String, User> users;
+    private final Map<String, User> aliases;
+    private final ReadWriteLock     lock;
+    private final Set<User>         initialUsers;
+
+    /** Directory for storing of users, users are kept in memory only if it isn't set. */
+    @com.google.inject.Inject(optional = true)
+    @Named("codenvy.local.infrastructure.store_location")
+    private String storeLocation;
+
+    private Journal<User> journal;
 
     @Inject
     public LocalUserDaoImpl(@Named("codenvy.local.infrastructure.users") Set<User> users) {
-        this.users = new LinkedList<>();
+        this.users = new LinkedHashMap<>();
+        this.aliases = new HashMap<>();
         lock = new ReentrantReadWriteLock();
+        initialUsers = users;
+    }
+
+    @PostConstruct
+    private void start() {
+        // use write lock since we are init storage at this stage
+        lock.writeLock().lock();
         try {
-            for (User user : users) {
-                create(user);
+            journal = storeLocation == null || storeLocation.isEmpty()
+                      ? null : new Journal<>(new File(storeLocation), "users", User.class, users);
+            if (journal != null) {
+                journal.load();
+                for (User user : users.values()) {
+                    for (String alias : user.getAliases()) {
+                        aliases.put(alias, user);
+                    }
+                }
+            }
+            if (users.isEmpty()) {
+                for (User user : initialUsers) {
+                    create(user);
+                }
             }
         } catch (Exception e) {
             // fail if can't validate this instance properly
             throw new RuntimeException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    private void stop() {
+        lock.writeLock().lock();
+        try {
+            if (journal != null) {
+                journal.close();
+            }
+        } finally {
+            lock.writeLock().unlock();
         }
     }
 
@@ -49,12 +100,7 @@ public class LocalUserDaoImpl implements UserDao {
     public boolean authenticate(String alias, String password) throws NotFoundException {
         lock.readLock().lock();
         try {
-            User myUser = null;
-            for (int i = 0, size = users.size(); i < size && myUser == null; i++) {
-                if (users.get(i).getAliases().contains(alias)) {
-                    myUser = users.get(i);
-                }
-            }
+            final User myUser = aliases.get(alias);
             if (myUser == null) {
                 throw new NotFoundException(String.format("User not found %s", alias));
             }
@@ -65,65 +111,80 @@ public class LocalUserDaoImpl implements UserDao {
     }
 
     @Override
-    public void create(User user) throws ConflictException {
+    public void create(User user) throws ConflictException, ServerException {
         lock.writeLock().lock();
         try {
             final String userId = user.getId();
-            final Set<String> aliases = new HashSet<>(user.getAliases());
-            for (User u : users) {
-                if (u.getId().equals(userId)) {
+            if (users.containsKey(userId)) {
+                throw new ConflictException(
+                        String.format("Unable create new user '%s'. User id %s is already in use.", user.getEmail(), userId));
+            }
+            for (String alias : user.getAliases()) {
+                if (aliases.containsKey(alias)) {
                     throw new ConflictException(
-                            String.format("Unable create new user '%s'. User id %s is already in use.", user.getEmail(), userId));
-                }
-                for (String alias : u.getAliases()) {
-                    if (aliases.contains(alias)) {
-                        throw new ConflictException(
-                                String.format("Unable create new user '%s'. User alias %s is already in use.", user.getEmail(), alias));
-                    }
+                            String.format("Unable create new user '%s'. User alias %s is already in use.", user.getEmail(), alias));
                 }
             }
-            users.add(doClone(user));
+            final User myUser = doClone(user);
+            users.put(userId, myUser);
+            for (String alias : myUser.getAliases()) {
+                aliases.put(alias, myUser);
+            }
+            if (journal != null) {
+                journal.put(userId, myUser);
+            }
         } finally {
             lock.writeLock().unlock();
         }
     }
 
     @Override
-    public void update(User user) throws NotFoundException {
+    public void update(User user) throws NotFoundException, ServerException, ConflictException {
         lock.writeLock().lock();
         try {
-            User myUser = null;
-            for (int i = 0, size = users.size(); i < size && myUser == null; i++) {
-                if (users.get(i).getId().equals(user.getId())) {
-                    myUser = users.get(i);
-                }
-            }
+            final User myUser = users.get(user.getId());
             if (myUser == null) {
                 throw new NotFoundException(String.format("User not found %s", user.getId()));
             }
+            for (String alias : user.getAliases()) {
+                final User aliasOwner = aliases.get(alias);
+                if (aliasOwner != null && aliasOwner != myUser) {
+                    throw new ConflictException(
+                            String.format("Unable update user '%s'. User alias %s is already in use.", user.getEmail(), alias));
+                }
+            }
+            for (String alias : myUser.getAliases()) {
+                aliases.remove(alias);
+            }
             myUser.getAliases().clear();
             myUser.getAliases().addAll(user.getAliases());
+            for (String alias : myUser.getAliases()) {
+                aliases.put(alias, myUser);
+            }
             myUser.setEmail(user.getEmail());
             myUser.setPassword(user.getPassword());
+            if (journal != null) {
+                journal.put(myUser.getId(), myUser);
+            }
         } finally {
             lock.writeLock().unlock();
         }
     }
 
     @Override
-    public void remove(String id) throws NotFoundException {
+    public void remove(String id) throws NotFoundException, ServerException {
         lock.writeLock().lock();
         try {
-            User myUser = null;
-            for (int i = 0, size = users.size(); i < size && myUser == null; i++) {
-                if (users.get(i).getId().equals(id)) {
-                    myUser = users.get(i);
-                }
-            }
+            final User myUser = users.remove(id);
             if (myUser == null) {
                 throw new NotFoundException(String.format("User not found %s", id));
             }
-            users.remove(myUser);
+            for (String alias : myUser.getAliases()) {
+                aliases.remove(alias);
+            }
+            if (journal != null) {
+                journal.remove(id);
+            }
         } finally {
             lock.writeLock().unlock();
         }
@@ -133,12 +194,7 @@ public class LocalUserDaoImpl implements UserDao {
     public User getByAlias(String alias) throws NotFoundException {
         lock.readLock().lock();
         try {
-            User user = null;
-            for (int i = 0, size = users.size(); i < size && user == null; i++) {
-                if (users.get(i).getAliases().contains(alias)) {
-                    user = users.get(i);
-                }
-            }
+            final User user = aliases.get(alias);
             if (user == null) {
                 throw new NotFoundException(String.format("User not found %s", alias));
             }
@@ -152,12 +208,7 @@ public class LocalUserDaoImpl implements UserDao {
     public User getById(String id) throws NotFoundException {
         lock.readLock().lock();
         try {
-            User user = null;
-            for (int i = 0, size = users.size(); i < size && user == null; i++) {
-                if (users.get(i).getId().equals(id)) {
-                    user = users.get(i);
-                }
-            }
+            final User user = users.get(id);
             if (user == null) {
                 throw new NotFoundException(String.format("User not found %s", id));
             }
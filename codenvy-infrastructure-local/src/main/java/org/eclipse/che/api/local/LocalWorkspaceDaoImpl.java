@@ -12,98 +12,162 @@ package org.eclipse.che.api.local;
 
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.NotFoundException;
+import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.workspace.server.dao.Workspace;
 import org.eclipse.che.api.workspace.server.dao.WorkspaceDao;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
+import java.io.File;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.regex.Pattern;
 
+/**
+ * Workspaces are indexed by id, name and account. If {@code codenvy.local.infrastructure.store_location} is set then workspaces are
+ * persisted with {@link Journal} and initial set of workspaces is used only if storage is empty.
+ */
 @Singleton
 public class LocalWorkspaceDaoImpl implements WorkspaceDao {
     private static final Pattern WS_NAME = Pattern.compile("[\\w][\\w\\.\\-]{1,18}[\\w]");
 
-    private final List<Workspace> workspaces;
-    private final ReadWriteLock   lock;
+    private final Map<String, Workspace>              workspaces;
+    private final Map<String, Workspace>              names;
+    /** Workspaces by account id, inner map is keyed by workspace id since hash code of workspace depends on its mutable fields. */
+    private final Map<String, Map<String, Workspace>> accounts;
+    private final ReadWriteLock                       lock;
+    private final Set<Workspace>                      initialWorkspaces;
+
+    /** Directory for storing of workspaces, workspaces are kept in memory only if it isn't set. */
+    @com.google.inject.Inject(optional = true)
+    @Named("codenvy.local.infrastructure.store_location")
+    private String storeLocation;
+
+    private Journal<Workspace> journal;
 
     @Inject
     public LocalWorkspaceDaoImpl(@Named("codenvy.local.infrastructure.workspaces") Set<Workspace> workspaces) {
-        this.workspaces = new LinkedList<>();
+        this.workspaces = new LinkedHashMap<>();
+        this.names = new HashMap<>();
+        this.accounts = new HashMap<>();
         lock = new ReentrantReadWriteLock();
+        initialWorkspaces = workspaces;
+    }
+
+    @PostConstruct
+    private void start() {
+        // use write lock since we are init storage at this stage
+        lock.writeLock().lock();
         try {
-            for (Workspace workspace : workspaces) {
-                create(workspace);
+            journal = storeLocation == null || storeLocation.isEmpty()
+                      ? null : new Journal<>(new File(storeLocation), "workspaces", Workspace.class, workspaces);
+            if (journal != null) {
+                journal.load();
+                for (Workspace workspace : workspaces.values()) {
+                    index(workspace);
+                }
+            }
+            if (workspaces.isEmpty()) {
+                for (Workspace workspace : initialWorkspaces) {
+                    create(workspace);
+                }
             }
         } catch (Exception e) {
             // fail if can't validate this instance properly
             throw new RuntimeException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    private void stop() {
+        lock.writeLock().lock();
+        try {
+            if (journal != null) {
+                journal.close();
+            }
+        } finally {
+            lock.writeLock().unlock();
         }
     }
 
     @Override
-    public void create(Workspace workspace) throws ConflictException {
+    public void create(Workspace workspace) throws ConflictException, ServerException {
         validateWorkspaceName(workspace.getName());
         lock.writeLock().lock();
         try {
-            for (Workspace w : workspaces) {
-                if (w.getId().equals(workspace.getId())) {
-                    throw new ConflictException(String.format("Workspace with id %s already exists.", workspace.getId()));
-                }
-                if (w.getName().equals(workspace.getName())) {
-                    throw new ConflictException(String.format("Workspace with name %s already exists.", workspace.getName()));
-                }
+            if (workspaces.containsKey(workspace.getId())) {
+                throw new ConflictException(String.format("Workspace with id %s already exists.", workspace.getId()));
+            }
+            if (names.containsKey(workspace.getName())) {
+                throw new ConflictException(String.format("Workspace with name %s already exists.", workspace.getName()));
+            }
+            final Workspace myWorkspace = doClone(workspace);
+            workspaces.put(myWorkspace.getId(), myWorkspace);
+            index(myWorkspace);
+            if (journal != null) {
+                journal.put(myWorkspace.getId(), myWorkspace);
             }
-            workspaces.add(new Workspace().withId(workspace.getId()).withName(workspace.getName()).withAccountId(workspace.getAccountId())
-                                          .withAttributes(new LinkedHashMap<>(workspace.getAttributes()))
-                                          .withTemporary(workspace.isTemporary()));
         } finally {
             lock.writeLock().unlock();
         }
     }
 
     @Override
-    public void update(Workspace workspace) throws NotFoundException, ConflictException {
+    public void update(Workspace workspace) throws NotFoundException, ConflictException, ServerException {
         validateWorkspaceName(workspace.getName());
         lock.writeLock().lock();
         try {
-            Workspace myWorkspace = null;
-            for (int i = 0, size = workspaces.size(); i < size && myWorkspace == null; i++) {
-                if (workspaces.get(i).getId().equals(workspace.getId())) {
-                    myWorkspace = workspaces.get(i);
-                }
-            }
+            final Workspace myWorkspace = workspaces.get(workspace.getId());
             if (myWorkspace == null) {
                 throw new NotFoundException(String.format("Workspace not found %s", workspace.getId()));
             }
+            if (names.get(myWorkspace.getName()) == myWorkspace) {
+                names.remove(myWorkspace.getName());
+            }
             myWorkspace.setName(workspace.getName());
+            names.put(myWorkspace.getName(), myWorkspace);
             myWorkspace.getAttributes().clear();
             myWorkspace.getAttributes().putAll(workspace.getAttributes());
+            if (journal != null) {
+                journal.put(myWorkspace.getId(), myWorkspace);
+            }
         } finally {
             lock.writeLock().unlock();
         }
     }
 
     @Override
-    public void remove(String id) throws NotFoundException {
+    public void remove(String id) throws NotFoundException, ServerException {
         lock.writeLock().lock();
         try {
-            Workspace myWorkspace = null;
-            for (int i = 0, size = workspaces.size(); i < size && myWorkspace == null; i++) {
-                if (workspaces.get(i).getId().equals(id)) {
-                    myWorkspace = workspaces.get(i);
-                }
-            }
+            final Workspace myWorkspace = workspaces.remove(id);
             if (myWorkspace == null) {
                 throw new NotFoundException(String.format("Workspace not found %s", id));
             }
-            workspaces.remove(myWorkspace);
+            if (names.get(myWorkspace.getName()) == myWorkspace) {
+                names.remove(myWorkspace.getName());
+            }
+            final Map<String, Workspace> accountWorkspaces = accounts.get(myWorkspace.getAccountId());
+            if (accountWorkspaces != null) {
+                accountWorkspaces.remove(id);
+                if (accountWorkspaces.isEmpty()) {
+                    accounts.remove(myWorkspace.getAccountId());
+                }
+            }
+            if (journal != null) {
+                journal.remove(id);
+            }
         } finally {
             lock.writeLock().unlock();
         }
@@ -113,12 +177,9 @@ public class LocalWorkspaceDaoImpl implements WorkspaceDao {
     public Workspace getById(String id) throws NotFoundException {
         lock.readLock().lock();
         try {
-            for (Workspace workspace : workspaces) {
-                if (workspace.getId().equals(id)) {
-                    return new Workspace().withId(workspace.getId()).withName(workspace.getName()).withAccountId(workspace.getAccountId())
-                                          .withAttributes(new LinkedHashMap<>(workspace.getAttributes()))
-                                          .withTemporary(workspace.isTemporary());
-                }
+            final Workspace workspace = workspaces.get(id);
+            if (workspace != null) {
+                return doClone(workspace);
             }
         } finally {
             lock.readLock().unlock();
@@ -130,12 +191,9 @@ public class LocalWorkspaceDaoImpl implements WorkspaceDao {
     public Workspace getByName(String name) throws NotFoundException {
         lock.readLock().lock();
         try {
-            for (Workspace workspace : workspaces) {
-                if (workspace.getName().equals(name)) {
-                    return new Workspace().withId(workspace.getId()).withName(workspace.getName()).withAccountId(workspace.getAccountId())
-                                          .withAttributes(new LinkedHashMap<>(workspace.getAttributes()))
-                                          .withTemporary(workspace.isTemporary());
-                }
+            final Workspace workspace = names.get(name);
+            if (workspace != null) {
+                return doClone(workspace);
             }
         } finally {
             lock.readLock().unlock();
@@ -148,12 +206,10 @@ public class LocalWorkspaceDaoImpl implements WorkspaceDao {
         final List<Workspace> result = new LinkedList<>();
         lock.readLock().lock();
         try {
-            for (Workspace workspace : workspaces) {
-                if (workspace.getAccountId().equals(accountId)) {
-                    result.add(new Workspace().withId(workspace.getId()).withName(workspace.getName())
-                                              .withAccountId(workspace.getAccountId())
-                                              .withAttributes(new LinkedHashMap<>(workspace.getAttributes()))
-                                              .withTemporary(workspace.isTemporary()));
+            final Map<String, Workspace> accountWorkspaces = accounts.get(accountId);
+            if (accountWorkspaces != null) {
+                for (Workspace workspace : accountWorkspaces.values()) {
+                    result.add(doClone(workspace));
                 }
             }
         } finally {
@@ -162,6 +218,22 @@ public class LocalWorkspaceDaoImpl implements WorkspaceDao {
         return result;
     }
 
+    /** Adds workspace to indexes by name and account. */
+    private void index(Workspace workspace) {
+        names.put(workspace.getName(), workspace);
+        Map<String, Workspace> accountWorkspaces = accounts.get(workspace.getAccountId());
+        if (accountWorkspaces == null) {
+            accounts.put(workspace.getAccountId(), accountWorkspaces = new LinkedHashMap<>());
+        }
+        accountWorkspaces.put(workspace.getId(), workspace);
+    }
+
+    private Workspace doClone(Workspace workspace) {
+        return new Workspace().withId(workspace.getId()).withName(workspace.getName()).withAccountId(workspace.getAccountId())
+                              .withAttributes(new LinkedHashMap<>(workspace.getAttributes()))
+                              .withTemporary(workspace.isTemporary());
+    }
+
     private void validateWorkspaceName(String workspaceName) throws ConflictException {
         if (workspaceName == null) {
             throw new ConflictException("Workspace name required");
@@ -170,4 +242,4 @@ public class LocalWorkspaceDaoImpl implements WorkspaceDao {
             throw new ConflictException("Incorrect workspace name");
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,168 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.local;
+
+import org.eclipse.che.commons.lang.IoUtil;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/** @author andrew00x */
+public class JournalTest {
+    private File directory;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("journal").toFile();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        IoUtil.deleteRecursive(directory);
+    }
+
+    @Test
+    public void testReplayAfterRestart() throws Exception {
+        Map<String, Entity> state = new LinkedHashMap<>();
+        Journal<Entity> journal = open(state);
+        put(journal, state, new Entity("a", 1));
+        put(journal, state, new Entity("b", 2));
+        put(journal, state, new Entity("a", 3));
+        remove(journal, state, "b");
+        put(journal, state, new Entity("c", 4));
+        // Not closed, as after crash, so state is restored from journal only.
+        Assert.assertFalse(new File(directory, "entities.snapshot").exists());
+
+        Map<String, Entity> restored = new LinkedHashMap<>();
+        open(restored);
+        Assert.assertEquals(restored, state);
+        Assert.assertEquals(restored.get("a").count, 3);
+        Assert.assertFalse(restored.containsKey("b"));
+    }
+
+    @Test
+    public void testTruncatedLastLine() throws Exception {
+        Map<String, Entity> state = new LinkedHashMap<>();
+        Journal<Entity> journal = open(state);
+        put(journal, state, new Entity("a", 1));
+        put(journal, state, new Entity("b", 2));
+        // Last record is written partially, e.g. process is killed while writing.
+        try (OutputStream out = new FileOutputStream(new File(directory, "entities.journal"), true)) {
+            out.write("{\"key\":\"c\",\"value\":{\"na".getBytes(Charset.forName("UTF-8")));
+        }
+
+        Map<String, Entity> restored = new LinkedHashMap<>();
+        journal = open(restored);
+        Assert.assertEquals(restored, state);
+        // Broken tail is dropped with new snapshot, records appended after it are not lost.
+        put(journal, restored, new Entity("d", 4));
+
+        Map<String, Entity> restoredAgain = new LinkedHashMap<>();
+        open(restoredAgain);
+        Assert.assertEquals(restoredAgain, restored);
+        Assert.assertEquals(restoredAgain.get("d").count, 4);
+    }
+
+    @Test
+    public void testSnapshotAndJournal() throws Exception {
+        Map<String, Entity> state = new LinkedHashMap<>();
+        Journal<Entity> journal = open(state);
+        put(journal, state, new Entity("a", 1));
+        put(journal, state, new Entity("b", 2));
+        journal.close();
+        Assert.assertTrue(new File(directory, "entities.snapshot").exists());
+        Assert.assertEquals(readLines("entities.journal").size(), 0);
+
+        Map<String, Entity> restored = new LinkedHashMap<>();
+        journal = open(restored);
+        Assert.assertEquals(restored, state);
+        remove(journal, restored, "a");
+        put(journal, restored, new Entity("c", 3));
+        Assert.assertEquals(readLines("entities.journal").size(), 2);
+
+        Map<String, Entity> restoredAgain = new LinkedHashMap<>();
+        open(restoredAgain);
+        Assert.assertEquals(restoredAgain, restored);
+        Assert.assertFalse(restoredAgain.containsKey("a"));
+    }
+
+    @Test
+    public void testSnapshotWhenJournalGetsBig() throws Exception {
+        Map<String, Entity> state = new LinkedHashMap<>();
+        Journal<Entity> journal = open(state);
+        for (int i = 0; i < 1001; i++) {
+            put(journal, state, new Entity("e" + (i % 10), i));
+        }
+        Assert.assertTrue(new File(directory, "entities.snapshot").exists());
+        Assert.assertEquals(readLines("entities.journal").size(), 1);
+
+        Map<String, Entity> restored = new LinkedHashMap<>();
+        open(restored);
+        Assert.assertEquals(restored, state);
+    }
+
+    private Journal<Entity> open(Map<String, Entity> state) throws Exception {
+        final Journal<Entity> journal = new Journal<>(directory, "entities", Entity.class, state);
+        journal.load();
+        return journal;
+    }
+
+    private void put(Journal<Entity> journal, Map<String, Entity> state, Entity entity) throws Exception {
+        state.put(entity.name, entity);
+        journal.put(entity.name, entity);
+    }
+
+    private void remove(Journal<Entity> journal, Map<String, Entity> state, String name) throws Exception {
+        state.remove(name);
+        journal.remove(name);
+    }
+
+    private List<String> readLines(String name) throws Exception {
+        return Files.readAllLines(new File(directory, name).toPath(), Charset.forName("UTF-8"));
+    }
+
+    static class Entity {
+        String name;
+        int    count;
+
+        Entity(String name, int count) {
+            this.name = name;
+            this.count = count;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Entity)) {
+                return false;
+            }
+            final Entity other = (Entity)o;
+            return count == other.count && name.equals(other.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * name.hashCode() + count;
+        }
+    }
+}